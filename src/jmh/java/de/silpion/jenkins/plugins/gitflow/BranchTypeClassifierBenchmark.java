@@ -0,0 +1,51 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the classification of branch names, which backs {@link GitflowBuildWrapper.DescriptorImpl#getBranchType(String)}
+ * and is executed for every branch on every update of the Gitflow state. The descriptor itself needs a running Jenkins,
+ * so the benchmark uses the {@link BranchTypeClassifier} that the descriptor delegates to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BranchTypeClassifierBenchmark {
+
+    @Param({ "develop", "release/1.2", "hotfix/1.2.3", "feature/JIRA-123-new-dashboard", "unknown/branch" })
+    private String branchName;
+
+    private BranchTypeClassifier branchTypeClassifier;
+
+    @Setup
+    public void setUp() {
+        this.branchTypeClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+    }
+
+    @Benchmark
+    public String classify() {
+        return this.branchTypeClassifier.classify(this.branchName);
+    }
+
+    @Benchmark
+    public BranchTypeClassifier compileAndClassify() {
+        final BranchTypeClassifier compiledBranchTypeClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+        compiledBranchTypeClassifier.classify(this.branchName);
+        return compiledBranchTypeClassifier;
+    }
+}
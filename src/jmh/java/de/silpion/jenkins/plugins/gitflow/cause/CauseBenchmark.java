@@ -0,0 +1,77 @@
+package de.silpion.jenkins.plugins.gitflow.cause;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of the causes with the proposed versions. The Gitflow page creates them for every branch
+ * on every rendering, so their version calculations add up for jobs with many release and hotfix branches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CauseBenchmark {
+
+    private BranchTypeClassifier branchTypeClassifier;
+
+    private RemoteBranch masterBranch;
+    private RemoteBranch developBranch;
+    private RemoteBranch releaseBranch;
+    private RemoteBranch hotfixBranch;
+
+    @Setup
+    public void setUp() {
+        this.branchTypeClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+        this.masterBranch = new RemoteBranch("master");
+        this.masterBranch.setLastBuildVersion("1.1.2");
+        this.masterBranch.setLastReleaseVersion("1.1.2");
+        this.developBranch = new RemoteBranch("develop");
+        this.developBranch.setLastBuildVersion("1.2.0-SNAPSHOT");
+        this.releaseBranch = new RemoteBranch("release/1.1");
+        this.releaseBranch.setLastBuildVersion("1.1.3-SNAPSHOT");
+        this.releaseBranch.setLastReleaseVersion("1.1.2");
+        this.hotfixBranch = new RemoteBranch("hotfix/1.1");
+        this.hotfixBranch.setLastBuildVersion("1.1.3-SNAPSHOT");
+    }
+
+    @Benchmark
+    public StartReleaseCause startReleaseCause() {
+        return new StartReleaseCause(this.developBranch, this.branchTypeClassifier);
+    }
+
+    @Benchmark
+    public TestReleaseCause testReleaseCause() {
+        return new TestReleaseCause(this.releaseBranch, this.branchTypeClassifier);
+    }
+
+    @Benchmark
+    public PublishReleaseCause publishReleaseCause() {
+        return new PublishReleaseCause(this.releaseBranch, this.branchTypeClassifier);
+    }
+
+    @Benchmark
+    public StartHotfixCause startHotfixCause() {
+        return new StartHotfixCause(this.masterBranch, this.branchTypeClassifier);
+    }
+
+    @Benchmark
+    public TestHotfixCause testHotfixCause() {
+        return new TestHotfixCause(this.hotfixBranch, this.branchTypeClassifier);
+    }
+}
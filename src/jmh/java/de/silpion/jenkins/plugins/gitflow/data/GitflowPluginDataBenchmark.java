@@ -0,0 +1,119 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import hudson.model.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the branch lookups and updates of the {@link GitflowPluginData}, which are executed several times by each
+ * Gitflow action and by each rendering of the Gitflow page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GitflowPluginDataBenchmark {
+
+    private static final Result[] RESULTS = { Result.SUCCESS, Result.SUCCESS, Result.SUCCESS, Result.UNSTABLE, Result.FAILURE };
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int numberOfBranches;
+
+    private GitflowPluginData gitflowPluginData;
+
+    private String existingBranchName;
+    private Collection<RemoteBranch> removeRemoteBranches;
+
+    // A fresh copy for the benchmarks that modify the data.
+    private GitflowPluginData modifiableGitflowPluginData;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        final Random random = new Random(42L);
+
+        final List<RemoteBranch> remoteBranches = new ArrayList<RemoteBranch>(this.numberOfBranches);
+        remoteBranches.add(createRemoteBranch("master", Result.SUCCESS, "1.0"));
+        remoteBranches.add(createRemoteBranch("develop", Result.SUCCESS, "1.1-SNAPSHOT"));
+        for (int i = remoteBranches.size(); i < this.numberOfBranches; i++) {
+            final String branchName = (i % 3 == 0 ? "release/" : (i % 3 == 1 ? "hotfix/" : "feature/")) + i / 100 + "." + i % 100;
+            remoteBranches.add(createRemoteBranch(branchName, RESULTS[random.nextInt(RESULTS.length)], i / 100 + "." + i % 100 + ".0-SNAPSHOT"));
+        }
+
+        this.gitflowPluginData = new GitflowPluginData();
+        this.gitflowPluginData.setRemoteBranches(remoteBranches);
+
+        // Look up a branch in the middle and remove a few branches spread over the list.
+        this.existingBranchName = remoteBranches.get(remoteBranches.size() / 2).getBranchName();
+        this.removeRemoteBranches = new ArrayList<RemoteBranch>();
+        for (int i = 0; i < remoteBranches.size(); i += Math.max(1, remoteBranches.size() / 5)) {
+            this.removeRemoteBranches.add(new RemoteBranch(remoteBranches.get(i).getBranchName()));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws CloneNotSupportedException {
+        this.modifiableGitflowPluginData = this.gitflowPluginData.clone();
+    }
+
+    private static RemoteBranch createRemoteBranch(final String branchName, final Result lastBuildResult, final String lastBuildVersion) {
+        final RemoteBranch remoteBranch = new RemoteBranch(branchName);
+        remoteBranch.setLastBuildResult(lastBuildResult);
+        remoteBranch.setLastBuildVersion(lastBuildVersion);
+        return remoteBranch;
+    }
+
+    @Benchmark
+    public RemoteBranch getRemoteBranch() {
+        return this.gitflowPluginData.getRemoteBranch(this.existingBranchName);
+    }
+
+    @Benchmark
+    public RemoteBranch getRemoteBranchMissing() {
+        return this.gitflowPluginData.getRemoteBranch("release/missing");
+    }
+
+    @Benchmark
+    public RemoteBranch getOrAddExistingRemoteBranch() {
+        return this.gitflowPluginData.getOrAddRemoteBranch(this.existingBranchName);
+    }
+
+    @Benchmark
+    public RemoteBranch getOrAddNewRemoteBranch() {
+        return this.modifiableGitflowPluginData.getOrAddRemoteBranch("release/new");
+    }
+
+    @Benchmark
+    public GitflowPluginData removeRemoteBranches() {
+        this.modifiableGitflowPluginData.removeRemoteBranches(this.removeRemoteBranches, true);
+        return this.modifiableGitflowPluginData;
+    }
+
+    @Benchmark
+    public Map<Result, Collection<RemoteBranch>> getUnstableRemoteBranchesGroupedByResult() {
+        return this.gitflowPluginData.getUnstableRemoteBranchesGroupedByResult();
+    }
+
+    @Benchmark
+    public GitflowPluginData cloneGitflowPluginData() throws CloneNotSupportedException {
+        return this.gitflowPluginData.clone();
+    }
+}
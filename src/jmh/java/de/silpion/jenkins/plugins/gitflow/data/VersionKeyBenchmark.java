@@ -0,0 +1,129 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import org.apache.commons.lang.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ordering of branch versions using precompiled {@link VersionKey VersionKeys} with the string comparator
+ * that was used by the {@link de.silpion.jenkins.plugins.gitflow.GitflowProjectAction} before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionKeyBenchmark {
+
+    /** The string comparator formerly used for the cause groups of the Gitflow project action. */
+    private static final Comparator<String> LEGACY_VERSION_NUMBER_COMPARATOR = new Comparator<String>() {
+
+        /** {@inheritDoc} */
+        public int compare(final String versionNumber1, final String versionNumber2) {
+            int result = 0;
+
+            final String[] versionNumberTokens1 = StringUtils.split(versionNumber1, ".");
+            final String[] versionNumberTokens2 = StringUtils.split(versionNumber2, ".");
+
+            for (int i = 0; i < Math.min(versionNumberTokens1.length, versionNumberTokens2.length); i++) {
+                result = Integer.compare(Integer.parseInt(versionNumberTokens1[i]), Integer.parseInt(versionNumberTokens2[i]));
+                if (result != 0) {
+                    break;
+                }
+            }
+
+            if (result == 0) {
+                result = Integer.compare(versionNumberTokens1.length, versionNumberTokens2.length);
+            }
+
+            return result;
+        }
+    };
+
+    @Param({ "1000", "10000" })
+    private int numberOfBranches;
+
+    private String[] versions;
+    private VersionKey[] versionKeys;
+
+    private String[] sortVersions;
+    private VersionKey[] sortVersionKeys;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        final Random random = new Random(42L);
+
+        // Only numeric versions, because the legacy comparator cannot handle qualifiers.
+        this.versions = new String[this.numberOfBranches];
+        this.versionKeys = new VersionKey[this.numberOfBranches];
+        for (int i = 0; i < this.numberOfBranches; i++) {
+            final String version = random.nextInt(20) + "." + random.nextInt(100) + (random.nextBoolean() ? "" : "." + random.nextInt(50));
+            this.versions[i] = version;
+            this.versionKeys[i] = VersionKey.parse(version);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.sortVersions = this.versions.clone();
+        this.sortVersionKeys = this.versionKeys.clone();
+    }
+
+    @Benchmark
+    public String[] sortWithLegacyComparator() {
+        Arrays.sort(this.sortVersions, LEGACY_VERSION_NUMBER_COMPARATOR);
+        return this.sortVersions;
+    }
+
+    @Benchmark
+    public VersionKey[] sortPrecompiledVersionKeys() {
+        Arrays.sort(this.sortVersionKeys);
+        return this.sortVersionKeys;
+    }
+
+    @Benchmark
+    public VersionKey[] parseAndSortVersionKeys() {
+        final VersionKey[] parsedVersionKeys = new VersionKey[this.versions.length];
+        for (int i = 0; i < this.versions.length; i++) {
+            parsedVersionKeys[i] = VersionKey.parse(this.versions[i]);
+        }
+        Arrays.sort(parsedVersionKeys);
+        return parsedVersionKeys;
+    }
+
+    @Benchmark
+    public Map<String, String> fillTreeMapWithLegacyComparator() {
+        final Map<String, String> versionMap = new TreeMap<String, String>(LEGACY_VERSION_NUMBER_COMPARATOR);
+        for (final String version : this.versions) {
+            versionMap.put(version, version);
+        }
+        return versionMap;
+    }
+
+    @Benchmark
+    public Map<VersionKey, String> fillTreeMapWithVersionKeys() {
+        final Map<VersionKey, String> versionMap = new TreeMap<VersionKey, String>();
+        for (final String version : this.versions) {
+            versionMap.put(VersionKey.parse(version), version);
+        }
+        return versionMap;
+    }
+}
@@ -0,0 +1,171 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.GenericMergeCommand.StrategyOption;
+import hudson.EnvVars;
+import hudson.util.NullStream;
+import hudson.util.StreamTaskListener;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.jenkinsci.plugins.gitclient.Git;
+import org.jenkinsci.plugins.gitclient.GitClient;
+import org.jenkinsci.plugins.gitclient.MergeCommand.Strategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link GitClientProxy} operations that the Gitflow actions use, for the command line Git ({@code git})
+ * and for JGit ({@code jgit}), against local {@link SyntheticRepository synthetic repositories}. No network is involved,
+ * so the differences between the implementations and the scaling with the repository size show up undisturbed.
+ * <p>
+ * The repositories are generated once into {@code target/benchmark-repositories} (or the directory given by the system
+ * property {@code gitflow.benchmark.dir}) and reused by later runs. Larger repositories can be selected with JMH
+ * parameters, e.g. {@code -p commitDepth=50000 -p refCount=100000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitClientProxyBenchmark {
+
+    private static final String ORIGIN = "origin";
+
+    @Param({ "git", "jgit" })
+    private String implementation;
+
+    @Param({ "100", "2000" })
+    private int commitDepth;
+
+    @Param({ "100", "2000" })
+    private int fileCount;
+
+    @Param({ "10", "2000" })
+    private int refCount;
+
+    private File workspace;
+    private GitClientProxy git;
+
+    private ObjectId firstCommit;
+    private ObjectId developHead;
+
+    private boolean onDevelop;
+    private boolean pushDevelop;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException, InterruptedException {
+        final File baseDir = new File(System.getProperty("gitflow.benchmark.dir", "target/benchmark-repositories"));
+        final File remoteRepository = SyntheticRepository.getOrCreate(baseDir, this.commitDepth, this.fileCount, this.refCount);
+
+        // Each trial pushes to its own copy of the remote repository, so the generated repository isn't changed.
+        final File remoteCopy = new File(baseDir, "remote-" + this.implementation);
+        FileUtils.deleteDirectory(remoteCopy);
+        FileUtils.copyDirectory(remoteRepository, remoteCopy);
+
+        this.workspace = new File(baseDir, "workspace-" + this.implementation);
+        FileUtils.deleteDirectory(this.workspace);
+        FileUtils.forceMkdir(this.workspace);
+
+        // Set up the workspace like the Git plugin does for a build.
+        final StreamTaskListener listener = new StreamTaskListener(new NullStream());
+        final GitClient gitClient = Git.with(listener, new EnvVars()).in(this.workspace).using(this.implementation).getClient();
+        final String remoteUrl = remoteCopy.getAbsoluteFile().toURI().toString();
+        gitClient.init();
+        gitClient.setRemoteUrl(ORIGIN, remoteUrl);
+        final List<RefSpec> refSpecs = Collections.singletonList(new RefSpec("+refs/heads/*:refs/remotes/origin/*"));
+        gitClient.fetch_().from(new URIish(remoteUrl), refSpecs).execute();
+        gitClient.checkoutBranch("master", "origin/master");
+        gitClient.branch("bench-master");
+        gitClient.checkoutBranch("bench-develop", "origin/develop");
+        gitClient.checkoutBranch("master", "origin/master");
+
+        this.git = new GitClientProxy(gitClient, new PrintStream(new NullStream()), false);
+        this.git.setGitflowActionName("Benchmark");
+
+        this.developHead = this.git.revParse("origin/develop");
+        this.firstCommit = this.git.revParse("origin/master~" + (this.commitDepth - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        FileUtils.deleteDirectory(this.workspace);
+    }
+
+    @Benchmark
+    public ObjectId getHeadRev() throws InterruptedException {
+        return this.git.getHeadRev("develop");
+    }
+
+    @Benchmark
+    public List<String> getRemoteBranchNamesContaining() throws InterruptedException {
+        return this.git.getRemoteBranchNamesContaining(this.firstCommit.getName());
+    }
+
+    @Benchmark
+    public void checkoutBranch() throws InterruptedException {
+        this.onDevelop = !this.onDevelop;
+        this.git.checkoutBranch(this.onDevelop ? "develop" : "master", this.onDevelop ? "origin/develop" : "origin/master");
+    }
+
+    @Benchmark
+    public void merge(final MergeTarget mergeTarget) throws InterruptedException {
+        this.git.merge(this.developHead, FastForwardMode.NO_FF, Strategy.RECURSIVE, StrategyOption.THEIRS, true);
+    }
+
+    @Benchmark
+    public void push() throws InterruptedException {
+        this.pushDevelop = !this.pushDevelop;
+        this.git.push(ORIGIN, "+refs/heads/" + (this.pushDevelop ? "bench-develop" : "bench-master") + ":refs/heads/bench-push");
+    }
+
+    @Benchmark
+    public void clean(final DirtyWorkspace dirtyWorkspace) throws InterruptedException {
+        this.git.clean();
+    }
+
+    /**
+     * Resets the branch that {@code develop} is merged into before each merge.
+     */
+    @State(Scope.Thread)
+    public static class MergeTarget {
+
+        @Setup(Level.Invocation)
+        public void setUp(final GitClientProxyBenchmark benchmark) throws InterruptedException {
+            benchmark.git.checkoutBranch("bench-merge", "origin/master");
+        }
+    }
+
+    /**
+     * Modifies a tracked file and adds an untracked file before each clean.
+     */
+    @State(Scope.Thread)
+    public static class DirtyWorkspace {
+
+        @Setup(Level.Invocation)
+        public void setUp(final GitClientProxyBenchmark benchmark) throws IOException {
+            FileUtils.writeStringToFile(new File(benchmark.workspace, "file-000000.txt"), "modified\n");
+            FileUtils.writeStringToFile(new File(benchmark.workspace, "untracked.txt"), "untracked\n");
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.GenericMergeCommand.StrategyOption;
+import hudson.EnvVars;
+import hudson.util.NullStream;
+import hudson.util.StreamTaskListener;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.jenkinsci.plugins.gitclient.Git;
+import org.jenkinsci.plugins.gitclient.GitClient;
+import org.jenkinsci.plugins.gitclient.MergeCommand.Strategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a {@link GitOperationTrace} that has been recorded by a production build (see
+ * {@code de.silpion.jenkins.plugins.gitflow.GitflowGitTraceAction}) against a {@link SyntheticRepository synthetic
+ * repository} with the number of commits and refs of the recorded repository. Each benchmark invocation replays the
+ * whole trace on a fresh copy of the remote repository and a fresh workspace, and the recorded and the replayed time of
+ * each operation are compared at the end of the trial. This way, a slow production build can be reproduced and profiled
+ * offline, and the effect of a change on it can be measured, e.g.
+ * {@code -p trace=gitflow-git-trace.txt -p implementation=jgit}.
+ * <p>
+ * The trace is anonymised, so the replay has to make some assumptions: the branches that are read from the remote are
+ * created at the head of {@code develop}, the recorded commit IDs are replayed as the head of {@code develop}, pushes are
+ * forced (the synthetic history differs from the recorded one) and the files that are changed are replaced with a file of
+ * the synthetic repository. The number of files isn't recorded, so it's a parameter of the replay. Operations that fail
+ * on the synthetic repository are counted and skipped rather than aborting the replay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GitTraceReplayBenchmark {
+
+    private static final String ORIGIN = "origin";
+    private static final String ORIGIN_PREFIX = ORIGIN + "/";
+    private static final int DEFAULT_COMMIT_DEPTH = 1000;
+
+    // The aliases of anonymised commit IDs (see GitOperationTrace).
+    private static final Pattern COMMIT_ALIAS_PATTERN = Pattern.compile("c\\d+");
+
+    /** The trace file to be replayed. */
+    @Param({ "" })
+    private String trace;
+
+    /** The Git implementation for the replay ({@code git} or {@code jgit}) - empty for the recorded one. */
+    @Param({ "" })
+    private String implementation;
+
+    @Param({ "1000" })
+    private int fileCount;
+
+    private GitOperationTrace gitOperationTrace;
+    private File baseDir;
+    private File remoteRepository;
+    private String replayImplementation;
+
+    private File remoteCopy;
+    private File workspace;
+    private GitClientProxy git;
+    private ObjectId developHead;
+
+    private final Map<String, long[]> replayedMicros = new TreeMap<String, long[]>();
+    private int replayCount;
+    private int failureCount;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        if (StringUtils.isBlank(this.trace)) {
+            throw new IllegalArgumentException("The trace file to be replayed must be set with -p trace=<file>");
+        }
+        final Reader reader = new InputStreamReader(new FileInputStream(this.trace), "UTF-8");
+        try {
+            this.gitOperationTrace = GitOperationTrace.read(reader);
+        } finally {
+            reader.close();
+        }
+
+        // The command line Git is called "cli" in the trace, but "git" by the Git client plugin.
+        final String recordedImplementation = "jgit".equals(this.gitOperationTrace.getImplementation()) ? "jgit" : "git";
+        this.replayImplementation = StringUtils.defaultIfBlank(this.implementation, recordedImplementation);
+
+        // The synthetic repository has a master and a develop branch in addition to the generated refs.
+        final int commitDepth = this.gitOperationTrace.getCommitCount() > 0 ? this.gitOperationTrace.getCommitCount() : DEFAULT_COMMIT_DEPTH;
+        final int refCount = Math.max(this.gitOperationTrace.getRefCount() - 2, 0);
+        this.baseDir = new File(System.getProperty("gitflow.benchmark.dir", "target/benchmark-repositories"));
+        this.remoteRepository = SyntheticRepository.getOrCreate(this.baseDir, commitDepth, this.fileCount, refCount);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() throws IOException, InterruptedException {
+
+        // Each replay pushes to its own copy of the remote repository, so the generated repository isn't changed.
+        this.remoteCopy = new File(this.baseDir, "replay-remote-" + this.replayImplementation);
+        FileUtils.deleteDirectory(this.remoteCopy);
+        FileUtils.copyDirectory(this.remoteRepository, this.remoteCopy);
+        this.createTracedBranches();
+
+        this.workspace = new File(this.baseDir, "replay-workspace-" + this.replayImplementation);
+        FileUtils.deleteDirectory(this.workspace);
+        FileUtils.forceMkdir(this.workspace);
+
+        // Set up the workspace like the Git plugin does for a build.
+        final StreamTaskListener listener = new StreamTaskListener(new NullStream());
+        final GitClient gitClient = Git.with(listener, new EnvVars()).in(this.workspace).using(this.replayImplementation).getClient();
+        final String remoteUrl = this.remoteCopy.getAbsoluteFile().toURI().toString();
+        gitClient.init();
+        gitClient.setRemoteUrl(ORIGIN, remoteUrl);
+        final List<RefSpec> refSpecs = Collections.singletonList(new RefSpec("+refs/heads/*:refs/remotes/origin/*"));
+        gitClient.fetch_().from(new URIish(remoteUrl), refSpecs).execute();
+        gitClient.checkoutBranch("develop", "origin/develop");
+
+        this.git = new GitClientProxy(gitClient, new PrintStream(new NullStream()), false);
+        this.git.setGitflowActionName("Replay");
+        this.developHead = this.git.revParse("origin/develop");
+    }
+
+    // The branches that the trace reads from the remote must exist there.
+    private void createTracedBranches() throws IOException {
+        final Set<String> branches = new TreeSet<String>();
+        for (final GitOperationTrace.Operation operation : this.gitOperationTrace.getOperations()) {
+            final List<String> arguments = operation.getArguments();
+            if ("getHeadRev".equals(operation.getName()) || "fetch".equals(operation.getName()) || "prefetchBranches".equals(operation.getName())) {
+                branches.addAll(arguments);
+            } else if ("checkoutBranch".equals(operation.getName()) && arguments.size() == 2 && arguments.get(1).startsWith(ORIGIN_PREFIX)) {
+                branches.add(StringUtils.removeStart(arguments.get(1), ORIGIN_PREFIX));
+            }
+        }
+
+        final Repository repository = new FileRepositoryBuilder().setGitDir(this.remoteCopy).setBare().build();
+        try {
+            final ObjectId head = repository.resolve(Constants.R_HEADS + "develop");
+            for (final String branch : branches) {
+                if (repository.resolve(Constants.R_HEADS + branch) == null) {
+                    final RefUpdate refUpdate = repository.updateRef(Constants.R_HEADS + branch);
+                    refUpdate.setNewObjectId(head);
+                    refUpdate.forceUpdate();
+                }
+            }
+        } finally {
+            repository.close();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        FileUtils.deleteDirectory(this.workspace);
+        FileUtils.deleteDirectory(this.remoteCopy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        final Map<String, long[]> recordedMicros = new TreeMap<String, long[]>();
+        for (final GitOperationTrace.Operation operation : this.gitOperationTrace.getOperations()) {
+            addMicros(recordedMicros, operation.getName(), operation.getDurationMicros());
+        }
+
+        System.out.println();
+        System.out.println(String.format(Locale.ENGLISH, "Replayed %d operations %d times with %s (recorded with %s), %d operations failed",
+                                         this.gitOperationTrace.getOperations().size(), this.replayCount, this.replayImplementation,
+                                         this.gitOperationTrace.getImplementation(), this.failureCount));
+        System.out.println(String.format(Locale.ENGLISH, "%-24s %6s %14s %14s", "operation", "count", "recorded [ms]", "replayed [ms]"));
+        for (final Map.Entry<String, long[]> recorded : recordedMicros.entrySet()) {
+            final long[] replayed = this.replayedMicros.get(recorded.getKey());
+            final double replayedMillis = replayed == null || this.replayCount == 0 ? 0.0 : replayed[1] / 1000.0 / this.replayCount;
+            System.out.println(String.format(Locale.ENGLISH, "%-24s %6d %14.1f %14.1f", recorded.getKey(), recorded.getValue()[0],
+                                             recorded.getValue()[1] / 1000.0, replayedMillis));
+        }
+    }
+
+    @Benchmark
+    public int replay() throws IOException {
+        int failures = 0;
+        for (final GitOperationTrace.Operation operation : this.gitOperationTrace.getOperations()) {
+            final long startNanos = System.nanoTime();
+            try {
+                this.replay(operation);
+            } catch (final RuntimeException re) {
+                failures++;
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Replay has been interrupted", ie);
+            }
+            addMicros(this.replayedMicros, operation.getName(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        }
+        this.replayCount++;
+        this.failureCount += failures;
+        return failures;
+    }
+
+    private void replay(final GitOperationTrace.Operation operation) throws IOException, InterruptedException {
+        final String name = operation.getName();
+        final List<String> arguments = operation.getArguments();
+        if ("add".equals(name)) {
+            FileUtils.writeStringToFile(new File(this.workspace, "file-000000.txt"), "replayed " + System.nanoTime() + "\n", "UTF-8");
+            this.git.add("file-000000.txt");
+        } else if ("commit".equals(name)) {
+            this.git.commit("Replayed commit");
+        } else if ("checkoutBranch".equals(name)) {
+            this.git.checkoutBranch(arguments.get(0), this.resolve(arguments.get(1)));
+        } else if ("push".equals(name) || "pushVersionBump".equals(name)) {
+            final String refspec = arguments.get(0);
+            this.git.push(ORIGIN, refspec.startsWith("+") || refspec.startsWith(":") ? refspec : "+" + refspec);
+        } else if ("fetch".equals(name) || "prefetchBranches".equals(name)) {
+            this.git.prefetchBranches(ORIGIN, arguments);
+        } else if ("merge".equals(name)) {
+            this.git.merge(this.developHead, FastForwardMode.valueOf(arguments.get(1)), Strategy.valueOf(arguments.get(2)),
+                           StrategyOption.valueOf(arguments.get(3)), Boolean.parseBoolean(arguments.get(4)));
+        } else if ("clean".equals(name)) {
+            this.git.clean();
+        } else if ("deleteBranch".equals(name)) {
+            this.git.deleteBranch(arguments.get(0));
+        } else if ("getBranches".equals(name)) {
+            this.git.getBranches();
+        } else if ("tag".equals(name)) {
+            this.git.tag(arguments.get(0), "Replayed tag");
+        } else if ("getHeadRev".equals(name)) {
+            this.git.getHeadRev(arguments.get(0));
+        } else if ("revParse".equals(name)) {
+            this.git.revParse(this.resolve(arguments.get(0)));
+        } else if ("getBranchesContaining".equals(name)) {
+            this.git.getRemoteBranchNamesContaining(this.resolve(arguments.get(0)));
+        } else {
+            throw new IllegalArgumentException("Unknown Git operation in trace: " + name);
+        }
+    }
+
+    private String resolve(final String revision) {
+        return COMMIT_ALIAS_PATTERN.matcher(revision).matches() ? this.developHead.getName() : revision;
+    }
+
+    private static void addMicros(final Map<String, long[]> micros, final String operation, final long durationMicros) {
+        long[] countAndTotal = micros.get(operation);
+        if (countAndTotal == null) {
+            countAndTotal = new long[2];
+            micros.put(operation, countAndTotal);
+        }
+        countAndTotal[0]++;
+        countAndTotal[1] += durationMicros;
+    }
+}
@@ -0,0 +1,150 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Generates local bare repositories with a Gitflow layout of configurable size:
+ * <ul>
+ * <li>a {@code master} branch with the given number of commits, each of them changing one of the given number of files,</li>
+ * <li>a {@code develop} branch with one more commit on top of {@code master},</li>
+ * <li>the given number of additional refs, half of them {@code feature/*} branches and half of them tags, spread over
+ * the history of {@code master}.</li>
+ * </ul>
+ * The objects are written directly into the bare repository, so even large repositories are generated in seconds. The
+ * repositories are deterministic and reused when they already exist.
+ */
+final class SyntheticRepository {
+
+    private static final PersonIdent AUTHOR = new PersonIdent("Gitflow Benchmark", "benchmark@example.com", new Date(1500000000000L),
+                                                              TimeZone.getTimeZone("UTC"));
+
+    private SyntheticRepository() {
+        // Only static methods.
+    }
+
+    /**
+     * Returns the bare repository with the given size in the given base directory, generating it if it doesn't exist yet.
+     *
+     * @param baseDir the directory for the generated repositories.
+     * @param commitDepth the number of commits on the {@code master} branch.
+     * @param fileCount the number of files in each commit.
+     * @param refCount the number of additional branches and tags.
+     * @return the directory of the bare repository.
+     * @throws IOException if the repository cannot be generated.
+     */
+    static File getOrCreate(final File baseDir, final int commitDepth, final int fileCount, final int refCount) throws IOException {
+        final File gitDir = new File(baseDir, "depth" + commitDepth + "-files" + fileCount + "-refs" + refCount + ".git");
+        final File completeMarker = new File(gitDir, "gitflow-benchmark-complete");
+        if (!completeMarker.isFile()) {
+            FileUtils.deleteDirectory(gitDir);
+            create(gitDir, commitDepth, fileCount, refCount);
+            FileUtils.touch(completeMarker);
+        }
+        return gitDir;
+    }
+
+    private static void create(final File gitDir, final int commitDepth, final int fileCount, final int refCount) throws IOException {
+        final Repository repository = new FileRepositoryBuilder().setGitDir(gitDir).setBare().build();
+        try {
+            repository.create(true);
+
+            final ObjectInserter inserter = repository.newObjectInserter();
+            try {
+                final ObjectId[] fileBlobs = new ObjectId[fileCount];
+                for (int i = 0; i < fileCount; i++) {
+                    fileBlobs[i] = insertBlob(inserter, "file " + i + "\n");
+                }
+
+                // The master branch: each commit changes one file.
+                final ObjectId[] commits = new ObjectId[commitDepth];
+                ObjectId parent = null;
+                for (int i = 0; i < commitDepth; i++) {
+                    fileBlobs[i % fileCount] = insertBlob(inserter, "file " + i % fileCount + " changed by commit " + i + "\n");
+                    parent = insertCommit(inserter, insertTree(inserter, fileBlobs), parent, "Commit " + i);
+                    commits[i] = parent;
+                }
+
+                // The develop branch is one commit ahead of master.
+                fileBlobs[0] = insertBlob(inserter, "file 0 changed on develop\n");
+                final ObjectId developCommit = insertCommit(inserter, insertTree(inserter, fileBlobs), parent, "Start next development version");
+                inserter.flush();
+
+                updateRef(repository, Constants.R_HEADS + "master", commits[commitDepth - 1]);
+                updateRef(repository, Constants.R_HEADS + "develop", developCommit);
+
+                // Large numbers of refs are usually packed on servers - and writing them packed is much faster.
+                final SortedMap<String, ObjectId> packedRefs = new TreeMap<String, ObjectId>();
+                for (int i = 0; i < refCount; i++) {
+                    final ObjectId commit = commits[(int) ((long) i * commitDepth / Math.max(1, refCount))];
+                    packedRefs.put(i % 2 == 0 ? Constants.R_HEADS + "feature/" + i : Constants.R_TAGS + "1." + i, commit);
+                }
+                writePackedRefs(gitDir, packedRefs);
+            } finally {
+                inserter.release();
+            }
+        } finally {
+            repository.close();
+        }
+    }
+
+    private static ObjectId insertBlob(final ObjectInserter inserter, final String content) throws IOException {
+        return inserter.insert(Constants.OBJ_BLOB, Constants.encode(content));
+    }
+
+    // The file names are zero-padded, so they are already in the order that Git requires for tree entries.
+    private static ObjectId insertTree(final ObjectInserter inserter, final ObjectId[] fileBlobs) throws IOException {
+        final TreeFormatter tree = new TreeFormatter();
+        for (int i = 0; i < fileBlobs.length; i++) {
+            tree.append(String.format("file-%06d.txt", i), FileMode.REGULAR_FILE, fileBlobs[i]);
+        }
+        return inserter.insert(tree);
+    }
+
+    private static ObjectId insertCommit(final ObjectInserter inserter, final ObjectId tree, final ObjectId parent, final String message)
+            throws IOException {
+        final CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        if (parent != null) {
+            commit.setParentId(parent);
+        }
+        commit.setAuthor(AUTHOR);
+        commit.setCommitter(AUTHOR);
+        commit.setMessage(message + "\n");
+        return inserter.insert(commit);
+    }
+
+    private static void writePackedRefs(final File gitDir, final SortedMap<String, ObjectId> packedRefs) throws IOException {
+        final StringBuilder content = new StringBuilder("# pack-refs with: peeled fully-peeled sorted \n");
+        for (final Map.Entry<String, ObjectId> packedRef : packedRefs.entrySet()) {
+            content.append(packedRef.getValue().getName()).append(' ').append(packedRef.getKey()).append('\n');
+        }
+        FileUtils.writeStringToFile(new File(gitDir, Constants.PACKED_REFS), content.toString(), "UTF-8");
+    }
+
+    private static void updateRef(final Repository repository, final String refName, final ObjectId objectId) throws IOException {
+        final RefUpdate refUpdate = repository.updateRef(refName);
+        refUpdate.setNewObjectId(objectId);
+        final RefUpdate.Result result = refUpdate.update();
+        if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED) {
+            throw new IOException("Cannot create " + refName + ": " + result);
+        }
+    }
+}
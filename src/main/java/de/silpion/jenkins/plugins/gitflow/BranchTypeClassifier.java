@@ -0,0 +1,364 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, precompiled snapshot of the branch naming configuration, that determines the <i>Gitflow</i> branch type for branch names.
+ * <p>
+ * Each branch type is configured by a value that may be
+ * <ul>
+ * <li>a plain name - matched exactly for the <i>master</i> and <i>develop</i> branches and as prefix for all other branch types,</li>
+ * <li>a glob pattern like {@code support/*} or {@code release-*} - {@code *} matches any sequence, {@code ?} matches a single character,</li>
+ * <li>a regular expression starting with {@code ^} - its first capturing group (if any) provides the version of the branch.</li>
+ * </ul>
+ * As Git doesn't allow the characters {@code ^}, {@code *} and {@code ?} in branch names, plain names can't be mistaken for patterns.
+ * The <i>master</i> and <i>develop</i> branches must be configured by plain names, because they're checked out, fetched and
+ * merged by name.
+ * <p>
+ * The literal prefixes of all rules are compiled into a prefix trie, so that a branch name is classified with a single walk over its characters.
+ * Only patterns whose literal prefix matches the branch name are evaluated. When several rules match, the branch type that is configured first
+ * (master, develop, release, hotfix, feature) wins.
+ */
+public final class BranchTypeClassifier {
+
+    private static final String TYPE_UNKNOWN = "unknown";
+
+    private final String masterBranch;
+    private final String developBranch;
+    private final String releaseBranchPrefix;
+    private final String hotfixBranchPrefix;
+    private final String featureBranchPrefix;
+
+    private final BranchTypeClassifier base;
+
+    private final Map<String, Rule> rulesByBranchType = new LinkedHashMap<String, Rule>();
+    private final Node root = new Node();
+
+    /**
+     * Compiles a new classifier for the given branch naming configuration.
+     *
+     * @param masterBranch the name of the <i>master</i> branch.
+     * @param developBranch the name of the <i>develop</i> branch.
+     * @param releaseBranchPrefix the prefix or pattern of the <i>release</i> branches.
+     * @param hotfixBranchPrefix the prefix or pattern of the <i>hotfix</i> branches.
+     * @param featureBranchPrefix the prefix or pattern of the <i>feature</i> branches.
+     * @throws java.util.regex.PatternSyntaxException if a regular expression is invalid.
+     * @throws IllegalArgumentException if the <i>master</i> or <i>develop</i> branch is configured by a pattern.
+     */
+    public BranchTypeClassifier(final String masterBranch, final String developBranch, final String releaseBranchPrefix, final String hotfixBranchPrefix,
+                                final String featureBranchPrefix) {
+        this(masterBranch, developBranch, releaseBranchPrefix, hotfixBranchPrefix, featureBranchPrefix, null);
+    }
+
+    private BranchTypeClassifier(final String masterBranch, final String developBranch, final String releaseBranchPrefix, final String hotfixBranchPrefix,
+                                 final String featureBranchPrefix, final BranchTypeClassifier base) {
+        this.masterBranch = masterBranch;
+        this.developBranch = developBranch;
+        this.releaseBranchPrefix = releaseBranchPrefix;
+        this.hotfixBranchPrefix = hotfixBranchPrefix;
+        this.featureBranchPrefix = featureBranchPrefix;
+        this.base = base;
+
+        checkBranchName(masterBranch);
+        checkBranchName(developBranch);
+        this.addRule("master", masterBranch, false);
+        this.addRule("develop", developBranch, false);
+        this.addRule("release", releaseBranchPrefix, true);
+        this.addRule("hotfix", hotfixBranchPrefix, true);
+        this.addRule("feature", featureBranchPrefix, true);
+    }
+
+    private void addRule(final String branchType, final String value, final boolean prefixType) {
+        if (value == null) {
+            return;
+        }
+
+        final Rule rule = Rule.compile(branchType, this.rulesByBranchType.size(), value, prefixType);
+        this.rulesByBranchType.put(branchType, rule);
+
+        Node node = this.root;
+        for (int i = 0; i < rule.literalPrefix.length(); i++) {
+            node = node.getOrAddChild(rule.literalPrefix.charAt(i));
+        }
+        node.addRule(rule);
+    }
+
+    /**
+     * Checks that the given branch name or pattern can be compiled into a naming rule.
+     *
+     * @param value the branch name or pattern - blank values are ignored, as they inherit the configuration.
+     * @throws java.util.regex.PatternSyntaxException if the value is an invalid regular expression.
+     */
+    public static void checkPattern(final String value) {
+        if (StringUtils.isNotBlank(value)) {
+            Rule.compile(TYPE_UNKNOWN, 0, value, true);
+        }
+    }
+
+    /**
+     * Checks that the given value is a plain branch name, as required for the <i>master</i> and <i>develop</i> branches.
+     *
+     * @param value the branch name - blank values are ignored, as they inherit the configuration.
+     * @throws IllegalArgumentException if the value is a glob pattern or a regular expression.
+     */
+    public static void checkBranchName(final String value) {
+        if (StringUtils.isNotBlank(value) && (value.startsWith("^") || StringUtils.containsAny(value, "*?"))) {
+            throw new IllegalArgumentException("The master and develop branches must be configured by plain names, not by patterns: " + value);
+        }
+    }
+
+    /**
+     * Creates a classifier that uses the given values and inherits the configuration of <b>this</b> classifier for blank values.
+     *
+     * @param masterBranch the name of the <i>master</i> branch.
+     * @param developBranch the name of the <i>develop</i> branch.
+     * @param releaseBranchPrefix the prefix or pattern of the <i>release</i> branches.
+     * @param hotfixBranchPrefix the prefix or pattern of the <i>hotfix</i> branches.
+     * @param featureBranchPrefix the prefix or pattern of the <i>feature</i> branches.
+     * @return the new classifier.
+     */
+    public BranchTypeClassifier withOverrides(final String masterBranch, final String developBranch, final String releaseBranchPrefix,
+                                              final String hotfixBranchPrefix, final String featureBranchPrefix) {
+        return new BranchTypeClassifier(StringUtils.defaultIfBlank(masterBranch, this.masterBranch),
+                                        StringUtils.defaultIfBlank(developBranch, this.developBranch),
+                                        StringUtils.defaultIfBlank(releaseBranchPrefix, this.releaseBranchPrefix),
+                                        StringUtils.defaultIfBlank(hotfixBranchPrefix, this.hotfixBranchPrefix),
+                                        StringUtils.defaultIfBlank(featureBranchPrefix, this.featureBranchPrefix),
+                                        this);
+    }
+
+    /**
+     * Returns the <i>Gitflow</i> branch type for the given simple branch name.
+     *
+     * @param branchName the simple branch name to get the branch type for.
+     * @return the <i>Gitflow</i> branch type for the given simple branch name.
+     */
+    public String classify(final String branchName) {
+        final Rule rule = this.match(branchName);
+        return rule == null ? TYPE_UNKNOWN : rule.branchType;
+    }
+
+    /**
+     * Returns the version part of the given branch name, e.g. {@code 1.2} for the branch {@code release/1.2}.
+     *
+     * @param branchName the simple branch name.
+     * @return the version part of the given branch name or the branch name itself, if no version can be extracted.
+     */
+    public String getBranchVersion(final String branchName) {
+        final Rule rule = this.match(branchName);
+        return rule == null ? branchName : rule.extractVersion(branchName);
+    }
+
+    /**
+     * Returns the name for a new branch of the given type and version, e.g. {@code release/1.2}.
+     *
+     * @param branchType the <i>Gitflow</i> branch type.
+     * @param version the version for the new branch.
+     * @return the name for the new branch.
+     * @throws IllegalStateException if the branch type is not configured or configured by a regular expression.
+     */
+    public String getBranchName(final String branchType, final String version) {
+        final Rule rule = this.rulesByBranchType.get(branchType);
+        if (rule == null) {
+            throw new IllegalStateException("No branch name configured for branch type " + branchType);
+        }
+        return rule.createBranchName(version);
+    }
+
+    private Rule match(final String branchName) {
+        final int length = branchName.length();
+
+        Rule bestRule = null;
+        Node node = this.root;
+        for (int depth = 0; node != null; depth++) {
+            for (final Rule rule : node.rules) {
+                if ((bestRule == null || rule.priority < bestRule.priority) && rule.matches(branchName, depth)) {
+                    bestRule = rule;
+                }
+            }
+            node = depth < length ? node.getChild(branchName.charAt(depth)) : null;
+        }
+
+        return bestRule;
+    }
+
+    public String getMasterBranch() {
+        return this.masterBranch;
+    }
+
+    public String getDevelopBranch() {
+        return this.developBranch;
+    }
+
+    public String getReleaseBranchPrefix() {
+        return this.releaseBranchPrefix;
+    }
+
+    public String getHotfixBranchPrefix() {
+        return this.hotfixBranchPrefix;
+    }
+
+    public String getFeatureBranchPrefix() {
+        return this.featureBranchPrefix;
+    }
+
+    /**
+     * Returns the classifier that <b>this</b> classifier has been derived from by {@link #withOverrides}.
+     *
+     * @return the classifier that <b>this</b> classifier has been derived from or {@code null}.
+     */
+    public BranchTypeClassifier getBase() {
+        return this.base;
+    }
+
+    /** A compiled naming rule for one branch type. */
+    private static final class Rule {
+
+        private static final int EXACT = 0;
+        private static final int PREFIX = 1;
+        private static final int GLOB = 2;
+        private static final int REGEX = 3;
+
+        private final String branchType;
+        private final int priority;
+        private final String value;
+        private final int kind;
+        private final String literalPrefix;
+        private final Pattern pattern;
+
+        private Rule(final String branchType, final int priority, final String value, final int kind, final String literalPrefix, final Pattern pattern) {
+            this.branchType = branchType;
+            this.priority = priority;
+            this.value = value;
+            this.kind = kind;
+            this.literalPrefix = literalPrefix;
+            this.pattern = pattern;
+        }
+
+        private static Rule compile(final String branchType, final int priority, final String value, final boolean prefixType) {
+            final Rule rule;
+
+            final int firstWildcard = StringUtils.indexOfAny(value, "*?");
+            if (value.startsWith("^")) {
+                rule = new Rule(branchType, priority, value, REGEX, "", Pattern.compile(value));
+            } else if (firstWildcard >= 0) {
+                rule = new Rule(branchType, priority, value, GLOB, value.substring(0, firstWildcard), compileGlob(value));
+            } else {
+                rule = new Rule(branchType, priority, value, prefixType ? PREFIX : EXACT, value, null);
+            }
+
+            return rule;
+        }
+
+        private static Pattern compileGlob(final String glob) {
+            final StringBuilder regex = new StringBuilder();
+
+            // The first '*' is captured, so that it provides the version of the branch.
+            boolean captured = false;
+            int literalStart = 0;
+            for (int i = 0; i < glob.length(); i++) {
+                final char c = glob.charAt(i);
+                if (c == '*' || c == '?') {
+                    if (literalStart < i) {
+                        regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                    }
+                    if (c == '?') {
+                        regex.append('.');
+                    } else if (captured) {
+                        regex.append(".*");
+                    } else {
+                        regex.append("(.*)");
+                        captured = true;
+                    }
+                    literalStart = i + 1;
+                }
+            }
+            if (literalStart < glob.length()) {
+                regex.append(Pattern.quote(glob.substring(literalStart)));
+            }
+
+            return Pattern.compile(regex.toString());
+        }
+
+        private boolean matches(final String branchName, final int matchedLength) {
+            switch (this.kind) {
+                case EXACT:
+                    return matchedLength == branchName.length();
+                case PREFIX:
+                    return true;
+                default:
+                    return this.pattern.matcher(branchName).matches();
+            }
+        }
+
+        private String extractVersion(final String branchName) {
+            if (this.kind == EXACT) {
+                return branchName;
+            } else if (this.kind == PREFIX) {
+                return branchName.substring(this.literalPrefix.length());
+            } else {
+                final Matcher matcher = this.pattern.matcher(branchName);
+                return matcher.matches() && matcher.groupCount() > 0 ? matcher.group(1) : branchName.substring(this.literalPrefix.length());
+            }
+        }
+
+        private String createBranchName(final String version) {
+            switch (this.kind) {
+                case EXACT:
+                    return this.value;
+                case PREFIX:
+                    return this.value + version;
+                case GLOB:
+                    return this.value.contains("*") ? StringUtils.replaceOnce(this.value, "*", version) : this.literalPrefix + version;
+                default:
+                    throw new IllegalStateException("Cannot create a " + this.branchType + " branch name from the regular expression " + this.value
+                                                    + ". Please configure a prefix or a glob pattern.");
+            }
+        }
+    }
+
+    /** A node of the prefix trie. Nodes are only modified while the classifier is being compiled. */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Rule[] rules = new Rule[0];
+
+        private Node getChild(final char key) {
+            final int index = Arrays.binarySearch(this.keys, key);
+            return index >= 0 ? this.children[index] : null;
+        }
+
+        private Node getOrAddChild(final char key) {
+            int index = Arrays.binarySearch(this.keys, key);
+            if (index < 0) {
+                index = -index - 1;
+
+                final char[] newKeys = new char[this.keys.length + 1];
+                System.arraycopy(this.keys, 0, newKeys, 0, index);
+                System.arraycopy(this.keys, index, newKeys, index + 1, this.keys.length - index);
+                newKeys[index] = key;
+
+                final Node[] newChildren = new Node[this.children.length + 1];
+                System.arraycopy(this.children, 0, newChildren, 0, index);
+                System.arraycopy(this.children, index, newChildren, index + 1, this.children.length - index);
+                newChildren[index] = new Node();
+
+                this.keys = newKeys;
+                this.children = newChildren;
+            }
+            return this.children[index];
+        }
+
+        private void addRule(final Rule rule) {
+            this.rules = Arrays.copyOf(this.rules, this.rules.length + 1);
+            this.rules[this.rules.length - 1] = rule;
+        }
+    }
+}
@@ -3,30 +3,38 @@ package de.silpion.jenkins.plugins.gitflow;
 import de.silpion.jenkins.plugins.gitflow.action.AbstractGitflowAction;
 import de.silpion.jenkins.plugins.gitflow.action.GitflowActionFactory;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
 import hudson.model.BuildListener;
+import hudson.model.BuildableItemWithBuildWrappers;
 import hudson.model.Item;
 import hudson.plugins.git.GitSCM;
 import hudson.security.Permission;
 import hudson.security.PermissionScope;
 import hudson.tasks.BuildWrapper;
 import hudson.tasks.BuildWrapperDescriptor;
+import hudson.util.FormValidation;
 import jenkins.model.Jenkins;
 import jenkins.util.NonLocalizable;
 import net.sf.json.JSONObject;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
 
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Wraps a build that works on a Git repository. It enables the creation of Git releases, respecting the
@@ -36,9 +44,20 @@ import java.util.Map;
  */
 public class GitflowBuildWrapper extends BuildWrapper {
 
+    private static final Logger LOGGER = Logger.getLogger(GitflowBuildWrapper.class.getName());
+
+    // Job-specific branch naming. Blank values inherit the global configuration.
+    private String masterBranch;
+    private String developBranch;
+    private String releaseBranchPrefix;
+    private String hotfixBranchPrefix;
+    private String featureBranchPrefix;
+
+    private transient volatile BranchTypeClassifier branchTypeClassifier;
+
     @DataBoundConstructor
     public GitflowBuildWrapper() {
-        // No job config params so far.
+        // The job-specific branch naming is optional and configured by the setters.
     }
 
     /** {@inheritDoc} */
@@ -94,6 +113,129 @@ public class GitflowBuildWrapper extends BuildWrapper {
         return job.hasPermission(DescriptorImpl.EXECUTE_GITFLOW);
     }
 
+    /**
+     * Checks if the given item is a job that is configured with the {@link GitflowBuildWrapper}.
+     *
+     * @param item the item to be checked - may be {@code null}.
+     * @return {@code true} if the given item is a job that is configured with the {@link GitflowBuildWrapper}.
+     */
+    public static boolean isGitflowJob(final Item item) {
+        return item instanceof AbstractProject && item instanceof BuildableItemWithBuildWrappers
+               && ((BuildableItemWithBuildWrappers) item).getBuildWrappersList().get(GitflowBuildWrapper.class) != null;
+    }
+
+    /**
+     * Returns the branch type classifier for the given job. The classifier respects the job-specific branch naming
+     * of the {@link GitflowBuildWrapper} configured for the job and falls back to the global configuration.
+     *
+     * @param job the job/project to get the branch type classifier for.
+     * @return the branch type classifier for the given job.
+     */
+    public static BranchTypeClassifier getBranchTypeClassifier(final AbstractProject<?, ?> job) {
+        if (job instanceof BuildableItemWithBuildWrappers) {
+            final GitflowBuildWrapper buildWrapper = ((BuildableItemWithBuildWrappers) job).getBuildWrappersList().get(GitflowBuildWrapper.class);
+            if (buildWrapper != null) {
+                return buildWrapper.getBranchTypeClassifier();
+            }
+        }
+        return getGitflowBuildWrapperDescriptor().getBranchTypeClassifier();
+    }
+
+    private BranchTypeClassifier getBranchTypeClassifier() {
+        final BranchTypeClassifier globalClassifier = getGitflowBuildWrapperDescriptor().getBranchTypeClassifier();
+        if (StringUtils.isBlank(this.masterBranch) && StringUtils.isBlank(this.developBranch) && StringUtils.isBlank(this.releaseBranchPrefix)
+            && StringUtils.isBlank(this.hotfixBranchPrefix) && StringUtils.isBlank(this.featureBranchPrefix)) {
+            return globalClassifier;
+        }
+
+        // Compile the job-specific classifier once and again only after the global configuration has been changed.
+        BranchTypeClassifier classifier = this.branchTypeClassifier;
+        if (classifier == null || classifier.getBase() != globalClassifier) {
+            classifier = globalClassifier.withOverrides(this.masterBranch, this.developBranch, this.releaseBranchPrefix, this.hotfixBranchPrefix,
+                                                        this.featureBranchPrefix);
+            this.branchTypeClassifier = classifier;
+        }
+        return classifier;
+    }
+
+    public String getMasterBranch() {
+        return this.masterBranch;
+    }
+
+    @DataBoundSetter
+    public void setMasterBranch(final String masterBranch) {
+        this.masterBranch = checkBranchName(masterBranch);
+        this.branchTypeClassifier = null;
+    }
+
+    public String getDevelopBranch() {
+        return this.developBranch;
+    }
+
+    @DataBoundSetter
+    public void setDevelopBranch(final String developBranch) {
+        this.developBranch = checkBranchName(developBranch);
+        this.branchTypeClassifier = null;
+    }
+
+    public String getReleaseBranchPrefix() {
+        return this.releaseBranchPrefix;
+    }
+
+    @DataBoundSetter
+    public void setReleaseBranchPrefix(final String releaseBranchPrefix) {
+        this.releaseBranchPrefix = checkBranchNaming(releaseBranchPrefix);
+        this.branchTypeClassifier = null;
+    }
+
+    public String getHotfixBranchPrefix() {
+        return this.hotfixBranchPrefix;
+    }
+
+    @DataBoundSetter
+    public void setHotfixBranchPrefix(final String hotfixBranchPrefix) {
+        this.hotfixBranchPrefix = checkBranchNaming(hotfixBranchPrefix);
+        this.branchTypeClassifier = null;
+    }
+
+    public String getFeatureBranchPrefix() {
+        return this.featureBranchPrefix;
+    }
+
+    @DataBoundSetter
+    public void setFeatureBranchPrefix(final String featureBranchPrefix) {
+        this.featureBranchPrefix = checkBranchNaming(featureBranchPrefix);
+        this.branchTypeClassifier = null;
+    }
+
+    /**
+     * Trims the given job-specific branch name and rejects it if it's a pattern, so that an invalid configuration is not saved.
+     * The form submissions are already validated by {@link DescriptorImpl#newInstance(StaplerRequest, JSONObject)}.
+     *
+     * @param value the submitted branch name.
+     * @return the trimmed value or {@code null} if it's blank.
+     * @throws IllegalArgumentException if the value is a glob pattern or a regular expression.
+     */
+    private static String checkBranchName(final String value) {
+        final String fixedValue = Util.fixEmptyAndTrim(value);
+        BranchTypeClassifier.checkBranchName(fixedValue);
+        return fixedValue;
+    }
+
+    /**
+     * Trims the given job-specific branch prefix or pattern and rejects it if it cannot be compiled, so that an invalid
+     * configuration is not saved. The form submissions are already validated by {@link DescriptorImpl#newInstance(StaplerRequest, JSONObject)}.
+     *
+     * @param value the submitted branch prefix or pattern.
+     * @return the trimmed value or {@code null} if it's blank.
+     * @throws PatternSyntaxException if the value is an invalid regular expression.
+     */
+    private static String checkBranchNaming(final String value) {
+        final String fixedValue = Util.fixEmptyAndTrim(value);
+        BranchTypeClassifier.checkPattern(fixedValue);
+        return fixedValue;
+    }
+
     @Override
     public Collection<? extends Action> getProjectActions(@SuppressWarnings("rawtypes") final AbstractProject job) {
         return Collections.singletonList(new GitflowProjectAction(job));
@@ -122,6 +264,9 @@ public class GitflowBuildWrapper extends BuildWrapper {
         public static final Permission EXECUTE_GITFLOW = new Permission(Item.PERMISSIONS, "Gitflow", new NonLocalizable("Gitflow"), Jenkins.ADMINISTER,
                                                                         PermissionScope.ITEM);
 
+        private static final String[] BRANCH_NAME_FIELDS = { "masterBranch", "developBranch" };
+        private static final String[] BRANCH_PREFIX_FIELDS = { "releaseBranchPrefix", "hotfixBranchPrefix", "featureBranchPrefix" };
+
         private String masterBranch = "master";
         private String developBranch = "develop";
         private String releaseBranchPrefix = "release/";
@@ -129,10 +274,29 @@ public class GitflowBuildWrapper extends BuildWrapper {
         private String featureBranchPrefix = "feature/";
         private String versionTagPrefix = "";
         private boolean markSuccessfulBuildUnstableOnBrokenBranches = false;
+        private int versionBumpPushRetries = 0;
+        private int hotfixQueueWeight = 2;
+        private int releaseQueueWeight = 1;
+        private boolean prefetchQueuedBranches = false;
+        private boolean traceRemotingCalls = false;
+        private boolean recordGitTraces = false;
+
+        private transient volatile BranchTypeClassifier branchTypeClassifier;
 
         public DescriptorImpl() {
             super(GitflowBuildWrapper.class);
             this.load();
+
+            // Configurations saved before the master and develop branches had to be plain names fall back to the defaults.
+            if (getBranchNameError(this.masterBranch) != null) {
+                LOGGER.warning("Ignoring the master branch pattern " + this.masterBranch + " - please configure a plain branch name");
+                this.masterBranch = "master";
+            }
+            if (getBranchNameError(this.developBranch) != null) {
+                LOGGER.warning("Ignoring the develop branch pattern " + this.developBranch + " - please configure a plain branch name");
+                this.developBranch = "develop";
+            }
+            this.compileBranchTypeClassifier();
         }
 
         @Override
@@ -142,18 +306,155 @@ public class GitflowBuildWrapper extends BuildWrapper {
 
         @Override
         public boolean configure(StaplerRequest staplerRequest, JSONObject json) throws FormException {
-            this.masterBranch = json.getString("masterBranch");
-            this.developBranch = json.getString("developBranch");
-            this.releaseBranchPrefix = json.getString("releaseBranchPrefix");
-            this.hotfixBranchPrefix = json.getString("hotfixBranchPrefix");
+            final String masterBranch = json.getString("masterBranch");
+            final String developBranch = json.getString("developBranch");
+            final String releaseBranchPrefix = json.getString("releaseBranchPrefix");
+            final String hotfixBranchPrefix = json.getString("hotfixBranchPrefix");
+            final String featureBranchPrefix = json.getString("featureBranchPrefix");
+
+            // Compile the new branch naming before anything is changed, so that an invalid pattern leaves the configuration untouched.
+            checkBranchNamingFields(json);
+            final BranchTypeClassifier classifier = new BranchTypeClassifier(masterBranch, developBranch, releaseBranchPrefix, hotfixBranchPrefix,
+                                                                             featureBranchPrefix);
+
+            this.masterBranch = masterBranch;
+            this.developBranch = developBranch;
+            this.releaseBranchPrefix = releaseBranchPrefix;
+            this.hotfixBranchPrefix = hotfixBranchPrefix;
             this.versionTagPrefix = json.getString("versionTagPrefix");
-            this.featureBranchPrefix = json.getString("featureBranchPrefix");
+            this.featureBranchPrefix = featureBranchPrefix;
             this.markSuccessfulBuildUnstableOnBrokenBranches = json.getBoolean("markSuccessfulBuildUnstableOnBrokenBranches");
+            this.versionBumpPushRetries = Math.max(0, json.optInt("versionBumpPushRetries", 0));
+            this.hotfixQueueWeight = json.optInt("hotfixQueueWeight", 2);
+            this.releaseQueueWeight = json.optInt("releaseQueueWeight", 1);
+            this.prefetchQueuedBranches = json.getBoolean("prefetchQueuedBranches");
+            this.traceRemotingCalls = json.getBoolean("traceRemotingCalls");
+            this.recordGitTraces = json.getBoolean("recordGitTraces");
+            final BranchTypeClassifier previousClassifier = this.branchTypeClassifier;
+            this.branchTypeClassifier = classifier;
 
             this.save();
+
+            // The branch types of the jobs may have changed, and with them the cached Gitflow pages and API responses of the jobs.
+            if (!hasSameBranchNaming(previousClassifier, classifier)) {
+                reclassifyGitflowJobs();
+            }
             return true; // everything is alright so far
         }
 
+        private static boolean hasSameBranchNaming(final BranchTypeClassifier classifier1, final BranchTypeClassifier classifier2) {
+            return classifier1 != null && StringUtils.equals(classifier1.getMasterBranch(), classifier2.getMasterBranch())
+                   && StringUtils.equals(classifier1.getDevelopBranch(), classifier2.getDevelopBranch())
+                   && StringUtils.equals(classifier1.getReleaseBranchPrefix(), classifier2.getReleaseBranchPrefix())
+                   && StringUtils.equals(classifier1.getHotfixBranchPrefix(), classifier2.getHotfixBranchPrefix())
+                   && StringUtils.equals(classifier1.getFeatureBranchPrefix(), classifier2.getFeatureBranchPrefix());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void reclassifyGitflowJobs() {
+            for (final AbstractProject<?, ?> job : Jenkins.getInstance().getAllItems(AbstractProject.class)) {
+                if (isGitflowJob(job)) {
+                    GitflowStateIndex.getInstance().reclassify(job.getFullName(), getBranchTypeClassifier(job));
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The job-specific branch naming is validated before the {@link GitflowBuildWrapper} is created, so that an invalid value is
+         * reported for its form field instead of failing the submission of the job configuration.
+         */
+        @Override
+        public BuildWrapper newInstance(final StaplerRequest staplerRequest, final JSONObject json) throws FormException {
+            checkBranchNamingFields(json);
+            return super.newInstance(staplerRequest, json);
+        }
+
+        private static void checkBranchNamingFields(final JSONObject json) throws FormException {
+            for (final String field : BRANCH_NAME_FIELDS) {
+                final String message = getBranchNameError(json.optString(field));
+                if (message != null) {
+                    throw new FormException(message, field);
+                }
+            }
+            for (final String field : BRANCH_PREFIX_FIELDS) {
+                final String message = getBranchPrefixError(json.optString(field));
+                if (message != null) {
+                    throw new FormException(message, field);
+                }
+            }
+        }
+
+        private void compileBranchTypeClassifier() {
+            this.branchTypeClassifier = new BranchTypeClassifier(this.masterBranch, this.developBranch, this.releaseBranchPrefix, this.hotfixBranchPrefix,
+                                                                 this.featureBranchPrefix);
+        }
+
+        public FormValidation doCheckMasterBranch(@QueryParameter final String value) {
+            return toFormValidation(getBranchNameError(value));
+        }
+
+        public FormValidation doCheckDevelopBranch(@QueryParameter final String value) {
+            return toFormValidation(getBranchNameError(value));
+        }
+
+        public FormValidation doCheckReleaseBranchPrefix(@QueryParameter final String value) {
+            return toFormValidation(getBranchPrefixError(value));
+        }
+
+        public FormValidation doCheckHotfixBranchPrefix(@QueryParameter final String value) {
+            return toFormValidation(getBranchPrefixError(value));
+        }
+
+        public FormValidation doCheckFeatureBranchPrefix(@QueryParameter final String value) {
+            return toFormValidation(getBranchPrefixError(value));
+        }
+
+        private static FormValidation toFormValidation(final String message) {
+            return message == null ? FormValidation.ok() : FormValidation.error(message);
+        }
+
+        /**
+         * Checks the given value for the <i>master</i> or <i>develop</i> branch.
+         *
+         * @param value the submitted branch name.
+         * @return the error message or {@code null} if the value is a plain branch name (or blank).
+         */
+        private static String getBranchNameError(final String value) {
+            try {
+                BranchTypeClassifier.checkBranchName(Util.fixEmptyAndTrim(value));
+                return null;
+            } catch (final IllegalArgumentException iae) {
+                return iae.getMessage();
+            }
+        }
+
+        /**
+         * Checks the given value for the <i>release</i>, <i>hotfix</i> or <i>feature</i> branches.
+         *
+         * @param value the submitted branch prefix or pattern.
+         * @return the error message or {@code null} if the value can be compiled (or is blank).
+         */
+        private static String getBranchPrefixError(final String value) {
+            try {
+                BranchTypeClassifier.checkPattern(Util.fixEmptyAndTrim(value));
+                return null;
+            } catch (final PatternSyntaxException pse) {
+                return "Invalid branch name pattern: " + pse.getDescription();
+            }
+        }
+
+        /**
+         * Returns the branch type classifier for the global configuration. It's compiled once per configuration change.
+         *
+         * @return the branch type classifier for the global configuration.
+         * @see GitflowBuildWrapper#getBranchTypeClassifier(AbstractProject)
+         */
+        public BranchTypeClassifier getBranchTypeClassifier() {
+            return this.branchTypeClassifier;
+        }
+
         /**
          * Returns the <i>Gitflow</i> branch type for the given simple branch name.
          *
@@ -161,19 +462,7 @@ public class GitflowBuildWrapper extends BuildWrapper {
          * @return the <i>Gitflow</i> branch type for the given simple branch name.
          */
         public String getBranchType(final String branchName) {
-            if (StringUtils.equals(branchName, this.masterBranch)) {
-                return "master";
-            } else if (StringUtils.equals(branchName, this.developBranch)) {
-                return "develop";
-            } else if (StringUtils.startsWith(branchName, this.releaseBranchPrefix)) {
-                return "release";
-            } else if (StringUtils.startsWith(branchName, this.hotfixBranchPrefix)) {
-                return "hotfix";
-            } else if (StringUtils.startsWith(branchName, this.featureBranchPrefix)) {
-                return "feature";
-            } else {
-                return "unknown";
-            }
+            return this.branchTypeClassifier.classify(branchName);
         }
 
         @Override
@@ -209,5 +498,66 @@ public class GitflowBuildWrapper extends BuildWrapper {
         public boolean isMarkSuccessfulBuildUnstableOnBrokenBranches() {
             return this.markSuccessfulBuildUnstableOnBrokenBranches;
         }
+
+        /**
+         * Returns how often a rejected push of a version bump commit is retried on top of the fetched remote branch.
+         *
+         * @return the maximum number of retries for rejected version bump pushes - {@code 0} if they are disabled.
+         */
+        public int getVersionBumpPushRetries() {
+            return this.versionBumpPushRetries;
+        }
+
+        /**
+         * Returns the weight for ranking queued hotfix actions. Queue items with higher weights are built first - items
+         * that haven't been scheduled for Gitflow actions have the weight {@code 0}.
+         *
+         * @return the weight for ranking queued hotfix actions.
+         * @see de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueSorter
+         */
+        public int getHotfixQueueWeight() {
+            return this.hotfixQueueWeight;
+        }
+
+        /**
+         * Returns the weight for ranking queued release actions. Queue items with higher weights are built first - items
+         * that haven't been scheduled for Gitflow actions have the weight {@code 0}.
+         *
+         * @return the weight for ranking queued release actions.
+         * @see de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueSorter
+         */
+        public int getReleaseQueueWeight() {
+            return this.releaseQueueWeight;
+        }
+
+        /**
+         * Denotes if the branches for queued Gitflow actions are prefetched while the builds wait in the queue.
+         *
+         * @return {@code true} if the branches for queued Gitflow actions are prefetched.
+         * @see de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueListener
+         */
+        public boolean isPrefetchQueuedBranches() {
+            return this.prefetchQueuedBranches;
+        }
+
+        /**
+         * Denotes if the calls that Gitflow builds make to their agents are traced.
+         *
+         * @return {@code true} if the calls that Gitflow builds make to their agents are traced.
+         * @see de.silpion.jenkins.plugins.gitflow.GitflowRemotingTraceAction
+         */
+        public boolean isTraceRemotingCalls() {
+            return this.traceRemotingCalls;
+        }
+
+        /**
+         * Denotes if the Git operations of Gitflow builds are recorded as replayable traces.
+         *
+         * @return {@code true} if the Git operations of Gitflow builds are recorded.
+         * @see de.silpion.jenkins.plugins.gitflow.GitflowGitTraceAction
+         */
+        public boolean isRecordGitTraces() {
+            return this.recordGitTraces;
+        }
     }
 }
@@ -0,0 +1,105 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitOperationTrace;
+import hudson.model.Action;
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+import org.apache.commons.io.FileUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Holds the anonymised {@link GitOperationTrace} of a Gitflow build. The trace is only recorded when it's enabled in the
+ * global configuration. When the build is completed, it's exported to the build directory and can be downloaded at
+ * {@code gitflow-git-trace} to be replayed on a synthetic repository (see {@code GitTraceReplayBenchmark}).
+ */
+public class GitflowGitTraceAction implements Action, RunAction2 {
+
+    @VisibleForTesting static final String FILE_NAME = "gitflow-git-trace.txt";
+
+    private transient Run<?, ?> run;
+
+    private final transient GitOperationTrace trace;
+
+    private int operationCount;
+
+    /**
+     * Creates a new trace that starts now.
+     *
+     * @param implementation the Git implementation that executes the traced operations.
+     */
+    public GitflowGitTraceAction(final String implementation) {
+        this.trace = new GitOperationTrace(implementation);
+    }
+
+    /** {@inheritDoc} */
+    public String getDisplayName() {
+        return "Gitflow Git Trace";
+    }
+
+    /** {@inheritDoc} */
+    public String getIconFileName() {
+        return this.operationCount == 0 ? null : "notepad.png";
+    }
+
+    /** {@inheritDoc} */
+    public String getUrlName() {
+        return "gitflow-git-trace";
+    }
+
+    /** {@inheritDoc} */
+    public void onAttached(final Run<?, ?> run) {
+        this.run = run;
+    }
+
+    /** {@inheritDoc} */
+    public void onLoad(final Run<?, ?> run) {
+        this.run = run;
+    }
+
+    /**
+     * Returns the trace to record the Git operations in while the build is running.
+     *
+     * @return the trace or {@code null} if the build has been loaded from disk.
+     */
+    public GitOperationTrace getTrace() {
+        return this.trace;
+    }
+
+    /**
+     * Writes the recorded operations to the build directory. The operations are only held in memory until then.
+     *
+     * @throws IOException if the trace file cannot be written.
+     */
+    public void export() throws IOException {
+        if (this.run != null && this.trace != null) {
+            this.operationCount = this.trace.getOperations().size();
+            final Writer writer = new OutputStreamWriter(new FileOutputStream(new File(this.run.getRootDir(), FILE_NAME)), "UTF-8");
+            try {
+                this.trace.write(writer);
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public void doIndex(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final File traceFile = this.run == null ? null : new File(this.run.getRootDir(), FILE_NAME);
+        if (traceFile == null || !traceFile.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/plain;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + FILE_NAME);
+        FileUtils.copyFile(traceFile, response.getOutputStream());
+    }
+}
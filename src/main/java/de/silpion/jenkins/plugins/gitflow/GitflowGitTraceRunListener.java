@@ -0,0 +1,33 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exports the {@link GitflowGitTraceAction} of a build when the build is completed - no matter in which phase the
+ * Gitflow action stopped.
+ */
+@Extension
+public class GitflowGitTraceRunListener extends RunListener<AbstractBuild<?, ?>> {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowGitTraceRunListener.class.getName());
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCompleted(final AbstractBuild<?, ?> build, final TaskListener listener) {
+        final GitflowGitTraceAction gitTraceAction = build.getAction(GitflowGitTraceAction.class);
+        if (gitTraceAction != null) {
+            try {
+                gitTraceAction.export();
+            } catch (final IOException ioe) {
+                LOGGER.log(Level.WARNING, "Exporting the Git operation trace of " + build.getFullDisplayName() + " failed", ioe);
+            }
+        }
+    }
+}
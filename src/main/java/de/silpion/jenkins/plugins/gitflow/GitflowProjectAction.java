@@ -1,34 +1,41 @@
 package de.silpion.jenkins.plugins.gitflow;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.silpion.jenkins.plugins.gitflow.api.GitflowProjectApi;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
-import de.silpion.jenkins.plugins.gitflow.cause.HotfixBranchCauseGroup;
-import de.silpion.jenkins.plugins.gitflow.cause.ReleaseBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.FinishHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.FinishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishReleaseCause;
 import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
 import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
 import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
 import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
-import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
-import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
+import de.silpion.jenkins.plugins.gitflow.metrics.GitflowMetrics;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.PermalinkProjectAction;
-import hudson.model.StreamBuildListener;
-import hudson.util.NullStream;
 import net.sf.json.JSONObject;
-import org.apache.commons.lang.StringUtils;
+import org.apache.commons.jelly.JellyException;
+import org.apache.commons.jelly.Script;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.WebApp;
+import org.kohsuke.stapler.jelly.DefaultScriptInvoker;
+import org.kohsuke.stapler.jelly.HTMLWriterOutput;
+import org.kohsuke.stapler.jelly.JellyClassTearOff;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
  * The action that appears as link in the side bar of a project. Users will click on it in order to execute a Gitflow action.
@@ -56,113 +63,24 @@ public class GitflowProjectAction implements PermalinkProjectAction {
     @VisibleForTesting static final String KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION = "nextPatchDevelopmentVersion";
     @VisibleForTesting static final String KEY_POSTFIX_PATCH_RELEASE_VERSION = "patchReleaseVersion";
 
-    private static final Comparator<String> VERSION_NUMBER_COMPARATOR = new Comparator<String>() {
+    @VisibleForTesting static final String KEY_BRANCH_GROUP_TYPE = "type";
+    @VisibleForTesting static final String KEY_BRANCH_GROUP_VERSION = "version";
 
-        public int compare(final String versionNumber1, final String versionNumber2) {
-            int result = 0;
+    private static final String BRANCH_GROUP_VIEW = "actions";
 
-            final String[] versionNumberTokens1 = StringUtils.split(versionNumber1, ".");
-            final String[] versionNumberTokens2 = StringUtils.split(versionNumber2, ".");
-
-            for (int i = 0; i < Math.min(versionNumberTokens1.length, versionNumberTokens2.length); i++) {
-                result = Integer.compare(Integer.parseInt(versionNumberTokens1[i]), Integer.parseInt(versionNumberTokens2[i]));
-                if (result != 0) {
-                    break;
-                }
-            }
-
-            if (result == 0) {
-                result = Integer.compare(versionNumberTokens1.length, versionNumberTokens2.length);
-            }
-
-            return result;
-        }
-    };
+    // The rendered action forms of the release and hotfix branches, by job, state version and branch.
+    private static final Cache<String, String> BRANCH_GROUP_FRAGMENTS = CacheBuilder.newBuilder().maximumSize(1000).build();
 
     private final AbstractProject<?, ?> job;
 
-    private StartReleaseCause startReleaseCause;
-    private Map<String, ReleaseBranchCauseGroup> releaseBranchCauseGroupsByVersion = new TreeMap<String, ReleaseBranchCauseGroup>(VERSION_NUMBER_COMPARATOR);
-
-    private StartHotfixCause startHotfixCause;
-    private Map<String, HotfixBranchCauseGroup> hotfixBranchCauseGroupsByVersion = new TreeMap<String, HotfixBranchCauseGroup>(VERSION_NUMBER_COMPARATOR);
-
     /**
-     * Initialises a new {@link GitflowProjectAction}.
+     * Initialises a new {@link GitflowProjectAction}. The action is a thin handle on the job - the cause models for the Gitflow
+     * page are built on demand for each request (see {@link #getModel()}), so that they don't stay in memory for all the jobs.
      *
      * @param job the job/project that the Gitflow actions can be applied to.
      */
     public GitflowProjectAction(final AbstractProject<?, ?> job) {
         this.job = job;
-
-        // Try to get the action object that holds the data for the Gitflow plugin and extract the recorded remote branch information.
-        for (AbstractBuild<?, ?> lastBuild = job.getLastBuild(); lastBuild != null; lastBuild = lastBuild.getPreviousBuild()) {
-            final GitflowPluginData gitflowPluginData = lastBuild.getAction(GitflowPluginData.class);
-            if (gitflowPluginData != null) {
-
-                // The action form should only offer actions on the recorded remote branches that still exist.
-                // NOTE that proper error handling for Git client problems is not possible here. That's why the methods
-                // 'createGitClient' and 'isExistingBlessedRemoteBranch' swallow exceptions instead of handling them in any way.
-                final GitClientProxy git = createGitClient(job);
-                for (final RemoteBranch remoteBranch : gitflowPluginData.getRemoteBranches()) {
-                    final String branchName = remoteBranch.getBranchName();
-                    if (git == null || isExistingBlessedRemoteBranch(git, branchName)) {
-
-                        final String branchType = GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchType(branchName);
-                        if ("develop".equals(branchType)) {
-                            this.startReleaseCause = new StartReleaseCause(remoteBranch);
-                        } else if ("release".equals(branchType)) {
-                            final ReleaseBranchCauseGroup releaseBranchCauseGroup = new ReleaseBranchCauseGroup(remoteBranch);
-                            this.releaseBranchCauseGroupsByVersion.put(releaseBranchCauseGroup.getReleaseVersion(), releaseBranchCauseGroup);
-                        } else if ("master".equals(branchType) && remoteBranch.getBaseReleaseVersion() != null) {
-                            // When the master branch has a snapshot version, we assume an initial commit and not a published release.
-                            if (!StringUtils.endsWith(remoteBranch.getLastBuildVersion(), "-SNAPSHOT")) {
-                                this.startHotfixCause = new StartHotfixCause(remoteBranch);
-                            }
-                        } else if ("hotfix".equals(branchType)) {
-                            final HotfixBranchCauseGroup hotfixBranchCauseGroup = new HotfixBranchCauseGroup(remoteBranch);
-                            this.hotfixBranchCauseGroupsByVersion.put(hotfixBranchCauseGroup.getHotfixVersion(), hotfixBranchCauseGroup);
-                        }
-                    }
-                }
-
-                break;
-            }
-        }
-
-        // Set startHotfixCause to null when the published release still has a release branch or already has a hotfix branch.
-        if (this.startHotfixCause != null) {
-            final String hotfixVersion = this.startHotfixCause.getHotfixVersion();
-            if (this.releaseBranchCauseGroupsByVersion.containsKey(hotfixVersion) || this.hotfixBranchCauseGroupsByVersion.containsKey(hotfixVersion)) {
-                this.startHotfixCause = null;
-            }
-        }
-    }
-
-    private static GitClientProxy createGitClient(final AbstractProject<?, ?> job) {
-        GitClientProxy gitClientProxy = null;
-
-        final AbstractBuild<?, ?> lastBuild = job.getLastBuild();
-        if (lastBuild != null) {
-            try {
-                gitClientProxy = new GitClientProxy(lastBuild, new StreamBuildListener(new NullStream()), false);
-            } catch (final Exception ignored) {
-                // NOTE that proper error handling for Git client problems is not possible here.
-                // That's why exceptions are swallowed instead of being handled in any way.
-            }
-        }
-
-        return gitClientProxy;
-    }
-
-    private static boolean isExistingBlessedRemoteBranch(final GitClientProxy git, final String branchName) {
-        try {
-            return git.getHeadRev(branchName) != null;
-        } catch (final Exception ignored) {
-            // NOTE that proper error handling for Git client problems is not possible here.
-            // That's why exceptions are swallowed instead of being handled in any way.
-            return true;
-        }
     }
 
     public List<Permalink> getPermalinks() {
@@ -188,76 +106,185 @@ public class GitflowProjectAction implements PermalinkProjectAction {
     @SuppressWarnings("UnusedDeclaration")
     public void doSubmit(final StaplerRequest request, final StaplerResponse response) throws IOException, ServletException {
 
-        // Identify the cause object for the selected action and overwrite the fields that can be changed by the user.
+        // Create a new cause object for the selected action from the recorded branches and the values submitted by the user.
+        // The causes are immutable and never shared between requests, so concurrent submissions can't interfere with each other.
         final JSONObject submittedForm = request.getSubmittedForm();
         final JSONObject submittedAction = submittedForm.getJSONObject(KEY_ACTION);
         final String action = submittedAction.getString(KEY_VALUE);
+        final boolean dryRun = submittedForm.getBoolean(KEY_DRY_RUN);
+        // The model is created from the recorded branch state, so the remote repository isn't queried.
+        final GitflowProjectModel model = new GitflowProjectModel(this.job, false);
+        final BranchTypeClassifier branchTypeClassifier = model.getBranchTypeClassifier();
+        final RemoteBranch baseBranch;
         final AbstractGitflowCause gitflowCause;
         if (KEY_PREFIX_START_RELEASE.equals(action)) {
-            this.startReleaseCause.setReleaseVersion(submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION));
-            this.startReleaseCause.setNextPatchDevelopmentVersion(submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION));
-            this.startReleaseCause.setNextReleaseDevelopmentVersion(submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_NEXT_RELEASE_DEVELOPMENT_VERSION));
-            gitflowCause = this.startReleaseCause;
+            baseBranch = getRequiredBranch(model.getDevelopBranch(), action);
+            gitflowCause = new StartReleaseCause(baseBranch,
+                                                 submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION),
+                                                 submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION),
+                                                 submittedAction.getString(KEY_PREFIX_START_RELEASE + "_" + KEY_POSTFIX_NEXT_RELEASE_DEVELOPMENT_VERSION),
+                                                 dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_TEST_RELEASE)) {
-            final ReleaseBranchCauseGroup causeGroup = this.releaseBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION));
-            final String releaseVersionDotfree = causeGroup.getReleaseVersionDotfree();
-            final TestReleaseCause testReleaseCause = causeGroup.getTestReleaseCause();
-            testReleaseCause.setPatchReleaseVersion(submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + releaseVersionDotfree + "_" + KEY_POSTFIX_PATCH_RELEASE_VERSION));
-            testReleaseCause.setNextPatchDevelopmentVersion(submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + releaseVersionDotfree + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION));
-            gitflowCause = testReleaseCause;
+            final String releaseVersion = submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION);
+            final String releaseVersionDotfree = toDotfree(releaseVersion);
+            baseBranch = getRequiredBranch(model.getReleaseBranch(releaseVersion), action);
+            gitflowCause = new TestReleaseCause(baseBranch,
+                                                submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + releaseVersionDotfree + "_" + KEY_POSTFIX_PATCH_RELEASE_VERSION),
+                                                submittedAction.getString(KEY_PREFIX_TEST_RELEASE + "_" + releaseVersionDotfree + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION),
+                                                dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_PUBLISH_RELEASE)) {
-            final ReleaseBranchCauseGroup causeGroup = this.releaseBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_PUBLISH_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION));
-            final String releaseVersionDotfree = causeGroup.getReleaseVersionDotfree();
-            gitflowCause = causeGroup.getPublishReleaseCause();
+            final String releaseVersion = submittedAction.getString(KEY_PREFIX_PUBLISH_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION);
+            baseBranch = getRequiredBranch(model.getReleaseBranch(releaseVersion), action);
+            gitflowCause = new PublishReleaseCause(baseBranch, dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_FINISH_RELEASE)) {
-            final ReleaseBranchCauseGroup causeGroup = this.releaseBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_FINISH_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION));
-            gitflowCause = causeGroup.getFinishReleaseCause();
+            final String releaseVersion = submittedAction.getString(KEY_PREFIX_FINISH_RELEASE + "_" + KEY_POSTFIX_RELEASE_VERSION);
+            baseBranch = getRequiredBranch(model.getReleaseBranch(releaseVersion), action);
+            gitflowCause = new FinishReleaseCause(baseBranch, dryRun, branchTypeClassifier);
         } else if (KEY_PREFIX_START_HOTFIX.equals(action)) {
-            this.startHotfixCause.setNextPatchDevelopmentVersion(submittedAction.getString(KEY_PREFIX_START_HOTFIX + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION));
-            gitflowCause = this.startHotfixCause;
+            baseBranch = getRequiredBranch(model.getMasterBranch(), action);
+            gitflowCause = new StartHotfixCause(baseBranch,
+                                                submittedAction.getString(KEY_PREFIX_START_HOTFIX + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION),
+                                                dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_TEST_HOTFIX)) {
-            final HotfixBranchCauseGroup causeGroup = this.hotfixBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION));
-            final TestHotfixCause testHotfixCause = causeGroup.getTestHotfixCause();
-            final String hotfixVersionDotfree = causeGroup.getHotfixVersionDotfree();
-            testHotfixCause.setPatchReleaseVersion(submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + hotfixVersionDotfree + "_" + KEY_POSTFIX_PATCH_RELEASE_VERSION));
-            testHotfixCause.setNextPatchDevelopmentVersion(submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + hotfixVersionDotfree + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION));
-            gitflowCause = testHotfixCause;
+            final String hotfixVersion = submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION);
+            final String hotfixVersionDotfree = toDotfree(hotfixVersion);
+            baseBranch = getRequiredBranch(model.getHotfixBranch(hotfixVersion), action);
+            gitflowCause = new TestHotfixCause(baseBranch,
+                                               submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + hotfixVersionDotfree + "_" + KEY_POSTFIX_PATCH_RELEASE_VERSION),
+                                               submittedAction.getString(KEY_PREFIX_TEST_HOTFIX + "_" + hotfixVersionDotfree + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION),
+                                               dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_PUBLISH_HOTFIX)) {
             final String hotfixVersion = submittedAction.getString(KEY_PREFIX_PUBLISH_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION);
-            final HotfixBranchCauseGroup causeGroup = this.hotfixBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_PUBLISH_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION));
-            gitflowCause = causeGroup.getPublishHotfixCause();
+            baseBranch = getRequiredBranch(model.getHotfixBranch(hotfixVersion), action);
+            gitflowCause = new PublishHotfixCause(baseBranch, dryRun, branchTypeClassifier);
         } else if (action.startsWith(KEY_PREFIX_FINISH_HOTFIX)) {
-            gitflowCause = this.hotfixBranchCauseGroupsByVersion.get(submittedAction.getString(KEY_PREFIX_FINISH_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION)).getFinishHotfixCause();
+            final String hotfixVersion = submittedAction.getString(KEY_PREFIX_FINISH_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION);
+            baseBranch = getRequiredBranch(model.getHotfixBranch(hotfixVersion), action);
+            gitflowCause = new FinishHotfixCause(baseBranch, dryRun, branchTypeClassifier);
         } else {
             // Only an IOException causes the build to fail properly.
             throw new IOException("Unknown Gitflow action " + action);
         }
-        gitflowCause.setDryRun(submittedForm.getBoolean(KEY_DRY_RUN));
+        final GitflowQueueAction gitflowQueueAction = GitflowQueueAction.forSubmission(this.job, gitflowCause, branchTypeClassifier);
+
+        // A submission that duplicates a running build is folded into that build - the user is sent to the running build.
+        final AbstractBuild<?, ?> runningBuild = GitflowQueueAction.getRunningBuild(this.job, gitflowQueueAction.getIdentity());
+        if (runningBuild != null) {
+            response.sendRedirect(request.getContextPath() + '/' + runningBuild.getUrl());
+            return;
+        }
 
-        // Start a build.
-        this.job.scheduleBuild(0, gitflowCause);
+        // Start a build. Jenkins merges it into a queued item for the same Gitflow action (see GitflowQueueAction).
+        this.job.scheduleBuild2(0, gitflowCause, gitflowQueueAction);
 
         // Return to the main page of the job.
         response.sendRedirect(request.getContextPath() + '/' + this.job.getUrl());
     }
 
+    /**
+     * Renders the form fragment with the Gitflow actions for a single release or hotfix branch. The Gitflow page only
+     * shows a summary of the branches and loads the fragments on demand, so that jobs with many maintained release lines
+     * get a compact page. The fragments are created from the recorded branch state and cached until the state of the job
+     * changes.
+     *
+     * @param request the request with the type ({@code release} or {@code hotfix}) and the version of the branch.
+     * @param response the response for the rendered fragment.
+     * @throws IOException if the fragment can't be rendered.
+     */
     @SuppressWarnings("UnusedDeclaration")
-    public StartReleaseCause getStartReleaseCause() {
-        return this.startReleaseCause;
+    public void doBranchGroup(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        if (!GitflowBuildWrapper.hasReleasePermission(this.job)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        final String type = request.getParameter(KEY_BRANCH_GROUP_TYPE);
+        final String version = request.getParameter(KEY_BRANCH_GROUP_VERSION);
+        final String jobFullName = this.job.getFullName();
+        final String cacheKey = getBranchGroupCacheKey(jobFullName, GitflowStateIndex.getInstance().getVersion(jobFullName), type, version);
+        String fragment = BRANCH_GROUP_FRAGMENTS.getIfPresent(cacheKey);
+        GitflowMetrics.getInstance().recordCacheRequest("branchGroupFragment", fragment != null);
+        if (fragment == null) {
+            final Object branchGroup = this.getBranchGroup(type, version);
+            if (branchGroup == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            fragment = render(branchGroup, request, response);
+            BRANCH_GROUP_FRAGMENTS.put(cacheKey, fragment);
+        }
+
+        response.setContentType("text/html;charset=UTF-8");
+        response.getWriter().write(fragment);
     }
 
-    @SuppressWarnings("UnusedDeclaration")
-    public Collection<ReleaseBranchCauseGroup> getReleaseBranchCauseGroups() {
-        return this.releaseBranchCauseGroupsByVersion.values();
+    private Object getBranchGroup(final String type, final String version) {
+        if (version == null) {
+            return null;
+        }
+
+        // The summary on the Gitflow page has already checked the branches against the remote repository.
+        final GitflowProjectModel model = new GitflowProjectModel(this.job, false);
+        if ("release".equals(type)) {
+            return model.getReleaseBranchCauseGroup(version);
+        } else if ("hotfix".equals(type)) {
+            return model.getHotfixBranchCauseGroup(version);
+        } else {
+            return null;
+        }
     }
 
-    @SuppressWarnings("UnusedDeclaration")
-    public StartHotfixCause getStartHotfixCause() {
-        return this.startHotfixCause;
+    @VisibleForTesting
+    static String getBranchGroupCacheKey(final String jobFullName, final long stateVersion, final String type, final String version) {
+        return jobFullName + '\n' + stateVersion + '\n' + type + '\n' + version;
     }
 
-    @SuppressWarnings("UnusedDeclaration")
-    public Collection<HotfixBranchCauseGroup> getHotfixBranchCauseGroups() {
-        return this.hotfixBranchCauseGroupsByVersion.values();
+    private static String render(final Object branchGroup, final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final ByteArrayOutputStream fragment = new ByteArrayOutputStream();
+        try {
+            final Script script = WebApp.getCurrent().getMetaClass(branchGroup).loadTearOff(JellyClassTearOff.class).findScript(BRANCH_GROUP_VIEW);
+            new DefaultScriptInvoker().invokeScript(request, response, script, branchGroup, HTMLWriterOutput.create(fragment));
+        } catch (final JellyException je) {
+            throw new IOException("Rendering the Gitflow actions for " + branchGroup.getClass().getSimpleName() + " failed", je);
+        }
+        return fragment.toString("UTF-8");
+    }
+
+    private static RemoteBranch getRequiredBranch(final RemoteBranch remoteBranch, final String action) throws IOException {
+        if (remoteBranch == null) {
+            throw new IOException("The branch for the Gitflow action " + action + " doesn't exist (anymore)");
+        }
+        return remoteBranch;
+    }
+
+    private static String toDotfree(final String version) {
+        return version.replaceAll("\\.", "_");
+    }
+
+    /**
+     * Returns the JSON API for the Gitflow state of the job.
+     *
+     * @return the JSON API for the Gitflow state of the job.
+     */
+    public GitflowProjectApi getApi() {
+        return new GitflowProjectApi(this.job);
+    }
+
+    /**
+     * Returns the state version of the job, which the Gitflow page uses to follow the changes of the branches.
+     *
+     * @return the state version of the job.
+     */
+    public long getStateVersion() {
+        return GitflowStateIndex.getInstance().getVersion(this.job.getFullName());
+    }
+
+    /**
+     * Returns a new model with the causes for the Gitflow actions that are currently available for the job.
+     *
+     * @return a new model with the causes for the Gitflow actions that are currently available for the job.
+     */
+    public GitflowProjectModel getModel() {
+        return new GitflowProjectModel(this.job);
     }
 }
@@ -0,0 +1,291 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import de.silpion.jenkins.plugins.gitflow.cause.HotfixBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.ReleaseBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.data.VersionKey;
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.StreamBuildListener;
+import hudson.plugins.git.util.Build;
+import hudson.plugins.git.util.BuildData;
+import hudson.util.NullStream;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The Gitflow actions offered on the Gitflow page of a project. Instances are created on demand for a single request from the
+ * latest {@link GitflowPluginData} state of the project, so they are never held by the project itself.
+ * <p>
+ * The cause objects returned by the getters carry the proposed versions for the page. They are created on each call and
+ * never shared, so submissions create their own causes from the recorded branches and the submitted values.
+ *
+ * @see GitflowProjectAction#getModel()
+ */
+public class GitflowProjectModel {
+
+    private final BranchTypeClassifier branchTypeClassifier;
+
+    private final List<RemoteBranch> remoteBranches = new ArrayList<RemoteBranch>();
+
+    private RemoteBranch developBranch;
+    private final Map<VersionKey, RemoteBranch> releaseBranchesByVersion = new TreeMap<VersionKey, RemoteBranch>();
+
+    private RemoteBranch masterBranch;
+    private final Map<VersionKey, RemoteBranch> hotfixBranchesByVersion = new TreeMap<VersionKey, RemoteBranch>();
+
+    private final Map<String, ObjectId> headRevsByBranch = new HashMap<String, ObjectId>();
+
+    /**
+     * Collects the recorded branches of the given job that the Gitflow actions can be applied to.
+     *
+     * @param job the job/project that the Gitflow actions can be applied to.
+     */
+    public GitflowProjectModel(final AbstractProject<?, ?> job) {
+        this(job, true);
+    }
+
+    /**
+     * Collects the recorded branches of the given job that the Gitflow actions can be applied to.
+     *
+     * @param job the job/project that the Gitflow actions can be applied to.
+     * @param checkRemoteBranches denotes if the recorded branches should be checked against the remote repository. Without
+     * the check, the model is created from the recorded branch state alone and the heads of the branches are unknown.
+     */
+    public GitflowProjectModel(final AbstractProject<?, ?> job, final boolean checkRemoteBranches) {
+        this.branchTypeClassifier = GitflowBuildWrapper.getBranchTypeClassifier(job);
+
+        // The action form should only offer actions on the recorded remote branches that still exist.
+        // NOTE that proper error handling for Git client problems is not possible here. That's why the methods
+        // 'createGitClient' and 'isExistingBlessedRemoteBranch' swallow exceptions instead of handling them in any way.
+        final List<RemoteBranch> recordedRemoteBranches = getRecordedRemoteBranches(job);
+        final GitClientProxy git = recordedRemoteBranches.isEmpty() || !checkRemoteBranches ? null : createGitClient(job);
+        for (final RemoteBranch remoteBranch : recordedRemoteBranches) {
+            final String branchName = remoteBranch.getBranchName();
+            if (git == null || this.isExistingBlessedRemoteBranch(git, branchName)) {
+                this.remoteBranches.add(remoteBranch);
+
+                final String branchType = this.branchTypeClassifier.classify(branchName);
+                if ("develop".equals(branchType)) {
+                    this.developBranch = remoteBranch;
+                } else if ("release".equals(branchType)) {
+                    this.releaseBranchesByVersion.put(VersionKey.parse(this.branchTypeClassifier.getBranchVersion(branchName)), remoteBranch);
+                } else if ("master".equals(branchType) && remoteBranch.getBaseReleaseVersion() != null) {
+                    // When the master branch has a snapshot version, we assume an initial commit and not a published release.
+                    if (!StringUtils.endsWith(remoteBranch.getLastBuildVersion(), "-SNAPSHOT")) {
+                        this.masterBranch = remoteBranch;
+                    }
+                } else if ("hotfix".equals(branchType)) {
+                    this.hotfixBranchesByVersion.put(VersionKey.parse(this.branchTypeClassifier.getBranchVersion(branchName)), remoteBranch);
+                }
+            }
+        }
+
+        // Don't offer to start a hotfix when the published release still has a release branch or already has a hotfix branch.
+        if (this.masterBranch != null) {
+            final VersionKey hotfixVersion = VersionKey.parse(new StartHotfixCause(this.masterBranch, this.branchTypeClassifier).getHotfixVersion());
+            if (this.releaseBranchesByVersion.containsKey(hotfixVersion) || this.hotfixBranchesByVersion.containsKey(hotfixVersion)) {
+                this.masterBranch = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the recorded remote branches of the given job - from the latest state of the job or else from the
+     * {@link GitflowPluginData} of its last build that has one.
+     *
+     * @param job the job/project that the remote branches are recorded for.
+     * @return the recorded remote branches of the given job - empty if no branches have been recorded yet.
+     */
+    public static List<RemoteBranch> getRecordedRemoteBranches(final AbstractProject<?, ?> job) {
+
+        // Prefer the latest state of the job, because with concurrent builds the last build isn't necessarily the last one that finished.
+        final GitflowPluginDataStore.Snapshot snapshot = GitflowPluginDataStore.getInstance().getLatest(job);
+        if (snapshot != null) {
+            return snapshot.getRemoteBranches();
+        }
+
+        // Try to get the action object that holds the data for the Gitflow plugin and extract the recorded remote branch information.
+        for (AbstractBuild<?, ?> lastBuild = job.getLastBuild(); lastBuild != null; lastBuild = lastBuild.getPreviousBuild()) {
+            final GitflowPluginData gitflowPluginData = lastBuild.getAction(GitflowPluginData.class);
+            if (gitflowPluginData != null) {
+                return gitflowPluginData.getRemoteBranches();
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    private static GitClientProxy createGitClient(final AbstractProject<?, ?> job) {
+        GitClientProxy gitClientProxy = null;
+
+        final AbstractBuild<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild != null) {
+            try {
+                gitClientProxy = new GitClientProxy(lastBuild, new StreamBuildListener(new NullStream()), false);
+            } catch (final Exception ignored) {
+                // NOTE that proper error handling for Git client problems is not possible here.
+                // That's why exceptions are swallowed instead of being handled in any way.
+            }
+        }
+
+        return gitClientProxy;
+    }
+
+    /**
+     * Returns the head of a branch as recorded by the Git plugin with the last build of the given job, without querying the
+     * remote repository. As long as the branch hasn't changed since that build, it's the current head of the branch.
+     *
+     * @param job the job/project that the head is recorded for.
+     * @param branchName the simple name of the branch.
+     * @return the recorded head of the branch or {@code null} if it's unknown.
+     */
+    public static ObjectId getRecordedHeadRev(final AbstractProject<?, ?> job, final String branchName) {
+        final AbstractBuild<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild != null) {
+            for (final BuildData buildData : lastBuild.getActions(BuildData.class)) {
+                final Map<String, Build> buildsByBranchName = buildData.getBuildsByBranchName();
+                for (final String recordedBranchName : new String[] { "origin/" + branchName, "refs/remotes/origin/" + branchName, branchName }) {
+                    final Build build = buildsByBranchName.get(recordedBranchName);
+                    if (build != null && build.getMarked() != null) {
+                        return build.getMarked().getSha1();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isExistingBlessedRemoteBranch(final GitClientProxy git, final String branchName) {
+        try {
+            final ObjectId headRev = git.getHeadRev(branchName);
+            if (headRev != null) {
+                this.headRevsByBranch.put(branchName, headRev);
+            }
+            return headRev != null;
+        } catch (final Exception ignored) {
+            // NOTE that proper error handling for Git client problems is not possible here.
+            // That's why exceptions are swallowed instead of being handled in any way.
+            return true;
+        }
+    }
+
+    public BranchTypeClassifier getBranchTypeClassifier() {
+        return this.branchTypeClassifier;
+    }
+
+    /**
+     * Returns the recorded remote branches that (still) exist.
+     *
+     * @return the recorded remote branches that (still) exist.
+     */
+    public List<RemoteBranch> getRemoteBranches() {
+        return Collections.unmodifiableList(this.remoteBranches);
+    }
+
+    /**
+     * Returns the recorded <i>develop</i> branch.
+     *
+     * @return the recorded <i>develop</i> branch or {@code null} if builds for the branch haven't been recorded so far.
+     */
+    public RemoteBranch getDevelopBranch() {
+        return this.developBranch;
+    }
+
+    /**
+     * Returns the recorded <i>master</i> branch, if a hotfix can be started for its last release.
+     *
+     * @return the recorded <i>master</i> branch or {@code null} if a hotfix can't be started.
+     */
+    public RemoteBranch getMasterBranch() {
+        return this.masterBranch;
+    }
+
+    /**
+     * Returns the head of the given remote branch, as it was when the model was created.
+     *
+     * @param branchName the simple name of the branch.
+     * @return the head of the given remote branch or {@code null} if it's unknown.
+     */
+    public ObjectId getHeadRev(final String branchName) {
+        return this.headRevsByBranch.get(branchName);
+    }
+
+    /**
+     * Returns the <i>release</i> branch with the given version.
+     *
+     * @param releaseVersion the version of the release branch.
+     * @return the <i>release</i> branch with the given version or {@code null} if there is no such branch.
+     */
+    public RemoteBranch getReleaseBranch(final String releaseVersion) {
+        return this.releaseBranchesByVersion.get(VersionKey.parse(releaseVersion));
+    }
+
+    /**
+     * Returns the <i>hotfix</i> branch with the given version.
+     *
+     * @param hotfixVersion the version of the hotfix branch.
+     * @return the <i>hotfix</i> branch with the given version or {@code null} if there is no such branch.
+     */
+    public RemoteBranch getHotfixBranch(final String hotfixVersion) {
+        return this.hotfixBranchesByVersion.get(VersionKey.parse(hotfixVersion));
+    }
+
+    public StartReleaseCause getStartReleaseCause() {
+        return this.developBranch == null ? null : new StartReleaseCause(this.developBranch, this.branchTypeClassifier);
+    }
+
+    public List<ReleaseBranchCauseGroup> getReleaseBranchCauseGroups() {
+        final List<ReleaseBranchCauseGroup> releaseBranchCauseGroups = new ArrayList<ReleaseBranchCauseGroup>(this.releaseBranchesByVersion.size());
+        for (final RemoteBranch releaseBranch : this.releaseBranchesByVersion.values()) {
+            releaseBranchCauseGroups.add(new ReleaseBranchCauseGroup(releaseBranch, this.branchTypeClassifier));
+        }
+        return releaseBranchCauseGroups;
+    }
+
+    /**
+     * Returns the causes for the Gitflow actions on the <i>release</i> branch with the given version.
+     *
+     * @param releaseVersion the version of the release branch.
+     * @return the causes for the release branch or {@code null} if there is no such branch.
+     */
+    public ReleaseBranchCauseGroup getReleaseBranchCauseGroup(final String releaseVersion) {
+        final RemoteBranch releaseBranch = this.getReleaseBranch(releaseVersion);
+        return releaseBranch == null ? null : new ReleaseBranchCauseGroup(releaseBranch, this.branchTypeClassifier);
+    }
+
+    public StartHotfixCause getStartHotfixCause() {
+        return this.masterBranch == null ? null : new StartHotfixCause(this.masterBranch, this.branchTypeClassifier);
+    }
+
+    public List<HotfixBranchCauseGroup> getHotfixBranchCauseGroups() {
+        final List<HotfixBranchCauseGroup> hotfixBranchCauseGroups = new ArrayList<HotfixBranchCauseGroup>(this.hotfixBranchesByVersion.size());
+        for (final RemoteBranch hotfixBranch : this.hotfixBranchesByVersion.values()) {
+            hotfixBranchCauseGroups.add(new HotfixBranchCauseGroup(hotfixBranch, this.branchTypeClassifier));
+        }
+        return hotfixBranchCauseGroups;
+    }
+
+    /**
+     * Returns the causes for the Gitflow actions on the <i>hotfix</i> branch with the given version.
+     *
+     * @param hotfixVersion the version of the hotfix branch.
+     * @return the causes for the hotfix branch or {@code null} if there is no such branch.
+     */
+    public HotfixBranchCauseGroup getHotfixBranchCauseGroup(final String hotfixVersion) {
+        final RemoteBranch hotfixBranch = this.getHotfixBranch(hotfixVersion);
+        return hotfixBranch == null ? null : new HotfixBranchCauseGroup(hotfixBranch, this.branchTypeClassifier);
+    }
+}
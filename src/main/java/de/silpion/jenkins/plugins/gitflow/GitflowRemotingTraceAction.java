@@ -0,0 +1,212 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import com.google.common.annotations.VisibleForTesting;
+import hudson.model.Action;
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.FileUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces the calls that a Gitflow build makes from the controller to the agent that runs the build - the Git operations,
+ * the workspace file checks, the environment lookups and the Maven launches. Each call is recorded with its caller site,
+ * its payload size (if known) and its latency.
+ * <p>
+ * The trace is only recorded when it's enabled in the global configuration. When the build is completed, it's exported
+ * to the build directory in the Chrome trace event format and can be downloaded at {@code gitflow-remoting-trace} to be
+ * loaded into {@code chrome://tracing}.
+ */
+public class GitflowRemotingTraceAction implements Action, RunAction2 {
+
+    @VisibleForTesting static final String FILE_NAME = "gitflow-remoting-trace.json";
+
+    private static final String PROXY_PACKAGE_PREFIX = "de.silpion.jenkins.plugins.gitflow.proxy.";
+
+    private transient Run<?, ?> run;
+
+    private final transient List<Call> calls = new ArrayList<Call>();
+
+    private final transient long originNanos;
+
+    private int callCount;
+    private long totalNanos;
+
+    /**
+     * Creates a new trace that starts now.
+     */
+    public GitflowRemotingTraceAction() {
+        this.originNanos = System.nanoTime();
+    }
+
+    /** {@inheritDoc} */
+    public String getDisplayName() {
+        return "Gitflow Remoting Trace";
+    }
+
+    /** {@inheritDoc} */
+    public String getIconFileName() {
+        return this.callCount == 0 ? null : "clock.png";
+    }
+
+    /** {@inheritDoc} */
+    public String getUrlName() {
+        return "gitflow-remoting-trace";
+    }
+
+    /** {@inheritDoc} */
+    public void onAttached(final Run<?, ?> run) {
+        this.run = run;
+    }
+
+    /** {@inheritDoc} */
+    public void onLoad(final Run<?, ?> run) {
+        this.run = run;
+    }
+
+    /**
+     * Records a call to the agent that ends now. The caller site is the first method on the stack that's neither part of
+     * the trace nor of the Git proxies, i.e. the method of the Gitflow action that caused the call.
+     *
+     * @param name the name of the call.
+     * @param startNanos the start of the call, as returned by {@link System#nanoTime()}.
+     * @param payloadBytes the size of the transferred data in bytes - {@code -1} if unknown.
+     */
+    public void record(final String name, final long startNanos, final long payloadBytes) {
+        final long endNanos = System.nanoTime();
+        final Thread thread = Thread.currentThread();
+        final Call call = new Call(name, getCallerSite(new Throwable().getStackTrace()), thread.getId(), startNanos - this.originNanos,
+                                   Math.max(0L, endNanos - startNanos), payloadBytes);
+        synchronized (this) {
+            this.calls.add(call);
+            this.callCount++;
+            this.totalNanos += call.durationNanos;
+        }
+    }
+
+    @VisibleForTesting
+    static String getCallerSite(final StackTraceElement[] stackTrace) {
+        for (final StackTraceElement element : stackTrace) {
+            final String className = element.getClassName();
+            if (!className.equals(GitflowRemotingTraceAction.class.getName()) && !className.startsWith(PROXY_PACKAGE_PREFIX)
+                && !className.equals("de.silpion.jenkins.plugins.gitflow.action.AbstractActionBase")) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + element.getMethodName() + ":" + element.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return the number of recorded calls.
+     */
+    public synchronized int getCallCount() {
+        return this.callCount;
+    }
+
+    /**
+     * Returns the summed up latency of the recorded calls.
+     *
+     * @return the summed up latency of the recorded calls in nanoseconds.
+     */
+    public synchronized long getTotalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * Returns the recorded calls in the Chrome trace event format.
+     *
+     * @param processName the name of the traced process, as displayed by the trace viewer.
+     * @return the recorded calls in the Chrome trace event format.
+     */
+    public synchronized JSONObject toTraceEvents(final String processName) {
+        final JSONArray traceEvents = new JSONArray();
+
+        final JSONObject processNameEvent = new JSONObject();
+        processNameEvent.put("name", "process_name");
+        processNameEvent.put("ph", "M");
+        processNameEvent.put("pid", 1);
+        processNameEvent.put("args", new JSONObject().element("name", processName));
+        traceEvents.add(processNameEvent);
+
+        for (final Call call : this.calls) {
+            final JSONObject args = new JSONObject();
+            args.put("caller", call.callerSite);
+            if (call.payloadBytes >= 0L) {
+                args.put("payloadBytes", call.payloadBytes);
+            }
+
+            final JSONObject traceEvent = new JSONObject();
+            traceEvent.put("name", call.name);
+            traceEvent.put("cat", "remoting");
+            traceEvent.put("ph", "X");
+            traceEvent.put("ts", TimeUnit.NANOSECONDS.toMicros(call.startNanos));
+            traceEvent.put("dur", TimeUnit.NANOSECONDS.toMicros(call.durationNanos));
+            traceEvent.put("pid", 1);
+            traceEvent.put("tid", call.threadId);
+            traceEvent.put("args", args);
+            traceEvents.add(traceEvent);
+        }
+
+        final JSONObject trace = new JSONObject();
+        trace.put("traceEvents", traceEvents);
+        trace.put("displayTimeUnit", "ms");
+        return trace;
+    }
+
+    /**
+     * Writes the recorded calls to the build directory. The calls are only held in memory until then.
+     *
+     * @throws IOException if the trace file cannot be written.
+     */
+    public void export() throws IOException {
+        if (this.run != null && this.getCallCount() > 0) {
+            FileUtils.writeStringToFile(new File(this.run.getRootDir(), FILE_NAME), this.toTraceEvents(this.run.getFullDisplayName()).toString(), "UTF-8");
+        }
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public void doIndex(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final File traceFile = this.run == null ? null : new File(this.run.getRootDir(), FILE_NAME);
+        if (traceFile == null || !traceFile.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + FILE_NAME);
+        FileUtils.copyFile(traceFile, response.getOutputStream());
+    }
+
+    /**
+     * A call to the agent.
+     */
+    private static final class Call {
+
+        private final String name;
+        private final String callerSite;
+        private final long threadId;
+        private final long startNanos;
+        private final long durationNanos;
+        private final long payloadBytes;
+
+        private Call(final String name, final String callerSite, final long threadId, final long startNanos, final long durationNanos,
+                     final long payloadBytes) {
+            this.name = name;
+            this.callerSite = callerSite;
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.payloadBytes = payloadBytes;
+        }
+    }
+}
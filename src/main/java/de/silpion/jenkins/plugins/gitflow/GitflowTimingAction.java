@@ -0,0 +1,162 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.model.Action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records the timeline of the phases of a Gitflow build - the Gitflow actions before and after the main build, the main
+ * build itself and the single Git operations. The timeline is persisted with the build, next to the {@link GitflowBadgeAction},
+ * and rendered as waterfall on the build page.
+ * <p>
+ * The phases are measured with {@link System#nanoTime()} and recorded relative to the creation of the action, so they
+ * can only be recorded while the build is running.
+ */
+public class GitflowTimingAction implements Action {
+
+    private final List<Phase> phases = new ArrayList<Phase>();
+
+    private final transient long originNanos;
+
+    /**
+     * Creates a new timeline that starts now.
+     */
+    public GitflowTimingAction() {
+        this.originNanos = System.nanoTime();
+    }
+
+    /** {@inheritDoc} */
+    public String getDisplayName() {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    public String getIconFileName() {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    public String getUrlName() {
+        return null;
+    }
+
+    /**
+     * Records a phase of the build.
+     *
+     * @param name the name of the phase.
+     * @param startNanos the start of the phase, as returned by {@link System#nanoTime()}.
+     * @param endNanos the end of the phase, as returned by {@link System#nanoTime()}.
+     */
+    public synchronized void record(final String name, final long startNanos, final long endNanos) {
+        this.phases.add(new Phase(name, startNanos - this.originNanos, Math.max(0L, endNanos - startNanos)));
+    }
+
+    /**
+     * Returns the recorded phases, ordered by their start.
+     *
+     * @return the recorded phases, ordered by their start.
+     */
+    public synchronized List<Phase> getPhases() {
+        final List<Phase> orderedPhases = new ArrayList<Phase>(this.phases);
+        Collections.sort(orderedPhases);
+        return orderedPhases;
+    }
+
+    /**
+     * Returns the time from the start of the first phase to the end of the last phase.
+     *
+     * @return the time from the start of the first phase to the end of the last phase in nanoseconds.
+     */
+    public synchronized long getTotalNanos() {
+        long startNanos = Long.MAX_VALUE;
+        long endNanos = Long.MIN_VALUE;
+        for (final Phase phase : this.phases) {
+            startNanos = Math.min(startNanos, phase.startNanos);
+            endNanos = Math.max(endNanos, phase.startNanos + phase.durationNanos);
+        }
+        return this.phases.isEmpty() ? 0L : endNanos - startNanos;
+    }
+
+    /**
+     * Returns the offset of the given phase on the waterfall.
+     *
+     * @param phase the phase.
+     * @return the offset of the given phase in percent of the total time.
+     */
+    public String getOffsetPercent(final Phase phase) {
+        final long firstStartNanos = this.getPhases().get(0).startNanos;
+        return toPercent(phase.startNanos - firstStartNanos, this.getTotalNanos());
+    }
+
+    /**
+     * Returns the width of the given phase on the waterfall.
+     *
+     * @param phase the phase.
+     * @return the duration of the given phase in percent of the total time.
+     */
+    public String getWidthPercent(final Phase phase) {
+        return toPercent(phase.durationNanos, this.getTotalNanos());
+    }
+
+    private static String toPercent(final long nanos, final long totalNanos) {
+        return String.format(Locale.ENGLISH, "%.2f", totalNanos == 0L ? 0.0 : 100.0 * nanos / totalNanos);
+    }
+
+    /**
+     * Returns the given time for display.
+     *
+     * @param nanos the time in nanoseconds.
+     * @return the given time in milliseconds.
+     */
+    public static String toMillis(final long nanos) {
+        return String.format(Locale.ENGLISH, "%.1f ms", nanos / 1000000.0);
+    }
+
+    /**
+     * A phase of the build.
+     */
+    public static final class Phase implements Comparable<Phase> {
+
+        private final String name;
+        private final long startNanos;
+        private final long durationNanos;
+
+        Phase(final String name, final long startNanos, final long durationNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the start of the phase relative to the start of the timeline.
+         *
+         * @return the start of the phase in nanoseconds.
+         */
+        public long getStartNanos() {
+            return this.startNanos;
+        }
+
+        public long getDurationNanos() {
+            return this.durationNanos;
+        }
+
+        /** {@inheritDoc} */
+        @SuppressFBWarnings("EQ_COMPARETO_USE_OBJECT_EQUALS")
+        public int compareTo(final Phase phase) {
+
+            // Enclosing phases start with the phases they enclose, so the longer one comes first.
+            if (this.startNanos == phase.startNanos) {
+                return this.durationNanos > phase.durationNanos ? -1 : (this.durationNanos == phase.durationNanos ? 0 : 1);
+            }
+            return this.startNanos < phase.startNanos ? -1 : 1;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package de.silpion.jenkins.plugins.gitflow.action;
 import java.io.PrintStream;
 import java.util.Formatter;
 
+import de.silpion.jenkins.plugins.gitflow.GitflowRemotingTraceAction;
+import de.silpion.jenkins.plugins.gitflow.GitflowTimingAction;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
 import hudson.model.Result;
@@ -46,6 +48,35 @@ public abstract class AbstractActionBase<B extends AbstractBuild<?, ?>> {
         return new Formatter().format(messageFormat, messageArguments).toString();
     }
 
+    /**
+     * Records a phase of the build in the timeline of the build, if the build has one.
+     *
+     * @param phaseName the name of the phase.
+     * @param startNanos the start of the phase, as returned by {@link System#nanoTime()}.
+     * @see GitflowTimingAction
+     */
+    protected void recordTiming(final String phaseName, final long startNanos) {
+        final GitflowTimingAction timingAction = this.build.getAction(GitflowTimingAction.class);
+        if (timingAction != null) {
+            timingAction.record(phaseName, startNanos, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a call to the agent in the remoting trace of the build, if the build has one.
+     *
+     * @param callName the name of the call.
+     * @param startNanos the start of the call, as returned by {@link System#nanoTime()}.
+     * @param payloadBytes the size of the transferred data in bytes - {@code -1} if unknown.
+     * @see GitflowRemotingTraceAction
+     */
+    protected void traceRemotingCall(final String callName, final long startNanos, final long payloadBytes) {
+        final GitflowRemotingTraceAction remotingTraceAction = this.build.getAction(GitflowRemotingTraceAction.class);
+        if (remotingTraceAction != null) {
+            remotingTraceAction.record(callName, startNanos, payloadBytes);
+        }
+    }
+
     /**
      * Returns the result of the build that is in progress. When an error occurs in an early state
      * of the build, {@link hudson.model.Run#getResult()} may return {@code null}. In those cases,
@@ -2,12 +2,18 @@ package de.silpion.jenkins.plugins.gitflow.action;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBadgeAction;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.action.buildtype.AbstractBuildTypeAction;
 import de.silpion.jenkins.plugins.gitflow.action.buildtype.BuildTypeActionFactory;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.NoGitflowCause;
 import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEvent;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEventJournal;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
@@ -18,10 +24,12 @@ import org.apache.commons.collections.MapUtils;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
@@ -50,8 +58,13 @@ public abstract class AbstractGitflowAction<B extends AbstractBuild<?, ?>, C ext
 
     protected final AbstractBuildTypeAction<?> buildTypeAction;
     protected final GitClientProxy git;
+    protected final BranchTypeClassifier branchTypeClassifier;
 
     protected GitflowPluginData gitflowPluginData;
+    private GitflowPluginDataStore.Snapshot baseSnapshot;
+    private boolean remoteBranchesCommitted;
+    private long mainBuildStartNanos;
+    private final GitflowEventJournal eventJournal;
 
     protected Map<String, String> additionalBuildEnvVars = new HashMap<String, String>();
 
@@ -70,6 +83,7 @@ public abstract class AbstractGitflowAction<B extends AbstractBuild<?, ?>, C ext
         super(build, listener);
 
         this.gitflowCause = gitflowCause;
+        this.branchTypeClassifier = GitflowBuildWrapper.getBranchTypeClassifier(build.getProject());
         this.buildTypeAction = BuildTypeActionFactory.newInstance(build, launcher, listener, this.getActionName());
 
         this.git = git;
@@ -79,44 +93,50 @@ public abstract class AbstractGitflowAction<B extends AbstractBuild<?, ?>, C ext
         this.gitflowPluginData = build.getAction(GitflowPluginData.class);
         if (this.gitflowPluginData == null) {
 
-            // Try to find the action object in one of the previous builds and clone it to a new one.
-            for (AbstractBuild<?, ?> previousBuild = build.getPreviousBuild(); previousBuild != null; previousBuild = previousBuild.getPreviousBuild()) {
-                final GitflowPluginData previousGitflowPluginData = previousBuild.getAction(GitflowPluginData.class);
-                if (previousGitflowPluginData != null) {
-
-                    // Clone the Gitflow plugin data from the previous build.
-                    try {
-                        this.gitflowPluginData = previousGitflowPluginData.clone();
-                    } catch (final CloneNotSupportedException cnse) {
-                        throw new IOException("Cloning of " + previousGitflowPluginData.getClass().getName() + " is not supported but should be.", cnse);
-                    }
-
-                    // Collect remote branches that don't exist anymore.
-                    final List<RemoteBranch> removeRemoteBranches = new LinkedList<RemoteBranch>();
-                    for (final RemoteBranch remoteBranch : this.gitflowPluginData.getRemoteBranches()) {
-                        if (this.git.getHeadRev(remoteBranch.getBranchName()) == null) {
-                            removeRemoteBranches.add(remoteBranch);
-                        }
-                    }
-
-                    // Remove the obsolte remote branches from the Gitflow plugin data.
-                    if (!removeRemoteBranches.isEmpty()) {
-                        this.gitflowPluginData.removeRemoteBranches(removeRemoteBranches, true);
-                    }
-
-                    break;
+            // Start from the latest state of the job, that also contains the changes of concurrent builds that have finished before.
+            // When no state has been committed yet (e.g. for the first build of the job), it's initialised with the data of the last previous Gitflow build.
+            final GitflowPluginDataStore gitflowPluginDataStore = GitflowPluginDataStore.getInstance();
+            GitflowPluginDataStore.Snapshot snapshot = gitflowPluginDataStore.getLatest(build.getProject());
+            if (snapshot == null) {
+                snapshot = gitflowPluginDataStore.initialise(build.getProject(), getPreviousRemoteBranches(build));
+            }
+            this.baseSnapshot = snapshot;
+            this.gitflowPluginData = new GitflowPluginData();
+            this.gitflowPluginData.setRemoteBranches(snapshot.getRemoteBranches());
+
+            // Collect remote branches that don't exist anymore.
+            final List<RemoteBranch> removeRemoteBranches = new LinkedList<RemoteBranch>();
+            for (final RemoteBranch remoteBranch : this.gitflowPluginData.getRemoteBranches()) {
+                if (this.git.getHeadRev(remoteBranch.getBranchName()) == null) {
+                    removeRemoteBranches.add(remoteBranch);
                 }
             }
 
-            // Create a new action object if none was found in the previous builds.
-            if (this.gitflowPluginData == null) {
-                this.gitflowPluginData = new GitflowPluginData();
+            // Remove the obsolte remote branches from the Gitflow plugin data.
+            if (!removeRemoteBranches.isEmpty()) {
+                this.gitflowPluginData.removeRemoteBranches(removeRemoteBranches, true);
             }
 
             // Add the new action object to the build.
             build.addAction(this.gitflowPluginData);
         }
         this.gitflowPluginData.setDryRun(gitflowCause.isDryRun());
+
+        // Only the progress of the Gitflow actions is journaled, not that of the standard builds.
+        this.eventJournal = gitflowCause instanceof NoGitflowCause ? null : GitflowEventJournal.forJob(build.getProject());
+    }
+
+    private static List<RemoteBranch> getPreviousRemoteBranches(final AbstractBuild<?, ?> build) {
+
+        // Try to find the action object in one of the previous builds.
+        for (AbstractBuild<?, ?> previousBuild = build.getPreviousBuild(); previousBuild != null; previousBuild = previousBuild.getPreviousBuild()) {
+            final GitflowPluginData previousGitflowPluginData = previousBuild.getAction(GitflowPluginData.class);
+            if (previousGitflowPluginData != null) {
+                return previousGitflowPluginData.getRemoteBranches();
+            }
+        }
+
+        return Collections.emptyList();
     }
 
     /**
@@ -126,21 +146,38 @@ public abstract class AbstractGitflowAction<B extends AbstractBuild<?, ?>, C ext
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public final void beforeMainBuild() throws IOException, InterruptedException {
+        final long startNanos = System.nanoTime();
 
         // Prepare the action object for the build badges to be displayed.
         final GitflowBadgeAction gitflowBadgeAction = new GitflowBadgeAction();
         gitflowBadgeAction.setGitflowActionName(this.getActionName());
         this.build.addAction(gitflowBadgeAction);
 
-        // Clean up the checkout.
-        this.cleanCheckout();
+        boolean completed = false;
+        try {
+
+            // Clean up the checkout.
+            final long cleanCheckoutStartNanos = System.nanoTime();
+            this.cleanCheckout();
+            this.recordTiming("cleanCheckout", cleanCheckoutStartNanos);
 
-        // Execute the action-specific tasks.
-        this.beforeMainBuildInternal();
+            // Execute the action-specific tasks.
+            this.beforeMainBuildInternal();
 
-        // Don't publish/deploy archives on Dry Run or if the main build is omitted.
-        if (this.gitflowCause.isDryRun() || this.gitflowCause.isOmitMainBuild()) {
-            this.buildTypeAction.preventArchivePublication(this.additionalBuildEnvVars);
+            // Don't publish/deploy archives on Dry Run or if the main build is omitted.
+            if (this.gitflowCause.isDryRun() || this.gitflowCause.isOmitMainBuild()) {
+                this.buildTypeAction.preventArchivePublication(this.additionalBuildEnvVars);
+            }
+            completed = true;
+        } finally {
+
+            // The tear down (i.e. afterMainBuild) isn't called when the set up fails, so the changes must be committed now.
+            if (!completed) {
+                this.commitRemoteBranches();
+            }
+            this.recordTiming(this.getActionName() + " before main build", startNanos);
+            this.journalEvent(GitflowEvent.PHASE_BEFORE_MAIN_BUILD, startNanos, completed ? Result.SUCCESS : Result.FAILURE);
+            this.mainBuildStartNanos = System.nanoTime();
         }
     }
 
@@ -151,16 +188,58 @@ public abstract class AbstractGitflowAction<B extends AbstractBuild<?, ?>, C ext
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public final void afterMainBuild() throws IOException, InterruptedException {
-        this.afterMainBuildInternal();
-
-        // Mark successful build as unstable if there are unstable branches.
-        final Result buildResult = this.getBuildResultNonNull();
-        if (buildResult.isBetterThan(Result.UNSTABLE) && getGitflowBuildWrapperDescriptor().isMarkSuccessfulBuildUnstableOnBrokenBranches()) {
-            final Map<Result, Collection<RemoteBranch>> unstableBranchesGroupedByResult = this.gitflowPluginData.getUnstableRemoteBranchesGroupedByResult();
-            if (MapUtils.isNotEmpty(unstableBranchesGroupedByResult)) {
-                this.consoleLogger.printf(MSG_PATTERN_RESULT_TO_UNSTABLE, this.getActionName(), unstableBranchesGroupedByResult.toString());
-                this.build.setResult(Result.UNSTABLE);
+        final long startNanos = System.nanoTime();
+        if (this.mainBuildStartNanos != 0L) {
+            this.recordTiming("main build", this.mainBuildStartNanos);
+            this.journalEvent(GitflowEvent.PHASE_MAIN_BUILD, this.mainBuildStartNanos, this.getCurrentResult());
+        }
+        boolean completed = false;
+        try {
+            this.afterMainBuildInternal();
+            this.commitRemoteBranches();
+
+            // Mark successful build as unstable if there are unstable branches.
+            final Result buildResult = this.getBuildResultNonNull();
+            if (buildResult.isBetterThan(Result.UNSTABLE) && getGitflowBuildWrapperDescriptor().isMarkSuccessfulBuildUnstableOnBrokenBranches()) {
+                final Map<Result, Collection<RemoteBranch>> unstableBranchesGroupedByResult = this.gitflowPluginData.getUnstableRemoteBranchesGroupedByResult();
+                if (MapUtils.isNotEmpty(unstableBranchesGroupedByResult)) {
+                    this.consoleLogger.printf(MSG_PATTERN_RESULT_TO_UNSTABLE, this.getActionName(), unstableBranchesGroupedByResult.toString());
+                    this.build.setResult(Result.UNSTABLE);
+                }
             }
+            completed = true;
+        } finally {
+            this.commitRemoteBranches();
+            this.recordTiming(this.getActionName() + " after main build", startNanos);
+            this.journalEvent(GitflowEvent.PHASE_AFTER_MAIN_BUILD, startNanos, completed ? this.getCurrentResult() : Result.FAILURE);
+        }
+    }
+
+    /**
+     * Merges the branch changes of this build onto the latest state of the job and records the merged state with the build.
+     * The changes are committed once - also when the Gitflow action fails or the build is aborted, as the action might have
+     * pushed changes to the remote repository before.
+     */
+    private void commitRemoteBranches() {
+        if (this.baseSnapshot != null && !this.remoteBranchesCommitted) {
+            this.remoteBranchesCommitted = true;
+            final GitflowPluginDataStore.Snapshot mergedSnapshot = GitflowPluginDataStore.getInstance().commit(this.build.getProject(), this.baseSnapshot,
+                                                                                                              this.gitflowPluginData.getRemoteBranches());
+            this.gitflowPluginData.setRemoteBranches(mergedSnapshot.getRemoteBranches());
+        }
+    }
+
+    // The result of a build in progress is only set when it's worse than success.
+    private Result getCurrentResult() {
+        final Result result = this.build.getResult();
+        return result == null ? Result.SUCCESS : result;
+    }
+
+    private void journalEvent(final String phase, final long startNanos, final Result result) {
+        if (this.eventJournal != null) {
+            final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            this.eventJournal.append(new GitflowEvent(this.build.getNumber(), this.getActionName(), phase, Collections.<String>emptyList(),
+                                                      this.gitflowCause.getVersionForBadge(), durationMillis, result.toString()));
         }
     }
 
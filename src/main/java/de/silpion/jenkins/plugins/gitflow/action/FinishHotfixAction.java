@@ -1,7 +1,5 @@
 package de.silpion.jenkins.plugins.gitflow.action;
 
-import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
-
 import java.io.IOException;
 
 import de.silpion.jenkins.plugins.gitflow.cause.FinishHotfixCause;
@@ -53,7 +51,7 @@ public class FinishHotfixAction<B extends AbstractBuild<?, ?>> extends AbstractG
         // Add environment and property variables
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", hotfixBranch);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", "origin/" + hotfixBranch);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", getGitflowBuildWrapperDescriptor().getBranchType(hotfixBranch));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(hotfixBranch));
     }
 
     @Override
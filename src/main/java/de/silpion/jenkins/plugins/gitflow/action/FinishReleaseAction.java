@@ -1,7 +1,5 @@
 package de.silpion.jenkins.plugins.gitflow.action;
 
-import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
-
 import java.io.IOException;
 
 import de.silpion.jenkins.plugins.gitflow.cause.FinishReleaseCause;
@@ -55,7 +53,7 @@ public class FinishReleaseAction<B extends AbstractBuild<?, ?>> extends Abstract
         // Add environment and property variables
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", releaseBranch);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", "origin/" + releaseBranch);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", getGitflowBuildWrapperDescriptor().getBranchType(releaseBranch));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(releaseBranch));
     }
 
     /** {@inheritDoc} */
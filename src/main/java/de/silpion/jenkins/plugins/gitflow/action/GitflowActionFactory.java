@@ -2,6 +2,9 @@ package de.silpion.jenkins.plugins.gitflow.action;
 
 import java.io.IOException;
 
+import de.silpion.jenkins.plugins.gitflow.GitflowGitTraceAction;
+import de.silpion.jenkins.plugins.gitflow.GitflowRemotingTraceAction;
+import de.silpion.jenkins.plugins.gitflow.GitflowTimingAction;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
 import de.silpion.jenkins.plugins.gitflow.cause.FinishHotfixCause;
@@ -12,11 +15,14 @@ import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
 import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
 import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
 import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEventJournal;
 
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
 
+import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
+
 /**
  * Factory class to create the instances for the  different <i>Gitflow</i> actions to be executed.
  *
@@ -31,7 +37,30 @@ public class GitflowActionFactory {
         final AbstractGitflowCause gitflowCause = build.getCause(AbstractGitflowCause.class);
 
         final boolean dryRun = gitflowCause != null && gitflowCause.isDryRun();
-        final GitClientProxy git = new GitClientProxy(build, listener, dryRun);
+
+        // Record the timeline of the build phases and Git operations with the build.
+        final GitflowTimingAction timingAction = new GitflowTimingAction();
+        build.addAction(timingAction);
+        final GitClientProxy git = new GitClientProxy(build, listener, dryRun, timingAction);
+
+        // Trace the calls to the agent on demand.
+        if (getGitflowBuildWrapperDescriptor().isTraceRemotingCalls()) {
+            final GitflowRemotingTraceAction remotingTraceAction = new GitflowRemotingTraceAction();
+            build.addAction(remotingTraceAction);
+            git.setRemotingTraceAction(remotingTraceAction);
+        }
+
+        // Record a replayable trace of the Git operations on demand.
+        if (getGitflowBuildWrapperDescriptor().isRecordGitTraces()) {
+            final GitflowGitTraceAction gitTraceAction = new GitflowGitTraceAction(git.getImplementation());
+            build.addAction(gitTraceAction);
+            git.setGitOperationTrace(gitTraceAction.getTrace());
+        }
+
+        // Journal the pushes of the Gitflow actions with the progress of the job.
+        if (gitflowCause != null) {
+            git.setEventJournal(GitflowEventJournal.forJob(build.getProject()), build.getNumber(), gitflowCause.getVersionForBadge());
+        }
 
         // The action to be created depends on the cause.
         if (gitflowCause == null) {
@@ -11,8 +11,6 @@ import org.apache.commons.lang.StringUtils;
 import java.io.IOException;
 import java.util.List;
 
-import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
-
 /**
  * This class executes some actions that are required when the <i>Gitflow</i> plugin is configured for a project and the standard (non-Gitflow) job is started.
  *
@@ -56,7 +54,7 @@ public class NoGitflowAction<B extends AbstractBuild<?, ?>> extends AbstractGitf
         final String simpleBranchName = StringUtils.split(remoteBranchName, "/", 2)[1];
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", simpleBranchName);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", remoteBranchName);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", getGitflowBuildWrapperDescriptor().getBranchType(simpleBranchName));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(simpleBranchName));
     }
 
     @Override
@@ -74,7 +72,9 @@ public class NoGitflowAction<B extends AbstractBuild<?, ?>> extends AbstractGitf
     }
 
     private List<String> getBranchesForCurrentlyBuiltCommit() throws IOException, InterruptedException {
+        final long environmentStartNanos = System.nanoTime();
         final String gitCommit = this.build.getEnvironment(this.listener).get("GIT_COMMIT");
+        this.traceRemotingCall("getEnvironment", environmentStartNanos, -1L);
         return this.git.getRemoteBranchNamesContaining(gitCommit);
     }
 }
@@ -1,6 +1,5 @@
 package de.silpion.jenkins.plugins.gitflow.action;
 
-import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.cause.PublishReleaseCause;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
@@ -17,7 +16,6 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
-import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 import static de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.GenericMergeCommand.StrategyOption.THEIRS;
 import static hudson.model.Result.SUCCESS;
 import static org.eclipse.jgit.api.MergeCommand.FastForwardMode.NO_FF;
@@ -64,8 +62,7 @@ public class PublishReleaseAction<B extends AbstractBuild<?, ?>> extends Abstrac
     protected void beforeMainBuildInternal() throws IOException, InterruptedException {
 
         // Checkout the master branch.
-        final GitflowBuildWrapper.DescriptorImpl buildWrapperDescriptor = getGitflowBuildWrapperDescriptor();
-        final String masterBranch = buildWrapperDescriptor.getMasterBranch();
+        final String masterBranch = this.branchTypeClassifier.getMasterBranch();
         final ObjectId targetBranchRev = this.git.getHeadRev(masterBranch);
         this.git.checkoutBranch(masterBranch, targetBranchRev.getName());
         this.consoleLogger.printf(MSG_PATTERN_CHECKOUT_BRANCH, ACTION_NAME, masterBranch);
@@ -102,7 +99,7 @@ public class PublishReleaseAction<B extends AbstractBuild<?, ?>> extends Abstrac
         // Add environment and property variables
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", masterBranch);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", "origin/" + masterBranch);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", getGitflowBuildWrapperDescriptor().getBranchType(masterBranch));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(masterBranch));
     }
 
     /** {@inheritDoc} */
@@ -9,8 +9,6 @@ import hudson.model.BuildListener;
 
 import java.io.IOException;
 
-import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
-
 /**
  * This class executes the required steps for the Gitflow action <i>Start Hotfix</i>.
  *
@@ -52,7 +50,7 @@ public class StartHotfixAction<B extends AbstractBuild<?, ?>> extends AbstractGi
 
         // Create a new hotfix branch based on the master branch.
         final String hotfixBranch = this.gitflowCause.getHotfixBranch();
-        final String masterBranch = getGitflowBuildWrapperDescriptor().getMasterBranch();
+        final String masterBranch = this.branchTypeClassifier.getMasterBranch();
         this.git.checkoutBranch(hotfixBranch, "origin/" + masterBranch);
         this.consoleLogger.printf(MSG_PATTERN_CREATED_BRANCH_BASED_ON_OTHER, this.getActionName(), hotfixBranch, masterBranch);
 
@@ -78,7 +76,7 @@ public class StartHotfixAction<B extends AbstractBuild<?, ?>> extends AbstractGi
         // Add environment and property variables
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", hotfixBranch);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", "origin/" + hotfixBranch);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", getGitflowBuildWrapperDescriptor().getBranchType(hotfixBranch));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(hotfixBranch));
     }
 
     /** {@inheritDoc} */
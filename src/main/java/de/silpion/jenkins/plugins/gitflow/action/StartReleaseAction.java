@@ -56,10 +56,9 @@ public class StartReleaseAction<B extends AbstractBuild<?, ?>> extends AbstractG
     protected void beforeMainBuildInternal() throws IOException, InterruptedException {
 
         // Create a new release branch based on the develop branch.
-        final GitflowBuildWrapper.DescriptorImpl buildWrapperDescriptor = getGitflowBuildWrapperDescriptor();
         final String releaseVersion = this.gitflowCause.getReleaseVersion();
         final String releaseBranch = this.gitflowCause.getReleaseBranch();
-        this.git.checkoutBranch(releaseBranch, "origin/" + buildWrapperDescriptor.getDevelopBranch());
+        this.git.checkoutBranch(releaseBranch, "origin/" + this.branchTypeClassifier.getDevelopBranch());
         this.consoleLogger.printf(MSG_PATTERN_CREATED_RELEASE_BRANCH, ACTION_NAME, releaseBranch);
 
         // Update the version numbers in the project files to the release version.
@@ -74,7 +73,7 @@ public class StartReleaseAction<B extends AbstractBuild<?, ?>> extends AbstractG
         // Add environment and property variables
         this.additionalBuildEnvVars.put("GIT_SIMPLE_BRANCH_NAME", releaseBranch);
         this.additionalBuildEnvVars.put("GIT_REMOTE_BRANCH_NAME", "origin/" + releaseBranch);
-        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", buildWrapperDescriptor.getBranchType(releaseBranch));
+        this.additionalBuildEnvVars.put("GIT_BRANCH_TYPE", this.branchTypeClassifier.classify(releaseBranch));
     }
 
     @Override
@@ -104,19 +103,27 @@ public class StartReleaseAction<B extends AbstractBuild<?, ?>> extends AbstractG
         this.consoleLogger.print(msgUpdatedFixesVersion);
 
         // Update the project files in the develop branch to the development version for the next release.
-        final String developBranch = buildWrapperDescriptor.getDevelopBranch();
+        final String developBranch = this.branchTypeClassifier.getDevelopBranch();
         this.git.checkoutBranch(developBranch, "origin/" + developBranch);
         final String nextReleaseDevelopmentVersion = this.gitflowCause.getNextReleaseDevelopmentVersion();
-        this.addFilesToGitStage(this.buildTypeAction.updateVersion(nextReleaseDevelopmentVersion));
         final String msgUpdatedNextVersion = formatPattern(MSG_PATTERN_UPDATED_NEXT_RELEASE_DEVELOPMENT_VERSION, ACTION_NAME, developBranch, nextReleaseDevelopmentVersion);
-        this.git.commit(msgUpdatedNextVersion);
-        this.consoleLogger.print(msgUpdatedNextVersion);
+        final GitClientProxy.VersionBumpCommit nextVersionCommit = new GitClientProxy.VersionBumpCommit() {
+
+            /** {@inheritDoc} */
+            public void recommit() throws IOException, InterruptedException {
+                StartReleaseAction.this.addFilesToGitStage(StartReleaseAction.this.buildTypeAction.updateVersion(nextReleaseDevelopmentVersion));
+                StartReleaseAction.this.git.commit(msgUpdatedNextVersion);
+                StartReleaseAction.this.consoleLogger.print(msgUpdatedNextVersion);
+            }
+        };
+        nextVersionCommit.recommit();
 
         // Push everything - the new release branch and its commits, the new tag and the commit on the develop branch.
+        // The develop branch may have been updated in the meantime, so the version bump commit may have to be recreated for the push.
         final String releaseBranch = this.gitflowCause.getReleaseBranch();
         this.git.push("origin", "refs/tags/" + tagName + ":refs/tags/" + tagName);
         this.git.push("origin", "refs/heads/" + releaseBranch + ":refs/heads/" + releaseBranch);
-        this.git.push("origin", "refs/heads/" + developBranch + ":refs/heads/" + developBranch);
+        this.git.pushVersionBump("origin", developBranch, buildWrapperDescriptor.getVersionBumpPushRetries(), nextVersionCommit);
 
         // Record the information about the state of the release branch.
         final RemoteBranch remoteBranchRelease = this.gitflowPluginData.getOrAddRemoteBranch(releaseBranch);
@@ -135,7 +142,7 @@ public class StartReleaseAction<B extends AbstractBuild<?, ?>> extends AbstractG
     private void afterUnsuccessfulMainBuild() {
 
         // Here we assume that there was an error on the develop branch right before we created the release branch.
-        final RemoteBranch remoteBranchDevelop = this.gitflowPluginData.getOrAddRemoteBranch(getGitflowBuildWrapperDescriptor().getDevelopBranch());
+        final RemoteBranch remoteBranchDevelop = this.gitflowPluginData.getOrAddRemoteBranch(this.branchTypeClassifier.getDevelopBranch());
         remoteBranchDevelop.setLastBuildResult(this.getBuildResultNonNull());
         remoteBranchDevelop.setLastBuildVersion(remoteBranchDevelop.getLastBuildVersion());
     }
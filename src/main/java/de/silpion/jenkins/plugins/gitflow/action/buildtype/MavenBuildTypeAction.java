@@ -99,7 +99,12 @@ public class MavenBuildTypeAction extends AbstractBuildTypeAction<MavenModuleSet
         final List<String> modifiedFiles;
 
         // Run a Maven build that updates the project versions in the POMs.
-        this.executeMaven("set-version_" + version + ".log", formatPattern(CMD_PATTERN_SET_POM_VERSION, version));
+        final long startNanos = System.nanoTime();
+        try {
+            this.executeMaven("set-version_" + version + ".log", formatPattern(CMD_PATTERN_SET_POM_VERSION, version));
+        } finally {
+            this.recordTiming("updateVersion " + version, startNanos);
+        }
 
         // Each modules' POM should have been modified.
         final Collection<MavenModule> modules = this.build.getProject().getModules();
@@ -107,7 +112,10 @@ public class MavenBuildTypeAction extends AbstractBuildTypeAction<MavenModuleSet
         for (final MavenModule module : modules) {
             final String moduleRelativePath = module.getRelativePath();
             final String modulePomFile = (StringUtils.isBlank(moduleRelativePath) ? "" : moduleRelativePath + "/") + POM_XML;
-            if (this.build.getWorkspace().child(modulePomFile).exists()) {
+            final long existsStartNanos = System.nanoTime();
+            final boolean exists = this.build.getWorkspace().child(modulePomFile).exists();
+            this.traceRemotingCall("exists " + modulePomFile, existsStartNanos, -1L);
+            if (exists) {
                 modifiedFiles.add(modulePomFile);
             }
         }
@@ -119,7 +127,9 @@ public class MavenBuildTypeAction extends AbstractBuildTypeAction<MavenModuleSet
 
         final MavenModuleSet mavenProject = this.build.getProject();
         final String mavenInstallation = mavenProject.getMaven().getName();
+        final long environmentStartNanos = System.nanoTime();
         final String pom = mavenProject.getRootPOM(this.build.getEnvironment(this.listener));
+        this.traceRemotingCall("getEnvironment", environmentStartNanos, -1L);
 
         // Use a BuildListener delegate to redirect the Maven output to a file (instead of being displayed in the Jenkins console).
         final File outputLogFile = new File(this.build.getRootDir(), "gitflow-log/" + logFileName);
@@ -127,7 +137,13 @@ public class MavenBuildTypeAction extends AbstractBuildTypeAction<MavenModuleSet
 
         // Execute Maven and throw an Exception when it returns with an error.
         final String argumentsString = StringUtils.join(arguments, " ");
-        final boolean success = new Maven(argumentsString, mavenInstallation, pom, null, null).perform(this.build, this.launcher, buildListener);
+        final long mavenStartNanos = System.nanoTime();
+        final boolean success;
+        try {
+            success = new Maven(argumentsString, mavenInstallation, pom, null, null).perform(this.build, this.launcher, buildListener);
+        } finally {
+            this.traceRemotingCall("mvn " + argumentsString, mavenStartNanos, outputLogFile.length());
+        }
         if (!success) {
             throw new IOException("Error while executing mvn " + argumentsString);
         }
@@ -0,0 +1,402 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.FinishHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.FinishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Action;
+import hudson.model.CauseAction;
+import hudson.model.Item;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.RootAction;
+import hudson.model.queue.ScheduleResult;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON API for submitting Gitflow actions for one or more jobs in one request, available at {@code gitflow-api/batch}.
+ * <p>
+ * The request body is a JSON object with an array {@code actions}. Each entry names the {@code job}, the {@code action}
+ * ({@code startRelease}, {@code testRelease}, {@code publishRelease}, {@code finishRelease}, {@code startHotfix},
+ * {@code testHotfix}, {@code publishHotfix} or {@code finishHotfix}), the {@code releaseVersion} or {@code hotfixVersion}
+ * that identifies the branch and an {@code idempotencyKey}. Versions that aren't given are taken from the proposals of
+ * the Gitflow page.
+ * <p>
+ * All entries are validated against the recorded branch state of the jobs before any build is scheduled - a single
+ * invalid entry rejects the whole batch. The response contains the ID of the queue item for each entry. An entry with an
+ * idempotency key that has already been submitted (by the same user within a day) isn't validated and scheduled again;
+ * the response repeats the result of the first submission instead. An entry that duplicates a running build isn't
+ * scheduled either; the response names the running build.
+ */
+@Extension
+public class GitflowBatchApi implements RootAction {
+
+    @VisibleForTesting static final String KEY_ACTIONS = "actions";
+    @VisibleForTesting static final String KEY_IDEMPOTENCY_KEY = "idempotencyKey";
+    @VisibleForTesting static final String KEY_JOB = "job";
+    @VisibleForTesting static final String KEY_ACTION = "action";
+    @VisibleForTesting static final String KEY_DRY_RUN = "dryRun";
+    @VisibleForTesting static final String KEY_RELEASE_VERSION = "releaseVersion";
+    @VisibleForTesting static final String KEY_HOTFIX_VERSION = "hotfixVersion";
+    @VisibleForTesting static final String KEY_PATCH_RELEASE_VERSION = "patchReleaseVersion";
+    @VisibleForTesting static final String KEY_NEXT_PATCH_DEVELOPMENT_VERSION = "nextPatchDevelopmentVersion";
+    @VisibleForTesting static final String KEY_NEXT_RELEASE_DEVELOPMENT_VERSION = "nextReleaseDevelopmentVersion";
+
+    @VisibleForTesting static final String STATUS_SCHEDULED = "scheduled";
+    @VisibleForTesting static final String STATUS_MERGED = "merged";
+    @VisibleForTesting static final String STATUS_REFUSED = "refused";
+    @VisibleForTesting static final String STATUS_REPLAYED = "replayed";
+    @VisibleForTesting static final String STATUS_RUNNING = "running";
+
+    // The results of the submissions, by user and idempotency key.
+    private static final Cache<String, RecordedSubmission> RECORDED_SUBMISSIONS = CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.DAYS)
+                                                                                               .maximumSize(10000).build();
+
+    public String getIconFileName() {
+        return null;
+    }
+
+    public String getDisplayName() {
+        return "Gitflow API";
+    }
+
+    public String getUrlName() {
+        return "gitflow-api";
+    }
+
+    @RequirePOST
+    @SuppressWarnings("UnusedDeclaration")
+    public void doBatch(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final JSONArray entries;
+        try {
+            entries = JSONObject.fromObject(IOUtils.toString(request.getReader())).optJSONArray(KEY_ACTIONS);
+        } catch (final JSONException jsone) {
+            sendErrors(response, "malformed JSON: " + jsone.getMessage());
+            return;
+        }
+        if (entries == null || entries.isEmpty()) {
+            sendErrors(response, "no actions submitted");
+            return;
+        }
+
+        final String user = Jenkins.getAuthentication().getName();
+        final JSONArray results = new JSONArray();
+
+        // Concurrent batches must not schedule the same idempotency key twice.
+        synchronized (RECORDED_SUBMISSIONS) {
+
+            // Validate all entries first - nothing is scheduled if a single entry is invalid.
+            final List<Submission> submissions = new ArrayList<Submission>(entries.size());
+            final List<String> problems = new ArrayList<String>();
+            final Set<String> idempotencyKeys = new HashSet<String>();
+            for (int i = 0; i < entries.size(); i++) {
+                try {
+                    submissions.add(createSubmission(user, entries.getJSONObject(i), idempotencyKeys));
+                } catch (final IllegalArgumentException iae) {
+                    problems.add(KEY_ACTIONS + "[" + i + "]: " + iae.getMessage());
+                } catch (final JSONException jsone) {
+                    problems.add(KEY_ACTIONS + "[" + i + "]: " + jsone.getMessage());
+                }
+            }
+            if (!problems.isEmpty()) {
+                sendErrors(response, problems.toArray(new String[problems.size()]));
+                return;
+            }
+
+            for (final Submission submission : submissions) {
+                results.add(submission.schedule());
+            }
+        }
+
+        final JSONObject json = new JSONObject();
+        json.put("results", results);
+        sendJson(response, HttpServletResponse.SC_OK, json);
+    }
+
+    /**
+     * Creates the submission for an entry of a batch. An entry with an idempotency key that has already been submitted is
+     * answered from the record without validating it again, because the submitted action itself may have changed the
+     * recorded branch state in the meantime.
+     *
+     * @param user the name of the submitting user.
+     * @param entry the submitted action.
+     * @param idempotencyKeys the idempotency keys of the preceding entries of the batch.
+     * @return the submission, ready to be scheduled.
+     * @throws IllegalArgumentException if the entry is invalid.
+     */
+    @VisibleForTesting
+    static Submission createSubmission(final String user, final JSONObject entry, final Set<String> idempotencyKeys) {
+        final String idempotencyKey = entry.optString(KEY_IDEMPOTENCY_KEY);
+        if (StringUtils.isBlank(idempotencyKey)) {
+            throw new IllegalArgumentException("missing " + KEY_IDEMPOTENCY_KEY);
+        } else if (!idempotencyKeys.add(idempotencyKey)) {
+            throw new IllegalArgumentException("duplicate " + KEY_IDEMPOTENCY_KEY + " " + idempotencyKey);
+        }
+
+        final String recordKey = user + ':' + idempotencyKey;
+        final String request = getRequest(entry);
+        final RecordedSubmission recordedSubmission = RECORDED_SUBMISSIONS.getIfPresent(recordKey);
+        if (recordedSubmission != null) {
+            if (!recordedSubmission.request.equals(request)) {
+                throw new IllegalArgumentException(KEY_IDEMPOTENCY_KEY + " " + idempotencyKey + " has already been used for another action");
+            }
+            return new Submission(recordKey, idempotencyKey, request, null, null, null, recordedSubmission);
+        }
+
+        final String jobName = entry.optString(KEY_JOB);
+        final Item item = Jenkins.getInstance().getItemByFullName(jobName);
+        if (!GitflowBuildWrapper.isGitflowJob(item)) {
+            throw new IllegalArgumentException("unknown Gitflow job " + jobName);
+        }
+        final AbstractProject<?, ?> job = (AbstractProject<?, ?>) item;
+        if (!GitflowBuildWrapper.hasReleasePermission(job)) {
+            throw new IllegalArgumentException("missing permission to execute Gitflow actions for " + jobName);
+        }
+
+        // The identity is based on the recorded head of the base branch, so the batch doesn't query the remote repositories.
+        final GitflowProjectModel model = new GitflowProjectModel(job, false);
+        final AbstractGitflowCause gitflowCause = createCause(entry, model);
+        final GitflowQueueAction gitflowQueueAction = GitflowQueueAction.forSubmission(job, gitflowCause, model.getBranchTypeClassifier());
+        return new Submission(recordKey, idempotencyKey, request, job, gitflowCause, gitflowQueueAction, null);
+    }
+
+    /**
+     * Records the result of a submission for its idempotency key.
+     *
+     * @param recordKey the user and the idempotency key of the submission.
+     * @param entry the submitted action.
+     * @param result the result of the submission.
+     */
+    @VisibleForTesting
+    static void recordSubmission(final String recordKey, final JSONObject entry, final JSONObject result) {
+        RECORDED_SUBMISSIONS.put(recordKey, new RecordedSubmission(getRequest(entry), result.toString()));
+    }
+
+    // The submitted action without the versions that may be proposed from the recorded branch state.
+    private static String getRequest(final JSONObject entry) {
+        return entry.optString(KEY_JOB) + ": " + entry.optString(KEY_ACTION) + " " + entry.optString(KEY_RELEASE_VERSION) + " "
+               + entry.optString(KEY_HOTFIX_VERSION);
+    }
+
+    /**
+     * Creates the cause for a submitted action from the recorded branch state of the job.
+     *
+     * @param entry the submitted action.
+     * @param model the model with the recorded branches of the job.
+     * @return the cause for the submitted action.
+     * @throws IllegalArgumentException if the action is unknown or not available for the job.
+     */
+    @VisibleForTesting
+    static AbstractGitflowCause createCause(final JSONObject entry, final GitflowProjectModel model) {
+        final String action = entry.optString(KEY_ACTION);
+        final boolean dryRun = entry.optBoolean(KEY_DRY_RUN);
+        final BranchTypeClassifier branchTypeClassifier = model.getBranchTypeClassifier();
+        if ("startRelease".equals(action)) {
+            final StartReleaseCause proposal = model.getStartReleaseCause();
+            if (proposal == null) {
+                throw new IllegalArgumentException("builds for the develop branch haven't been recorded so far");
+            }
+            return new StartReleaseCause(model.getDevelopBranch(), getVersion(entry, KEY_RELEASE_VERSION, proposal.getReleaseVersion()),
+                                         getVersion(entry, KEY_NEXT_PATCH_DEVELOPMENT_VERSION, proposal.getNextPatchDevelopmentVersion()),
+                                         getVersion(entry, KEY_NEXT_RELEASE_DEVELOPMENT_VERSION, proposal.getNextReleaseDevelopmentVersion()),
+                                         dryRun, branchTypeClassifier);
+        } else if ("testRelease".equals(action)) {
+            final RemoteBranch releaseBranch = getReleaseBranch(entry, model);
+            final TestReleaseCause proposal = new TestReleaseCause(releaseBranch, branchTypeClassifier);
+            return new TestReleaseCause(releaseBranch, getVersion(entry, KEY_PATCH_RELEASE_VERSION, proposal.getPatchReleaseVersion()),
+                                        getVersion(entry, KEY_NEXT_PATCH_DEVELOPMENT_VERSION, proposal.getNextPatchDevelopmentVersion()),
+                                        dryRun, branchTypeClassifier);
+        } else if ("publishRelease".equals(action)) {
+            return new PublishReleaseCause(getReleaseBranch(entry, model), dryRun, branchTypeClassifier);
+        } else if ("finishRelease".equals(action)) {
+            return new FinishReleaseCause(getReleaseBranch(entry, model), dryRun, branchTypeClassifier);
+        } else if ("startHotfix".equals(action)) {
+            final StartHotfixCause proposal = model.getStartHotfixCause();
+            if (proposal == null) {
+                throw new IllegalArgumentException("a hotfix can't be started for the recorded master branch");
+            }
+            return new StartHotfixCause(model.getMasterBranch(), getVersion(entry, KEY_NEXT_PATCH_DEVELOPMENT_VERSION, proposal.getNextPatchDevelopmentVersion()),
+                                        dryRun, branchTypeClassifier);
+        } else if ("testHotfix".equals(action)) {
+            final RemoteBranch hotfixBranch = getHotfixBranch(entry, model);
+            final TestHotfixCause proposal = new TestHotfixCause(hotfixBranch, branchTypeClassifier);
+            return new TestHotfixCause(hotfixBranch, getVersion(entry, KEY_PATCH_RELEASE_VERSION, proposal.getPatchReleaseVersion()),
+                                       getVersion(entry, KEY_NEXT_PATCH_DEVELOPMENT_VERSION, proposal.getNextPatchDevelopmentVersion()),
+                                       dryRun, branchTypeClassifier);
+        } else if ("publishHotfix".equals(action)) {
+            return new PublishHotfixCause(getHotfixBranch(entry, model), dryRun, branchTypeClassifier);
+        } else if ("finishHotfix".equals(action)) {
+            return new FinishHotfixCause(getHotfixBranch(entry, model), dryRun, branchTypeClassifier);
+        } else {
+            throw new IllegalArgumentException("unknown Gitflow action " + action);
+        }
+    }
+
+    private static RemoteBranch getReleaseBranch(final JSONObject entry, final GitflowProjectModel model) {
+        final String releaseVersion = entry.optString(KEY_RELEASE_VERSION);
+        final RemoteBranch releaseBranch = StringUtils.isBlank(releaseVersion) ? null : model.getReleaseBranch(releaseVersion);
+        if (releaseBranch == null) {
+            throw new IllegalArgumentException("no release branch recorded for " + KEY_RELEASE_VERSION + " '" + releaseVersion + "'");
+        }
+        return releaseBranch;
+    }
+
+    private static RemoteBranch getHotfixBranch(final JSONObject entry, final GitflowProjectModel model) {
+        final String hotfixVersion = entry.optString(KEY_HOTFIX_VERSION);
+        final RemoteBranch hotfixBranch = StringUtils.isBlank(hotfixVersion) ? null : model.getHotfixBranch(hotfixVersion);
+        if (hotfixBranch == null) {
+            throw new IllegalArgumentException("no hotfix branch recorded for " + KEY_HOTFIX_VERSION + " '" + hotfixVersion + "'");
+        }
+        return hotfixBranch;
+    }
+
+    private static String getVersion(final JSONObject entry, final String key, final String proposedVersion) {
+        return StringUtils.defaultIfBlank(entry.optString(key), proposedVersion).trim();
+    }
+
+    private static void sendErrors(final StaplerResponse response, final String... errors) throws IOException {
+        final JSONObject json = new JSONObject();
+        json.put("errors", JSONArray.fromObject(errors));
+        sendJson(response, HttpServletResponse.SC_BAD_REQUEST, json);
+    }
+
+    private static void sendJson(final StaplerResponse response, final int status, final JSONObject json) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(json.toString());
+    }
+
+    /**
+     * A validated entry of a batch, ready to be scheduled.
+     */
+    static final class Submission {
+
+        private final String recordKey;
+        private final String idempotencyKey;
+        private final String request;
+        private final AbstractProject<?, ?> job;
+        private final AbstractGitflowCause gitflowCause;
+        private final GitflowQueueAction gitflowQueueAction;
+        private final RecordedSubmission recordedSubmission;
+
+        private Submission(final String recordKey, final String idempotencyKey, final String request, final AbstractProject<?, ?> job,
+                           final AbstractGitflowCause gitflowCause, final GitflowQueueAction gitflowQueueAction,
+                           final RecordedSubmission recordedSubmission) {
+            this.recordKey = recordKey;
+            this.idempotencyKey = idempotencyKey;
+            this.request = request;
+            this.job = job;
+            this.gitflowCause = gitflowCause;
+            this.gitflowQueueAction = gitflowQueueAction;
+            this.recordedSubmission = recordedSubmission;
+        }
+
+        JSONObject schedule() {
+            if (this.recordedSubmission != null) {
+                final JSONObject result = JSONObject.fromObject(this.recordedSubmission.result);
+                result.put("status", STATUS_REPLAYED);
+                return result;
+            }
+
+            final JSONObject result = new JSONObject();
+            result.put(KEY_IDEMPOTENCY_KEY, this.idempotencyKey);
+            result.put(KEY_JOB, this.job.getFullName());
+            result.put("identity", this.gitflowQueueAction.getIdentity());
+
+            // A submission that duplicates a running build is folded into that build.
+            final AbstractBuild<?, ?> runningBuild = GitflowQueueAction.getRunningBuild(this.job, this.gitflowQueueAction.getIdentity());
+            if (runningBuild != null) {
+                result.put("status", STATUS_RUNNING);
+                result.put("buildNumber", runningBuild.getNumber());
+                result.put("buildUrl", runningBuild.getUrl());
+                RECORDED_SUBMISSIONS.put(this.recordKey, new RecordedSubmission(this.request, result.toString()));
+                return result;
+            }
+
+            final List<Action> actions = new ArrayList<Action>();
+            actions.add(new CauseAction(this.gitflowCause));
+            actions.add(this.gitflowQueueAction);
+            final ParametersAction defaultParameters = getDefaultParameters(this.job);
+            if (defaultParameters != null) {
+                actions.add(defaultParameters);
+            }
+
+            // Jenkins merges the build into a queued item for the same Gitflow action (see GitflowQueueAction).
+            final ScheduleResult scheduleResult = Jenkins.getInstance().getQueue().schedule2(this.job, 0, actions);
+            if (scheduleResult.isRefused()) {
+                result.put("status", STATUS_REFUSED);
+            } else {
+                result.put("status", scheduleResult.isCreated() ? STATUS_SCHEDULED : STATUS_MERGED);
+                result.put("queueItemId", scheduleResult.getItem().getId());
+                result.put("queueItemUrl", scheduleResult.getItem().getUrl());
+
+                // Refused submissions may be retried with the same key, all others are answered from the record.
+                RECORDED_SUBMISSIONS.put(this.recordKey, new RecordedSubmission(this.request, result.toString()));
+            }
+            return result;
+        }
+
+        private static ParametersAction getDefaultParameters(final AbstractProject<?, ?> job) {
+            final ParametersDefinitionProperty parametersDefinitionProperty = job.getProperty(ParametersDefinitionProperty.class);
+            if (parametersDefinitionProperty == null) {
+                return null;
+            }
+            final List<ParameterValue> defaultValues = new ArrayList<ParameterValue>();
+            for (final ParameterDefinition parameterDefinition : parametersDefinitionProperty.getParameterDefinitions()) {
+                final ParameterValue defaultValue = parameterDefinition.getDefaultParameterValue();
+                if (defaultValue != null) {
+                    defaultValues.add(defaultValue);
+                }
+            }
+            return new ParametersAction(defaultValues);
+        }
+    }
+
+    /**
+     * The result of a submission, recorded for its idempotency key.
+     */
+    private static final class RecordedSubmission {
+
+        private final String request;
+        private final String result;
+
+        private RecordedSubmission(final String request, final String result) {
+            this.request = request;
+            this.result = result;
+        }
+    }
+}
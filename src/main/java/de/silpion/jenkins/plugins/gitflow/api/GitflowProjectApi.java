@@ -0,0 +1,395 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.HotfixBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.ReleaseBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.BranchState;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.data.StateDelta;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEvent;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEventJournal;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEventReader;
+import de.silpion.jenkins.plugins.gitflow.metrics.GitflowMetrics;
+import hudson.model.AbstractProject;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The JSON API for the Gitflow state of a job, available at {@code job/<name>/gitflow/api/v1}. The API returns the
+ * recorded branches and the Gitflow actions that are available for them, including the proposed versions.
+ * <p>
+ * The responses carry the state version of the job from the {@link GitflowStateIndex} as {@code ETag}. Clients that send
+ * the {@code ETag} of their last response in the {@code If-None-Match} header receive a {@code 304 Not Modified} response
+ * as long as the state of the job hasn't changed. The state is computed once per state version and cached, and it's
+ * computed from the recorded branch state only - unlike the Gitflow page, the API doesn't query the remote repository.
+ * <p>
+ * The request parameters {@code tree} and {@code depth} restrict the response to the required data (see {@link JsonTreeFilter}).
+ * <p>
+ * Open pages can follow the state with long polls on {@code job/<name>/gitflow/api/changes?since=<stateVersion>}, which
+ * return the changed and removed branches as soon as the state of the job changes.
+ * <p>
+ * The progress of the Gitflow actions can be read incrementally from {@code job/<name>/gitflow/api/events?after=<seq>},
+ * which streams the events of the {@link GitflowEventJournal} after the given sequence number as JSON lines.
+ */
+public class GitflowProjectApi {
+
+    @VisibleForTesting static final int API_VERSION = 1;
+
+    @VisibleForTesting static final String KEY_TREE = "tree";
+    @VisibleForTesting static final String KEY_DEPTH = "depth";
+    @VisibleForTesting static final String KEY_SINCE = "since";
+    @VisibleForTesting static final String KEY_AFTER = "after";
+
+    private static final long CHANGES_TIMEOUT_MILLIS = 25000L;
+    private static final long CHANGES_POLL_INTERVAL_MILLIS = 10000L;
+
+    // Each long poll holds a request thread while it waits, so only a limited number of them may wait at the same time.
+    private static final int MAX_CHANGES_WAITERS = 32;
+    private static final Semaphore CHANGES_WAITERS = new Semaphore(MAX_CHANGES_WAITERS);
+
+    // The computed state of the jobs, held only as long as the jobs exist.
+    private static final Map<AbstractProject<?, ?>, CachedState> CACHED_STATES = new MapMaker().weakKeys().makeMap();
+
+    private final AbstractProject<?, ?> job;
+
+    /**
+     * Creates the API for the given job.
+     *
+     * @param job the job/project to provide the Gitflow state for.
+     */
+    public GitflowProjectApi(final AbstractProject<?, ?> job) {
+        this.job = job;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public void doV1(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final JsonTreeFilter filter;
+        try {
+            filter = JsonTreeFilter.create(request.getParameter(KEY_TREE), parseDepth(request.getParameter(KEY_DEPTH)));
+        } catch (final IllegalArgumentException iae) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, iae.getMessage());
+            return;
+        }
+
+        // Answer unchanged polls before anything is computed.
+        final long stateVersion = GitflowStateIndex.getInstance().getVersion(this.job.getFullName());
+        final String eTag = getETag(stateVersion, request.getParameter(KEY_TREE), request.getParameter(KEY_DEPTH));
+        response.setHeader("ETag", eTag);
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (isMatchingETag(request.getHeader("If-None-Match"), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final JSONObject state = this.getState(stateVersion);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(filter.isUnrestricted() ? state.toString() : JSONObject.fromObject(filter.filter(state)).toString());
+    }
+
+    /**
+     * Waits for a change of the Gitflow state of the job and returns the changed and removed branches. When the state
+     * hasn't changed within the timeout, the response is an empty delta and the client simply polls again. When the
+     * maximum number of waiting clients is reached, the response is returned right away with {@code pollAfterMillis},
+     * the time the client should wait before it polls again.
+     *
+     * @param request the request with the state version known by the client.
+     * @param response the response for the delta.
+     * @throws IOException if the response can't be written.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void doChanges(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final long sinceVersion;
+        try {
+            sinceVersion = Long.parseLong(StringUtils.trim(request.getParameter(KEY_SINCE)));
+        } catch (final NumberFormatException nfe) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid since: " + request.getParameter(KEY_SINCE));
+            return;
+        }
+
+        // When too many clients are waiting already, the current delta is returned right away and the client is told
+        // to fall back to plain polling.
+        final String jobFullName = this.job.getFullName();
+        final boolean waiting = CHANGES_WAITERS.tryAcquire();
+        if (waiting) {
+            try {
+                GitflowStateIndex.getInstance().awaitChange(jobFullName, sinceVersion, CHANGES_TIMEOUT_MILLIS);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                CHANGES_WAITERS.release();
+            }
+        }
+
+        final JSONObject delta = toJson(GitflowStateIndex.getInstance().getDelta(jobFullName, sinceVersion));
+        if (!waiting) {
+            delta.put("pollAfterMillis", CHANGES_POLL_INTERVAL_MILLIS);
+            response.setHeader("Retry-After", String.valueOf(CHANGES_POLL_INTERVAL_MILLIS / 1000L));
+        }
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(delta.toString());
+    }
+
+    /**
+     * Streams the events of the Gitflow event journal of the job as JSON lines, oldest first. Without {@code after}
+     * parameter, all journaled events are returned.
+     *
+     * @param request the request with the sequence number of the last event known by the client.
+     * @param response the response for the events.
+     * @throws IOException if the journal cannot be read or the response can't be written.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void doEvents(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        final long afterSequence;
+        try {
+            afterSequence = StringUtils.isBlank(request.getParameter(KEY_AFTER)) ? 0L : Long.parseLong(request.getParameter(KEY_AFTER).trim());
+        } catch (final NumberFormatException nfe) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid after: " + request.getParameter(KEY_AFTER));
+            return;
+        }
+
+        final GitflowEventJournal eventJournal = GitflowEventJournal.forJob(this.job);
+        if (eventJournal == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        final Writer writer = response.getWriter();
+        final GitflowEventReader eventReader = eventJournal.read(afterSequence);
+        try {
+            for (GitflowEvent event = eventReader.next(); event != null; event = eventReader.next()) {
+                writer.write(event.toJson().toString());
+                writer.write('\n');
+            }
+        } finally {
+            eventReader.close();
+        }
+    }
+
+    /**
+     * Returns the JSON representation of the changes of the Gitflow state of a job.
+     *
+     * @param delta the changes of the Gitflow state.
+     * @return the JSON representation of the changes.
+     */
+    @VisibleForTesting
+    static JSONObject toJson(final StateDelta delta) {
+        final JSONObject json = new JSONObject();
+        json.put("apiVersion", API_VERSION);
+        json.put("stateVersion", delta.getStateVersion());
+        json.put("complete", delta.isComplete());
+
+        final JSONArray changed = new JSONArray();
+        for (final BranchState branchState : delta.getChangedBranchStates()) {
+            final JSONObject branch = new JSONObject();
+            branch.put("name", branchState.getBranchName());
+            branch.put("type", branchState.getBranchType());
+            branch.put("lastBuildResult", branchState.getLastBuildResult());
+            branch.put("lastBuildVersion", branchState.getLastBuildVersion());
+            branch.put("lastReleaseVersion", branchState.getLastReleaseVersion());
+            changed.add(branch);
+        }
+        json.put("changed", changed);
+        json.put("removed", JSONArray.fromObject(delta.getRemovedBranchNames()));
+        return json;
+    }
+
+    private JSONObject getState(final long stateVersion) {
+        final CachedState cachedState = CACHED_STATES.get(this.job);
+        final boolean hit = cachedState != null && cachedState.stateVersion == stateVersion;
+        GitflowMetrics.getInstance().recordCacheRequest("projectState", hit);
+        if (hit) {
+            return cachedState.state;
+        }
+
+        final JSONObject state = toJson(this.job.getFullName(), stateVersion, new GitflowProjectModel(this.job, false));
+        CACHED_STATES.put(this.job, new CachedState(stateVersion, state));
+        return state;
+    }
+
+    private static int parseDepth(final String depth) {
+        if (StringUtils.isBlank(depth)) {
+            return JsonTreeFilter.UNLIMITED_DEPTH;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(depth.trim()));
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+    }
+
+    /**
+     * Returns the {@code ETag} for a response with the given state version and filter parameters.
+     *
+     * @param stateVersion the state version of the job.
+     * @param tree the tree specification of the request.
+     * @param depth the depth of the request.
+     * @return the quoted {@code ETag}.
+     */
+    @VisibleForTesting
+    static String getETag(final long stateVersion, final String tree, final String depth) {
+        final String filter = StringUtils.defaultString(tree) + '|' + StringUtils.defaultString(depth);
+        return "\"" + API_VERSION + '-' + stateVersion + '-' + Integer.toHexString(filter.hashCode()) + "\"";
+    }
+
+    /**
+     * Checks if the given {@code If-None-Match} header matches the given {@code ETag}.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} header - may be {@code null}.
+     * @param eTag the quoted {@code ETag} of the current state.
+     * @return {@code true} if the header contains the {@code ETag} (also as weak {@code ETag}) or {@code *}.
+     */
+    @VisibleForTesting
+    static boolean isMatchingETag(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch != null) {
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String trimmedCandidate = StringUtils.removeStart(candidate.trim(), "W/");
+                if (trimmedCandidate.equals(eTag) || trimmedCandidate.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the JSON representation of the Gitflow state of a job.
+     *
+     * @param jobFullName the full name of the job.
+     * @param stateVersion the state version of the job.
+     * @param model the model with the recorded branches and the available Gitflow actions of the job.
+     * @return the JSON representation of the Gitflow state of the job.
+     */
+    @VisibleForTesting
+    static JSONObject toJson(final String jobFullName, final long stateVersion, final GitflowProjectModel model) {
+        final BranchTypeClassifier branchTypeClassifier = model.getBranchTypeClassifier();
+        final JSONObject json = new JSONObject();
+        json.put("apiVersion", API_VERSION);
+        json.put("stateVersion", stateVersion);
+        json.put("job", jobFullName);
+
+        final JSONArray branches = new JSONArray();
+        for (final RemoteBranch remoteBranch : model.getRemoteBranches()) {
+            final JSONObject branch = new JSONObject();
+            branch.put("name", remoteBranch.getBranchName());
+            branch.put("type", branchTypeClassifier.classify(remoteBranch.getBranchName()));
+            branch.put("lastBuildResult", remoteBranch.getLastBuildResult() == null ? null : remoteBranch.getLastBuildResult().toString());
+            branch.put("lastBuildVersion", remoteBranch.getLastBuildVersion());
+            branch.put("baseReleaseVersion", remoteBranch.getBaseReleaseVersion());
+            branch.put("lastReleaseVersion", remoteBranch.getLastReleaseVersion());
+            branch.put("lastReleaseVersionCommit", toName(remoteBranch.getLastReleaseVersionCommit()));
+            branches.add(branch);
+        }
+        json.put("branches", branches);
+
+        final JSONObject actions = new JSONObject();
+        final StartReleaseCause startReleaseCause = model.getStartReleaseCause();
+        if (startReleaseCause != null) {
+            final JSONObject startRelease = new JSONObject();
+            startRelease.put("releaseBranch", startReleaseCause.getReleaseBranch());
+            startRelease.put("releaseVersion", startReleaseCause.getReleaseVersion());
+            startRelease.put("nextPatchDevelopmentVersion", startReleaseCause.getNextPatchDevelopmentVersion());
+            startRelease.put("nextReleaseDevelopmentVersion", startReleaseCause.getNextReleaseDevelopmentVersion());
+            actions.put("startRelease", startRelease);
+        }
+
+        final JSONArray releases = new JSONArray();
+        for (final ReleaseBranchCauseGroup releaseBranchCauseGroup : model.getReleaseBranchCauseGroups()) {
+            final JSONObject release = new JSONObject();
+            release.put("branch", releaseBranchCauseGroup.getBranchName());
+            release.put("releaseVersion", releaseBranchCauseGroup.getReleaseVersion());
+
+            final TestReleaseCause testReleaseCause = releaseBranchCauseGroup.getTestReleaseCause();
+            final JSONObject testRelease = new JSONObject();
+            testRelease.put("patchReleaseVersion", testReleaseCause.getPatchReleaseVersion());
+            testRelease.put("nextPatchDevelopmentVersion", testReleaseCause.getNextPatchDevelopmentVersion());
+            release.put("testRelease", testRelease);
+
+            final PublishReleaseCause publishReleaseCause = releaseBranchCauseGroup.getPublishReleaseCause();
+            final JSONObject publishRelease = new JSONObject();
+            publishRelease.put("lastPatchReleaseVersion", publishReleaseCause.getLastPatchReleaseVersion());
+            publishRelease.put("lastPatchReleaseCommit", toName(publishReleaseCause.getLastPatchReleaseCommit()));
+            release.put("publishRelease", publishRelease);
+
+            release.put("finishRelease", new JSONObject());
+            releases.add(release);
+        }
+        actions.put("releases", releases);
+
+        final StartHotfixCause startHotfixCause = model.getStartHotfixCause();
+        if (startHotfixCause != null) {
+            final JSONObject startHotfix = new JSONObject();
+            startHotfix.put("hotfixBranch", startHotfixCause.getHotfixBranch());
+            startHotfix.put("hotfixVersion", startHotfixCause.getHotfixVersion());
+            startHotfix.put("publishedPatchReleaseVersion", startHotfixCause.getPublishedPatchReleaseVersion());
+            startHotfix.put("nextPatchDevelopmentVersion", startHotfixCause.getNextPatchDevelopmentVersion());
+            actions.put("startHotfix", startHotfix);
+        }
+
+        final JSONArray hotfixes = new JSONArray();
+        for (final HotfixBranchCauseGroup hotfixBranchCauseGroup : model.getHotfixBranchCauseGroups()) {
+            final JSONObject hotfix = new JSONObject();
+            hotfix.put("branch", hotfixBranchCauseGroup.getBranchName());
+            hotfix.put("hotfixVersion", hotfixBranchCauseGroup.getHotfixVersion());
+
+            final TestHotfixCause testHotfixCause = hotfixBranchCauseGroup.getTestHotfixCause();
+            final JSONObject testHotfix = new JSONObject();
+            testHotfix.put("patchReleaseVersion", testHotfixCause.getPatchReleaseVersion());
+            testHotfix.put("nextPatchDevelopmentVersion", testHotfixCause.getNextPatchDevelopmentVersion());
+            hotfix.put("testHotfix", testHotfix);
+
+            final PublishHotfixCause publishHotfixCause = hotfixBranchCauseGroup.getPublishHotfixCause();
+            final JSONObject publishHotfix = new JSONObject();
+            publishHotfix.put("lastPatchReleaseVersion", publishHotfixCause.getLastPatchReleaseVersion());
+            publishHotfix.put("lastPatchReleaseCommit", toName(publishHotfixCause.getLastPatchReleaseCommit()));
+            hotfix.put("publishHotfix", publishHotfix);
+
+            hotfix.put("finishHotfix", new JSONObject());
+            hotfixes.add(hotfix);
+        }
+        actions.put("hotfixes", hotfixes);
+
+        json.put("actions", actions);
+        return json;
+    }
+
+    private static String toName(final ObjectId objectId) {
+        return objectId == null ? null : objectId.name();
+    }
+
+    /**
+     * The computed state of a job for a state version.
+     */
+    private static final class CachedState {
+
+        private final long stateVersion;
+        private final JSONObject state;
+
+        private CachedState(final long stateVersion, final JSONObject state) {
+            this.stateVersion = stateVersion;
+            this.state = state;
+        }
+    }
+}
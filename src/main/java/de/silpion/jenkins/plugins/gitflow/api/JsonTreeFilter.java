@@ -0,0 +1,159 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters JSON data by a tree specification and a depth, so that API clients only receive what they need.
+ * <p>
+ * The tree specification works like the one of the Jenkins remote API: a comma-separated list of property names, each
+ * with an optional nested specification in square brackets, e.g. {@code stateVersion,branches[name,lastBuildResult]}.
+ * Arrays don't have properties themselves; their specification applies to their elements.
+ * <p>
+ * The depth limits the nesting of objects and arrays: with depth {@code 0} only the scalar properties of the top-level
+ * object are kept, with depth {@code 1} also the scalar properties of the objects (in arrays) directly below it, and so on.
+ * <p>
+ * The filter works on the {@link Map} and {@link List} views of the JSON data and creates new maps and lists, so the
+ * filtered data is never modified.
+ */
+public final class JsonTreeFilter {
+
+    /**
+     * The depth that doesn't limit the nesting.
+     */
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private static final Object SKIPPED = new Object();
+
+    private final Map<String, Object> tree;
+    private final int depth;
+
+    private JsonTreeFilter(final Map<String, Object> tree, final int depth) {
+        this.tree = tree;
+        this.depth = depth;
+    }
+
+    /**
+     * Creates a filter for the given tree specification and depth.
+     *
+     * @param tree the tree specification - {@code null} or blank for all properties.
+     * @param depth the maximum nesting of objects and arrays.
+     * @return the filter.
+     * @throws IllegalArgumentException if the tree specification is malformed.
+     */
+    public static JsonTreeFilter create(final String tree, final int depth) {
+        return new JsonTreeFilter(tree == null || tree.trim().length() == 0 ? null : new TreeParser(tree).parse(), depth);
+    }
+
+    /**
+     * Returns {@code true} if the filter keeps all the data.
+     *
+     * @return {@code true} if the filter keeps all the data.
+     */
+    public boolean isUnrestricted() {
+        return this.tree == null && this.depth == UNLIMITED_DEPTH;
+    }
+
+    /**
+     * Filters the given JSON object.
+     *
+     * @param json the JSON object to be filtered.
+     * @return a new map with the properties of the JSON object that pass the filter.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> filter(final Map<?, ?> json) {
+        return (Map<String, Object>) this.filterValue(json, this.tree, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object filterValue(final Object value, final Map<String, Object> subtree, final int level) {
+        if (value instanceof Map) {
+            if (level > this.depth) {
+                return SKIPPED;
+            }
+            final Map<String, Object> filteredObject = new LinkedHashMap<String, Object>();
+            for (final Map.Entry<?, ?> property : ((Map<?, ?>) value).entrySet()) {
+                final String name = String.valueOf(property.getKey());
+                if (subtree == null || subtree.containsKey(name)) {
+                    final Object filteredValue = this.filterValue(property.getValue(), subtree == null ? null : (Map<String, Object>) subtree.get(name), level + 1);
+                    if (filteredValue != SKIPPED) {
+                        filteredObject.put(name, filteredValue);
+                    }
+                }
+            }
+            return filteredObject;
+        } else if (value instanceof List) {
+            if (level > this.depth) {
+                return SKIPPED;
+            }
+            final List<Object> filteredArray = new ArrayList<Object>();
+            for (final Object element : (List<?>) value) {
+                final Object filteredElement = this.filterValue(element, subtree, level);
+                if (filteredElement != SKIPPED) {
+                    filteredArray.add(filteredElement);
+                }
+            }
+            return filteredArray;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * A recursive descent parser for tree specifications.
+     */
+    private static final class TreeParser {
+
+        private final String tree;
+        private int position;
+
+        private TreeParser(final String tree) {
+            this.tree = tree;
+        }
+
+        private Map<String, Object> parse() {
+            final Map<String, Object> properties = this.parseProperties();
+            if (this.position < this.tree.length()) {
+                throw this.malformed();
+            }
+            return properties;
+        }
+
+        private Map<String, Object> parseProperties() {
+            final Map<String, Object> properties = new LinkedHashMap<String, Object>();
+            while (true) {
+                final int start = this.position;
+                while (this.position < this.tree.length() && ",[]".indexOf(this.tree.charAt(this.position)) < 0) {
+                    this.position++;
+                }
+                final String name = this.tree.substring(start, this.position).trim();
+                if (name.length() == 0) {
+                    throw this.malformed();
+                }
+
+                Map<String, Object> subtree = null;
+                if (this.position < this.tree.length() && this.tree.charAt(this.position) == '[') {
+                    this.position++;
+                    subtree = this.parseProperties();
+                    if (this.position >= this.tree.length() || this.tree.charAt(this.position) != ']') {
+                        throw this.malformed();
+                    }
+                    this.position++;
+                }
+                properties.put(name, subtree);
+
+                if (this.position < this.tree.length() && this.tree.charAt(this.position) == ',') {
+                    this.position++;
+                } else {
+                    return properties;
+                }
+            }
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed tree specification at position " + this.position + ": " + this.tree);
+        }
+    }
+}
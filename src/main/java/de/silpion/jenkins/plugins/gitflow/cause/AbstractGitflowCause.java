@@ -1,6 +1,12 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import hudson.model.Cause;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.List;
+
+import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
 /**
  * The {@link Cause} object for the executed Gitflow actions.
@@ -11,8 +17,18 @@ public abstract class AbstractGitflowCause extends Cause {
 
     protected static final String MAVEN_SNAPSHOT_VERSION_SUFFIX = "-SNAPSHOT";
 
-    private boolean dryRun;
-    private boolean omitMainBuild;
+    private final boolean dryRun;
+    private final boolean omitMainBuild;
+
+    // The branch naming of the job at the time the cause has been created - persisted, so that causes that have been
+    // loaded from disk keep the job-specific configuration. Causes persisted by older versions don't contain it.
+    private final String masterBranch;
+    private final String developBranch;
+    private final String releaseBranchPrefix;
+    private final String hotfixBranchPrefix;
+    private final String featureBranchPrefix;
+
+    private transient BranchTypeClassifier branchTypeClassifier;
 
     /**
      * Creates a cause instance for the <i>Gitflow</i> build.
@@ -21,7 +37,35 @@ public abstract class AbstractGitflowCause extends Cause {
      *                      should omit the main (Maven) build.
      */
     protected AbstractGitflowCause(final boolean omitMainBuild) {
+        this(omitMainBuild, false, null);
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param omitMainBuild defines if the regarding {@link de.silpion.jenkins.plugins.gitflow.action.AbstractGitflowAction}
+     *                      should omit the main (Maven) build.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job, or {@code null} to use the global configuration.
+     */
+    protected AbstractGitflowCause(final boolean omitMainBuild, final boolean dryRun, final BranchTypeClassifier branchTypeClassifier) {
         this.omitMainBuild = omitMainBuild;
+        this.dryRun = dryRun;
+        this.branchTypeClassifier = branchTypeClassifier;
+
+        if (branchTypeClassifier == null) {
+            this.masterBranch = null;
+            this.developBranch = null;
+            this.releaseBranchPrefix = null;
+            this.hotfixBranchPrefix = null;
+            this.featureBranchPrefix = null;
+        } else {
+            this.masterBranch = branchTypeClassifier.getMasterBranch();
+            this.developBranch = branchTypeClassifier.getDevelopBranch();
+            this.releaseBranchPrefix = branchTypeClassifier.getReleaseBranchPrefix();
+            this.hotfixBranchPrefix = branchTypeClassifier.getHotfixBranchPrefix();
+            this.featureBranchPrefix = branchTypeClassifier.getFeatureBranchPrefix();
+        }
     }
 
     @Override
@@ -33,10 +77,6 @@ public abstract class AbstractGitflowCause extends Cause {
         return this.dryRun;
     }
 
-    public void setDryRun(final boolean dryRun) {
-        this.dryRun = dryRun;
-    }
-
     /**
      * Denotes if the regarding {@link de.silpion.jenkins.plugins.gitflow.action.AbstractGitflowAction} should omit the
      * main (Maven) build.
@@ -47,6 +87,37 @@ public abstract class AbstractGitflowCause extends Cause {
         return this.omitMainBuild;
     }
 
+    /**
+     * Returns the branch type classifier for the job that the cause has been created for.
+     *
+     * @return the branch type classifier for the job that the cause has been created for.
+     */
+    protected BranchTypeClassifier getBranchTypeClassifier() {
+        if (this.branchTypeClassifier == null) {
+            final BranchTypeClassifier globalClassifier = getGitflowBuildWrapperDescriptor().getBranchTypeClassifier();
+            this.branchTypeClassifier = globalClassifier.withOverrides(this.masterBranch, this.developBranch, this.releaseBranchPrefix,
+                                                                       this.hotfixBranchPrefix, this.featureBranchPrefix);
+        }
+        return this.branchTypeClassifier;
+    }
+
+    /**
+     * Returns the identity of the Gitflow action requested by the cause - the action type, the branch and the target versions.
+     * Causes with equal identities request the same Gitflow action.
+     *
+     * @return the identity of the Gitflow action requested by the cause.
+     */
+    public String getIdentity() {
+        return this.getClass().getSimpleName() + (this.dryRun ? " (dry run)" : "") + ": " + StringUtils.join(this.getIdentityComponents(), ' ');
+    }
+
+    /**
+     * Returns the values that identify the Gitflow action of the cause besides its type - usually the branch and the target versions.
+     *
+     * @return the values that identify the Gitflow action of the cause besides its type.
+     */
+    protected abstract List<String> getIdentityComponents();
+
     /**
      * Returns the version number to be displayed as tool tip for the build badges.
      *
@@ -1,5 +1,6 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 
@@ -20,8 +21,22 @@ public abstract class AbstractHotfixBranchCause extends AbstractGitflowCause {
      *                      should omit the main (Maven) build.
      */
     public AbstractHotfixBranchCause(final RemoteBranch hotfixBranch, final boolean omitMainBuild) {
-        super(omitMainBuild);
-        assert "hotfix".equals(GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchType(hotfixBranch.getBranchName()));
+        this(hotfixBranch, omitMainBuild, false, GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param hotfixBranch         the <i>hotfix</i> branch containing base data for the cause.
+     * @param omitMainBuild        denotes if the regarding {@link de.silpion.jenkins.plugins.gitflow.action.AbstractGitflowAction}
+     *                             should omit the main (Maven) build.
+     * @param dryRun               denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public AbstractHotfixBranchCause(final RemoteBranch hotfixBranch, final boolean omitMainBuild, final boolean dryRun,
+                                      final BranchTypeClassifier branchTypeClassifier) {
+        super(omitMainBuild, dryRun, branchTypeClassifier);
+        assert "hotfix".equals(branchTypeClassifier.classify(hotfixBranch.getBranchName()));
         this.hotfixBranch = hotfixBranch.getBranchName();
     }
 
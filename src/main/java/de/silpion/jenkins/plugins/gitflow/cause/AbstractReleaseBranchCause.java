@@ -1,6 +1,7 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 
 /**
@@ -20,8 +21,22 @@ public abstract class AbstractReleaseBranchCause extends AbstractGitflowCause {
      *                      should omit the main (Maven) build.
      */
     public AbstractReleaseBranchCause(final RemoteBranch releaseBranch, final boolean omitMainBuild) {
-        super(omitMainBuild);
-        assert "release".equals(GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchType(releaseBranch.getBranchName()));
+        this(releaseBranch, omitMainBuild, false, GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch        the <i>release</i> branch containing base data for the cause.
+     * @param omitMainBuild        denotes if the regarding {@link de.silpion.jenkins.plugins.gitflow.action.AbstractGitflowAction}
+     *                             should omit the main (Maven) build.
+     * @param dryRun               denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public AbstractReleaseBranchCause(final RemoteBranch releaseBranch, final boolean omitMainBuild, final boolean dryRun,
+                                       final BranchTypeClassifier branchTypeClassifier) {
+        super(omitMainBuild, dryRun, branchTypeClassifier);
+        assert "release".equals(branchTypeClassifier.classify(releaseBranch.getBranchName()));
         this.releaseBranch = releaseBranch.getBranchName();
     }
 
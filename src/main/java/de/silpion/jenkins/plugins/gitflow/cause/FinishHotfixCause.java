@@ -2,8 +2,11 @@ package de.silpion.jenkins.plugins.gitflow.cause;
 
 import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
-import org.apache.commons.lang.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * The {@link hudson.model.Cause} object for the <i>Finish Hotfix</i> action to be executed.
@@ -18,11 +21,37 @@ public class FinishHotfixCause extends AbstractHotfixBranchCause {
      * @param hotfixBranch the <i>hotfix</i> branch containing base data for the cause.
      */
     public FinishHotfixCause(final RemoteBranch hotfixBranch) {
-        super(hotfixBranch, true);
+        this(hotfixBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param hotfixBranch the <i>hotfix</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public FinishHotfixCause(final RemoteBranch hotfixBranch, final BranchTypeClassifier branchTypeClassifier) {
+        this(hotfixBranch, false, branchTypeClassifier);
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param hotfixBranch the <i>hotfix</i> branch containing base data for the cause.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public FinishHotfixCause(final RemoteBranch hotfixBranch, final boolean dryRun, final BranchTypeClassifier branchTypeClassifier) {
+        super(hotfixBranch, true, dryRun, branchTypeClassifier);
     }
 
     @Override
     public String getVersionForBadge() {
-        return StringUtils.removeStart(this.getHotfixBranch(), getGitflowBuildWrapperDescriptor().getHotfixBranchPrefix());
+        return this.getBranchTypeClassifier().getBranchVersion(this.getHotfixBranch());
+    }
+
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Collections.singletonList(this.getHotfixBranch());
     }
 }
@@ -2,9 +2,12 @@ package de.silpion.jenkins.plugins.gitflow.cause;
 
 import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
-import org.apache.commons.lang.StringUtils;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause Cause} object for the <i>Finish Release</i> action to be executed.
  *
@@ -18,12 +21,37 @@ public class FinishReleaseCause extends AbstractReleaseBranchCause {
      * @param releaseBranch the <i>release</i> branch containing base data for the cause.
      */
     public FinishReleaseCause(final RemoteBranch releaseBranch) {
-        super(releaseBranch, true);
+        this(releaseBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
 
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public FinishReleaseCause(final RemoteBranch releaseBranch, final BranchTypeClassifier branchTypeClassifier) {
+        this(releaseBranch, false, branchTypeClassifier);
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public FinishReleaseCause(final RemoteBranch releaseBranch, final boolean dryRun, final BranchTypeClassifier branchTypeClassifier) {
+        super(releaseBranch, true, dryRun, branchTypeClassifier);
     }
 
     @Override
     public String getVersionForBadge() {
-        return StringUtils.removeStart(this.getReleaseBranch(), getGitflowBuildWrapperDescriptor().getReleaseBranchPrefix());
+        return this.getBranchTypeClassifier().getBranchVersion(this.getReleaseBranch());
+    }
+
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Collections.singletonList(this.getReleaseBranch());
     }
 }
@@ -1,8 +1,8 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
-import org.apache.commons.lang.StringUtils;
 
 /**
  * Encapsulates a group of hotfix branch {@link hudson.model.Cause Cause} objects:
@@ -24,16 +24,18 @@ public class HotfixBranchCauseGroup {
     private final FinishHotfixCause finishHotfixCause;
 
     public HotfixBranchCauseGroup(final RemoteBranch hotfixBranch) {
-        assert "hotfix".equals(GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchType(hotfixBranch.getBranchName()));
+        this(hotfixBranch, GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
 
-        final String hotfixBranchPrefix = GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getHotfixBranchPrefix();
+    public HotfixBranchCauseGroup(final RemoteBranch hotfixBranch, final BranchTypeClassifier branchTypeClassifier) {
+        assert "hotfix".equals(branchTypeClassifier.classify(hotfixBranch.getBranchName()));
 
         this.branchName = hotfixBranch.getBranchName();
-        this.hotfixVersion = StringUtils.removeStart(this.branchName, hotfixBranchPrefix);
+        this.hotfixVersion = branchTypeClassifier.getBranchVersion(this.branchName);
 
-        this.testHotfixCause = new TestHotfixCause(hotfixBranch);
-        this.publishHotfixCause = new PublishHotfixCause(hotfixBranch);
-        this.finishHotfixCause = new FinishHotfixCause(hotfixBranch);
+        this.testHotfixCause = new TestHotfixCause(hotfixBranch, branchTypeClassifier);
+        this.publishHotfixCause = new PublishHotfixCause(hotfixBranch, branchTypeClassifier);
+        this.finishHotfixCause = new FinishHotfixCause(hotfixBranch, branchTypeClassifier);
     }
 
     @SuppressWarnings("UnusedDeclaration")
@@ -1,5 +1,8 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause} object for the <i>No Gitflow</i> action to be executed.
  *
@@ -15,4 +18,9 @@ public class NoGitflowCause extends AbstractGitflowCause {
     public String getVersionForBadge() {
         return "";
     }
+
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Collections.emptyList();
+    }
 }
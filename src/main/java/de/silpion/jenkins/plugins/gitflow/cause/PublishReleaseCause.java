@@ -1,8 +1,14 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import org.eclipse.jgit.lib.ObjectId;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause Cause} object for the <i>Publish Release</i> action to be executed.
  *
@@ -19,7 +25,28 @@ public class PublishReleaseCause extends AbstractReleaseBranchCause {
      * @param releaseBranch the <i>release</i> branch containing base data for the cause.
      */
     public PublishReleaseCause(final RemoteBranch releaseBranch) {
-        super(releaseBranch, true);
+        this(releaseBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public PublishReleaseCause(final RemoteBranch releaseBranch, final BranchTypeClassifier branchTypeClassifier) {
+        this(releaseBranch, false, branchTypeClassifier);
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public PublishReleaseCause(final RemoteBranch releaseBranch, final boolean dryRun, final BranchTypeClassifier branchTypeClassifier) {
+        super(releaseBranch, true, dryRun, branchTypeClassifier);
 
         this.lastPatchReleaseVersion = releaseBranch.getLastReleaseVersion();
         this.lastPatchReleaseCommit = releaseBranch.getLastReleaseVersionCommit();
@@ -30,6 +57,11 @@ public class PublishReleaseCause extends AbstractReleaseBranchCause {
         return this.lastPatchReleaseVersion;
     }
 
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Arrays.asList(this.getReleaseBranch(), this.lastPatchReleaseVersion);
+    }
+
     public String getLastPatchReleaseVersion() {
         return this.lastPatchReleaseVersion;
     }
@@ -1,8 +1,8 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
-import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
-import org.apache.commons.lang.StringUtils;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 
 /**
  * Encapsulates a group of release branch {@link hudson.model.Cause Cause} objects:
@@ -24,16 +24,18 @@ public class ReleaseBranchCauseGroup {
     private final FinishReleaseCause finishReleaseCause;
 
     public ReleaseBranchCauseGroup(final RemoteBranch releaseBranch) {
-        assert "release".equals(GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchType(releaseBranch.getBranchName()));
+        this(releaseBranch, GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
 
-        final String releaseBranchPrefix = GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().getReleaseBranchPrefix();
+    public ReleaseBranchCauseGroup(final RemoteBranch releaseBranch, final BranchTypeClassifier branchTypeClassifier) {
+        assert "release".equals(branchTypeClassifier.classify(releaseBranch.getBranchName()));
 
         this.branchName = releaseBranch.getBranchName();
-        this.releaseVersion = StringUtils.removeStart(this.branchName, releaseBranchPrefix);
+        this.releaseVersion = branchTypeClassifier.getBranchVersion(this.branchName);
 
-        this.testReleaseCause = new TestReleaseCause(releaseBranch);
-        this.publishReleaseCause = new PublishReleaseCause(releaseBranch);
-        this.finishReleaseCause = new FinishReleaseCause(releaseBranch);
+        this.testReleaseCause = new TestReleaseCause(releaseBranch, branchTypeClassifier);
+        this.publishReleaseCause = new PublishReleaseCause(releaseBranch, branchTypeClassifier);
+        this.finishReleaseCause = new FinishReleaseCause(releaseBranch, branchTypeClassifier);
     }
 
     @SuppressWarnings("UnusedDeclaration")
@@ -2,10 +2,14 @@ package de.silpion.jenkins.plugins.gitflow.cause;
 
 import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import org.apache.commons.lang.StringUtils;
 import org.semver.Version;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause Cause} object for the <i>Start Hotfix</i> action to be executed.
  *
@@ -15,8 +19,7 @@ public class StartHotfixCause extends AbstractGitflowCause {
 
     private final String hotfixVersion;
     private final String publishedPatchReleaseVersion;
-
-    private String nextPatchDevelopmentVersion;
+    private final String nextPatchDevelopmentVersion;
 
     /**
      * Creates a cause instance for the <i>Gitflow</i> build.
@@ -24,8 +27,18 @@ public class StartHotfixCause extends AbstractGitflowCause {
      * @param masterBranch the <i>develop</i> branch containing base data for the cause.
      */
     public StartHotfixCause(final RemoteBranch masterBranch) {
-        super(true);
-        assert "master".equals(getGitflowBuildWrapperDescriptor().getBranchType(masterBranch.getBranchName()));
+        this(masterBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param masterBranch the <i>master</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public StartHotfixCause(final RemoteBranch masterBranch, final BranchTypeClassifier branchTypeClassifier) {
+        super(true, false, branchTypeClassifier);
+        assert "master".equals(branchTypeClassifier.classify(masterBranch.getBranchName()));
 
         final Version semverLastReleaseVersion = Version.parse(masterBranch.getLastReleaseVersion());
         this.publishedPatchReleaseVersion = semverLastReleaseVersion.toString();
@@ -35,14 +48,37 @@ public class StartHotfixCause extends AbstractGitflowCause {
         this.nextPatchDevelopmentVersion = semverLastReleaseVersion.next(Version.Element.PATCH) + MAVEN_SNAPSHOT_VERSION_SUFFIX;
     }
 
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build with the version submitted by the user.
+     *
+     * @param masterBranch the <i>master</i> branch containing base data for the cause.
+     * @param nextPatchDevelopmentVersion the development version for the next patch release on the <i>hotfix</i> branch.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public StartHotfixCause(final RemoteBranch masterBranch, final String nextPatchDevelopmentVersion, final boolean dryRun,
+                            final BranchTypeClassifier branchTypeClassifier) {
+        super(true, dryRun, branchTypeClassifier);
+        assert "master".equals(branchTypeClassifier.classify(masterBranch.getBranchName()));
+
+        this.publishedPatchReleaseVersion = Version.parse(masterBranch.getLastReleaseVersion()).toString();
+        this.hotfixVersion = StringUtils.substringBeforeLast(this.publishedPatchReleaseVersion, ".");
+        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String getVersionForBadge() {
         return this.hotfixVersion;
     }
 
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Arrays.asList(this.getHotfixBranch(), this.nextPatchDevelopmentVersion);
+    }
+
     public String getHotfixBranch() {
-        return getGitflowBuildWrapperDescriptor().getHotfixBranchPrefix() + this.hotfixVersion;
+        return this.getBranchTypeClassifier().getBranchName("hotfix", this.hotfixVersion);
     }
 
     public String getHotfixVersion() {
@@ -56,8 +92,4 @@ public class StartHotfixCause extends AbstractGitflowCause {
     public String getNextPatchDevelopmentVersion() {
         return this.nextPatchDevelopmentVersion;
     }
-
-    public void setNextPatchDevelopmentVersion(final String nextPatchDevelopmentVersion) {
-        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
-    }
 }
@@ -2,10 +2,14 @@ package de.silpion.jenkins.plugins.gitflow.cause;
 
 import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
 
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import org.apache.commons.lang.StringUtils;
 import org.semver.Version;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause Cause} object for the <i>Start Release</i> action to be executed.
  *
@@ -13,9 +17,9 @@ import org.semver.Version;
  */
 public class StartReleaseCause extends AbstractGitflowCause {
 
-    private String releaseVersion;
-    private String nextPatchDevelopmentVersion;
-    private String nextReleaseDevelopmentVersion;
+    private final String releaseVersion;
+    private final String nextPatchDevelopmentVersion;
+    private final String nextReleaseDevelopmentVersion;
 
     /**
      * Creates a cause instance for the <i>Gitflow</i> build.
@@ -23,8 +27,18 @@ public class StartReleaseCause extends AbstractGitflowCause {
      * @param developBranch the <i>develop</i> branch containing base data for the cause.
      */
     public StartReleaseCause(final RemoteBranch developBranch) {
-        super(false);
-        assert "develop".equals(getGitflowBuildWrapperDescriptor().getBranchType(developBranch.getBranchName()));
+        this(developBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param developBranch the <i>develop</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public StartReleaseCause(final RemoteBranch developBranch, final BranchTypeClassifier branchTypeClassifier) {
+        super(false, false, branchTypeClassifier);
+        assert "develop".equals(branchTypeClassifier.classify(developBranch.getBranchName()));
 
         final Version semverReleaseVersion = Version.parse(developBranch.getLastBuildVersion()).toReleaseVersion();
         this.releaseVersion = semverReleaseVersion.toString();
@@ -34,36 +48,49 @@ public class StartReleaseCause extends AbstractGitflowCause {
         this.nextReleaseDevelopmentVersion = semverReleaseVersion.next(Version.Element.MINOR).toString() + MAVEN_SNAPSHOT_VERSION_SUFFIX;
     }
 
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build with the versions submitted by the user.
+     *
+     * @param developBranch the <i>develop</i> branch containing base data for the cause.
+     * @param releaseVersion the version for the release to be started.
+     * @param nextPatchDevelopmentVersion the development version for the next patch release.
+     * @param nextReleaseDevelopmentVersion the development version for the next release on the <i>develop</i> branch.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public StartReleaseCause(final RemoteBranch developBranch, final String releaseVersion, final String nextPatchDevelopmentVersion,
+                             final String nextReleaseDevelopmentVersion, final boolean dryRun, final BranchTypeClassifier branchTypeClassifier) {
+        super(false, dryRun, branchTypeClassifier);
+        assert "develop".equals(branchTypeClassifier.classify(developBranch.getBranchName()));
+
+        this.releaseVersion = releaseVersion;
+        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
+        this.nextReleaseDevelopmentVersion = nextReleaseDevelopmentVersion;
+    }
+
     @Override
     public String getVersionForBadge() {
         return this.releaseVersion;
     }
 
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Arrays.asList(this.getReleaseBranch(), this.releaseVersion, this.nextPatchDevelopmentVersion, this.nextReleaseDevelopmentVersion);
+    }
+
     public String getReleaseBranch() {
-        return getGitflowBuildWrapperDescriptor().getReleaseBranchPrefix() + StringUtils.substringBeforeLast(this.releaseVersion, ".");
+        return this.getBranchTypeClassifier().getBranchName("release", StringUtils.substringBeforeLast(this.releaseVersion, "."));
     }
 
     public String getReleaseVersion() {
         return this.releaseVersion;
     }
 
-    public void setReleaseVersion(final String releaseVersion) {
-        this.releaseVersion = releaseVersion;
-    }
-
     public String getNextPatchDevelopmentVersion() {
         return this.nextPatchDevelopmentVersion;
     }
 
-    public void setNextPatchDevelopmentVersion(final String nextPatchDevelopmentVersion) {
-        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
-    }
-
     public String getNextReleaseDevelopmentVersion() {
         return this.nextReleaseDevelopmentVersion;
     }
-
-    public void setNextReleaseDevelopmentVersion(final String nextReleaseDevelopmentVersion) {
-        this.nextReleaseDevelopmentVersion = nextReleaseDevelopmentVersion;
-    }
 }
@@ -1,8 +1,14 @@
 package de.silpion.jenkins.plugins.gitflow.cause;
 
+import static de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper.getGitflowBuildWrapperDescriptor;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import org.semver.Version;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The {@link hudson.model.Cause Cause} object for the <i>Test Release</i> action to be executed.
  *
@@ -10,8 +16,8 @@ import org.semver.Version;
  */
 public class TestReleaseCause extends AbstractReleaseBranchCause {
 
-    private String patchReleaseVersion;
-    private String nextPatchDevelopmentVersion;
+    private final String patchReleaseVersion;
+    private final String nextPatchDevelopmentVersion;
 
     /**
      * Creates a cause instance for the <i>Gitflow</i> build.
@@ -19,7 +25,17 @@ public class TestReleaseCause extends AbstractReleaseBranchCause {
      * @param releaseBranch the <i>release</i> branch containing base data for the cause.
      */
     public TestReleaseCause(final RemoteBranch releaseBranch) {
-        super(releaseBranch, false);
+        this(releaseBranch, getGitflowBuildWrapperDescriptor().getBranchTypeClassifier());
+    }
+
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public TestReleaseCause(final RemoteBranch releaseBranch, final BranchTypeClassifier branchTypeClassifier) {
+        super(releaseBranch, false, false, branchTypeClassifier);
 
         final Version semverPatchReleaseVersion = Version.parse(releaseBranch.getLastBuildVersion()).toReleaseVersion();
         this.patchReleaseVersion = semverPatchReleaseVersion.toString();
@@ -28,24 +44,37 @@ public class TestReleaseCause extends AbstractReleaseBranchCause {
         this.nextPatchDevelopmentVersion = semverPatchReleaseVersion.next(Version.Element.PATCH) + MAVEN_SNAPSHOT_VERSION_SUFFIX;
     }
 
+    /**
+     * Creates a cause instance for the <i>Gitflow</i> build with the versions submitted by the user.
+     *
+     * @param releaseBranch the <i>release</i> branch containing base data for the cause.
+     * @param patchReleaseVersion the version for the patch release to be built.
+     * @param nextPatchDevelopmentVersion the development version for the next patch release.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public TestReleaseCause(final RemoteBranch releaseBranch, final String patchReleaseVersion, final String nextPatchDevelopmentVersion, final boolean dryRun,
+                            final BranchTypeClassifier branchTypeClassifier) {
+        super(releaseBranch, false, dryRun, branchTypeClassifier);
+        this.patchReleaseVersion = patchReleaseVersion;
+        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
+    }
+
     @Override
     public String getVersionForBadge() {
         return this.patchReleaseVersion;
     }
 
-    public String getPatchReleaseVersion() {
-        return this.patchReleaseVersion;
+    @Override
+    protected List<String> getIdentityComponents() {
+        return Arrays.asList(this.getReleaseBranch(), this.patchReleaseVersion, this.nextPatchDevelopmentVersion);
     }
 
-    public void setPatchReleaseVersion(final String patchReleaseVersion) {
-        this.patchReleaseVersion = patchReleaseVersion;
+    public String getPatchReleaseVersion() {
+        return this.patchReleaseVersion;
     }
 
     public String getNextPatchDevelopmentVersion() {
         return this.nextPatchDevelopmentVersion;
     }
-
-    public void setNextPatchDevelopmentVersion(final String nextPatchDevelopmentVersion) {
-        this.nextPatchDevelopmentVersion = nextPatchDevelopmentVersion;
-    }
 }
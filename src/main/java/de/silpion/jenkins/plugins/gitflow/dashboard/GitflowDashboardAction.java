@@ -0,0 +1,274 @@
+package de.silpion.jenkins.plugins.gitflow.dashboard;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import de.silpion.jenkins.plugins.gitflow.data.BranchState;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import de.silpion.jenkins.plugins.gitflow.data.VersionKey;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Item;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.StaplerRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Gitflow dashboard, which shows the recorded branch state of all jobs from the {@link GitflowStateIndex}. The
+ * branches can be filtered, sorted and paged without loading any build records or querying the remote repositories.
+ */
+@Extension
+public class GitflowDashboardAction implements RootAction {
+
+    @VisibleForTesting static final String KEY_JOB = "job";
+    @VisibleForTesting static final String KEY_BRANCH = "branch";
+    @VisibleForTesting static final String KEY_TYPE = "type";
+    @VisibleForTesting static final String KEY_RESULT = "result";
+    @VisibleForTesting static final String KEY_SORT = "sort";
+    @VisibleForTesting static final String KEY_DESCENDING = "desc";
+    @VisibleForTesting static final String KEY_PAGE = "page";
+
+    @VisibleForTesting static final String SORT_JOB = "job";
+    @VisibleForTesting static final String SORT_BRANCH = "branch";
+    @VisibleForTesting static final String SORT_VERSION = "version";
+    @VisibleForTesting static final String SORT_RESULT = "result";
+
+    @VisibleForTesting static final int PAGE_SIZE = 50;
+
+    public String getIconFileName() {
+        return "/plugin/gitflow/img/Gitflow-Icon-48x48.png";
+    }
+
+    public String getDisplayName() {
+        return "Gitflow Dashboard";
+    }
+
+    public String getUrlName() {
+        return "gitflow-dashboard";
+    }
+
+    /**
+     * Returns the branch types offered by the filter - the first one matches all types.
+     *
+     * @return the branch types offered by the filter.
+     */
+    public List<String> getBranchTypes() {
+        return Arrays.asList("", "master", "develop", "release", "hotfix", "feature");
+    }
+
+    /**
+     * Returns the build results offered by the filter - the first one matches all results.
+     *
+     * @return the build results offered by the filter.
+     */
+    public List<String> getResults() {
+        return Arrays.asList("", "SUCCESS", "UNSTABLE", "FAILURE", "ABORTED", "NOT_BUILT");
+    }
+
+    /**
+     * Returns the dashboard query for the parameters of the given request.
+     *
+     * @param request the request for the dashboard page.
+     * @return the dashboard query for the parameters of the given request.
+     */
+    public Query getQuery(final StaplerRequest request) {
+        return new Query(request.getParameter(KEY_JOB), request.getParameter(KEY_BRANCH), request.getParameter(KEY_TYPE),
+                         request.getParameter(KEY_RESULT), request.getParameter(KEY_SORT), request.getParameter(KEY_DESCENDING) != null,
+                         parsePageNumber(request.getParameter(KEY_PAGE)));
+    }
+
+    private static int parsePageNumber(final String pageNumber) {
+        try {
+            return Math.max(1, Integer.parseInt(StringUtils.trim(pageNumber)));
+        } catch (final NumberFormatException ignored) {
+            return 1;
+        }
+    }
+
+    /**
+     * Returns the comparator for the given sort key.
+     *
+     * @param sort the sort key - one of {@code job}, {@code branch}, {@code version} and {@code result}.
+     * @return the comparator for the given sort key - ordered by job by default.
+     */
+    @VisibleForTesting
+    static Comparator<BranchState> getComparator(final String sort) {
+        return new Comparator<BranchState>() {
+
+            /** {@inheritDoc} */
+            public int compare(final BranchState branchState1, final BranchState branchState2) {
+                int result = 0;
+                if (SORT_BRANCH.equals(sort)) {
+                    result = String.CASE_INSENSITIVE_ORDER.compare(branchState1.getBranchName(), branchState2.getBranchName());
+                } else if (SORT_VERSION.equals(sort)) {
+                    result = compareVersions(branchState1.getLastBuildVersion(), branchState2.getLastBuildVersion());
+                } else if (SORT_RESULT.equals(sort)) {
+                    result = StringUtils.defaultString(branchState1.getLastBuildResult()).compareTo(StringUtils.defaultString(branchState2.getLastBuildResult()));
+                }
+                if (result == 0) {
+                    result = String.CASE_INSENSITIVE_ORDER.compare(branchState1.getJobFullName(), branchState2.getJobFullName());
+                }
+                if (result == 0) {
+                    result = String.CASE_INSENSITIVE_ORDER.compare(branchState1.getBranchName(), branchState2.getBranchName());
+                }
+                return result;
+            }
+        };
+    }
+
+    private static int compareVersions(final String version1, final String version2) {
+        if (version1 == null || version2 == null) {
+            return version1 == null ? (version2 == null ? 0 : -1) : 1;
+        }
+        return VersionKey.parse(version1).compareTo(VersionKey.parse(version2));
+    }
+
+    /**
+     * Returns the filter for the given criteria. Blank criteria match all branch states.
+     *
+     * @param job a part of the full name of the job - case-insensitive.
+     * @param branch a part of the name of the branch - case-insensitive.
+     * @param type the branch type.
+     * @param result the result of the last build on the branch - case-insensitive.
+     * @return the filter for the given criteria.
+     */
+    @VisibleForTesting
+    static Predicate<BranchState> getFilter(final String job, final String branch, final String type, final String result) {
+        return new Predicate<BranchState>() {
+
+            /** {@inheritDoc} */
+            public boolean apply(final BranchState branchState) {
+                return (StringUtils.isBlank(job) || StringUtils.containsIgnoreCase(branchState.getJobFullName(), job.trim()))
+                       && (StringUtils.isBlank(branch) || StringUtils.containsIgnoreCase(branchState.getBranchName(), branch.trim()))
+                       && (StringUtils.isBlank(type) || type.equals(branchState.getBranchType()))
+                       && (StringUtils.isBlank(result) || result.equalsIgnoreCase(branchState.getLastBuildResult()));
+            }
+        };
+    }
+
+    /**
+     * Returns a filter that only lets the branch states of the jobs pass that the current user is allowed to see.
+     *
+     * @return a filter for readable jobs.
+     */
+    private static Predicate<BranchState> getReadableJobsFilter() {
+        final Map<String, Boolean> readableJobs = new HashMap<String, Boolean>();
+        return new Predicate<BranchState>() {
+
+            /** {@inheritDoc} */
+            public boolean apply(final BranchState branchState) {
+                final String jobFullName = branchState.getJobFullName();
+                Boolean readable = readableJobs.get(jobFullName);
+                if (readable == null) {
+                    readable = Jenkins.getInstance().getItemByFullName(jobFullName, Item.class) != null;
+                    readableJobs.put(jobFullName, readable);
+                }
+                return readable;
+            }
+        };
+    }
+
+    /**
+     * A query for the dashboard page with the filter, the sort order and the number of the page to be shown.
+     */
+    public static class Query {
+
+        private final String job;
+        private final String branch;
+        private final String type;
+        private final String result;
+        private final String sort;
+        private final boolean descending;
+        private final int pageNumber;
+
+        Query(final String job, final String branch, final String type, final String result, final String sort, final boolean descending,
+              final int pageNumber) {
+            this.job = StringUtils.defaultString(job);
+            this.branch = StringUtils.defaultString(branch);
+            this.type = StringUtils.defaultString(type);
+            this.result = StringUtils.defaultString(result);
+            this.sort = StringUtils.defaultIfBlank(sort, SORT_JOB);
+            this.descending = descending;
+            this.pageNumber = pageNumber;
+        }
+
+        /**
+         * Returns the page of the branch states that match the query.
+         *
+         * @return the page of the branch states that match the query.
+         */
+        public GitflowStateIndex.Page getPage() {
+            final Comparator<BranchState> comparator = getComparator(this.sort);
+            final Comparator<BranchState> order = this.descending ? Collections.reverseOrder(comparator) : comparator;
+            final Predicate<BranchState> filter = Predicates.and(getFilter(this.job, this.branch, this.type, this.result), getReadableJobsFilter());
+            return GitflowStateIndex.getInstance().getBranchStates(filter, order, (this.pageNumber - 1) * PAGE_SIZE, PAGE_SIZE);
+        }
+
+        /**
+         * Returns the relative URL of the dashboard page for this query with the given sort key and page number.
+         *
+         * @param sortKey the sort key.
+         * @param sortDescending denotes if the branch states are sorted in descending order.
+         * @param page the number of the page.
+         * @return the relative URL of the dashboard page.
+         */
+        public String getUrl(final String sortKey, final boolean sortDescending, final int page) {
+            final StringBuilder url = new StringBuilder("?").append(KEY_PAGE).append('=').append(page);
+            appendParameter(url, KEY_JOB, this.job);
+            appendParameter(url, KEY_BRANCH, this.branch);
+            appendParameter(url, KEY_TYPE, this.type);
+            appendParameter(url, KEY_RESULT, this.result);
+            appendParameter(url, KEY_SORT, sortKey);
+            if (sortDescending) {
+                url.append('&').append(KEY_DESCENDING).append("=true");
+            }
+            return url.toString();
+        }
+
+        private static void appendParameter(final StringBuilder url, final String key, final String value) {
+            if (StringUtils.isNotBlank(value)) {
+                url.append('&').append(key).append('=').append(Util.rawEncode(value));
+            }
+        }
+
+        public String getJob() {
+            return this.job;
+        }
+
+        public String getBranch() {
+            return this.branch;
+        }
+
+        public String getType() {
+            return this.type;
+        }
+
+        public String getResult() {
+            return this.result;
+        }
+
+        public String getSort() {
+            return this.sort;
+        }
+
+        public boolean isDescending() {
+            return this.descending;
+        }
+
+        public int getPageNumber() {
+            return this.pageNumber;
+        }
+
+        public int getPageSize() {
+            return PAGE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package de.silpion.jenkins.plugins.gitflow.dashboard;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import hudson.Extension;
+import hudson.model.AbstractProject;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+
+/**
+ * Keeps the {@link GitflowStateIndex} in line with deleted, renamed and reconfigured jobs.
+ */
+@Extension
+public class GitflowStateIndexItemListener extends ItemListener {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onUpdated(final Item item) {
+        if (GitflowBuildWrapper.isGitflowJob(item)) {
+
+            // The branch naming of a job may have changed, and with it the branch types and the Gitflow actions available for the job.
+            GitflowStateIndex.getInstance().reclassify(item.getFullName(), GitflowBuildWrapper.getBranchTypeClassifier((AbstractProject<?, ?>) item));
+        } else {
+
+            // The Gitflow configuration may have been removed from the job.
+            GitflowStateIndex.getInstance().remove(item.getFullName());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onDeleted(final Item item) {
+        GitflowStateIndex.getInstance().remove(item.getFullName());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+        GitflowStateIndex.getInstance().rename(oldFullName, newFullName);
+    }
+}
@@ -0,0 +1,36 @@
+package de.silpion.jenkins.plugins.gitflow.dashboard;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+import java.util.List;
+
+/**
+ * Updates the {@link GitflowStateIndex} when a build that recorded Gitflow data completes.
+ */
+@Extension
+public class GitflowStateIndexRunListener extends RunListener<AbstractBuild<?, ?>> {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCompleted(final AbstractBuild<?, ?> build, final TaskListener listener) {
+        final GitflowPluginData gitflowPluginData = build.getAction(GitflowPluginData.class);
+        if (gitflowPluginData != null) {
+            final AbstractProject<?, ?> job = build.getProject();
+
+            // With concurrent builds, the builds don't necessarily complete in the order of their data,
+            // so the latest merged state of the job is preferred to the state recorded by the build.
+            final GitflowPluginDataStore.Snapshot snapshot = GitflowPluginDataStore.getInstance().getLatest(job);
+            final List<RemoteBranch> remoteBranches = snapshot == null ? gitflowPluginData.getRemoteBranches() : snapshot.getRemoteBranches();
+            GitflowStateIndex.getInstance().update(job.getFullName(), remoteBranches, GitflowBuildWrapper.getBranchTypeClassifier(job));
+        }
+    }
+}
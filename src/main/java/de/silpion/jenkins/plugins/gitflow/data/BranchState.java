@@ -0,0 +1,104 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import com.google.common.base.Objects;
+
+import java.io.Serializable;
+
+/**
+ * The immutable summary of the recorded state of a remote branch of a job, as held by the {@link GitflowStateIndex}.
+ */
+public final class BranchState implements Serializable {
+
+    private static final long serialVersionUID = 2794108215338245327L;
+
+    private final String jobFullName;
+    private final String branchName;
+    private final String branchType;
+    private final String lastBuildResult;
+    private final String lastBuildVersion;
+    private final String lastReleaseVersion;
+
+    /**
+     * Creates the summary of the recorded state of a remote branch.
+     *
+     * @param jobFullName the full name of the job.
+     * @param branchType the type of the branch ({@code master}, {@code develop}, {@code release}, {@code hotfix} or {@code feature}).
+     * @param remoteBranch the recorded remote branch.
+     */
+    public BranchState(final String jobFullName, final String branchType, final RemoteBranch remoteBranch) {
+        this.jobFullName = jobFullName;
+        this.branchName = remoteBranch.getBranchName();
+        this.branchType = branchType;
+        this.lastBuildResult = remoteBranch.getLastBuildResult() == null ? null : remoteBranch.getLastBuildResult().toString();
+        this.lastBuildVersion = remoteBranch.getLastBuildVersion();
+        this.lastReleaseVersion = remoteBranch.getLastReleaseVersion();
+    }
+
+    private BranchState(final String jobFullName, final String branchType, final BranchState branchState) {
+        this.jobFullName = jobFullName;
+        this.branchName = branchState.branchName;
+        this.branchType = branchType;
+        this.lastBuildResult = branchState.lastBuildResult;
+        this.lastBuildVersion = branchState.lastBuildVersion;
+        this.lastReleaseVersion = branchState.lastReleaseVersion;
+    }
+
+    /**
+     * Returns a copy of this branch state for a renamed job.
+     *
+     * @param newJobFullName the new full name of the job.
+     * @return a copy of this branch state for a renamed job.
+     */
+    BranchState forJob(final String newJobFullName) {
+        return new BranchState(newJobFullName, this.branchType, this);
+    }
+
+    /**
+     * Returns a copy of this branch state with another branch type, e.g. after the branch naming has been changed.
+     *
+     * @param newBranchType the new type of the branch.
+     * @return a copy of this branch state with the given branch type.
+     */
+    BranchState withBranchType(final String newBranchType) {
+        return new BranchState(this.jobFullName, newBranchType, this);
+    }
+
+    public String getJobFullName() {
+        return this.jobFullName;
+    }
+
+    public String getBranchName() {
+        return this.branchName;
+    }
+
+    public String getBranchType() {
+        return this.branchType;
+    }
+
+    public String getLastBuildResult() {
+        return this.lastBuildResult;
+    }
+
+    public String getLastBuildVersion() {
+        return this.lastBuildVersion;
+    }
+
+    public String getLastReleaseVersion() {
+        return this.lastReleaseVersion;
+    }
+
+    /**
+     * Checks if the given {@link BranchState} summarises the same information as this one.
+     *
+     * @param branchState the branch state to be compared.
+     * @return {@code true} if both branch states summarise the same information.
+     */
+    boolean hasSameState(final BranchState branchState) {
+        return Objects.equal(this.jobFullName, branchState.jobFullName)
+               && Objects.equal(this.branchName, branchState.branchName)
+               && Objects.equal(this.branchType, branchState.branchType)
+               && Objects.equal(this.lastBuildResult, branchState.lastBuildResult)
+               && Objects.equal(this.lastBuildVersion, branchState.lastBuildVersion)
+               && Objects.equal(this.lastReleaseVersion, branchState.lastReleaseVersion);
+    }
+}
@@ -190,6 +190,16 @@ public class GitflowPluginData implements Action, Serializable, Cloneable {
         return this.remoteBranches;
     }
 
+    /**
+     * Replaces the recorded remote branches, e.g. with the merged state from the {@link GitflowPluginDataStore}.
+     *
+     * @param remoteBranches the remote branches to be recorded.
+     */
+    public void setRemoteBranches(final Collection<RemoteBranch> remoteBranches) {
+        this.remoteBranches = new LinkedList<RemoteBranch>(remoteBranches);
+        Collections.sort(this.remoteBranches);
+    }
+
     public void setDryRun(final boolean dryRun) {
         this.dryRun = dryRun;
     }
@@ -0,0 +1,265 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import com.google.common.collect.MapMaker;
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.util.XStream2;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the latest versioned state of the recorded remote branches for each job, so that concurrent builds of the same job
+ * don't overwrite each other's {@link RemoteBranch} updates.
+ * <p>
+ * Each build starts from the latest {@link Snapshot} of its job and commits its changes (i.e. the branches it added, changed
+ * or removed compared to that snapshot) with an optimistic compare-and-swap on top of the then latest state. When another
+ * build committed in the meantime, the changes are merged again onto the newer state and the swap is retried. Concurrent
+ * changes of the same branch are resolved per branch - the build that commits last wins.
+ * <p>
+ * The latest snapshot of each job is also persisted in the job directory, so that after a restart (or when the job has
+ * been reloaded) the builds continue with the state that was committed last - which isn't necessarily the state recorded
+ * with the build that has the highest number. Only jobs without a persisted state are initialised from the
+ * {@link GitflowPluginData} of their last build.
+ */
+public final class GitflowPluginDataStore {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowPluginDataStore.class.getName());
+
+    private static final GitflowPluginDataStore INSTANCE = new GitflowPluginDataStore();
+
+    private static final String FILE_NAME = "gitflow-branches.xml";
+
+    // Like the XStream instance of the builds (Run.XSTREAM), which keeps the build results as single values.
+    private static final XStream2 XSTREAM = new XStream2();
+
+    static {
+        XSTREAM.registerConverter(Result.conv);
+        XSTREAM.alias("gitflow-branches", PersistedSnapshot.class);
+    }
+
+    // Weak keys, so that the state of deleted jobs doesn't stay in memory.
+    private final ConcurrentMap<Object, AtomicReference<Snapshot>> snapshotsByJob = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Creates a new, empty store.
+     */
+    GitflowPluginDataStore() {
+        // Only the singleton instance and tests create stores.
+    }
+
+    /**
+     * Returns the store for the Jenkins instance.
+     *
+     * @return the store for the Jenkins instance.
+     */
+    public static GitflowPluginDataStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the latest snapshot of the recorded remote branches of the given job.
+     *
+     * @param job the job/project that the remote branches are recorded for.
+     * @return the latest snapshot or {@code null} if no state was initialised or persisted for the job so far.
+     */
+    public Snapshot getLatest(final Object job) {
+        final AtomicReference<Snapshot> snapshotReference = this.snapshotsByJob.get(job);
+        if (snapshotReference != null) {
+            return snapshotReference.get();
+        }
+
+        // Continue with the state that was committed last before the restart/reload.
+        final Snapshot persistedSnapshot = load(job);
+        if (persistedSnapshot == null) {
+            return null;
+        }
+        final AtomicReference<Snapshot> existingSnapshotReference = this.snapshotsByJob.putIfAbsent(job, new AtomicReference<Snapshot>(persistedSnapshot));
+        return existingSnapshotReference == null ? persistedSnapshot : existingSnapshotReference.get();
+    }
+
+    /**
+     * Initialises the state of the given job with the given remote branches, unless it has already been initialised.
+     *
+     * @param job the job/project that the remote branches are recorded for.
+     * @param remoteBranches the remote branches recorded with the last build of the job.
+     * @return the latest snapshot of the recorded remote branches of the job.
+     */
+    public Snapshot initialise(final Object job, final Collection<RemoteBranch> remoteBranches) {
+        final AtomicReference<Snapshot> snapshotReference = new AtomicReference<Snapshot>(new Snapshot(0L, toBranchMap(remoteBranches)));
+        final AtomicReference<Snapshot> existingSnapshotReference = this.snapshotsByJob.putIfAbsent(job, snapshotReference);
+        return (existingSnapshotReference == null ? snapshotReference : existingSnapshotReference).get();
+    }
+
+    /**
+     * Commits the changes of a build to the state of the given job. The changes are determined by comparing the remote
+     * branches of the build with the snapshot that the build started from. They are merged onto the latest state of the
+     * job, which might contain the changes of other builds that have been committed in the meantime.
+     *
+     * @param job the job/project that the remote branches are recorded for.
+     * @param base the snapshot that the build started from.
+     * @param remoteBranches the remote branches as recorded by the build.
+     * @return the new latest snapshot, containing the changes of the build and of all builds that committed before.
+     */
+    public Snapshot commit(final Object job, final Snapshot base, final Collection<RemoteBranch> remoteBranches) {
+        final Map<String, RemoteBranch> currentBranches = toBranchMap(remoteBranches);
+
+        // Collect the added and changed branches.
+        final Map<String, RemoteBranch> upsertedBranches = new TreeMap<String, RemoteBranch>();
+        for (final RemoteBranch currentBranch : currentBranches.values()) {
+            final RemoteBranch baseBranch = base.branches.get(currentBranch.getBranchName());
+            if (baseBranch == null || !baseBranch.hasSameState(currentBranch)) {
+                upsertedBranches.put(currentBranch.getBranchName(), currentBranch);
+            }
+        }
+
+        // Collect the removed branches.
+        final List<String> removedBranchNames = new ArrayList<String>();
+        for (final String baseBranchName : base.branches.keySet()) {
+            if (!currentBranches.containsKey(baseBranchName)) {
+                removedBranchNames.add(baseBranchName);
+            }
+        }
+
+        AtomicReference<Snapshot> snapshotReference = this.snapshotsByJob.get(job);
+        if (snapshotReference == null) {
+            snapshotReference = new AtomicReference<Snapshot>(base);
+            final AtomicReference<Snapshot> existingSnapshotReference = this.snapshotsByJob.putIfAbsent(job, snapshotReference);
+            if (existingSnapshotReference != null) {
+                snapshotReference = existingSnapshotReference;
+            }
+        }
+
+        // Merge the changes onto the latest state until no other build has committed in between.
+        while (true) {
+            final Snapshot latest = snapshotReference.get();
+            final Map<String, RemoteBranch> mergedBranches = new TreeMap<String, RemoteBranch>(latest.branches);
+            mergedBranches.putAll(upsertedBranches);
+            mergedBranches.keySet().removeAll(removedBranchNames);
+
+            final Snapshot merged = new Snapshot(latest.version + 1L, mergedBranches);
+            if (snapshotReference.compareAndSet(latest, merged)) {
+                save(job, snapshotReference, merged);
+                return merged;
+            }
+        }
+    }
+
+    private static XmlFile getXmlFile(final Object job) {
+        final File rootDir = job instanceof Job ? ((Job<?, ?>) job).getRootDir() : null;
+        return rootDir == null ? null : new XmlFile(XSTREAM, new File(rootDir, FILE_NAME));
+    }
+
+    private static Snapshot load(final Object job) {
+        final XmlFile xmlFile = getXmlFile(job);
+        if (xmlFile != null && xmlFile.exists()) {
+            try {
+                final PersistedSnapshot persistedSnapshot = (PersistedSnapshot) xmlFile.read();
+                return new Snapshot(persistedSnapshot.version, toBranchMap(persistedSnapshot.remoteBranches));
+            } catch (final IOException ioe) {
+                LOGGER.log(Level.WARNING, "Loading the Gitflow branch state of " + job + " failed - it's initialised from the last build", ioe);
+            }
+        }
+        return null;
+    }
+
+    private static void save(final Object job, final AtomicReference<Snapshot> snapshotReference, final Snapshot snapshot) {
+        final XmlFile xmlFile = getXmlFile(job);
+        if (xmlFile != null) {
+
+            // Only the latest snapshot is written - a newer one is written by the build that committed it.
+            synchronized (snapshotReference) {
+                if (snapshotReference.get() == snapshot) {
+                    try {
+                        xmlFile.write(new PersistedSnapshot(snapshot));
+                    } catch (final IOException ioe) {
+                        LOGGER.log(Level.WARNING, "Saving the Gitflow branch state of " + job + " failed", ioe);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<String, RemoteBranch> toBranchMap(final Collection<RemoteBranch> remoteBranches) {
+        final Map<String, RemoteBranch> branchMap = new TreeMap<String, RemoteBranch>();
+        for (final RemoteBranch remoteBranch : remoteBranches) {
+
+            // Only take over (copies of) valid remote branches.
+            if (remoteBranch.getBranchName() != null) {
+                branchMap.put(remoteBranch.getBranchName(), copyOf(remoteBranch));
+            }
+        }
+        return branchMap;
+    }
+
+    private static RemoteBranch copyOf(final RemoteBranch remoteBranch) {
+        try {
+            return remoteBranch.clone();
+        } catch (final CloneNotSupportedException cnse) {
+            throw new IllegalStateException("Cloning of " + remoteBranch.getClass().getName() + " is not supported but should be.", cnse);
+        }
+    }
+
+    /**
+     * An immutable version of the recorded remote branches of a job.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<String, RemoteBranch> branches;
+
+        private Snapshot(final long version, final Map<String, RemoteBranch> branches) {
+            this.version = version;
+            this.branches = Collections.unmodifiableMap(branches);
+        }
+
+        /**
+         * Returns the version of the snapshot, which is incremented with each commit.
+         *
+         * @return the version of the snapshot.
+         */
+        public long getVersion() {
+            return this.version;
+        }
+
+        /**
+         * Returns copies of the remote branches of the snapshot, sorted by branch name. The copies can be modified
+         * without affecting the snapshot.
+         *
+         * @return copies of the remote branches of the snapshot.
+         */
+        public List<RemoteBranch> getRemoteBranches() {
+            final List<RemoteBranch> remoteBranches = new ArrayList<RemoteBranch>(this.branches.size());
+            for (final RemoteBranch remoteBranch : this.branches.values()) {
+                remoteBranches.add(copyOf(remoteBranch));
+            }
+            Collections.sort(remoteBranches);
+            return remoteBranches;
+        }
+    }
+
+    /**
+     * The persisted form of a {@link Snapshot}.
+     */
+    private static final class PersistedSnapshot {
+
+        private final long version;
+        private final List<RemoteBranch> remoteBranches;
+
+        private PersistedSnapshot(final Snapshot snapshot) {
+            this.version = snapshot.version;
+            this.remoteBranches = new ArrayList<RemoteBranch>(snapshot.branches.values());
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.MapMaker;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.model.AbstractProject;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The controller-wide index of the recorded Gitflow branch state of all jobs. The index is updated when builds complete
+ * and can be queried without loading any build records. It's persisted in the Jenkins home directory, so that it's
+ * available right after a restart.
+ * <p>
+ * Each job has a state version, which is increased whenever the indexed state or the configuration of the job changes.
+ * The versions are taken from a counter that starts with the current time, so they keep increasing across restarts.
+ * The index remembers the branch states of the latest versions of each job, so that clients can ask for the changes since
+ * the version they know (see {@link #getDelta(String, long)}) and wait for the next change (see {@link #awaitChange(String, long, long)}).
+ */
+public final class GitflowStateIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowStateIndex.class.getName());
+
+    private static final GitflowStateIndex INSTANCE = new GitflowStateIndex();
+
+    private static final String FILE_NAME = "gitflow-state-index.xml";
+    private static final long SAVE_DELAY_SECONDS = 10;
+    private static final int HISTORY_SIZE = 16;
+
+    private final ConcurrentMap<String, List<BranchState>> branchStatesByJob = new ConcurrentHashMap<String, List<BranchState>>();
+    private final ConcurrentMap<String, Long> versionsByJob = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    // The branch states of the latest versions of each job, oldest first. Changes are published under its monitor.
+    private final Map<String, LinkedList<VersionedBranchStates>> history = new HashMap<String, LinkedList<VersionedBranchStates>>();
+
+    // The monitors that the clients wait on for the changes of a job. Weak values, so that they're only held while clients wait.
+    private final ConcurrentMap<String, Object> monitorsByJob = new MapMaker().weakValues().makeMap();
+
+    private volatile XmlFile xmlFile;
+
+    /**
+     * Creates a new, empty index that isn't persisted.
+     */
+    GitflowStateIndex() {
+        // Only the singleton instance and tests create indexes.
+    }
+
+    /**
+     * Returns the index for the Jenkins instance.
+     *
+     * @return the index for the Jenkins instance.
+     */
+    public static GitflowStateIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the persisted index after the jobs have been loaded. Without a persisted index (e.g. on the first start with
+     * the index), the index is backfilled once from the recorded branches of the Gitflow jobs.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    @SuppressWarnings({ "UnusedDeclaration", "unchecked" })
+    public static void loadIndex() {
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (!INSTANCE.load(jenkins.getRootDir())) {
+            for (final AbstractProject<?, ?> job : jenkins.getAllItems(AbstractProject.class)) {
+                if (GitflowBuildWrapper.isGitflowJob(job)) {
+                    final List<RemoteBranch> remoteBranches = GitflowProjectModel.getRecordedRemoteBranches(job);
+                    if (!remoteBranches.isEmpty()) {
+                        INSTANCE.backfill(job.getFullName(), remoteBranches, GitflowBuildWrapper.getBranchTypeClassifier(job));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the index on shutdown if a delayed save is still pending, so that the changes of the last seconds before the
+     * shutdown aren't lost.
+     */
+    @Terminator
+    @SuppressWarnings("UnusedDeclaration")
+    public static void saveIndex() {
+        if (INSTANCE.xmlFile != null && INSTANCE.savePending.compareAndSet(true, false)) {
+            INSTANCE.save();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean load(final File rootDir) {
+        this.xmlFile = new XmlFile(Jenkins.XSTREAM2, new File(rootDir, FILE_NAME));
+        if (this.xmlFile.exists()) {
+            try {
+                final Map<String, List<BranchState>> persistedBranchStates = (Map<String, List<BranchState>>) this.xmlFile.read();
+                for (final Map.Entry<String, List<BranchState>> entry : persistedBranchStates.entrySet()) {
+                    final List<BranchState> branchStates = Collections.unmodifiableList(new ArrayList<BranchState>(entry.getValue()));
+                    synchronized (this.history) {
+                        if (this.branchStatesByJob.putIfAbsent(entry.getKey(), branchStates) == null) {
+                            final long loadedVersion = this.version.incrementAndGet();
+                            this.versionsByJob.putIfAbsent(entry.getKey(), loadedVersion);
+                            this.record(entry.getKey(), loadedVersion, branchStates);
+                        }
+                    }
+                }
+                this.version.incrementAndGet();
+                return true;
+            } catch (final IOException ioe) {
+                LOGGER.log(Level.WARNING, "Loading the Gitflow state index failed - the index is rebuilt from the recorded branches", ioe);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Initialises the state of the given job with its recorded remote branches, unless the job has been indexed already
+     * (e.g. by a build that completed in the meantime).
+     *
+     * @param jobFullName the full name of the job.
+     * @param remoteBranches the recorded remote branches of the job.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    void backfill(final String jobFullName, final Collection<RemoteBranch> remoteBranches, final BranchTypeClassifier branchTypeClassifier) {
+        final List<BranchState> branchStates = toBranchStates(jobFullName, remoteBranches, branchTypeClassifier);
+        synchronized (this.history) {
+            if (this.branchStatesByJob.putIfAbsent(jobFullName, branchStates) == null) {
+                this.record(jobFullName, this.changed(jobFullName), branchStates);
+            }
+        }
+    }
+
+    /**
+     * Replaces the state of the given job with its recorded remote branches.
+     *
+     * @param jobFullName the full name of the job.
+     * @param remoteBranches the recorded remote branches of the job.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     */
+    public void update(final String jobFullName, final Collection<RemoteBranch> remoteBranches, final BranchTypeClassifier branchTypeClassifier) {
+        final List<BranchState> branchStates = toBranchStates(jobFullName, remoteBranches, branchTypeClassifier);
+        synchronized (this.history) {
+            this.branchStatesByJob.put(jobFullName, branchStates);
+            this.record(jobFullName, this.changed(jobFullName), branchStates);
+        }
+    }
+
+    private static List<BranchState> toBranchStates(final String jobFullName, final Collection<RemoteBranch> remoteBranches,
+                                                    final BranchTypeClassifier branchTypeClassifier) {
+        final List<BranchState> branchStates = new ArrayList<BranchState>(remoteBranches.size());
+        for (final RemoteBranch remoteBranch : remoteBranches) {
+            branchStates.add(new BranchState(jobFullName, branchTypeClassifier.classify(remoteBranch.getBranchName()), remoteBranch));
+        }
+        return Collections.unmodifiableList(branchStates);
+    }
+
+    /**
+     * Increases the state version of the given job without changing its indexed state, e.g. when its configuration has changed.
+     *
+     * @param jobFullName the full name of the job.
+     */
+    public void touch(final String jobFullName) {
+        synchronized (this.history) {
+            final long touchedVersion = this.version.incrementAndGet();
+            this.versionsByJob.put(jobFullName, touchedVersion);
+            this.record(jobFullName, touchedVersion, this.getBranchStates(jobFullName));
+        }
+    }
+
+    /**
+     * Classifies the indexed branches of the given job again and increases its state version, e.g. when its configuration
+     * or the global branch naming has changed.
+     *
+     * @param jobFullName the full name of the job.
+     * @param branchTypeClassifier the current branch type classifier for the job.
+     */
+    public void reclassify(final String jobFullName, final BranchTypeClassifier branchTypeClassifier) {
+        synchronized (this.history) {
+            final List<BranchState> branchStates = this.branchStatesByJob.get(jobFullName);
+            if (branchStates == null) {
+                this.touch(jobFullName);
+                return;
+            }
+            final List<BranchState> reclassifiedBranchStates = new ArrayList<BranchState>(branchStates.size());
+            for (final BranchState branchState : branchStates) {
+                reclassifiedBranchStates.add(branchState.withBranchType(branchTypeClassifier.classify(branchState.getBranchName())));
+            }
+            final List<BranchState> unmodifiableBranchStates = Collections.unmodifiableList(reclassifiedBranchStates);
+            this.branchStatesByJob.put(jobFullName, unmodifiableBranchStates);
+            this.record(jobFullName, this.changed(jobFullName), unmodifiableBranchStates);
+        }
+    }
+
+    /**
+     * Removes the state of the given job.
+     *
+     * @param jobFullName the full name of the job.
+     */
+    public void remove(final String jobFullName) {
+        synchronized (this.history) {
+            this.versionsByJob.remove(jobFullName);
+            this.history.remove(jobFullName);
+            if (this.branchStatesByJob.remove(jobFullName) != null) {
+                this.changed(null);
+            }
+            this.notifyWaiters(jobFullName);
+        }
+    }
+
+    /**
+     * Moves the state of a renamed job to its new name.
+     *
+     * @param oldJobFullName the old full name of the job.
+     * @param newJobFullName the new full name of the job.
+     */
+    public void rename(final String oldJobFullName, final String newJobFullName) {
+        synchronized (this.history) {
+            final List<BranchState> branchStates = this.branchStatesByJob.remove(oldJobFullName);
+            if (branchStates != null) {
+                final List<BranchState> renamedBranchStates = new ArrayList<BranchState>(branchStates.size());
+                for (final BranchState branchState : branchStates) {
+                    renamedBranchStates.add(branchState.forJob(newJobFullName));
+                }
+                final List<BranchState> unmodifiableBranchStates = Collections.unmodifiableList(renamedBranchStates);
+                this.branchStatesByJob.put(newJobFullName, unmodifiableBranchStates);
+                this.versionsByJob.remove(oldJobFullName);
+                this.history.remove(oldJobFullName);
+                this.history.remove(newJobFullName);
+                this.record(newJobFullName, this.changed(newJobFullName), unmodifiableBranchStates);
+                this.notifyWaiters(oldJobFullName);
+            }
+        }
+    }
+
+    /**
+     * Returns the indexed branch states of the given job.
+     *
+     * @param jobFullName the full name of the job.
+     * @return the indexed branch states of the given job - empty if the job isn't indexed.
+     */
+    public List<BranchState> getBranchStates(final String jobFullName) {
+        final List<BranchState> branchStates = this.branchStatesByJob.get(jobFullName);
+        return branchStates == null ? Collections.<BranchState>emptyList() : branchStates;
+    }
+
+    /**
+     * Returns a page of the indexed branch states of all jobs.
+     *
+     * @param filter the filter for the branch states.
+     * @param order the order of the branch states.
+     * @param offset the index of the first branch state of the page.
+     * @param limit the maximum number of branch states of the page.
+     * @return the page of the matching branch states.
+     */
+    public Page getBranchStates(final Predicate<BranchState> filter, final Comparator<BranchState> order, final int offset, final int limit) {
+        final List<BranchState> matchingBranchStates = new ArrayList<BranchState>();
+        for (final List<BranchState> branchStates : this.branchStatesByJob.values()) {
+            for (final BranchState branchState : branchStates) {
+                if (filter.apply(branchState)) {
+                    matchingBranchStates.add(branchState);
+                }
+            }
+        }
+        Collections.sort(matchingBranchStates, order);
+
+        final int fromIndex = Math.min(Math.max(0, offset), matchingBranchStates.size());
+        final int toIndex = Math.min(fromIndex + Math.max(0, limit), matchingBranchStates.size());
+        return new Page(new ArrayList<BranchState>(matchingBranchStates.subList(fromIndex, toIndex)), fromIndex, matchingBranchStates.size());
+    }
+
+    /**
+     * Returns the version of the index. The version is increased with every change of the index.
+     *
+     * @return the version of the index.
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * Returns the state version of the given job.
+     *
+     * @param jobFullName the full name of the job.
+     * @return the state version of the given job - {@code 0} if neither the state nor the configuration of the job has
+     * changed since Jenkins has been started.
+     */
+    public long getVersion(final String jobFullName) {
+        final Long jobVersion = this.versionsByJob.get(jobFullName);
+        return jobVersion == null ? 0L : jobVersion;
+    }
+
+    /**
+     * Returns the changes of the indexed branch states of the given job since the given state version.
+     *
+     * @param jobFullName the full name of the job.
+     * @param sinceVersion the state version known by the client.
+     * @return the changes since the given state version - all branch states if that version isn't remembered anymore.
+     */
+    public StateDelta getDelta(final String jobFullName, final long sinceVersion) {
+        synchronized (this.history) {
+            final long currentVersion = this.getVersion(jobFullName);
+            final List<BranchState> currentBranchStates = this.getBranchStates(jobFullName);
+            if (currentVersion == sinceVersion) {
+                return new StateDelta(currentVersion, false, Collections.<BranchState>emptyList(), Collections.<String>emptyList());
+            }
+
+            List<BranchState> knownBranchStates = null;
+            final LinkedList<VersionedBranchStates> jobHistory = this.history.get(jobFullName);
+            if (jobHistory != null) {
+                for (final VersionedBranchStates versionedBranchStates : jobHistory) {
+                    if (versionedBranchStates.version == sinceVersion) {
+                        knownBranchStates = versionedBranchStates.branchStates;
+                    }
+                }
+            }
+            if (knownBranchStates == null) {
+                return new StateDelta(currentVersion, true, currentBranchStates, Collections.<String>emptyList());
+            }
+
+            final Map<String, BranchState> knownBranchStatesByName = new HashMap<String, BranchState>();
+            for (final BranchState knownBranchState : knownBranchStates) {
+                knownBranchStatesByName.put(knownBranchState.getBranchName(), knownBranchState);
+            }
+            final List<BranchState> changedBranchStates = new ArrayList<BranchState>();
+            final Set<String> currentBranchNames = new HashSet<String>();
+            for (final BranchState currentBranchState : currentBranchStates) {
+                final BranchState knownBranchState = knownBranchStatesByName.get(currentBranchState.getBranchName());
+                if (knownBranchState == null || !knownBranchState.hasSameState(currentBranchState)) {
+                    changedBranchStates.add(currentBranchState);
+                }
+                currentBranchNames.add(currentBranchState.getBranchName());
+            }
+            final List<String> removedBranchNames = new ArrayList<String>();
+            for (final BranchState knownBranchState : knownBranchStates) {
+                if (!currentBranchNames.contains(knownBranchState.getBranchName())) {
+                    removedBranchNames.add(knownBranchState.getBranchName());
+                }
+            }
+            return new StateDelta(currentVersion, false, changedBranchStates, removedBranchNames);
+        }
+    }
+
+    /**
+     * Waits until the state version of the given job differs from the given one.
+     *
+     * @param jobFullName the full name of the job.
+     * @param sinceVersion the state version known by the client.
+     * @param timeoutMillis the maximum time to wait in milliseconds.
+     * @return the current state version of the job - equal to the given version if the timeout has elapsed.
+     * @throws InterruptedException if the waiting thread has been interrupted.
+     */
+    public long awaitChange(final String jobFullName, final long sinceVersion, final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        // Waiting on the monitor of the job, so only the clients of the changed job are woken up.
+        final Object monitor = this.getMonitor(jobFullName);
+        synchronized (monitor) {
+            long currentVersion = this.getVersion(jobFullName);
+            for (long remainingMillis = timeoutMillis; currentVersion == sinceVersion && remainingMillis > 0;
+                 remainingMillis = deadline - System.currentTimeMillis()) {
+                monitor.wait(remainingMillis);
+                currentVersion = this.getVersion(jobFullName);
+            }
+            return currentVersion;
+        }
+    }
+
+    private Object getMonitor(final String jobFullName) {
+        final Object monitor = this.monitorsByJob.get(jobFullName);
+        if (monitor != null) {
+            return monitor;
+        }
+        final Object newMonitor = new Object();
+        final Object existingMonitor = this.monitorsByJob.putIfAbsent(jobFullName, newMonitor);
+        return existingMonitor == null ? newMonitor : existingMonitor;
+    }
+
+    // Must be called after the version of the job has been changed.
+    private void notifyWaiters(final String jobFullName) {
+        final Object monitor = this.monitorsByJob.get(jobFullName);
+        if (monitor != null) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    // Must be called while holding the monitor of the history.
+    private void record(final String jobFullName, final long recordedVersion, final List<BranchState> branchStates) {
+        LinkedList<VersionedBranchStates> jobHistory = this.history.get(jobFullName);
+        if (jobHistory == null) {
+            jobHistory = new LinkedList<VersionedBranchStates>();
+            this.history.put(jobFullName, jobHistory);
+        }
+        jobHistory.addLast(new VersionedBranchStates(recordedVersion, branchStates));
+        if (jobHistory.size() > HISTORY_SIZE) {
+            jobHistory.removeFirst();
+        }
+        this.notifyWaiters(jobFullName);
+    }
+
+    private long changed(final String jobFullName) {
+        final long changedVersion = this.version.incrementAndGet();
+        if (jobFullName != null) {
+            this.versionsByJob.put(jobFullName, changedVersion);
+        }
+
+        // Many builds may complete at the same time, so the index is saved at most once within the save delay.
+        if (this.xmlFile != null && this.savePending.compareAndSet(false, true)) {
+            Timer.get().schedule(new Runnable() {
+
+                /** {@inheritDoc} */
+                public void run() {
+
+                    // The save may already have been done on shutdown (see saveIndex).
+                    if (GitflowStateIndex.this.savePending.compareAndSet(true, false)) {
+                        GitflowStateIndex.this.save();
+                    }
+                }
+            }, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+        return changedVersion;
+    }
+
+    // Synchronised, so that the delayed save and the save on shutdown don't write the file at the same time.
+    private synchronized void save() {
+        final Map<String, List<BranchState>> persistedBranchStates = new HashMap<String, List<BranchState>>();
+        for (final Map.Entry<String, List<BranchState>> entry : this.branchStatesByJob.entrySet()) {
+            persistedBranchStates.put(entry.getKey(), new ArrayList<BranchState>(entry.getValue()));
+        }
+        try {
+            this.xmlFile.write(persistedBranchStates);
+        } catch (final IOException ioe) {
+            LOGGER.log(Level.WARNING, "Saving the Gitflow state index failed", ioe);
+        }
+    }
+
+    /**
+     * The branch states of a job for a state version.
+     */
+    private static final class VersionedBranchStates {
+
+        private final long version;
+        private final List<BranchState> branchStates;
+
+        private VersionedBranchStates(final long version, final List<BranchState> branchStates) {
+            this.version = version;
+            this.branchStates = branchStates;
+        }
+    }
+
+    /**
+     * A page of indexed branch states.
+     */
+    public static final class Page {
+
+        private final List<BranchState> branchStates;
+        private final int offset;
+        private final int total;
+
+        Page(final List<BranchState> branchStates, final int offset, final int total) {
+            this.branchStates = Collections.unmodifiableList(branchStates);
+            this.offset = offset;
+            this.total = total;
+        }
+
+        public List<BranchState> getBranchStates() {
+            return this.branchStates;
+        }
+
+        public int getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Returns the number of matching branch states on all pages.
+         *
+         * @return the number of matching branch states on all pages.
+         */
+        public int getTotal() {
+            return this.total;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.silpion.jenkins.plugins.gitflow.data;
 
+import com.google.common.base.Objects;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Result;
 import org.eclipse.jgit.lib.ObjectId;
@@ -46,6 +47,21 @@ public class RemoteBranch implements Serializable, Cloneable, Comparable<RemoteB
         return String.CASE_INSENSITIVE_ORDER.compare(this.getBranchName(), remoteBranch.getBranchName());
     }
 
+    /**
+     * Checks if the given {@link RemoteBranch} records the same information as this one.
+     *
+     * @param remoteBranch the remote branch to be compared.
+     * @return {@code true} if both remote branches record the same information.
+     */
+    boolean hasSameState(final RemoteBranch remoteBranch) {
+        return Objects.equal(this.branchName, remoteBranch.branchName)
+               && this.lastBuildResult == remoteBranch.lastBuildResult
+               && Objects.equal(this.lastBuildVersion, remoteBranch.lastBuildVersion)
+               && Objects.equal(this.baseReleaseVersion, remoteBranch.baseReleaseVersion)
+               && Objects.equal(this.lastReleaseVersion, remoteBranch.lastReleaseVersion)
+               && Objects.equal(this.lastReleaseVersionCommit, remoteBranch.lastReleaseVersionCommit);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
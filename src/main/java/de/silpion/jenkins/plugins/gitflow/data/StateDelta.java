@@ -0,0 +1,68 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes of the indexed branch states of a job between two state versions, as provided by the {@link GitflowStateIndex}.
+ */
+public final class StateDelta {
+
+    private final long stateVersion;
+    private final boolean complete;
+    private final List<BranchState> changedBranchStates;
+    private final List<String> removedBranchNames;
+
+    StateDelta(final long stateVersion, final boolean complete, final List<BranchState> changedBranchStates, final List<String> removedBranchNames) {
+        this.stateVersion = stateVersion;
+        this.complete = complete;
+        this.changedBranchStates = Collections.unmodifiableList(changedBranchStates);
+        this.removedBranchNames = Collections.unmodifiableList(removedBranchNames);
+    }
+
+    /**
+     * Returns the current state version of the job.
+     *
+     * @return the current state version of the job.
+     */
+    public long getStateVersion() {
+        return this.stateVersion;
+    }
+
+    /**
+     * Denotes if the delta contains all branch states of the job, because the state version known by the client isn't
+     * remembered anymore. Clients must then drop all branch states they know.
+     *
+     * @return {@code true} if the delta contains all branch states of the job.
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * Returns the branch states that were added or changed.
+     *
+     * @return the branch states that were added or changed.
+     */
+    public List<BranchState> getChangedBranchStates() {
+        return this.changedBranchStates;
+    }
+
+    /**
+     * Returns the names of the branches that were removed.
+     *
+     * @return the names of the branches that were removed.
+     */
+    public List<String> getRemovedBranchNames() {
+        return this.removedBranchNames;
+    }
+
+    /**
+     * Denotes if the delta doesn't contain any changes.
+     *
+     * @return {@code true} if the delta doesn't contain any changes.
+     */
+    public boolean isEmpty() {
+        return !this.complete && this.changedBranchStates.isEmpty() && this.removedBranchNames.isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An immutable sort key for version numbers like {@code 1.2}, {@code 1.10.3} or {@code 2.0-RC1}.
+ * <p>
+ * The version number is parsed only once into the numeric components and an optional qualifier, so that comparing two
+ * keys neither allocates objects nor parses strings. Numeric components are compared numerically, a shorter sequence
+ * of components is lower ({@code 1.0 < 1.0.0}) and a qualified version is lower than the same version without
+ * qualifier ({@code 2.0-RC1 < 2.0}). Qualifiers are compared case-insensitively.
+ *
+ * @see Comparable
+ */
+public final class VersionKey implements Comparable<VersionKey>, Serializable {
+
+    private static final long serialVersionUID = -1702874622950181393L;
+
+    private static final int[] NO_NUMBERS = new int[0];
+
+    private final String version;
+    private final int[] numbers;
+    private final String qualifier;
+
+    private VersionKey(final String version, final int[] numbers, final String qualifier) {
+        this.version = version;
+        this.numbers = numbers;
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * Parses the given version number into a new {@link VersionKey}. The parser never fails: everything that follows
+     * the leading dot-separated numbers (without the separating {@code -} or {@code .}) is taken as qualifier.
+     *
+     * @param version the version number to be parsed - must not be {@code null}.
+     * @return the new {@link VersionKey}.
+     */
+    public static VersionKey parse(final String version) {
+        final int length = version.length();
+
+        // Count the numeric components first, so that the array can be allocated with the exact size.
+        int numberCount = 0;
+        int qualifierStart = length;
+        for (int i = 0; i < length; i++) {
+            final char c = version.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (i == 0 || version.charAt(i - 1) == '.') {
+                    numberCount++;
+                }
+            } else if (c != '.' || i == 0 || i + 1 >= length || !isDigit(version.charAt(i + 1))) {
+                qualifierStart = i;
+                break;
+            }
+        }
+
+        final int[] numbers = numberCount == 0 ? NO_NUMBERS : new int[numberCount];
+        int index = -1;
+        for (int i = 0; i < qualifierStart; i++) {
+            final char c = version.charAt(i);
+            if (c == '.') {
+                continue;
+            }
+            if (i == 0 || version.charAt(i - 1) == '.') {
+                index++;
+            }
+            final int number = numbers[index];
+            // Saturate instead of overflowing on absurdly long numbers.
+            numbers[index] = number > (Integer.MAX_VALUE - 9) / 10 ? Integer.MAX_VALUE : number * 10 + (c - '0');
+        }
+
+        String qualifier = null;
+        if (qualifierStart < length) {
+            final char separator = version.charAt(qualifierStart);
+            final int start = (separator == '-' || separator == '.') && qualifierStart > 0 ? qualifierStart + 1 : qualifierStart;
+            qualifier = version.substring(start);
+        }
+
+        return new VersionKey(version, numbers, qualifier);
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** {@inheritDoc} */
+    @SuppressFBWarnings("EQ_COMPARETO_USE_OBJECT_EQUALS")
+    public int compareTo(final VersionKey other) {
+        final int[] otherNumbers = other.numbers;
+        final int commonLength = Math.min(this.numbers.length, otherNumbers.length);
+        for (int i = 0; i < commonLength; i++) {
+            final int result = compareInts(this.numbers[i], otherNumbers[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        int result = compareInts(this.numbers.length, otherNumbers.length);
+        if (result == 0) {
+            if (this.qualifier == null) {
+                result = other.qualifier == null ? 0 : 1;
+            } else if (other.qualifier == null) {
+                result = -1;
+            } else {
+                result = this.qualifier.compareToIgnoreCase(other.qualifier);
+            }
+        }
+
+        // Keep the ordering consistent with equals, e.g. for '1.01' and '1.1'.
+        return result != 0 ? result : this.version.compareTo(other.version);
+    }
+
+    private static int compareInts(final int x, final int y) {
+        return x < y ? -1 : (x == y ? 0 : 1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || obj instanceof VersionKey && this.version.equals(((VersionKey) obj).version);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return this.version.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return this.version;
+    }
+
+    /**
+     * Returns the version number this key has been parsed from.
+     *
+     * @return the version number this key has been parsed from.
+     */
+    public String getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the qualifier of the version number (e.g. {@code RC1} for {@code 2.0-RC1}).
+     *
+     * @return the qualifier of the version number or {@code null} if there is none.
+     */
+    public String getQualifier() {
+        return this.qualifier;
+    }
+
+    /**
+     * Returns a copy of the numeric components of the version number.
+     *
+     * @return a copy of the numeric components of the version number.
+     */
+    public int[] getNumbers() {
+        return Arrays.copyOf(this.numbers, this.numbers.length);
+    }
+}
@@ -0,0 +1,199 @@
+package de.silpion.jenkins.plugins.gitflow.journal;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A step of the Gitflow progress of a job, as recorded in the {@link GitflowEventJournal}: a phase of a Gitflow action
+ * (e.g. {@code beforeMainBuild} of <i>Start Release</i>) or a push to the remote repository, with the refs it pushed,
+ * the version it worked on, its duration and its result.
+ * <p>
+ * Events are written as one JSON object per line, with the sequence number first, so that readers can skip the events
+ * they already know without parsing them:
+ * <pre>
+ * {"seq":42,"time":1500000000000,"build":17,"action":"Start Release","phase":"push","refs":["refs/heads/release/1.2:refs/heads/release/1.2"],"version":"1.2","durationMillis":830,"result":"SUCCESS"}
+ * </pre>
+ */
+public final class GitflowEvent {
+
+    /** The phase of a Gitflow action before the main build. */
+    public static final String PHASE_BEFORE_MAIN_BUILD = "beforeMainBuild";
+
+    /** The main build between the phases of a Gitflow action. */
+    public static final String PHASE_MAIN_BUILD = "mainBuild";
+
+    /** The phase of a Gitflow action after the main build. */
+    public static final String PHASE_AFTER_MAIN_BUILD = "afterMainBuild";
+
+    /** A push to the remote repository. */
+    public static final String PHASE_PUSH = "push";
+
+    private static final String KEY_SEQUENCE = "seq";
+    private static final String KEY_TIME = "time";
+    private static final String KEY_BUILD = "build";
+    private static final String KEY_ACTION = "action";
+    private static final String KEY_PHASE = "phase";
+    private static final String KEY_REFS = "refs";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_DURATION_MILLIS = "durationMillis";
+    private static final String KEY_RESULT = "result";
+
+    private static final String SEQUENCE_PREFIX = "{\"" + KEY_SEQUENCE + "\":";
+
+    private final long sequence;
+    private final long timeMillis;
+    private final int build;
+    private final String action;
+    private final String phase;
+    private final List<String> refs;
+    private final String version;
+    private final long durationMillis;
+    private final String result;
+
+    /**
+     * Creates a new event that hasn't been journaled yet. The end of the event is now.
+     *
+     * @param build the number of the build.
+     * @param action the name of the Gitflow action.
+     * @param phase the phase of the Gitflow action.
+     * @param refs the refs (refspecs) that have been pushed - may be empty.
+     * @param version the version the Gitflow action works on - may be {@code null}.
+     * @param durationMillis the duration of the phase in milliseconds.
+     * @param result the result of the phase (e.g. {@code SUCCESS} or {@code FAILURE}).
+     */
+    public GitflowEvent(final int build, final String action, final String phase, final List<String> refs, final String version, final long durationMillis,
+                        final String result) {
+        this(0L, System.currentTimeMillis(), build, action, phase, refs, version, durationMillis, result);
+    }
+
+    private GitflowEvent(final long sequence, final long timeMillis, final int build, final String action, final String phase, final List<String> refs,
+                         final String version, final long durationMillis, final String result) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.build = build;
+        this.action = action;
+        this.phase = phase;
+        this.refs = Collections.unmodifiableList(new ArrayList<String>(refs));
+        this.version = version;
+        this.durationMillis = durationMillis;
+        this.result = result;
+    }
+
+    /**
+     * Returns a copy of this event with the given sequence number.
+     *
+     * @param sequence the sequence number of the event in the journal.
+     * @return a copy of this event with the given sequence number.
+     */
+    GitflowEvent withSequence(final long sequence) {
+        return new GitflowEvent(sequence, this.timeMillis, this.build, this.action, this.phase, this.refs, this.version, this.durationMillis, this.result);
+    }
+
+    /**
+     * Returns the JSON representation of the event, as written to the journal.
+     *
+     * @return the JSON representation of the event.
+     */
+    public JSONObject toJson() {
+        final JSONObject json = new JSONObject();
+        json.put(KEY_SEQUENCE, this.sequence);
+        json.put(KEY_TIME, this.timeMillis);
+        json.put(KEY_BUILD, this.build);
+        json.put(KEY_ACTION, this.action);
+        json.put(KEY_PHASE, this.phase);
+        if (!this.refs.isEmpty()) {
+            json.put(KEY_REFS, JSONArray.fromObject(this.refs));
+        }
+        if (this.version != null) {
+            json.put(KEY_VERSION, this.version);
+        }
+        json.put(KEY_DURATION_MILLIS, this.durationMillis);
+        json.put(KEY_RESULT, this.result);
+        return json;
+    }
+
+    /**
+     * Creates an event from its JSON representation.
+     *
+     * @param json the JSON representation of the event.
+     * @return the event.
+     * @throws net.sf.json.JSONException if the JSON doesn't represent an event.
+     */
+    @SuppressWarnings("unchecked")
+    public static GitflowEvent fromJson(final JSONObject json) {
+        final List<String> refs = json.has(KEY_REFS) ? (List<String>) JSONArray.toCollection(json.getJSONArray(KEY_REFS), String.class)
+                                                     : Collections.<String>emptyList();
+        return new GitflowEvent(json.getLong(KEY_SEQUENCE), json.getLong(KEY_TIME), json.getInt(KEY_BUILD), json.getString(KEY_ACTION),
+                                json.getString(KEY_PHASE), refs, json.optString(KEY_VERSION, null), json.getLong(KEY_DURATION_MILLIS),
+                                json.getString(KEY_RESULT));
+    }
+
+    /**
+     * Returns the sequence number of an event line without parsing the whole line.
+     *
+     * @param line a line of the journal.
+     * @return the sequence number of the event or {@code -1} if the line doesn't start with a sequence number.
+     */
+    static long parseSequence(final String line) {
+        if (!line.startsWith(SEQUENCE_PREFIX)) {
+            return -1L;
+        }
+        long sequence = 0L;
+        int digits = 0;
+        for (int i = SEQUENCE_PREFIX.length(); i < line.length() && Character.isDigit(line.charAt(i)); i++, digits++) {
+            sequence = sequence * 10L + (line.charAt(i) - '0');
+        }
+        return digits == 0 ? -1L : sequence;
+    }
+
+    /**
+     * Returns the sequence number of the event in the journal of its job. The sequence numbers of a job start with
+     * {@code 1} and increase with each event, also across the rotated files of the journal.
+     *
+     * @return the sequence number of the event - {@code 0} if it hasn't been journaled yet.
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Returns the time the event has been recorded at, i.e. the end of the phase.
+     *
+     * @return the time in milliseconds since the epoch.
+     */
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    public int getBuild() {
+        return this.build;
+    }
+
+    public String getAction() {
+        return this.action;
+    }
+
+    public String getPhase() {
+        return this.phase;
+    }
+
+    public List<String> getRefs() {
+        return this.refs;
+    }
+
+    public String getVersion() {
+        return this.version;
+    }
+
+    public long getDurationMillis() {
+        return this.durationMillis;
+    }
+
+    public String getResult() {
+        return this.result;
+    }
+}
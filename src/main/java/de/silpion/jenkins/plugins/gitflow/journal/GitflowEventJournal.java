@@ -0,0 +1,229 @@
+package de.silpion.jenkins.plugins.gitflow.journal;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
+import hudson.model.Job;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The append-only journal of the Gitflow progress of a job, stored as JSON lines in the job directory (see
+ * {@link GitflowEvent}). Release analytics and dashboards can read the events incrementally with a
+ * {@link GitflowEventReader}, without loading any builds and without parsing console logs.
+ * <p>
+ * The journal is rotated by size: when the current file ({@code gitflow-events.jsonl}) would exceed the maximum size,
+ * it's renamed to {@code gitflow-events.1.jsonl}, the older files are shifted by one and the oldest one is deleted.
+ * The sequence numbers of the events continue across the rotations, so readers can follow the journal by the sequence
+ * number of the last event they've read.
+ * <p>
+ * The journal is written on a best effort basis: when an event cannot be written, a warning is logged and the build
+ * continues.
+ */
+public final class GitflowEventJournal {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowEventJournal.class.getName());
+
+    @VisibleForTesting static final String FILE_NAME = "gitflow-events.jsonl";
+    private static final String ROTATED_FILE_NAME_PATTERN = "gitflow-events.%d.jsonl";
+
+    private static final long DEFAULT_MAX_FILE_BYTES = 1024L * 1024L;
+    private static final int DEFAULT_MAX_ROTATED_FILES = 4;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // One journal per job, so that the appends of concurrent builds of a job are serialised.
+    // Weak keys, so that the journals of deleted jobs don't stay in memory.
+    private static final ConcurrentMap<Job<?, ?>, GitflowEventJournal> JOURNALS = new MapMaker().weakKeys().makeMap();
+
+    private final File directory;
+    private final long maxFileBytes;
+    private final int maxRotatedFiles;
+
+    // The sequence number of the last journaled event - read from the files on the first access.
+    private long lastSequence = -1L;
+
+    /**
+     * Creates a journal in the given directory.
+     *
+     * @param directory the directory for the journal files.
+     * @param maxFileBytes the maximum size of a journal file in bytes.
+     * @param maxRotatedFiles the maximum number of rotated journal files to be kept.
+     */
+    @VisibleForTesting
+    GitflowEventJournal(final File directory, final long maxFileBytes, final int maxRotatedFiles) {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxRotatedFiles = maxRotatedFiles;
+    }
+
+    /**
+     * Returns the journal of the given job.
+     *
+     * @param job the job.
+     * @return the journal of the given job or {@code null} if the job has no directory.
+     */
+    public static GitflowEventJournal forJob(final Job<?, ?> job) {
+        final File rootDir = job == null ? null : job.getRootDir();
+        if (rootDir == null) {
+            return null;
+        }
+        while (true) {
+            final GitflowEventJournal journal = JOURNALS.get(job);
+
+            // The directory of a job changes when it's renamed or moved - the journal moves with it.
+            if (journal != null && journal.directory.equals(rootDir)) {
+                return journal;
+            }
+            final GitflowEventJournal newJournal = new GitflowEventJournal(rootDir, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_ROTATED_FILES);
+            if (journal == null ? JOURNALS.putIfAbsent(job, newJournal) == null : JOURNALS.replace(job, journal, newJournal)) {
+                return newJournal;
+            }
+        }
+    }
+
+    /**
+     * Appends an event to the journal. The event gets the next sequence number of the journal.
+     *
+     * @param event the event to be appended.
+     * @return the journaled event with its sequence number or {@code null} if the event couldn't be written.
+     */
+    public synchronized GitflowEvent append(final GitflowEvent event) {
+        try {
+            final GitflowEvent journaledEvent = event.withSequence(this.getLastSequence() + 1L);
+            final byte[] line = (journaledEvent.toJson().toString() + "\n").getBytes(UTF_8);
+
+            final File currentFile = this.getFile(0);
+            if (currentFile.length() > 0L && currentFile.length() + line.length > this.maxFileBytes) {
+                this.rotate();
+            }
+
+            // The line is written with a single write, so that readers don't see parts of it in most cases.
+            final OutputStream outputStream = new FileOutputStream(currentFile, true);
+            try {
+                outputStream.write(line);
+            } finally {
+                outputStream.close();
+            }
+            this.lastSequence = journaledEvent.getSequence();
+            return journaledEvent;
+        } catch (final IOException ioe) {
+            LOGGER.log(Level.WARNING, "Writing the Gitflow event journal in " + this.directory + " failed", ioe);
+            return null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        final File oldestFile = this.getFile(this.maxRotatedFiles);
+        if (oldestFile.exists() && !oldestFile.delete()) {
+            throw new IOException("Cannot delete " + oldestFile);
+        }
+        for (int i = this.maxRotatedFiles - 1; i >= 0; i--) {
+            final File file = this.getFile(i);
+            if (file.exists() && !file.renameTo(this.getFile(i + 1))) {
+                throw new IOException("Cannot rotate " + file);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last event in the journal.
+     *
+     * @return the sequence number of the last event - {@code 0} if the journal is empty.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized long getLastSequence() throws IOException {
+        if (this.lastSequence < 0L) {
+            long sequence = 0L;
+            for (int i = 0; i <= this.maxRotatedFiles && sequence == 0L; i++) {
+                sequence = readLastSequence(this.getFile(i));
+            }
+            this.lastSequence = sequence;
+        }
+        return this.lastSequence;
+    }
+
+    private static long readLastSequence(final File file) throws IOException {
+        long lastSequence = 0L;
+        if (file.isFile()) {
+            final BufferedReader reader = openReader(file);
+            try {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lastSequence = Math.max(lastSequence, GitflowEvent.parseSequence(line));
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Opens a reader for the events after the given sequence number. Rotated files that only contain older events are
+     * skipped without being read.
+     *
+     * @param afterSequence the sequence number of the last event that is already known - {@code 0} to read all events.
+     * @return the reader, which must be closed after use.
+     * @throws IOException if the journal cannot be opened.
+     */
+    public synchronized GitflowEventReader read(final long afterSequence) throws IOException {
+        final List<File> files = new ArrayList<File>();
+        for (int i = this.maxRotatedFiles; i >= 0; i--) {
+            final File file = this.getFile(i);
+            if (file.isFile()) {
+                files.add(file);
+            }
+        }
+
+        // All events of a file are older than the first event of the next file.
+        int firstFile = 0;
+        for (int i = files.size() - 1; i > 0 && firstFile == 0; i--) {
+            final long firstSequence = readFirstSequence(files.get(i));
+            if (firstSequence > 0L && firstSequence <= afterSequence + 1L) {
+                firstFile = i;
+            }
+        }
+
+        final List<BufferedReader> readers = new ArrayList<BufferedReader>(files.size() - firstFile);
+        try {
+            for (final File file : files.subList(firstFile, files.size())) {
+                readers.add(openReader(file));
+            }
+        } catch (final IOException ioe) {
+            for (final BufferedReader reader : readers) {
+                reader.close();
+            }
+            throw ioe;
+        }
+        return new GitflowEventReader(readers, afterSequence);
+    }
+
+    private static long readFirstSequence(final File file) throws IOException {
+        final BufferedReader reader = openReader(file);
+        try {
+            final String line = reader.readLine();
+            return line == null ? -1L : GitflowEvent.parseSequence(line);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static BufferedReader openReader(final File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+    }
+
+    private File getFile(final int rotation) {
+        return new File(this.directory, rotation == 0 ? FILE_NAME : String.format(ROTATED_FILE_NAME_PATTERN, rotation));
+    }
+}
@@ -0,0 +1,71 @@
+package de.silpion.jenkins.plugins.gitflow.journal;
+
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Reads the events of a {@link GitflowEventJournal} one by one, oldest first. The reader streams through the journal
+ * files, so it never holds more than one event in memory, and it skips the events up to a given sequence number without
+ * parsing them. The files are opened when the reader is created, so a rotation of the journal doesn't affect the reader.
+ * <p>
+ * Lines that can't be parsed (e.g. a line that is still being written) are skipped. Readers that follow the journal
+ * simply start the next read after the sequence number of the last event they've read.
+ */
+public final class GitflowEventReader implements Closeable {
+
+    private final LinkedList<BufferedReader> readers;
+    private final long afterSequence;
+
+    /**
+     * Creates a reader for the given journal files.
+     *
+     * @param readers the readers for the journal files, oldest first.
+     * @param afterSequence the sequence number of the last event that is already known.
+     */
+    GitflowEventReader(final List<BufferedReader> readers, final long afterSequence) {
+        this.readers = new LinkedList<BufferedReader>(readers);
+        this.afterSequence = afterSequence;
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return the next event or {@code null} if all events have been read.
+     * @throws IOException if the journal cannot be read.
+     */
+    public GitflowEvent next() throws IOException {
+        while (!this.readers.isEmpty()) {
+            final String line = this.readers.getFirst().readLine();
+            if (line == null) {
+                this.readers.removeFirst().close();
+            } else if (StringUtils.isNotBlank(line)) {
+                final long sequence = GitflowEvent.parseSequence(line);
+                if (sequence < 0L || sequence > this.afterSequence) {
+                    try {
+                        final GitflowEvent event = GitflowEvent.fromJson(JSONObject.fromObject(line));
+                        if (event.getSequence() > this.afterSequence) {
+                            return event;
+                        }
+                    } catch (final JSONException ignored) {
+                        // Not a complete event - skip it.
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    public void close() throws IOException {
+        while (!this.readers.isEmpty()) {
+            this.readers.removeFirst().close();
+        }
+    }
+}
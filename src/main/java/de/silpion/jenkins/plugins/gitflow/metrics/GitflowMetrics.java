@@ -0,0 +1,357 @@
+package de.silpion.jenkins.plugins.gitflow.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import de.silpion.jenkins.plugins.gitflow.data.BranchState;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import hudson.model.Result;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the controller-wide metrics of the Gitflow plugin and writes them in the text exposition format of Prometheus.
+ * The metrics are only held in memory, so they start from zero when Jenkins is restarted.
+ * <p>
+ * The following metrics are provided:
+ * <ul>
+ * <li>{@code gitflow_builds_total} and {@code gitflow_build_duration_seconds} - the completed Gitflow builds by action.</li>
+ * <li>{@code gitflow_git_operation_duration_seconds} - the latency of the Git operations by operation and Git implementation.</li>
+ * <li>{@code gitflow_ls_remote_refs} and {@code gitflow_ls_remote_bytes} - the size of the remote refs listings.</li>
+ * <li>{@code gitflow_cache_requests_total} - the hits and misses of the caches of the plugin.</li>
+ * <li>{@code gitflow_queue_wait_seconds} - the time that Gitflow builds waited in the build queue.</li>
+ * <li>{@code gitflow_unstable_branches} - the branches whose last build wasn't successful.</li>
+ * </ul>
+ */
+public final class GitflowMetrics {
+
+    /** The content type of the text exposition format. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** The label value for the command line Git implementation. */
+    public static final String IMPLEMENTATION_CLI = "cli";
+
+    /** The label value for the JGit implementation. */
+    public static final String IMPLEMENTATION_JGIT = "jgit";
+
+    /** The label value for other Git implementations. */
+    public static final String IMPLEMENTATION_OTHER = "other";
+
+    private static final double[] DURATION_BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600, 1800, 3600 };
+    private static final double[] SIZE_BUCKETS = { 1, 10, 100, 1000, 10000, 100000 };
+    private static final double[] BYTES_BUCKETS = { 1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216 };
+
+    private static final Result[] UNSTABLE_RESULTS = { Result.UNSTABLE, Result.FAILURE, Result.ABORTED };
+
+    private static final GitflowMetrics INSTANCE = new GitflowMetrics(GitflowStateIndex.getInstance());
+
+    private final GitflowStateIndex stateIndex;
+
+    private final CounterFamily builds = new CounterFamily("gitflow_builds_total", "The completed Gitflow builds.", "action", "result");
+    private final HistogramFamily buildDurations = new HistogramFamily("gitflow_build_duration_seconds", "The duration of the Gitflow builds.",
+                                                                       DURATION_BUCKETS, "action");
+    private final HistogramFamily gitOperationDurations = new HistogramFamily("gitflow_git_operation_duration_seconds",
+                                                                              "The duration of the Git operations of the Gitflow actions.",
+                                                                              DURATION_BUCKETS, "operation", "implementation");
+    private final HistogramFamily lsRemoteRefs = new HistogramFamily("gitflow_ls_remote_refs", "The number of refs listed by ls-remote.",
+                                                                     SIZE_BUCKETS, "implementation");
+    private final HistogramFamily lsRemoteBytes = new HistogramFamily("gitflow_ls_remote_bytes", "The estimated size of the ls-remote output.",
+                                                                      BYTES_BUCKETS, "implementation");
+    private final CounterFamily cacheRequests = new CounterFamily("gitflow_cache_requests_total", "The requests to the caches of the Gitflow plugin.",
+                                                                  "cache", "result");
+    private final HistogramFamily queueWaitTimes = new HistogramFamily("gitflow_queue_wait_seconds", "The time that Gitflow builds waited in the queue.",
+                                                                       DURATION_BUCKETS, "category");
+
+    @VisibleForTesting
+    GitflowMetrics(final GitflowStateIndex stateIndex) {
+        this.stateIndex = stateIndex;
+    }
+
+    /**
+     * Returns the metrics for the Jenkins instance.
+     *
+     * @return the metrics for the Jenkins instance.
+     */
+    public static GitflowMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a completed Gitflow build.
+     *
+     * @param action the name of the Gitflow action.
+     * @param result the result of the build.
+     * @param durationMillis the duration of the build in milliseconds.
+     */
+    public void recordBuild(final String action, final Result result, final long durationMillis) {
+        this.builds.get(action, String.valueOf(result)).incrementAndGet();
+        this.buildDurations.get(action).observe(durationMillis / 1000.0);
+    }
+
+    /**
+     * Records a Git operation.
+     *
+     * @param operation the name of the operation.
+     * @param implementation the Git implementation - {@code cli}, {@code jgit} or {@code other}.
+     * @param durationNanos the duration of the operation in nanoseconds.
+     */
+    public void recordGitOperation(final String operation, final String implementation, final long durationNanos) {
+        this.gitOperationDurations.get(operation, implementation).observe(durationNanos / (double) TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    /**
+     * Records a listing of the remote refs.
+     *
+     * @param implementation the Git implementation - {@code cli}, {@code jgit} or {@code other}.
+     * @param refs the number of listed refs.
+     * @param bytes the estimated size of the listing in bytes.
+     */
+    public void recordLsRemote(final String implementation, final int refs, final long bytes) {
+        this.lsRemoteRefs.get(implementation).observe(refs);
+        this.lsRemoteBytes.get(implementation).observe(bytes);
+    }
+
+    /**
+     * Records a request to a cache.
+     *
+     * @param cache the name of the cache.
+     * @param hit {@code true} if the requested entry was found in the cache.
+     */
+    public void recordCacheRequest(final String cache, final boolean hit) {
+        this.cacheRequests.get(cache, hit ? "hit" : "miss").incrementAndGet();
+    }
+
+    /**
+     * Records the time that a queue item waited in the build queue.
+     *
+     * @param category the queue category of the Gitflow action.
+     * @param waitMillis the time in milliseconds that the item waited in the queue.
+     */
+    public void recordQueueWaitTime(final String category, final long waitMillis) {
+        this.queueWaitTimes.get(category).observe(waitMillis / 1000.0);
+    }
+
+    /**
+     * Writes all metrics in the text exposition format of Prometheus.
+     *
+     * @param writer the writer to write the metrics to.
+     * @throws IOException if the metrics cannot be written.
+     */
+    public void write(final Writer writer) throws IOException {
+        this.builds.write(writer);
+        this.buildDurations.write(writer);
+        this.gitOperationDurations.write(writer);
+        this.lsRemoteRefs.write(writer);
+        this.lsRemoteBytes.write(writer);
+        this.cacheRequests.write(writer);
+        this.queueWaitTimes.write(writer);
+        this.writeUnstableBranches(writer);
+    }
+
+    // The gauge is calculated from the state index, so it always matches the Gitflow data of the last builds.
+    private void writeUnstableBranches(final Writer writer) throws IOException {
+        writeHeader(writer, "gitflow_unstable_branches", "The branches whose last build was unstable, failed or aborted.", "gauge");
+        for (final Result result : UNSTABLE_RESULTS) {
+            final String resultName = result.toString();
+            final int total = this.stateIndex.getBranchStates(new Predicate<BranchState>() {
+
+                /** {@inheritDoc} */
+                public boolean apply(final BranchState branchState) {
+                    return resultName.equals(branchState.getLastBuildResult());
+                }
+            }, new Comparator<BranchState>() {
+
+                /** {@inheritDoc} */
+                public int compare(final BranchState branchState1, final BranchState branchState2) {
+                    return 0;
+                }
+            }, 0, 0).getTotal();
+            writeSample(writer, "gitflow_unstable_branches", labels(new String[] { "result" }, Arrays.asList(resultName)), total);
+        }
+    }
+
+    private static void writeHeader(final Writer writer, final String name, final String help, final String type) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void writeSample(final Writer writer, final String name, final String labels, final double value) throws IOException {
+        writer.write(name + labels + " " + formatValue(value) + "\n");
+    }
+
+    @VisibleForTesting
+    static String formatValue(final double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ENGLISH, "%s", value);
+    }
+
+    private static String labels(final String[] labelNames, final List<String> labelValues) {
+        if (labelNames.length == 0) {
+            return "";
+        }
+        final StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(labelNames[i]).append("=\"").append(escapeLabelValue(labelValues.get(i))).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    @VisibleForTesting
+    static String escapeLabelValue(final String labelValue) {
+        return String.valueOf(labelValue).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * A family of counters with the same name and different label values.
+     */
+    private static final class CounterFamily {
+
+        private final String name;
+        private final String help;
+        private final String[] labelNames;
+        private final ConcurrentMap<List<String>, AtomicLong> counters = new ConcurrentHashMap<List<String>, AtomicLong>();
+
+        private CounterFamily(final String name, final String help, final String... labelNames) {
+            this.name = name;
+            this.help = help;
+            this.labelNames = labelNames;
+        }
+
+        private AtomicLong get(final String... labelValues) {
+            final List<String> key = Arrays.asList(labelValues);
+            AtomicLong counter = this.counters.get(key);
+            if (counter == null) {
+                final AtomicLong newCounter = new AtomicLong();
+                counter = this.counters.putIfAbsent(key, newCounter);
+                if (counter == null) {
+                    counter = newCounter;
+                }
+            }
+            return counter;
+        }
+
+        private void write(final Writer writer) throws IOException {
+            writeHeader(writer, this.name, this.help, "counter");
+            for (final Map.Entry<List<String>, AtomicLong> counter : sorted(this.counters).entrySet()) {
+                writeSample(writer, this.name, labels(this.labelNames, counter.getKey()), counter.getValue().get());
+            }
+        }
+    }
+
+    /**
+     * A family of histograms with the same name, buckets and different label values.
+     */
+    private static final class HistogramFamily {
+
+        private final String name;
+        private final String help;
+        private final double[] buckets;
+        private final String[] labelNames;
+        private final String[] bucketLabelNames;
+        private final ConcurrentMap<List<String>, Histogram> histograms = new ConcurrentHashMap<List<String>, Histogram>();
+
+        private HistogramFamily(final String name, final String help, final double[] buckets, final String... labelNames) {
+            this.name = name;
+            this.help = help;
+            this.buckets = buckets;
+            this.labelNames = labelNames;
+            this.bucketLabelNames = Arrays.copyOf(labelNames, labelNames.length + 1);
+            this.bucketLabelNames[labelNames.length] = "le";
+        }
+
+        private Histogram get(final String... labelValues) {
+            final List<String> key = Arrays.asList(labelValues);
+            Histogram histogram = this.histograms.get(key);
+            if (histogram == null) {
+                final Histogram newHistogram = new Histogram(this.buckets.length);
+                histogram = this.histograms.putIfAbsent(key, newHistogram);
+                if (histogram == null) {
+                    histogram = newHistogram;
+                }
+            }
+            return histogram;
+        }
+
+        private void write(final Writer writer) throws IOException {
+            writeHeader(writer, this.name, this.help, "histogram");
+            for (final Map.Entry<List<String>, Histogram> entry : sorted(this.histograms).entrySet()) {
+                final List<String> labelValues = entry.getKey();
+                final Histogram histogram = entry.getValue();
+
+                // The buckets are cumulative, so they are calculated from a consistent copy of the counts.
+                final long[] bucketCounts;
+                final long count;
+                final double sum;
+                synchronized (histogram) {
+                    bucketCounts = histogram.bucketCounts.clone();
+                    count = histogram.count;
+                    sum = histogram.sum;
+                }
+
+                long cumulativeCount = 0L;
+                for (int i = 0; i <= this.buckets.length; i++) {
+                    cumulativeCount += bucketCounts[i];
+                    final String[] bucketLabelValues = labelValues.toArray(new String[labelValues.size() + 1]);
+                    bucketLabelValues[labelValues.size()] = formatValue(i < this.buckets.length ? this.buckets[i] : Double.POSITIVE_INFINITY);
+                    writeSample(writer, this.name + "_bucket", labels(this.bucketLabelNames, Arrays.asList(bucketLabelValues)), cumulativeCount);
+                }
+                writeSample(writer, this.name + "_sum", labels(this.labelNames, labelValues), sum);
+                writeSample(writer, this.name + "_count", labels(this.labelNames, labelValues), count);
+            }
+        }
+
+        /**
+         * The observations for a combination of label values.
+         */
+        private final class Histogram {
+
+            private final long[] bucketCounts;
+            private long count;
+            private double sum;
+
+            private Histogram(final int numberOfBuckets) {
+                this.bucketCounts = new long[numberOfBuckets + 1];
+            }
+
+            private synchronized void observe(final double value) {
+                int bucket = 0;
+                while (bucket < HistogramFamily.this.buckets.length && value > HistogramFamily.this.buckets[bucket]) {
+                    bucket++;
+                }
+                this.bucketCounts[bucket]++;
+                this.count++;
+                this.sum += value;
+            }
+        }
+    }
+
+    private static <V> SortedMap<List<String>, V> sorted(final Map<List<String>, V> metrics) {
+        final SortedMap<List<String>, V> sortedMetrics = new TreeMap<List<String>, V>(new Comparator<List<String>>() {
+
+            /** {@inheritDoc} */
+            public int compare(final List<String> labelValues1, final List<String> labelValues2) {
+                return String.valueOf(labelValues1).compareTo(String.valueOf(labelValues2));
+            }
+        });
+        sortedMetrics.putAll(metrics);
+        return sortedMetrics;
+    }
+}
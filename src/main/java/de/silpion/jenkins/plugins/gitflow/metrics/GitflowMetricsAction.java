@@ -0,0 +1,41 @@
+package de.silpion.jenkins.plugins.gitflow.metrics;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Provides the {@link GitflowMetrics} in the text exposition format of Prometheus at {@code gitflow-metrics}. The metrics
+ * don't contain any job names, so they are available to everybody who can read the Jenkins instance.
+ */
+@Extension
+public class GitflowMetricsAction implements RootAction {
+
+    public String getIconFileName() {
+        return null;
+    }
+
+    public String getDisplayName() {
+        return "Gitflow Metrics";
+    }
+
+    public String getUrlName() {
+        return "gitflow-metrics";
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public void doIndex(final StaplerRequest request, final StaplerResponse response) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+
+        response.setContentType(GitflowMetrics.CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+        final Writer writer = response.getWriter();
+        GitflowMetrics.getInstance().write(writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,24 @@
+package de.silpion.jenkins.plugins.gitflow.metrics;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBadgeAction;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Records the completed Gitflow builds in the {@link GitflowMetrics}.
+ */
+@Extension
+public class GitflowMetricsRunListener extends RunListener<AbstractBuild<?, ?>> {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCompleted(final AbstractBuild<?, ?> build, final TaskListener listener) {
+        final GitflowBadgeAction gitflowBadgeAction = build.getAction(GitflowBadgeAction.class);
+        if (gitflowBadgeAction != null && build.getCause(AbstractGitflowCause.class) != null) {
+            GitflowMetrics.getInstance().recordBuild(gitflowBadgeAction.getGitflowActionName(), build.getResult(), build.getDuration());
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
 
+import com.google.common.annotations.VisibleForTesting;
+import de.silpion.jenkins.plugins.gitflow.GitflowRemotingTraceAction;
+import de.silpion.jenkins.plugins.gitflow.GitflowTimingAction;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEvent;
+import de.silpion.jenkins.plugins.gitflow.journal.GitflowEventJournal;
+import de.silpion.jenkins.plugins.gitflow.metrics.GitflowMetrics;
 import de.silpion.jenkins.plugins.gitflow.proxy.git.GitSCMProxy;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.CliGitMergeCommand;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.GenericMergeCommand;
@@ -8,27 +14,39 @@ import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.merge.JGitMergeCommand
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
+import hudson.model.Result;
 import hudson.plugins.git.Branch;
 import hudson.plugins.git.GitException;
+import hudson.remoting.VirtualChannel;
+import hudson.util.ArgumentListBuilder;
 import hudson.util.VersionNumber;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.URIish;
 import org.jenkinsci.plugins.gitclient.CliGitAPIImpl;
 import org.jenkinsci.plugins.gitclient.GitClient;
 import org.jenkinsci.plugins.gitclient.JGitAPIImpl;
 import org.jenkinsci.plugins.gitclient.MergeCommand.Strategy;
+import org.jenkinsci.plugins.gitclient.RepositoryCallback;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Formatter;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Proxy implementation for the Jenkins {@link GitClient}. Uses <i>Reflections</i> to
@@ -41,15 +59,32 @@ public class GitClientProxy {
     public static final VersionNumber MINIMAL_VERSION_NUMBER = new VersionNumber("1.11.1");
 
     private static final String MSG_PATTERN_PUSHED_TO_REMOTE = "Gitflow - %s: Pushed to %s using refspec %s%n";
+    private static final String MSG_PATTERN_PUSH_REJECTED_RETRYING = "Gitflow - %s: Push to %s using refspec %s was rejected, recreating the version bump commit on the fetched remote branch (retry %d of %d)%n";
     private static final String MSG_PATTERN_PUSH_OMITTED_DUE_TO_DRY_RUN = "Gitflow - %s (dry run): Omitted push to %s using refspec %s%n";
     private static final String MSG_PATTERN_UNSUPPORTED_PLUGIN_VERSION = "Gitflow plugin requires at least Git Client plugin version %s. Currently installed version is %s%n";
 
     private static final String REMOTES_PREFIX = "remotes/";
+    private static final String PREFETCH_REFS_PREFIX = "refs/gitflow-prefetch/";
+
+    // How the command line Git (e.g. "! [rejected] develop -> develop (fetch first)") and JGit (the status of the remote ref
+    // update) report a push that was rejected because it doesn't fast-forward the remote branch.
+    private static final String[] NON_FAST_FORWARD_MARKERS = { "non-fast-forward", "(fetch first)", "REJECTED_NONFASTFORWARD" };
 
     private final GitClient gitClient;
 
     private final PrintStream consoleLogger;
 
+    private final GitflowTimingAction timingAction;
+
+    private final String implementation;
+
+    private GitflowRemotingTraceAction remotingTraceAction;
+    private GitOperationTrace gitOperationTrace;
+
+    private GitflowEventJournal eventJournal;
+    private int buildNumber;
+    private String version;
+
     private String gitflowActionName = "unknown action";
     private final boolean dryRun;
 
@@ -62,11 +97,28 @@ public class GitClientProxy {
      * @throws IOException if the version of the Git or the Git Client plugin is not supported.
      * @throws InterruptedException if the build is interrupted during execution.
      */
-    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     public GitClientProxy(final AbstractBuild<?, ?> build, final BuildListener listener, final boolean dryRun) throws IOException, InterruptedException {
+        this(build, listener, dryRun, null);
+    }
+
+    /**
+     * Creates a new instance that records the time of each Git operation.
+     *
+     * @param build the build that is in progress.
+     * @param listener can be used to send any message.
+     * @param dryRun is the build dryRun or not.
+     * @param timingAction the timeline to record the Git operations in - may be {@code null}.
+     * @throws IOException if the version of the Git or the Git Client plugin is not supported.
+     * @throws InterruptedException if the build is interrupted during execution.
+     */
+    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
+    public GitClientProxy(final AbstractBuild<?, ?> build, final BuildListener listener, final boolean dryRun, final GitflowTimingAction timingAction)
+            throws IOException, InterruptedException {
         this.gitClient = new GitSCMProxy(build).createClient(build, listener);
         this.consoleLogger = listener.getLogger();
         this.dryRun = dryRun;
+        this.timingAction = timingAction;
+        this.implementation = getImplementation(this.gitClient);
 
         // Verify that the minimal required version of the Git Client plugin is installed.
         final VersionNumber gitClientPluginVersion = Jenkins.getInstance().getPlugin("git-client").getWrapper().getVersionNumber();
@@ -76,6 +128,33 @@ public class GitClientProxy {
         }
     }
 
+    /**
+     * Creates a new instance for the given Git client, without a build and without checking the plugin versions. Used
+     * by tests and benchmarks that work on local repositories.
+     *
+     * @param gitClient the Git client to execute the operations with.
+     * @param consoleLogger the logger for the console messages.
+     * @param dryRun omit pushes or not.
+     */
+    @VisibleForTesting
+    GitClientProxy(final GitClient gitClient, final PrintStream consoleLogger, final boolean dryRun) {
+        this.gitClient = gitClient;
+        this.consoleLogger = consoleLogger;
+        this.dryRun = dryRun;
+        this.timingAction = null;
+        this.implementation = getImplementation(gitClient);
+    }
+
+    private static String getImplementation(final GitClient gitClient) {
+        if (gitClient instanceof CliGitAPIImpl) {
+            return GitflowMetrics.IMPLEMENTATION_CLI;
+        } else if (gitClient instanceof JGitAPIImpl) {
+            return GitflowMetrics.IMPLEMENTATION_JGIT;
+        } else {
+            return GitflowMetrics.IMPLEMENTATION_OTHER;
+        }
+    }
+
     /**
      * Stage files for commit.
      *
@@ -83,7 +162,12 @@ public class GitClientProxy {
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public void add(final String filePattern) throws InterruptedException {
-        this.gitClient.add(filePattern);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.add(filePattern);
+        } finally {
+            this.recordTiming("add " + filePattern, startNanos);
+        }
     }
 
     /**
@@ -93,7 +177,12 @@ public class GitClientProxy {
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public void commit(final String message) throws InterruptedException {
-        this.gitClient.commit(message);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.commit(message);
+        } finally {
+            this.recordTiming("commit", startNanos);
+        }
     }
 
     /**
@@ -116,11 +205,17 @@ public class GitClientProxy {
      * @see GitClient#checkoutBranch(String, String)
      */
     public void checkoutBranch(final String branch, final String ref) throws InterruptedException {
-        this.gitClient.checkoutBranch(branch, ref);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.checkoutBranch(branch, ref);
+        } finally {
+            this.recordTiming("checkoutBranch " + branch + " " + ref, startNanos);
+        }
     }
 
     /**
-     * Push local objects to a remote repository.
+     * Push local objects to a remote repository. Concurrent pushes to the same remote ref are serialised - even when they are
+     * executed by different jobs.
      *
      * @param remoteAlias the alias for the remote repository.
      * @param refspec specifies what local source ref to push to what remote target ref.
@@ -131,11 +226,187 @@ public class GitClientProxy {
         if (this.dryRun) {
             this.consoleLogger.printf(MSG_PATTERN_PUSH_OMITTED_DUE_TO_DRY_RUN, messageArguments);
         } else {
-            this.pushInternal(remoteAlias, refspec);
+            final long startNanos = System.nanoTime();
+            final Lock remoteRefLock = this.lockRemoteRef(remoteAlias, refspec);
+            boolean pushed = false;
+            try {
+                this.pushInternal(remoteAlias, refspec);
+                pushed = true;
+            } finally {
+                remoteRefLock.unlock();
+                this.recordTiming("push " + refspec, startNanos);
+                this.journalPush(refspec, startNanos, pushed);
+            }
+            this.consoleLogger.printf(MSG_PATTERN_PUSHED_TO_REMOTE, messageArguments);
+        }
+    }
+
+    /**
+     * Push a local branch with a version bump commit on top of its remote branch to the remote repository. When the push
+     * is rejected because the remote branch has been updated in the meantime, the remote branch is fetched, the local
+     * branch is reset to it, the version bump commit is recreated on top of it and the push is retried. Pushes that fail
+     * for other reasons (e.g. an unreachable remote or missing permissions) are not retried.
+     *
+     * @param remoteAlias the alias for the remote repository.
+     * @param branch the simple name of the branch to be pushed.
+     * @param maxRetries the maximum number of retries for rejected pushes - {@code 0} disables the retries.
+     * @param versionBumpCommit recreates the version bump commit on the current branch.
+     * @throws IOException if the version bump commit cannot be recreated.
+     * @throws InterruptedException if the build is interrupted during execution.
+     */
+    public void pushVersionBump(final String remoteAlias, final String branch, final int maxRetries, final VersionBumpCommit versionBumpCommit)
+            throws IOException, InterruptedException {
+        final String refspec = "refs/heads/" + branch + ":refs/heads/" + branch;
+        final Object[] messageArguments = new String[] { this.gitflowActionName, remoteAlias, refspec };
+        if (this.dryRun) {
+            this.consoleLogger.printf(MSG_PATTERN_PUSH_OMITTED_DUE_TO_DRY_RUN, messageArguments);
+        } else {
+
+            // Keep the lock while retrying, so that other builds of this Jenkins can't interfere again.
+            final long startNanos = System.nanoTime();
+            final Lock remoteRefLock = this.lockRemoteRef(remoteAlias, refspec);
+            boolean pushed = false;
+            try {
+                for (int retry = 1; ; retry++) {
+                    try {
+                        this.pushInternal(remoteAlias, refspec);
+                        break;
+                    } catch (final GitException ge) {
+                        if (retry > maxRetries || !isNonFastForwardRejection(ge)) {
+                            throw ge;
+                        }
+                        this.consoleLogger.printf(MSG_PATTERN_PUSH_REJECTED_RETRYING, this.gitflowActionName, remoteAlias, refspec, retry, maxRetries);
+                    }
+
+                    // Recreate the version bump commit on top of the current remote branch.
+                    this.fetchBranch(remoteAlias, branch);
+                    this.gitClient.checkoutBranch(branch, remoteAlias + "/" + branch);
+                    versionBumpCommit.recommit();
+                }
+                pushed = true;
+            } finally {
+                remoteRefLock.unlock();
+                this.recordTiming("pushVersionBump " + refspec, startNanos);
+                this.journalPush(refspec, startNanos, pushed);
+            }
             this.consoleLogger.printf(MSG_PATTERN_PUSHED_TO_REMOTE, messageArguments);
         }
     }
 
+    /**
+     * Checks if the given exception reports a push that was rejected because it doesn't fast-forward the remote branch.
+     *
+     * @param exception the exception thrown by the push.
+     * @return {@code true} if the exception or one of its causes reports a non-fast-forward rejection.
+     */
+    @VisibleForTesting
+    static boolean isNonFastForwardRejection(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            final String message = cause.getMessage();
+            if (message != null) {
+                for (final String marker : NON_FAST_FORWARD_MARKERS) {
+                    if (message.contains(marker)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private Lock lockRemoteRef(final String remoteAlias, final String refspec) throws InterruptedException {
+        final String remoteUrl = StringUtils.defaultIfBlank(this.gitClient.getRemoteUrl(remoteAlias), remoteAlias);
+        final Lock remoteRefLock = RemoteRefLocks.getInstance().getLock(remoteUrl, refspec);
+        remoteRefLock.lockInterruptibly();
+        return remoteRefLock;
+    }
+
+    private void fetchBranch(final String remoteAlias, final String branch) throws InterruptedException {
+
+        // Create remote URL.
+        final URIish remoteUrl;
+        try {
+            remoteUrl = new URIish(this.gitClient.getRemoteUrl(remoteAlias));
+        } catch (final URISyntaxException urise) {
+            throw new GitException("Cannot create remote URL", urise);
+        }
+
+        final RefSpec refSpec = new RefSpec("+refs/heads/" + branch + ":refs/remotes/" + remoteAlias + "/" + branch);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.fetch_().from(remoteUrl, Collections.singletonList(refSpec)).execute();
+        } finally {
+            this.recordTiming("fetch " + branch, startNanos);
+        }
+    }
+
+    /**
+     * Fetch the objects of the given remote branches without updating the remote tracking branches. The fetched heads are
+     * stored in a separate ref namespace ({@code refs/gitflow-prefetch/<remoteAlias>/<branch>}), so that the prefetch
+     * can't interfere with the ref updates of a subsequent checkout, which then only has to fetch what's changed since.
+     *
+     * @param remoteAlias the alias for the remote repository.
+     * @param branches the simple names of the branches to be fetched.
+     * @throws InterruptedException if the build is interrupted during execution.
+     */
+    public void prefetchBranches(final String remoteAlias, final Collection<String> branches) throws InterruptedException {
+
+        // Create remote URL.
+        final URIish remoteUrl;
+        try {
+            remoteUrl = new URIish(this.gitClient.getRemoteUrl(remoteAlias));
+        } catch (final URISyntaxException urise) {
+            throw new GitException("Cannot create remote URL", urise);
+        }
+
+        final List<RefSpec> refSpecs = new LinkedList<RefSpec>();
+        for (final String branch : branches) {
+            refSpecs.add(new RefSpec("+refs/heads/" + branch + ":" + PREFETCH_REFS_PREFIX + remoteAlias + "/" + branch));
+        }
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.fetch_().from(remoteUrl, refSpecs).execute();
+        } finally {
+            this.recordTiming("prefetchBranches " + StringUtils.join(branches, " "), startNanos);
+        }
+    }
+
+    /**
+     * Deletes the refs of the prefetched branches (see {@link #prefetchBranches(String, Collection)}). Once the checkout
+     * has fetched the branches, the refs are obsolete, and they would keep objects alive that the remote branches don't
+     * reference anymore.
+     *
+     * @throws IOException if the refs cannot be deleted.
+     * @throws InterruptedException if the build is interrupted during execution.
+     */
+    public void prunePrefetchedBranches() throws IOException, InterruptedException {
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.withRepository(new PrunePrefetchedBranchesCallback());
+        } finally {
+            this.recordTiming("prunePrefetchedBranches", startNanos);
+        }
+    }
+
+    /** Deletes the refs of the prefetched branches - in the repository on the node of the workspace. */
+    private static final class PrunePrefetchedBranchesCallback implements RepositoryCallback<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        /** {@inheritDoc} */
+        public Void invoke(final Repository repository, final VirtualChannel channel) throws IOException {
+            for (final Ref ref : repository.getRefDatabase().getRefs(PREFETCH_REFS_PREFIX).values()) {
+                final RefUpdate refUpdate = repository.updateRef(ref.getName());
+                refUpdate.setForceUpdate(true);
+                final RefUpdate.Result result = refUpdate.delete();
+                if (result != RefUpdate.Result.FORCED && result != RefUpdate.Result.NO_CHANGE) {
+                    throw new IOException("Cannot delete " + ref.getName() + ": " + result);
+                }
+            }
+            return null;
+        }
+    }
+
     private void pushInternal(final String remoteAlias, final String refspec) throws InterruptedException {
 
         // Create remote URL.
@@ -178,7 +449,13 @@ public class GitClientProxy {
         mergeCommand.setAutoCommit(autoCommit);
 
         // Merge the given revision.
-        mergeCommand.setRevisionToMerge(rev).execute();
+        final long startNanos = System.nanoTime();
+        try {
+            mergeCommand.setRevisionToMerge(rev).execute();
+        } finally {
+            this.recordTiming("merge " + rev.getName() + " " + fastForwardMode.name() + " " + strategy.name() + " " + strategyOption.name() + " " + autoCommit,
+                              startNanos);
+        }
     }
 
     /**
@@ -193,7 +470,12 @@ public class GitClientProxy {
      * @see GitClient#clean()
      */
     public void clean() throws InterruptedException {
-        this.gitClient.clean();
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.clean();
+        } finally {
+            this.recordTiming("clean", startNanos);
+        }
     }
 
     /**
@@ -203,7 +485,12 @@ public class GitClientProxy {
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public void deleteBranch(final String name) throws InterruptedException {
-        this.gitClient.deleteBranch(name);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.deleteBranch(name);
+        } finally {
+            this.recordTiming("deleteBranch " + name, startNanos);
+        }
     }
 
     /**
@@ -213,7 +500,12 @@ public class GitClientProxy {
      * @throws InterruptedException if the build is interrupted during execution.
      */
     public Set<Branch> getBranches() throws InterruptedException {
-        return this.gitClient.getBranches();
+        final long startNanos = System.nanoTime();
+        try {
+            return this.gitClient.getBranches();
+        } finally {
+            this.recordTiming("getBranches", startNanos);
+        }
     }
 
     /**
@@ -227,7 +519,12 @@ public class GitClientProxy {
      * @see GitClient#tag(String, String)
      */
     public void tag(final String tagName, final String comment) throws InterruptedException {
-        this.gitClient.tag(tagName, comment);
+        final long startNanos = System.nanoTime();
+        try {
+            this.gitClient.tag(tagName, comment);
+        } finally {
+            this.recordTiming("tag " + tagName, startNanos);
+        }
     }
 
     /**
@@ -244,18 +541,26 @@ public class GitClientProxy {
      */
     public ObjectId getHeadRev(final String branch) throws InterruptedException {
         ObjectId headRev = null;
+        long payloadBytes = -1L;
 
-        final String remoteUrl = this.gitClient.getRemoteUrl("origin");
-        if (branch.startsWith("remotes/") || branch.startsWith("refs/heads/")) {
-            headRev = this.gitClient.getHeadRev(remoteUrl, branch);
-        } else {
-            for (final Map.Entry<String, ObjectId> branchHeadRev : this.gitClient.getHeadRev(remoteUrl).entrySet()) {
-                final String branchName = StringUtils.removeStart(branchHeadRev.getKey(), "refs/heads/");
-                if (branchName.equals(branch)) {
-                    headRev = branchHeadRev.getValue();
-                    break;
+        final long startNanos = System.nanoTime();
+        try {
+            final String remoteUrl = this.gitClient.getRemoteUrl("origin");
+            if (branch.startsWith("remotes/") || branch.startsWith("refs/heads/")) {
+                headRev = this.gitClient.getHeadRev(remoteUrl, branch);
+            } else {
+                final Map<String, ObjectId> branchHeadRevs = this.gitClient.getHeadRev(remoteUrl);
+                payloadBytes = this.recordLsRemote(branchHeadRevs.keySet());
+                for (final Map.Entry<String, ObjectId> branchHeadRev : branchHeadRevs.entrySet()) {
+                    final String branchName = StringUtils.removeStart(branchHeadRev.getKey(), "refs/heads/");
+                    if (branchName.equals(branch)) {
+                        headRev = branchHeadRev.getValue();
+                        break;
+                    }
                 }
             }
+        } finally {
+            this.recordTiming("getHeadRev " + branch, startNanos, payloadBytes);
         }
 
         return headRev;
@@ -270,7 +575,12 @@ public class GitClientProxy {
      * @see GitClient#revParse(String)
      */
     public ObjectId revParse(final String revName) throws InterruptedException {
-        return this.gitClient.revParse(revName);
+        final long startNanos = System.nanoTime();
+        try {
+            return this.gitClient.revParse(revName);
+        } finally {
+            this.recordTiming("revParse " + revName, startNanos);
+        }
     }
 
     /**
@@ -285,16 +595,63 @@ public class GitClientProxy {
     public List<String> getRemoteBranchNamesContaining(final String revspec) throws GitException, InterruptedException {
         final List<String> remoteBranchNamesContaining = new LinkedList<String>();
 
-        for (final Branch branch : this.gitClient.getBranchesContaining(revspec, true)) {
-            final String branchName = branch.getName();
-            if (StringUtils.startsWith(branchName, REMOTES_PREFIX)) {
-                remoteBranchNamesContaining.add(branchName.substring(REMOTES_PREFIX.length()));
+        final long startNanos = System.nanoTime();
+        try {
+            for (final Branch branch : this.gitClient.getBranchesContaining(revspec, true)) {
+                final String branchName = branch.getName();
+                if (StringUtils.startsWith(branchName, REMOTES_PREFIX)) {
+                    remoteBranchNamesContaining.add(branchName.substring(REMOTES_PREFIX.length()));
+                }
             }
+        } finally {
+            this.recordTiming("getBranchesContaining " + revspec, startNanos);
         }
 
         return remoteBranchNamesContaining;
     }
 
+    private void recordTiming(final String operation, final long startNanos) {
+        this.recordTiming(operation, startNanos, -1L);
+    }
+
+    private void recordTiming(final String operation, final long startNanos, final long payloadBytes) {
+        final long endNanos = System.nanoTime();
+        if (this.timingAction != null) {
+            this.timingAction.record("git " + operation, startNanos, endNanos);
+        }
+        if (this.remotingTraceAction != null) {
+            this.remotingTraceAction.record("git " + operation, startNanos, payloadBytes);
+        }
+        if (this.gitOperationTrace != null) {
+            this.gitOperationTrace.record(operation, startNanos, endNanos);
+        }
+
+        // The metrics only distinguish the kind of operation, not the branches or revisions it worked on.
+        GitflowMetrics.getInstance().recordGitOperation(StringUtils.substringBefore(operation, " "), this.implementation, endNanos - startNanos);
+    }
+
+    private void journalPush(final String refspec, final long startNanos, final boolean pushed) {
+        if (this.eventJournal != null) {
+            final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            this.eventJournal.append(new GitflowEvent(this.buildNumber, this.gitflowActionName, GitflowEvent.PHASE_PUSH, Collections.singletonList(refspec),
+                                                      this.version, durationMillis, (pushed ? Result.SUCCESS : Result.FAILURE).toString()));
+        }
+    }
+
+    // The refs are not transferred in a countable form, so the size is estimated from the ls-remote output format:
+    // 40 hex digits of the object ID, a tab, the ref name and a newline for each ref.
+    private long recordLsRemote(final Collection<String> refNames) {
+        long bytes = 0L;
+        for (final String refName : refNames) {
+            bytes += 42 + refName.length();
+        }
+        GitflowMetrics.getInstance().recordLsRemote(this.implementation, refNames.size(), bytes);
+        if (this.gitOperationTrace != null) {
+            this.gitOperationTrace.recordRefSet(refNames);
+        }
+        return bytes;
+    }
+
     /**
      * Set the name of the Gitflow action.
      *
@@ -303,4 +660,73 @@ public class GitClientProxy {
     public void setGitflowActionName(final String gitflowActionName) {
         this.gitflowActionName = gitflowActionName;
     }
+
+    /**
+     * Set the trace to record the Git operations in as calls to the agent.
+     *
+     * @param remotingTraceAction the trace to record the Git operations in - may be {@code null}.
+     */
+    public void setRemotingTraceAction(final GitflowRemotingTraceAction remotingTraceAction) {
+        this.remotingTraceAction = remotingTraceAction;
+    }
+
+    /**
+     * Set the trace to record the Git operations in, for replaying them on a synthetic repository. With the Git command
+     * line client, the number of commits in the workspace is recorded with the trace as measure for the size of the
+     * repository. It's counted by Git itself, so that the history isn't transferred from the agent.
+     *
+     * @param gitOperationTrace the trace to record the Git operations in - may be {@code null}.
+     * @throws InterruptedException if the build is interrupted during execution.
+     */
+    public void setGitOperationTrace(final GitOperationTrace gitOperationTrace) throws InterruptedException {
+        this.gitOperationTrace = gitOperationTrace;
+
+        // JGit can't count the commits without walking the whole history, so the size remains unknown for JGit.
+        if (gitOperationTrace != null && this.gitClient instanceof CliGitAPIImpl) {
+            try {
+                final String commitCount = ((CliGitAPIImpl) this.gitClient).launchCommand(new ArgumentListBuilder("rev-list", "--count", "HEAD"));
+                gitOperationTrace.setCommitCount(Integer.parseInt(commitCount.trim()));
+            } catch (final GitException ignored) {
+                // The repository size is only informational - the trace can be replayed without it.
+            } catch (final NumberFormatException ignored) {
+                // The repository size is only informational - the trace can be replayed without it.
+            }
+        }
+    }
+
+    /**
+     * Set the journal to record the pushes in, as progress of the Gitflow action.
+     *
+     * @param eventJournal the journal of the job - may be {@code null}.
+     * @param buildNumber the number of the build in progress.
+     * @param version the version the Gitflow action works on - may be {@code null}.
+     */
+    public void setEventJournal(final GitflowEventJournal eventJournal, final int buildNumber, final String version) {
+        this.eventJournal = eventJournal;
+        this.buildNumber = buildNumber;
+        this.version = version;
+    }
+
+    /**
+     * Returns the name of the Git implementation that executes the operations.
+     *
+     * @return {@code cli}, {@code jgit} or {@code other}.
+     */
+    public String getImplementation() {
+        return this.implementation;
+    }
+
+    /**
+     * Recreates a version bump commit, e.g. after the push of the original commit has been rejected.
+     */
+    public interface VersionBumpCommit {
+
+        /**
+         * Updates the project files to the bumped version and commits them to the current branch.
+         *
+         * @throws IOException if an error occurs that causes/should cause the build to fail.
+         * @throws InterruptedException if the build is interrupted during execution.
+         */
+        void recommit() throws IOException, InterruptedException;
+    }
 }
@@ -0,0 +1,302 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The sequence of Git operations that the {@link GitClientProxy} executed for a Gitflow build - with their (anonymised)
+ * arguments, the sizes of the ref sets that were read from the remote repository and their timings. Together with the
+ * shape of the repository (number of commits and advertised branches), the trace can be replayed on a synthetic
+ * repository to reproduce the performance of a build offline.
+ * <p>
+ * The trace is anonymised while it's recorded: branch, tag and file names are replaced with aliases like {@code x1}, and
+ * commit IDs with aliases like {@code c1}. Only the Gitflow branch types, version numbers and Git keywords are kept,
+ * so the same name always gets the same alias within a trace. The trace is written as compact text file with a header
+ * line per property and a tab separated line per operation:
+ * <pre>
+ * # gitflow-git-trace 1
+ * # implementation jgit
+ * # commits 4711
+ * # refs 230
+ * 0	1520	230	getHeadRev	release/1.2
+ * 1830	25113	-	checkoutBranch	release/1.2	origin/release/1.2
+ * </pre>
+ * The columns are the start of the operation relative to the start of the trace and its duration (both in microseconds),
+ * the number of refs read from the remote ({@code -} for none), the operation and its arguments.
+ */
+public final class GitOperationTrace {
+
+    private static final String FORMAT_HEADER = "gitflow-git-trace 1";
+    private static final String HEADER_PREFIX = "# ";
+    private static final String HEADER_IMPLEMENTATION = "implementation";
+    private static final String HEADER_COMMITS = "commits";
+    private static final String HEADER_REFS = "refs";
+    private static final String NO_REFS = "-";
+
+    // Names are split into segments at the separators of refs, refspecs and revision expressions.
+    private static final Pattern NAME_SEGMENT_PATTERN = Pattern.compile("[^/:+^~{}*@\\s]+");
+    private static final Pattern COMMIT_ID_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    private static final Pattern VERSION_PATTERN = Pattern.compile("\\d+(\\.\\d+)*(-SNAPSHOT)?");
+    private static final Pattern OPTION_PATTERN = Pattern.compile("[A-Z_]+|true|false");
+    private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList("refs", "heads", "tags", "remotes", "origin", "HEAD", "master",
+                                                                                  "develop", "release", "hotfix", "feature", "support", "bugfix"));
+
+    private final String implementation;
+    private final long originNanos;
+
+    private final List<Operation> operations = new ArrayList<Operation>();
+    private final Map<String, String> aliases = new HashMap<String, String>();
+    private int nameAliasCount;
+    private int commitAliasCount;
+
+    private int commitCount = -1;
+    private int refCount = -1;
+    private int pendingRefCount = -1;
+
+    /**
+     * Creates a new trace that starts now.
+     *
+     * @param implementation the Git implementation that executes the traced operations ({@code cli} or {@code jgit}).
+     */
+    public GitOperationTrace(final String implementation) {
+        this(implementation, System.nanoTime());
+    }
+
+    private GitOperationTrace(final String implementation, final long originNanos) {
+        this.implementation = implementation;
+        this.originNanos = originNanos;
+    }
+
+    /**
+     * Records an operation. The first word of the given label is the operation, the following ones are its arguments.
+     * The operation is recorded with the size of the ref set that was read from the remote during the operation.
+     *
+     * @param label the operation and its arguments, separated by spaces.
+     * @param startNanos the start of the operation, as returned by {@link System#nanoTime()}.
+     * @param endNanos the end of the operation, as returned by {@link System#nanoTime()}.
+     */
+    public synchronized void record(final String label, final long startNanos, final long endNanos) {
+        final String[] words = StringUtils.split(label, ' ');
+        final List<String> arguments = new ArrayList<String>(words.length - 1);
+        for (int i = 1; i < words.length; i++) {
+            arguments.add(this.anonymise(words[i]));
+        }
+        this.operations.add(new Operation(TimeUnit.NANOSECONDS.toMicros(startNanos - this.originNanos),
+                                          TimeUnit.NANOSECONDS.toMicros(Math.max(0L, endNanos - startNanos)), this.pendingRefCount, words[0], arguments));
+        this.pendingRefCount = -1;
+    }
+
+    /**
+     * Records the ref set that has been read from the remote repository by the operation in progress.
+     *
+     * @param refNames the names of the refs that have been read.
+     */
+    public synchronized void recordRefSet(final Collection<String> refNames) {
+        this.pendingRefCount = refNames.size();
+        this.refCount = Math.max(this.refCount, refNames.size());
+    }
+
+    /**
+     * Records the number of commits in the history of the workspace, as a measure for the size of the repository.
+     *
+     * @param commitCount the number of commits.
+     */
+    public synchronized void setCommitCount(final int commitCount) {
+        this.commitCount = commitCount;
+    }
+
+    @VisibleForTesting
+    String anonymise(final String argument) {
+        final StringBuffer anonymised = new StringBuffer();
+        final Matcher matcher = NAME_SEGMENT_PATTERN.matcher(argument);
+        while (matcher.find()) {
+            matcher.appendReplacement(anonymised, Matcher.quoteReplacement(this.getAlias(matcher.group())));
+        }
+        matcher.appendTail(anonymised);
+        return anonymised.toString();
+    }
+
+    private String getAlias(final String segment) {
+        if (KEYWORDS.contains(segment) || VERSION_PATTERN.matcher(segment).matches() || OPTION_PATTERN.matcher(segment).matches()) {
+            return segment;
+        }
+        String alias = this.aliases.get(segment);
+        if (alias == null) {
+            alias = COMMIT_ID_PATTERN.matcher(segment).matches() ? "c" + ++this.commitAliasCount : "x" + ++this.nameAliasCount;
+            this.aliases.put(segment, alias);
+        }
+        return alias;
+    }
+
+    public String getImplementation() {
+        return this.implementation;
+    }
+
+    /**
+     * Returns the number of commits in the history of the workspace.
+     *
+     * @return the number of commits or {@code -1} if it's unknown.
+     */
+    public synchronized int getCommitCount() {
+        return this.commitCount;
+    }
+
+    /**
+     * Returns the size of the largest ref set that has been read from the remote repository.
+     *
+     * @return the number of refs or {@code -1} if no refs have been read.
+     */
+    public synchronized int getRefCount() {
+        return this.refCount;
+    }
+
+    /**
+     * Returns the recorded operations in the order they have been executed.
+     *
+     * @return the recorded operations.
+     */
+    public synchronized List<Operation> getOperations() {
+        return Collections.unmodifiableList(new ArrayList<Operation>(this.operations));
+    }
+
+    /**
+     * Writes the trace in the trace file format.
+     *
+     * @param writer the writer for the trace file.
+     * @throws IOException if the trace cannot be written.
+     */
+    public synchronized void write(final Writer writer) throws IOException {
+        final PrintWriter printWriter = new PrintWriter(writer);
+        printWriter.print(HEADER_PREFIX + FORMAT_HEADER + "\n");
+        printWriter.print(HEADER_PREFIX + HEADER_IMPLEMENTATION + " " + this.implementation + "\n");
+        printWriter.print(HEADER_PREFIX + HEADER_COMMITS + " " + this.commitCount + "\n");
+        printWriter.print(HEADER_PREFIX + HEADER_REFS + " " + this.refCount + "\n");
+        for (final Operation operation : this.operations) {
+            printWriter.print(operation.offsetMicros + "\t" + operation.durationMicros + "\t" + (operation.refCount < 0 ? NO_REFS : operation.refCount)
+                              + "\t" + operation.name);
+            for (final String argument : operation.arguments) {
+                printWriter.print("\t" + argument);
+            }
+            printWriter.print("\n");
+        }
+        printWriter.flush();
+        if (printWriter.checkError()) {
+            throw new IOException("Cannot write the Git operation trace");
+        }
+    }
+
+    /**
+     * Reads a trace from a trace file.
+     *
+     * @param reader the reader for the trace file.
+     * @return the trace.
+     * @throws IOException if the trace file cannot be read or has an unknown format.
+     */
+    public static GitOperationTrace read(final Reader reader) throws IOException {
+        final BufferedReader bufferedReader = new BufferedReader(reader);
+        if (!(HEADER_PREFIX + FORMAT_HEADER).equals(bufferedReader.readLine())) {
+            throw new IOException("Not a Git operation trace of a supported format");
+        }
+
+        final Map<String, String> headers = new HashMap<String, String>();
+        final List<Operation> operations = new ArrayList<Operation>();
+        for (String line = bufferedReader.readLine(); line != null; line = bufferedReader.readLine()) {
+            if (line.startsWith(HEADER_PREFIX)) {
+                headers.put(StringUtils.substringBetween(line, HEADER_PREFIX, " "), StringUtils.substringAfter(line.substring(HEADER_PREFIX.length()), " "));
+            } else if (StringUtils.isNotBlank(line)) {
+                final String[] columns = line.split("\t");
+                if (columns.length < 4) {
+                    throw new IOException("Invalid operation in Git operation trace: " + line);
+                }
+                try {
+                    operations.add(new Operation(Long.parseLong(columns[0]), Long.parseLong(columns[1]), NO_REFS.equals(columns[2]) ? -1 : Integer.parseInt(columns[2]),
+                                                 columns[3], Arrays.asList(columns).subList(4, columns.length)));
+                } catch (final NumberFormatException nfe) {
+                    throw new IOException("Invalid operation in Git operation trace: " + line, nfe);
+                }
+            }
+        }
+
+        final GitOperationTrace trace = new GitOperationTrace(headers.get(HEADER_IMPLEMENTATION), 0L);
+        trace.commitCount = parseHeader(headers, HEADER_COMMITS);
+        trace.refCount = parseHeader(headers, HEADER_REFS);
+        trace.operations.addAll(operations);
+        return trace;
+    }
+
+    private static int parseHeader(final Map<String, String> headers, final String name) throws IOException {
+        try {
+            return headers.containsKey(name) ? Integer.parseInt(headers.get(name)) : -1;
+        } catch (final NumberFormatException nfe) {
+            throw new IOException("Invalid header in Git operation trace: " + name, nfe);
+        }
+    }
+
+    /**
+     * A traced Git operation.
+     */
+    public static final class Operation {
+
+        private final long offsetMicros;
+        private final long durationMicros;
+        private final int refCount;
+        private final String name;
+        private final List<String> arguments;
+
+        private Operation(final long offsetMicros, final long durationMicros, final int refCount, final String name, final List<String> arguments) {
+            this.offsetMicros = offsetMicros;
+            this.durationMicros = durationMicros;
+            this.refCount = refCount;
+            this.name = name;
+            this.arguments = Collections.unmodifiableList(new ArrayList<String>(arguments));
+        }
+
+        /**
+         * Returns the start of the operation relative to the start of the trace.
+         *
+         * @return the start of the operation in microseconds.
+         */
+        public long getOffsetMicros() {
+            return this.offsetMicros;
+        }
+
+        public long getDurationMicros() {
+            return this.durationMicros;
+        }
+
+        /**
+         * Returns the number of refs that have been read from the remote repository by the operation.
+         *
+         * @return the number of refs or {@code -1} if the operation didn't read refs from the remote.
+         */
+        public int getRefCount() {
+            return this.refCount;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public List<String> getArguments() {
+            return this.arguments;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks for the refs of remote repositories. Pushes to the same ref of the same remote repository - even from
+ * different jobs - are serialised, while pushes to other refs or remotes usually don't have to wait for each other.
+ * <p>
+ * The locks are striped: the lock for a remote ref is chosen by the hash of the remote URL and the ref name. So the number
+ * of locks is fixed and different remote refs may occasionally share a lock.
+ */
+public final class RemoteRefLocks {
+
+    private static final int NUMBER_OF_STRIPES = 64;
+
+    private static final RemoteRefLocks INSTANCE = new RemoteRefLocks(NUMBER_OF_STRIPES);
+
+    private final Lock[] stripes;
+
+    RemoteRefLocks(final int numberOfStripes) {
+        this.stripes = new Lock[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * Returns the locks for the Jenkins instance.
+     *
+     * @return the locks for the Jenkins instance.
+     */
+    public static RemoteRefLocks getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the lock for the target ref of the given refspec in the given remote repository.
+     *
+     * @param remoteUrl the URL of the remote repository.
+     * @param refspec specifies what local source ref to push to what remote target ref.
+     * @return the lock for the remote target ref.
+     */
+    public Lock getLock(final String remoteUrl, final String refspec) {
+        final String key = remoteUrl + ' ' + getTargetRef(refspec);
+
+        // Spread the hash codes like HashMap does, so that similar keys end up in different stripes.
+        int hash = key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return this.stripes[(hash & Integer.MAX_VALUE) % this.stripes.length];
+    }
+
+    /**
+     * Returns the remote target ref of the given refspec.
+     *
+     * @param refspec specifies what local source ref to push to what remote target ref.
+     * @return the remote target ref of the refspec.
+     */
+    static String getTargetRef(final String refspec) {
+        final String targetRef = StringUtils.contains(refspec, ':') ? StringUtils.substringAfter(refspec, ":") : refspec;
+        return StringUtils.removeStart(targetRef, "+");
+    }
+}
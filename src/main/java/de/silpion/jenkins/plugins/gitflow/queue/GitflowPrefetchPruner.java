@@ -0,0 +1,47 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.AbstractBuild;
+import hudson.model.Run;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+import hudson.model.listeners.SCMListener;
+import hudson.plugins.git.GitSCM;
+import hudson.scm.SCM;
+import hudson.scm.SCMRevisionState;
+import hudson.util.NullStream;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deletes the branches that the {@link GitflowQueueListener} has prefetched into the workspace of a Gitflow job, as soon
+ * as the checkout of the build has fetched them. So the prefetched refs don't pile up in the workspaces.
+ */
+@Extension
+public class GitflowPrefetchPruner extends SCMListener {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowPrefetchPruner.class.getName());
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCheckout(final Run<?, ?> build, final SCM scm, final FilePath workspace, final TaskListener listener, final File changelogFile,
+                           final SCMRevisionState pollingBaseline) throws Exception {
+        if (build instanceof AbstractBuild && scm instanceof GitSCM && GitflowBuildWrapper.isGitflowJob(((AbstractBuild<?, ?>) build).getProject())) {
+
+            // NOTE that the pruning is just housekeeping. When it fails, the refs are pruned after the next checkout.
+            // That's why exceptions are only logged instead of failing the build.
+            try {
+                new GitClientProxy((AbstractBuild<?, ?>) build, new StreamBuildListener(new NullStream()), false).prunePrefetchedBranches();
+            } catch (final InterruptedException ie) {
+                throw ie;
+            } catch (final Exception e) {
+                LOGGER.log(Level.FINE, "Pruning the prefetched branches for " + build.getFullDisplayName() + " failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractHotfixBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractReleaseBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.model.Executor;
+import hudson.model.InvisibleAction;
+import hudson.model.Queue;
+import jenkins.model.Jenkins;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.util.List;
+
+/**
+ * Identifies the Gitflow action that a build has been scheduled for. The identity consists of the identity of the
+ * {@link AbstractGitflowCause} and the head of the remote branch that the action is based on.
+ * <p>
+ * Jenkins merges a newly scheduled item into a queued item of the same job, unless one of the queued item's
+ * {@link Queue.QueueAction}s demands scheduling. This action lets Jenkins merge identical Gitflow submissions, while
+ * different Gitflow submissions for the same job are scheduled separately.
+ */
+public class GitflowQueueAction extends InvisibleAction implements Queue.QueueAction {
+
+    private final String identity;
+
+    /**
+     * Creates a new action for the given cause.
+     *
+     * @param gitflowCause the cause of the Gitflow action.
+     * @param headRev the head of the remote branch that the action is based on or {@code null} if it's unknown.
+     */
+    public GitflowQueueAction(final AbstractGitflowCause gitflowCause, final ObjectId headRev) {
+        this.identity = gitflowCause.getIdentity() + " @ " + (headRev == null ? "unknown" : headRev.name());
+    }
+
+    /**
+     * Creates the action for a Gitflow action submitted for the given job. The Gitflow page, the batch API and the release
+     * train identify their submissions the same way, so that identical submissions are merged wherever they come from. The
+     * identity is based on the head of the base branch as recorded with the last build, so no remote repository is queried.
+     *
+     * @param job the job/project that the Gitflow action is submitted for.
+     * @param gitflowCause the cause of the Gitflow action.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     * @return the action for the submitted Gitflow action.
+     */
+    public static GitflowQueueAction forSubmission(final AbstractProject<?, ?> job, final AbstractGitflowCause gitflowCause,
+                                                   final BranchTypeClassifier branchTypeClassifier) {
+        return new GitflowQueueAction(gitflowCause, GitflowProjectModel.getRecordedHeadRev(job, getBaseBranch(gitflowCause, branchTypeClassifier)));
+    }
+
+    private static String getBaseBranch(final AbstractGitflowCause gitflowCause, final BranchTypeClassifier branchTypeClassifier) {
+        if (gitflowCause instanceof StartReleaseCause) {
+            return branchTypeClassifier.getDevelopBranch();
+        } else if (gitflowCause instanceof StartHotfixCause) {
+            return branchTypeClassifier.getMasterBranch();
+        } else if (gitflowCause instanceof AbstractReleaseBranchCause) {
+            return ((AbstractReleaseBranchCause) gitflowCause).getReleaseBranch();
+        } else {
+            return ((AbstractHotfixBranchCause) gitflowCause).getHotfixBranch();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public boolean shouldSchedule(final List<Action> actions) {
+        for (final Action action : actions) {
+            if (action instanceof GitflowQueueAction && this.identity.equals(((GitflowQueueAction) action).identity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getIdentity() {
+        return this.identity;
+    }
+
+    /**
+     * Returns the running build of the given job that has been scheduled for the Gitflow action with the given identity.
+     *
+     * @param job the job/project.
+     * @param identity the identity of the Gitflow action.
+     * @return the running build for the Gitflow action or {@code null} if there is no such build.
+     */
+    public static AbstractBuild<?, ?> getRunningBuild(final AbstractProject<?, ?> job, final String identity) {
+        if (job.isBuilding()) {
+            for (final Computer computer : Jenkins.getInstance().getComputers()) {
+                for (final Executor executor : computer.getExecutors()) {
+                    final Queue.Executable executable = executor.getCurrentExecutable();
+                    if (executable instanceof AbstractBuild && ((AbstractBuild<?, ?>) executable).getProject() == job) {
+                        final AbstractBuild<?, ?> build = (AbstractBuild<?, ?>) executable;
+                        final GitflowQueueAction gitflowQueueAction = build.getAction(GitflowQueueAction.class);
+                        if (gitflowQueueAction != null && gitflowQueueAction.getIdentity().equals(identity)) {
+                            return build;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
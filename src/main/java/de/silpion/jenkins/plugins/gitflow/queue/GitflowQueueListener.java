@@ -0,0 +1,206 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractHotfixBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractReleaseBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.metrics.GitflowMetrics;
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Cause;
+import hudson.model.Queue;
+import hudson.model.StreamBuildListener;
+import hudson.model.queue.CauseOfBlockage;
+import hudson.model.queue.QueueListener;
+import hudson.model.queue.QueueTaskDispatcher;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.NullStream;
+import jenkins.model.Jenkins;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Listens to the queue items for Gitflow actions.
+ * <ul>
+ * <li>When an item enters the queue and prefetching is enabled in the global configuration, the branches that the
+ * Gitflow action will work on are prefetched in the background into the workspace of the last build of the job -
+ * that's where the build will most likely run. So the checkout only has to fetch what's changed while the item waited
+ * in the queue. The prefetches run in a small dedicated pool, and the {@link PrefetchDispatcher} keeps the item in the
+ * queue while the prefetch for its job is in progress, so that the build never starts on a workspace that is still
+ * being fetched into.</li>
+ * <li>When an item leaves the queue, its queue wait time is recorded in the {@link GitflowMetrics}.</li>
+ * </ul>
+ */
+@Extension
+public class GitflowQueueListener extends QueueListener {
+
+    private static final Logger LOGGER = Logger.getLogger(GitflowQueueListener.class.getName());
+
+    private static final int PREFETCH_THREADS = 2;
+    private static final int PREFETCH_QUEUE_CAPACITY = 16;
+
+    // Queue items aren't blocked longer than this by a prefetch, even when the remote hangs.
+    private static final long MAX_PREFETCH_BLOCK_MILLIS = TimeUnit.MINUTES.toMillis(2L);
+
+    // The start times of the prefetches in progress by job - a job's workspace is never used by more than one prefetch.
+    private static final ConcurrentMap<AbstractProject<?, ?>, Long> PREFETCHES = new ConcurrentHashMap<AbstractProject<?, ?>, Long>();
+
+    // Prefetches don't share the timer threads of Jenkins, so that a slow remote can't delay other periodic work.
+    // When all threads are busy and the queue is full, further prefetches are skipped.
+    private static final ExecutorService PREFETCH_EXECUTOR = createPrefetchExecutor();
+
+    private static ExecutorService createPrefetchExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS, 60L, TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue<Runnable>(PREFETCH_QUEUE_CAPACITY),
+                                                                   new NamingThreadFactory(new DaemonThreadFactory(), "GitflowQueueListener.prefetch"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onEnterWaiting(final Queue.WaitingItem waitingItem) {
+        final AbstractGitflowCause gitflowCause = getGitflowCause(waitingItem);
+        if (gitflowCause != null && waitingItem.task instanceof AbstractProject
+            && GitflowBuildWrapper.getGitflowBuildWrapperDescriptor().isPrefetchQueuedBranches()) {
+
+            final AbstractProject<?, ?> job = (AbstractProject<?, ?>) waitingItem.task;
+            final Set<String> branches = getPrefetchBranches(gitflowCause, GitflowBuildWrapper.getBranchTypeClassifier(job));
+            if (!branches.isEmpty() && PREFETCHES.putIfAbsent(job, System.currentTimeMillis()) == null) {
+
+                // The queue must not be blocked by the fetch.
+                try {
+                    PREFETCH_EXECUTOR.execute(new Runnable() {
+
+                        /** {@inheritDoc} */
+                        public void run() {
+                            try {
+                                prefetchBranches(job, branches);
+                            } finally {
+                                PREFETCHES.remove(job);
+
+                                // Dispatch the item that has been blocked by the prefetch without waiting for the next periodic maintenance.
+                                Jenkins.getInstance().getQueue().scheduleMaintenance();
+                            }
+                        }
+                    });
+                } catch (final RejectedExecutionException ree) {
+                    PREFETCHES.remove(job);
+                    LOGGER.log(Level.FINE, "Skipped prefetching the branches " + branches + " for " + job.getFullName() + ", too many prefetches queued", ree);
+                }
+            }
+        }
+    }
+
+    /**
+     * Denotes if the branches for a queued Gitflow action of the given job are being prefetched.
+     *
+     * @param job the job.
+     * @return {@code true} if a prefetch for the job is in progress and hasn't exceeded the maximum blocking time yet.
+     */
+    static boolean isPrefetching(final AbstractProject<?, ?> job) {
+        final Long startMillis = PREFETCHES.get(job);
+        return startMillis != null && System.currentTimeMillis() - startMillis < MAX_PREFETCH_BLOCK_MILLIS;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onLeft(final Queue.LeftItem leftItem) {
+        final String category = GitflowQueueSorter.getQueueCategory(leftItem);
+        if (category != null && !leftItem.isCancelled()) {
+            final long waitMillis = System.currentTimeMillis() - leftItem.getInQueueSince();
+            GitflowMetrics.getInstance().recordQueueWaitTime(category, waitMillis);
+        }
+    }
+
+    private static AbstractGitflowCause getGitflowCause(final Queue.Item item) {
+        for (final Cause cause : item.getCauses()) {
+            if (cause instanceof AbstractGitflowCause) {
+                return (AbstractGitflowCause) cause;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the simple names of the branches that the Gitflow action for the given cause will work on.
+     *
+     * @param gitflowCause the cause of the Gitflow action.
+     * @param branchTypeClassifier the branch type classifier for the job.
+     * @return the simple names of the branches to be prefetched - empty if there's nothing to prefetch.
+     */
+    static Set<String> getPrefetchBranches(final AbstractGitflowCause gitflowCause, final BranchTypeClassifier branchTypeClassifier) {
+        final Set<String> branches = new TreeSet<String>();
+        if (gitflowCause instanceof StartReleaseCause) {
+            branches.add(branchTypeClassifier.getDevelopBranch());
+        } else if (gitflowCause instanceof StartHotfixCause) {
+            branches.add(branchTypeClassifier.getMasterBranch());
+        } else if (gitflowCause instanceof AbstractReleaseBranchCause || gitflowCause instanceof AbstractHotfixBranchCause) {
+
+            // Publishing and finishing merges the release/hotfix branch into the master and the develop branch.
+            branches.add(gitflowCause instanceof AbstractReleaseBranchCause ? ((AbstractReleaseBranchCause) gitflowCause).getReleaseBranch()
+                                                                            : ((AbstractHotfixBranchCause) gitflowCause).getHotfixBranch());
+            branches.add(branchTypeClassifier.getMasterBranch());
+            branches.add(branchTypeClassifier.getDevelopBranch());
+        }
+        return branches;
+    }
+
+    private static void prefetchBranches(final AbstractProject<?, ?> job, final Set<String> branches) {
+
+        // Don't touch the workspace while it's used by a build.
+        final AbstractBuild<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild == null || job.isBuilding()) {
+            return;
+        }
+
+        // NOTE that the prefetch is just an optimisation. When it fails, the build's checkout simply fetches everything.
+        // That's why exceptions are only logged instead of being handled in any way.
+        try {
+            new GitClientProxy(lastBuild, new StreamBuildListener(new NullStream()), false).prefetchBranches("origin", branches);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            LOGGER.log(Level.FINE, "Prefetching the branches " + branches + " for " + job.getFullName() + " failed", e);
+        }
+    }
+
+    /**
+     * Keeps the queue items of a job in the queue while the branches for a Gitflow action of the job are being prefetched
+     * into its workspace.
+     */
+    @Extension
+    public static class PrefetchDispatcher extends QueueTaskDispatcher {
+
+        private static final CauseOfBlockage PREFETCH_IN_PROGRESS = new CauseOfBlockage() {
+
+            /** {@inheritDoc} */
+            @Override
+            public String getShortDescription() {
+                return "Waiting for the Gitflow branches to be prefetched";
+            }
+        };
+
+        /** {@inheritDoc} */
+        @Override
+        public CauseOfBlockage canRun(final Queue.Item item) {
+            return item.task instanceof AbstractProject && isPrefetching((AbstractProject<?, ?>) item.task) ? PREFETCH_IN_PROGRESS : null;
+        }
+    }
+}
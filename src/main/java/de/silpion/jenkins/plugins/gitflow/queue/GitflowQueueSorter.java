@@ -0,0 +1,93 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractHotfixBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractReleaseBranchCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import hudson.Extension;
+import hudson.model.Cause;
+import hudson.model.Queue;
+import hudson.model.queue.QueueSorter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Moves the queue items for Gitflow actions ahead of the other buildable items, so that hotfixes and releases don't have
+ * to wait behind ordinary CI builds. The items are ranked by the queue weights configured for the hotfix and release
+ * actions. Items with the same weight keep their order.
+ * <p>
+ * NOTE that Jenkins only uses one queue sorter. When another plugin installs its sorter first, this one is ignored.
+ */
+@Extension
+public class GitflowQueueSorter extends QueueSorter {
+
+    static final String CATEGORY_HOTFIX = "hotfix";
+    static final String CATEGORY_RELEASE = "release";
+    static final String CATEGORY_DEFAULT = "default";
+
+    private static final Comparator<WeightedItem> WEIGHT_DESCENDING_COMPARATOR = new Comparator<WeightedItem>() {
+
+        /** {@inheritDoc} */
+        public int compare(final WeightedItem item1, final WeightedItem item2) {
+            return item1.weight < item2.weight ? 1 : (item1.weight == item2.weight ? 0 : -1);
+        }
+    };
+
+    /** {@inheritDoc} */
+    @Override
+    public void sortBuildableItems(final List<Queue.BuildableItem> buildables) {
+        final GitflowBuildWrapper.DescriptorImpl descriptor = GitflowBuildWrapper.getGitflowBuildWrapperDescriptor();
+        final int hotfixQueueWeight = descriptor.getHotfixQueueWeight();
+        final int releaseQueueWeight = descriptor.getReleaseQueueWeight();
+
+        // Determine the weight for each item only once.
+        final List<WeightedItem> weightedItems = new ArrayList<WeightedItem>(buildables.size());
+        for (final Queue.BuildableItem buildable : buildables) {
+            final String category = getQueueCategory(buildable);
+            final int weight = CATEGORY_HOTFIX.equals(category) ? hotfixQueueWeight : (CATEGORY_RELEASE.equals(category) ? releaseQueueWeight : 0);
+            weightedItems.add(new WeightedItem(buildable, weight));
+        }
+
+        // The sort is stable, so items with the same weight keep their order in the queue.
+        Collections.sort(weightedItems, WEIGHT_DESCENDING_COMPARATOR);
+        for (int i = 0; i < weightedItems.size(); i++) {
+            buildables.set(i, weightedItems.get(i).buildable);
+        }
+    }
+
+    /**
+     * Returns the category of the Gitflow action that the given queue item has been scheduled for.
+     *
+     * @param item the queue item.
+     * @return {@code hotfix} or {@code release} for the regarding Gitflow actions, {@code default} for other Gitflow actions
+     * or {@code null} if the item hasn't been scheduled for a Gitflow action.
+     */
+    static String getQueueCategory(final Queue.Item item) {
+        for (final Cause cause : item.getCauses()) {
+            if (cause instanceof AbstractHotfixBranchCause || cause instanceof StartHotfixCause) {
+                return CATEGORY_HOTFIX;
+            } else if (cause instanceof AbstractReleaseBranchCause || cause instanceof StartReleaseCause) {
+                return CATEGORY_RELEASE;
+            } else if (cause instanceof AbstractGitflowCause) {
+                return CATEGORY_DEFAULT;
+            }
+        }
+        return null;
+    }
+
+    private static class WeightedItem {
+
+        private final Queue.BuildableItem buildable;
+        private final int weight;
+
+        private WeightedItem(final Queue.BuildableItem buildable, final int weight) {
+            this.buildable = buildable;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package de.silpion.jenkins.plugins.gitflow.train;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
+import hudson.model.AbstractProject;
+import hudson.model.Action;
+import hudson.model.TopLevelItem;
+import hudson.model.View;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The action that appears as link in the side bar of a view. Users will click on it in order to start the next release
+ * for many jobs of the view at once - a release train.
+ * <p>
+ * The submitted version plan is validated for all jobs against their recorded branch state before any build is
+ * scheduled, so that a train is either started for all selected jobs or not at all.
+ */
+public class GitflowReleaseTrainAction implements Action {
+
+    @VisibleForTesting static final String KEY_PREFIX_JOB = "train_";
+    @VisibleForTesting static final String KEY_POSTFIX_JOB_NAME = "jobName";
+    @VisibleForTesting static final String KEY_POSTFIX_INCLUDE = "include";
+    @VisibleForTesting static final String KEY_POSTFIX_RELEASE_VERSION = "releaseVersion";
+    @VisibleForTesting static final String KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION = "nextPatchDevelopmentVersion";
+    @VisibleForTesting static final String KEY_POSTFIX_NEXT_RELEASE_DEVELOPMENT_VERSION = "nextReleaseDevelopmentVersion";
+    @VisibleForTesting static final String KEY_MAX_PARALLEL_BUILDS = "maxParallelBuilds";
+    @VisibleForTesting static final String KEY_DRY_RUN = "dryRun";
+
+    @VisibleForTesting static final int DEFAULT_MAX_PARALLEL_BUILDS = 4;
+
+    private final View view;
+
+    /**
+     * Initialises a new {@link GitflowReleaseTrainAction}.
+     *
+     * @param view the view with the jobs that the release train can be started for.
+     */
+    public GitflowReleaseTrainAction(final View view) {
+        this.view = view;
+    }
+
+    public String getIconFileName() {
+        for (final AbstractProject<?, ?> job : this.getGitflowJobs()) {
+            if (GitflowBuildWrapper.hasReleasePermission(job)) {
+                return "/plugin/gitflow/img/Gitflow-Icon-48x48.png";
+            }
+        }
+        return null;
+    }
+
+    public String getDisplayName() {
+        return "Gitflow Release Train";
+    }
+
+    public String getUrlName() {
+        return "gitflow-release-train";
+    }
+
+    /**
+     * Returns the jobs of the view that are configured with the {@link GitflowBuildWrapper}.
+     *
+     * @return the jobs of the view that are configured with the {@link GitflowBuildWrapper}.
+     */
+    public List<AbstractProject<?, ?>> getGitflowJobs() {
+        final List<AbstractProject<?, ?>> gitflowJobs = new ArrayList<AbstractProject<?, ?>>();
+        for (final TopLevelItem item : this.view.getItems()) {
+            if (GitflowBuildWrapper.isGitflowJob(item)) {
+                gitflowJobs.add((AbstractProject<?, ?>) item);
+            }
+        }
+        return gitflowJobs;
+    }
+
+    /**
+     * Returns the Gitflow job of the view with the given full name. Views may also contain jobs from folders, so the jobs
+     * are identified by their full names.
+     *
+     * @param jobFullName the full name of the job.
+     * @return the Gitflow job of the view or {@code null} if the view doesn't contain such a job.
+     */
+    private AbstractProject<?, ?> getGitflowJob(final String jobFullName) {
+        for (final AbstractProject<?, ?> job : this.getGitflowJobs()) {
+            if (job.getFullName().equals(jobFullName)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cause with the proposed versions for the next release of the given job. The proposal is created from
+     * the recorded branch state of the job without contacting the remote repository.
+     *
+     * @param job the job to create the proposal for.
+     * @return the cause with the proposed versions or {@code null} if builds for the <i>develop</i> branch haven't been recorded so far.
+     */
+    public StartReleaseCause getProposedCause(final AbstractProject<?, ?> job) {
+        return new GitflowProjectModel(job, false).getStartReleaseCause();
+    }
+
+    public int getDefaultMaxParallelBuilds() {
+        return DEFAULT_MAX_PARALLEL_BUILDS;
+    }
+
+    /**
+     * Returns the latest release trains started for the view, the newest first.
+     *
+     * @return the latest release trains started for the view.
+     */
+    public List<ReleaseTrain> getTrains() {
+        return ReleaseTrains.getInstance().getTrains(this.view.getUrl());
+    }
+
+    @RequirePOST
+    @SuppressWarnings("UnusedDeclaration")
+    public void doSubmit(final StaplerRequest request, final StaplerResponse response) throws IOException, ServletException {
+        final JSONObject submittedForm = request.getSubmittedForm();
+        final boolean dryRun = submittedForm.optBoolean(KEY_DRY_RUN);
+        final int maxParallelBuilds = parseMaxParallelBuilds(submittedForm.optString(KEY_MAX_PARALLEL_BUILDS));
+
+        // Validate the whole version plan first - nothing is scheduled if a single job can't be released.
+        final List<ReleaseTrain.Entry> entries = new ArrayList<ReleaseTrain.Entry>();
+        final List<String> problems = new ArrayList<String>();
+        for (int i = 0; submittedForm.has(KEY_PREFIX_JOB + i + "_" + KEY_POSTFIX_JOB_NAME); i++) {
+            final String keyPrefix = KEY_PREFIX_JOB + i + "_";
+            if (submittedForm.optBoolean(keyPrefix + KEY_POSTFIX_INCLUDE)) {
+                final String jobName = submittedForm.getString(keyPrefix + KEY_POSTFIX_JOB_NAME);
+                final AbstractProject<?, ?> job = this.getGitflowJob(jobName);
+                if (job == null) {
+                    problems.add(jobName + ": not a Gitflow job of the view");
+                    continue;
+                }
+                final ReleaseTrain.Entry entry = createEntry(job, new GitflowProjectModel(job, false),
+                                                             submittedForm.optString(keyPrefix + KEY_POSTFIX_RELEASE_VERSION, null),
+                                                             submittedForm.optString(keyPrefix + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION, null),
+                                                             submittedForm.optString(keyPrefix + KEY_POSTFIX_NEXT_RELEASE_DEVELOPMENT_VERSION, null),
+                                                             dryRun, problems);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        // Only an IOException causes the submission to fail properly.
+        if (!problems.isEmpty()) {
+            throw new IOException("The release train can't be started:\n" + StringUtils.join(problems, '\n'));
+        } else if (entries.isEmpty()) {
+            throw new IOException("The release train can't be started: no jobs selected");
+        }
+
+        final ReleaseTrains releaseTrains = ReleaseTrains.getInstance();
+        final String description = (dryRun ? "Start Release (dry run)" : "Start Release") + " for " + entries.size() + " jobs";
+        releaseTrains.start(this.view.getUrl(), new ReleaseTrain(releaseTrains.nextId(), description, maxParallelBuilds, entries));
+
+        // Return to the page of the action, which shows the progress of the train.
+        response.sendRedirect(request.getContextPath() + '/' + this.view.getUrl() + this.getUrlName());
+    }
+
+    /**
+     * Validates the submitted versions for a job against its recorded branch state and creates the train entry for it.
+     *
+     * @param job the job to start the release for.
+     * @param model the model with the recorded branches of the job.
+     * @param releaseVersion the submitted release version.
+     * @param nextPatchDevelopmentVersion the submitted development version for the next patch release.
+     * @param nextReleaseDevelopmentVersion the submitted development version for the next release.
+     * @param dryRun denotes if the Gitflow action should be executed without pushing commits and publishing artifacts.
+     * @param problems the list that the problems found for the job are added to.
+     * @return the train entry for the job or {@code null} if problems have been found.
+     */
+    @VisibleForTesting
+    static ReleaseTrain.Entry createEntry(final AbstractProject<?, ?> job, final GitflowProjectModel model, final String releaseVersion,
+                                          final String nextPatchDevelopmentVersion, final String nextReleaseDevelopmentVersion,
+                                          final boolean dryRun, final List<String> problems) {
+        final String jobName = job.getFullName();
+        if (!GitflowBuildWrapper.hasReleasePermission(job)) {
+            problems.add(jobName + ": missing permission to execute Gitflow actions");
+            return null;
+        }
+
+        final RemoteBranch developBranch = model.getDevelopBranch();
+        if (developBranch == null) {
+            problems.add(jobName + ": builds for the develop branch haven't been recorded so far");
+            return null;
+        } else if (StringUtils.isBlank(releaseVersion) || StringUtils.isBlank(nextPatchDevelopmentVersion)
+                   || StringUtils.isBlank(nextReleaseDevelopmentVersion)) {
+            problems.add(jobName + ": incomplete versions");
+            return null;
+        }
+
+        final StartReleaseCause startReleaseCause = new StartReleaseCause(developBranch, releaseVersion.trim(), nextPatchDevelopmentVersion.trim(),
+                                                                          nextReleaseDevelopmentVersion.trim(), dryRun, model.getBranchTypeClassifier());
+        final String releaseBranch = startReleaseCause.getReleaseBranch();
+        if (model.getReleaseBranch(model.getBranchTypeClassifier().getBranchVersion(releaseBranch)) != null) {
+            problems.add(jobName + ": the branch " + releaseBranch + " already exists");
+            return null;
+        }
+
+        return new ReleaseTrain.Entry(job, startReleaseCause, GitflowQueueAction.forSubmission(job, startReleaseCause, model.getBranchTypeClassifier()));
+    }
+
+    private static int parseMaxParallelBuilds(final String maxParallelBuilds) {
+        try {
+            return Math.max(1, Integer.parseInt(StringUtils.trim(maxParallelBuilds)));
+        } catch (final NumberFormatException ignored) {
+            return DEFAULT_MAX_PARALLEL_BUILDS;
+        }
+    }
+}
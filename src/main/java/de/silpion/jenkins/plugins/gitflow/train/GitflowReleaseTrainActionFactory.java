@@ -0,0 +1,22 @@
+package de.silpion.jenkins.plugins.gitflow.train;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.TransientViewActionFactory;
+import hudson.model.View;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adds the {@link GitflowReleaseTrainAction} to all views.
+ */
+@Extension
+public class GitflowReleaseTrainActionFactory extends TransientViewActionFactory {
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Action> createFor(final View view) {
+        return Collections.<Action>singletonList(new GitflowReleaseTrainAction(view));
+    }
+}
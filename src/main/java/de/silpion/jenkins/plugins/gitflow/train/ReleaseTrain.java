@@ -0,0 +1,259 @@
+package de.silpion.jenkins.plugins.gitflow.train;
+
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.model.queue.QueueTaskFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A Gitflow action that is executed for many jobs. The builds for the jobs are scheduled in the order of the train, but
+ * never more than the configured number of builds of the train are queued or running at the same time.
+ * <p>
+ * The train doesn't listen to the builds. Instead, {@link #update()} has to be called regularly to collect the state of
+ * the builds and to schedule the next ones (see {@link ReleaseTrains}).
+ */
+public class ReleaseTrain {
+
+    /**
+     * The states of the builds of a release train.
+     */
+    public enum State {
+        PENDING, QUEUED, RUNNING, FINISHED, CANCELLED, NOT_SCHEDULED
+    }
+
+    private final int id;
+    private final String description;
+    private final int maxParallelBuilds;
+    private final long startTime;
+    private final List<Entry> entries;
+
+    /**
+     * Creates a new release train. The builds are only scheduled when the train is updated for the first time.
+     *
+     * @param id the ID of the train - unique for the Jenkins instance.
+     * @param description the description of the Gitflow action executed by the train.
+     * @param maxParallelBuilds the maximum number of builds of the train that are queued or running at the same time.
+     * @param entries the jobs of the train with the causes for their Gitflow actions.
+     */
+    public ReleaseTrain(final int id, final String description, final int maxParallelBuilds, final List<Entry> entries) {
+        this.id = id;
+        this.description = description;
+        this.maxParallelBuilds = Math.max(1, maxParallelBuilds);
+        this.startTime = System.currentTimeMillis();
+        this.entries = Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    /**
+     * Collects the state of the scheduled builds and schedules pending builds as long as the maximum number of parallel
+     * builds isn't reached.
+     *
+     * @return {@code true} if all builds of the train have finished.
+     */
+    public synchronized boolean update() {
+        int activeBuilds = 0;
+        for (final Entry entry : this.entries) {
+            entry.update();
+            if (entry.isActive()) {
+                activeBuilds++;
+            }
+        }
+
+        for (final Entry entry : this.entries) {
+            if (activeBuilds >= this.maxParallelBuilds) {
+                break;
+            } else if (entry.getState() == State.PENDING) {
+                entry.schedule();
+                if (entry.isActive()) {
+                    activeBuilds++;
+                }
+            }
+        }
+
+        return this.isFinished();
+    }
+
+    /**
+     * Returns the number of builds of the train that are in the given state.
+     *
+     * @param state the state of the builds to be counted.
+     * @return the number of builds of the train that are in the given state.
+     */
+    public synchronized int getCount(final State state) {
+        int count = 0;
+        for (final Entry entry : this.entries) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of finished builds of the train with the given result.
+     *
+     * @param result the result of the builds to be counted.
+     * @return the number of finished builds of the train with the given result.
+     */
+    public synchronized int getCount(final Result result) {
+        int count = 0;
+        for (final Entry entry : this.entries) {
+            if (entry.getState() == State.FINISHED && entry.getResult() == result) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the aggregated progress of the train.
+     *
+     * @return the aggregated progress of the train.
+     */
+    public synchronized String getProgress() {
+        return String.format("%d of %d finished (%d successful, %d unstable, %d failed), %d running, %d queued, %d pending, %d cancelled"
+                             + " - at most %d builds at the same time",
+                             this.getCount(State.FINISHED), this.entries.size(),
+                             this.getCount(Result.SUCCESS), this.getCount(Result.UNSTABLE), this.getCount(Result.FAILURE),
+                             this.getCount(State.RUNNING), this.getCount(State.QUEUED), this.getCount(State.PENDING),
+                             this.getCount(State.CANCELLED) + this.getCount(State.NOT_SCHEDULED), this.maxParallelBuilds);
+    }
+
+    public synchronized boolean isFinished() {
+        for (final Entry entry : this.entries) {
+            if (entry.getState() == State.PENDING || entry.isActive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+
+    public int getMaxParallelBuilds() {
+        return this.maxParallelBuilds;
+    }
+
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * A job of a release train with the cause for its Gitflow action and the state of its build.
+     */
+    public static class Entry {
+
+        private final AbstractProject<?, ?> job;
+        private final AbstractGitflowCause gitflowCause;
+        private final GitflowQueueAction gitflowQueueAction;
+
+        private volatile State state = State.PENDING;
+        private volatile QueueTaskFuture<? extends AbstractBuild<?, ?>> future;
+        private volatile AbstractBuild<?, ?> build;
+
+        /**
+         * Creates a new entry for a release train.
+         *
+         * @param job the job to execute the Gitflow action for.
+         * @param gitflowCause the cause of the Gitflow action.
+         * @param gitflowQueueAction the queue action that identifies the Gitflow action.
+         */
+        public Entry(final AbstractProject<?, ?> job, final AbstractGitflowCause gitflowCause, final GitflowQueueAction gitflowQueueAction) {
+            this.job = job;
+            this.gitflowCause = gitflowCause;
+            this.gitflowQueueAction = gitflowQueueAction;
+        }
+
+        private void schedule() {
+            this.future = this.job.scheduleBuild2(0, this.gitflowCause, this.gitflowQueueAction);
+            this.state = this.future == null ? State.NOT_SCHEDULED : State.QUEUED;
+        }
+
+        private void update() {
+            final QueueTaskFuture<? extends AbstractBuild<?, ?>> scheduledFuture = this.future;
+            if (scheduledFuture == null || !this.isActive()) {
+                return;
+            }
+
+            if (scheduledFuture.isDone()) {
+                try {
+                    this.build = scheduledFuture.get();
+                    this.state = State.FINISHED;
+                } catch (final CancellationException ce) {
+                    this.state = State.CANCELLED;
+                } catch (final ExecutionException ee) {
+                    this.state = State.CANCELLED;
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                final Future<? extends AbstractBuild<?, ?>> startCondition = scheduledFuture.getStartCondition();
+                if (startCondition.isDone()) {
+                    try {
+                        this.build = startCondition.get();
+                        this.state = State.RUNNING;
+                    } catch (final CancellationException ce) {
+                        this.state = State.CANCELLED;
+                    } catch (final ExecutionException ee) {
+                        this.state = State.CANCELLED;
+                    } catch (final InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private boolean isActive() {
+            return this.state == State.QUEUED || this.state == State.RUNNING;
+        }
+
+        public AbstractProject<?, ?> getJob() {
+            return this.job;
+        }
+
+        public AbstractGitflowCause getGitflowCause() {
+            return this.gitflowCause;
+        }
+
+        public State getState() {
+            return this.state;
+        }
+
+        /**
+         * Returns the build for the entry.
+         *
+         * @return the build for the entry or {@code null} if the build hasn't been started so far.
+         */
+        public AbstractBuild<?, ?> getBuild() {
+            return this.build;
+        }
+
+        /**
+         * Returns the result of the build for the entry.
+         *
+         * @return the result of the build for the entry or {@code null} if the build hasn't finished so far.
+         */
+        public Result getResult() {
+            final AbstractBuild<?, ?> finishedBuild = this.build;
+            return this.state == State.FINISHED && finishedBuild != null ? finishedBuild.getResult() : null;
+        }
+    }
+}
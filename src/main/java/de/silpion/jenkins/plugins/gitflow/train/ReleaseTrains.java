@@ -0,0 +1,103 @@
+package de.silpion.jenkins.plugins.gitflow.train;
+
+import jenkins.util.Timer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the release trains of the Jenkins instance and drives them until all their builds have finished. The trains
+ * are only held in memory and only the latest trains are kept for each view.
+ */
+public final class ReleaseTrains {
+
+    private static final Logger LOGGER = Logger.getLogger(ReleaseTrains.class.getName());
+
+    private static final ReleaseTrains INSTANCE = new ReleaseTrains();
+
+    private static final int MAX_TRAINS_PER_VIEW = 10;
+    private static final long UPDATE_INTERVAL_SECONDS = 5;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<String, LinkedList<ReleaseTrain>> trainsByView = new HashMap<String, LinkedList<ReleaseTrain>>();
+
+    /**
+     * Returns the release trains of the Jenkins instance.
+     *
+     * @return the release trains of the Jenkins instance.
+     */
+    public static ReleaseTrains getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a new ID for a release train.
+     *
+     * @return a new ID for a release train.
+     */
+    public int nextId() {
+        return this.nextId.getAndIncrement();
+    }
+
+    /**
+     * Registers the given train for the given view and starts it. The train is updated in the background until all
+     * its builds have finished.
+     *
+     * @param viewUrl the URL of the view that the train has been started for.
+     * @param releaseTrain the train to be started.
+     */
+    public void start(final String viewUrl, final ReleaseTrain releaseTrain) {
+        synchronized (this.trainsByView) {
+            LinkedList<ReleaseTrain> releaseTrains = this.trainsByView.get(viewUrl);
+            if (releaseTrains == null) {
+                releaseTrains = new LinkedList<ReleaseTrain>();
+                this.trainsByView.put(viewUrl, releaseTrains);
+            }
+            releaseTrains.addFirst(releaseTrain);
+            while (releaseTrains.size() > MAX_TRAINS_PER_VIEW) {
+                releaseTrains.removeLast();
+            }
+        }
+
+        // Schedule the first builds right away, so that the user sees them queued after the submission.
+        if (!releaseTrain.update()) {
+            final AtomicReference<ScheduledFuture<?>> updates = new AtomicReference<ScheduledFuture<?>>();
+            updates.set(Timer.get().scheduleWithFixedDelay(new Runnable() {
+
+                /** {@inheritDoc} */
+                public void run() {
+                    try {
+                        if (releaseTrain.update()) {
+                            updates.get().cancel(false);
+                        }
+                    } catch (final RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Updating the release train " + releaseTrain.getId() + " failed", e);
+                    }
+                }
+            }, UPDATE_INTERVAL_SECONDS, UPDATE_INTERVAL_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Returns the latest release trains for the given view, the newest first.
+     *
+     * @param viewUrl the URL of the view that the trains have been started for.
+     * @return the latest release trains for the given view.
+     */
+    public List<ReleaseTrain> getTrains(final String viewUrl) {
+        synchronized (this.trainsByView) {
+            final LinkedList<ReleaseTrain> releaseTrains = this.trainsByView.get(viewUrl);
+            return releaseTrains == null ? Collections.<ReleaseTrain>emptyList() : new ArrayList<ReleaseTrain>(releaseTrains);
+        }
+    }
+}
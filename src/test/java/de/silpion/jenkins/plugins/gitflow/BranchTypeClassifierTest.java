@@ -0,0 +1,127 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link BranchTypeClassifier} class.
+ */
+public class BranchTypeClassifierTest {
+
+    private final BranchTypeClassifier defaultClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+    @Test
+    public void testClassifyPlainNames() throws Exception {
+        assertEquals("master", this.defaultClassifier.classify("master"));
+        assertEquals("develop", this.defaultClassifier.classify("develop"));
+        assertEquals("release", this.defaultClassifier.classify("release/1.2"));
+        assertEquals("hotfix", this.defaultClassifier.classify("hotfix/1.1"));
+        assertEquals("feature", this.defaultClassifier.classify("feature/JGP-1"));
+        assertEquals("unknown", this.defaultClassifier.classify("masterpiece"));
+        assertEquals("unknown", this.defaultClassifier.classify("support/1.0"));
+        assertEquals("unknown", this.defaultClassifier.classify(""));
+    }
+
+    @Test
+    public void testClassifyPrefersFirstConfiguredBranchType() throws Exception {
+        final BranchTypeClassifier classifier = new BranchTypeClassifier("master", "develop", "release/", "release/hotfix-", "feature/");
+        assertEquals("release", classifier.classify("release/hotfix-1.0"));
+    }
+
+    @Test
+    public void testClassifyGlobPatterns() throws Exception {
+        final BranchTypeClassifier classifier = new BranchTypeClassifier("master", "develop", "release-*", "hotfix/*/fix", "f?ature/*");
+        assertEquals("release", classifier.classify("release-1.2"));
+        assertEquals("hotfix", classifier.classify("hotfix/1.1/fix"));
+        assertEquals("unknown", classifier.classify("hotfix/1.1/other"));
+        assertEquals("feature", classifier.classify("feature/JGP-1"));
+        assertEquals("feature", classifier.classify("fxature/JGP-1"));
+
+        assertEquals("1.2", classifier.getBranchVersion("release-1.2"));
+        assertEquals("1.1", classifier.getBranchVersion("hotfix/1.1/fix"));
+        assertEquals("release-2.0", classifier.getBranchName("release", "2.0"));
+        assertEquals("hotfix/2.0/fix", classifier.getBranchName("hotfix", "2.0"));
+    }
+
+    @Test
+    public void testClassifyRegularExpressions() throws Exception {
+        final BranchTypeClassifier classifier = new BranchTypeClassifier("master", "develop", "^rel(?:ease)?/(\\d+\\.\\d+)$", "hotfix/", "^feat-.*$");
+        assertEquals("master", classifier.classify("master"));
+        assertEquals("feature", classifier.classify("feat-JGP-1"));
+        assertEquals("release", classifier.classify("rel/1.2"));
+        assertEquals("release", classifier.classify("release/1.2"));
+        assertEquals("unknown", classifier.classify("release/next"));
+
+        assertEquals("1.2", classifier.getBranchVersion("rel/1.2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMasterBranchPatternIsRejected() throws Exception {
+        new BranchTypeClassifier("^(main|master)$", "develop", "release/", "hotfix/", "feature/");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDevelopBranchOverridePatternIsRejected() throws Exception {
+        this.defaultClassifier.withOverrides(null, "dev*", null, null, null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetBranchNameForRegularExpression() throws Exception {
+        new BranchTypeClassifier("master", "develop", "^release/(.*)$", "hotfix/", "feature/").getBranchName("release", "1.2");
+    }
+
+    @Test
+    public void testGetBranchVersionAndName() throws Exception {
+        assertEquals("1.2", this.defaultClassifier.getBranchVersion("release/1.2"));
+        assertEquals("1.1", this.defaultClassifier.getBranchVersion("hotfix/1.1"));
+        assertEquals("release/1.3", this.defaultClassifier.getBranchName("release", "1.3"));
+        assertEquals("hotfix/1.3", this.defaultClassifier.getBranchName("hotfix", "1.3"));
+    }
+
+    @Test
+    public void testWithOverrides() throws Exception {
+        final BranchTypeClassifier classifier = this.defaultClassifier.withOverrides(null, "dev", " ", "bugfix/", "");
+        assertSame(this.defaultClassifier, classifier.getBase());
+        assertEquals("master", classifier.getMasterBranch());
+        assertEquals("dev", classifier.getDevelopBranch());
+        assertEquals("develop", classifier.classify("dev"));
+        assertEquals("unknown", classifier.classify("develop"));
+        assertEquals("release", classifier.classify("release/1.2"));
+        assertEquals("hotfix", classifier.classify("bugfix/1.1"));
+        assertEquals("feature", classifier.classify("feature/JGP-1"));
+    }
+
+    @Test
+    public void testCheckPattern() throws Exception {
+        BranchTypeClassifier.checkPattern(null);
+        BranchTypeClassifier.checkPattern("release/");
+        BranchTypeClassifier.checkPattern("release-*");
+        BranchTypeClassifier.checkPattern("^rel-(\\d+\\.\\d+)$");
+    }
+
+    @Test
+    public void testCheckBranchName() throws Exception {
+        BranchTypeClassifier.checkBranchName(null);
+        BranchTypeClassifier.checkBranchName(" ");
+        BranchTypeClassifier.checkBranchName("main");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCheckBranchNameRejectsGlobPattern() throws Exception {
+        BranchTypeClassifier.checkBranchName("ma?n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCheckBranchNameRejectsRegularExpression() throws Exception {
+        BranchTypeClassifier.checkBranchName("^(main|master)$");
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testCheckPatternRejectsInvalidRegularExpression() throws Exception {
+        BranchTypeClassifier.checkPattern("^release/(");
+    }
+}
@@ -0,0 +1,210 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Test;
+
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.util.XStream2;
+
+/**
+ * Regression suite for the heap footprint and the XStream (de)serialisation time of the persisted and transient Gitflow
+ * objects. The histories are realistic: every build of a job records a {@link GitflowPluginData} with 50 branches, cloned
+ * from its predecessor with the branch of the build updated.
+ * <p>
+ * The budgets are for a controller with 1,000 jobs with 500 loaded builds each. The jobs don't share any Gitflow data,
+ * so the suite builds the history of one job and scales it to the controller. The heap is estimated by the
+ * {@link ObjectGraphSizer} model and doesn't depend on the JVM, so new fields or structures show up as exact numbers.
+ * When a budget is exceeded on purpose, raise it in the same change and explain why.
+ * <p>
+ * The (de)serialisation time depends on the machine, so it's only checked on request, e.g.
+ * {@code mvn test -Dtest=GitflowHeapFootprintTest -Dgitflow.benchmark.timing=true}.
+ */
+public class GitflowHeapFootprintTest {
+
+    private static final String TIMING_PROPERTY = "gitflow.benchmark.timing";
+
+    private static final int BUILDS_PER_JOB = 500;
+    private static final int BRANCHES_PER_JOB = 50;
+
+    // The heap budgets, with about 20 % headroom over the estimates at the time they were agreed.
+    private static final long BUDGET_BYTES_PER_BRANCH = 384L;
+    private static final long BUDGET_BYTES_PER_BUILD_DATA = 18L * 1024L;
+    private static final long BUDGET_BYTES_PER_JOB_HISTORY = 2L * 1024L * 1024L;
+    private static final long BUDGET_BYTES_PER_STATE_SNAPSHOT = 19L * 1024L;
+    private static final long BUDGET_BYTES_PER_PROJECT_ACTION = 16L;
+
+    // The size of the XML depends on the XStream version of the Jenkins core, so it has more headroom.
+    private static final long BUDGET_BYTES_PER_SERIALISED_BUILD_DATA = 32L * 1024L;
+
+    // The (de)serialisation time budgets only catch regressions by orders of magnitude.
+    private static final long BUDGET_MICROS_PER_SERIALISATION = 2000L;
+    private static final long BUDGET_MICROS_PER_DESERIALISATION = 4000L;
+
+    @Test
+    public void testRemoteBranchFootprint() throws Exception {
+        final GitflowPluginData data = createHistory(1).get(0);
+        final RemoteBranch remoteBranch = data.getRemoteBranch("release/1.19");
+
+        assertWithinBudget("remote branch", new ObjectGraphSizer().sizeOf(remoteBranch), BUDGET_BYTES_PER_BRANCH);
+    }
+
+    @Test
+    public void testBuildDataFootprint() throws Exception {
+        final GitflowPluginData data = createHistory(1).get(0);
+        assertEquals(BRANCHES_PER_JOB, data.getRemoteBranches().size());
+
+        assertWithinBudget("Gitflow data of a build", new ObjectGraphSizer().sizeOf(data), BUDGET_BYTES_PER_BUILD_DATA);
+    }
+
+    @Test
+    public void testJobHistoryFootprint() throws Exception {
+        final List<GitflowPluginData> history = createHistory(BUILDS_PER_JOB);
+
+        // The builds of a job share the unchanged strings and commit IDs of their predecessors.
+        final ObjectGraphSizer sizer = new ObjectGraphSizer();
+        long historyBytes = 0L;
+        for (final GitflowPluginData data : history) {
+            historyBytes += sizer.sizeOf(data);
+        }
+
+        assertWithinBudget("Gitflow data of a job with " + BUILDS_PER_JOB + " builds", historyBytes, BUDGET_BYTES_PER_JOB_HISTORY);
+    }
+
+    @Test
+    public void testStateSnapshotFootprint() throws Exception {
+        final GitflowPluginData data = createHistory(1).get(0);
+        final GitflowPluginDataStore.Snapshot snapshot = GitflowPluginDataStore.getInstance().initialise(new Object(), data.getRemoteBranches());
+
+        assertWithinBudget("state snapshot of a job", new ObjectGraphSizer().sizeOf(snapshot), BUDGET_BYTES_PER_STATE_SNAPSHOT);
+    }
+
+    @Test
+    public void testProjectActionFootprint() throws Exception {
+        final AbstractProject<?, ?> job = mock(AbstractProject.class);
+        final GitflowProjectAction projectAction = new GitflowProjectAction(job);
+
+        // The job isn't retained by the action, the action must not hold any state of its own.
+        assertWithinBudget("Gitflow project action", new ObjectGraphSizer().exclude(job).sizeOf(projectAction), BUDGET_BYTES_PER_PROJECT_ACTION);
+    }
+
+    @Test
+    public void testXStreamSerialisation() throws Exception {
+        final List<GitflowPluginData> history = createHistory(BUILDS_PER_JOB);
+        final XStream2 xStream = createXStream();
+
+        long maxXmlBytes = 0L;
+        String lastXml = null;
+        for (final GitflowPluginData data : history) {
+            lastXml = xStream.toXML(data);
+            maxXmlBytes = Math.max(maxXmlBytes, lastXml.length());
+        }
+
+        final GitflowPluginData lastData = (GitflowPluginData) xStream.fromXML(lastXml);
+        assertEquals(BRANCHES_PER_JOB, lastData.getRemoteBranches().size());
+        assertEquals("1.49.499-SNAPSHOT", lastData.getRemoteBranch("feature/GF-1049-support-monorepos").getLastBuildVersion());
+
+        assertWithinBudget("serialised Gitflow data of a build", maxXmlBytes, BUDGET_BYTES_PER_SERIALISED_BUILD_DATA);
+    }
+
+    @Test
+    public void testXStreamSerialisationTime() throws Exception {
+        assumeTrue(Boolean.getBoolean(TIMING_PROPERTY));
+
+        final List<GitflowPluginData> history = createHistory(BUILDS_PER_JOB);
+        final XStream2 xStream = createXStream();
+
+        // Warm up XStream's reflection caches before measuring.
+        for (int i = 0; i < 50; i++) {
+            xStream.fromXML(xStream.toXML(history.get(i)));
+        }
+
+        final List<String> xmls = new ArrayList<String>(history.size());
+        final long serialisationStartNanos = System.nanoTime();
+        for (final GitflowPluginData data : history) {
+            xmls.add(xStream.toXML(data));
+        }
+        final long serialisationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - serialisationStartNanos) / history.size();
+
+        final long deserialisationStartNanos = System.nanoTime();
+        for (final String xml : xmls) {
+            final GitflowPluginData data = (GitflowPluginData) xStream.fromXML(xml);
+            assertEquals(BRANCHES_PER_JOB, data.getRemoteBranches().size());
+        }
+        final long deserialisationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - deserialisationStartNanos) / history.size();
+
+        assertWithinBudget("serialisation time per build [µs]", serialisationMicros, BUDGET_MICROS_PER_SERIALISATION);
+        assertWithinBudget("deserialisation time per build [µs]", deserialisationMicros, BUDGET_MICROS_PER_DESERIALISATION);
+    }
+
+    /**
+     * Creates the Gitflow data of the given number of builds of a job. The first build records the initial branches,
+     * each following build is a clone of its predecessor with the branch it built updated - like the Gitflow actions do.
+     */
+    private static List<GitflowPluginData> createHistory(final int builds) throws CloneNotSupportedException {
+        final List<String> branchNames = new ArrayList<String>(BRANCHES_PER_JOB);
+        branchNames.add("develop");
+        branchNames.add("master");
+        for (int i = 0; i < 20; i++) {
+            branchNames.add("release/1." + i);
+        }
+        for (int i = 0; i < 8; i++) {
+            branchNames.add("hotfix/1." + i + ".1");
+        }
+        while (branchNames.size() < BRANCHES_PER_JOB) {
+            branchNames.add("feature/GF-" + (1000 + branchNames.size()) + "-support-monorepos");
+        }
+
+        final GitflowPluginData initialData = new GitflowPluginData();
+        for (int i = 0; i < branchNames.size(); i++) {
+            final String branchName = branchNames.get(i);
+            final RemoteBranch remoteBranch = initialData.getOrAddRemoteBranch(branchName);
+            remoteBranch.setLastBuildResult(Result.SUCCESS);
+            remoteBranch.setLastBuildVersion("1." + i + ".0-SNAPSHOT");
+            if (branchName.startsWith("release/") || branchName.startsWith("hotfix/") || "master".equals(branchName)) {
+                remoteBranch.setBaseReleaseVersion("1." + i);
+                remoteBranch.setLastReleaseVersion("1." + i + ".0");
+                remoteBranch.setLastReleaseVersionCommit(createCommitId(i));
+            }
+        }
+
+        final List<GitflowPluginData> history = new ArrayList<GitflowPluginData>(builds);
+        history.add(initialData);
+        for (int build = 1; build < builds; build++) {
+            final GitflowPluginData data = history.get(build - 1).clone();
+            final RemoteBranch remoteBranch = data.getRemoteBranch(branchNames.get(build % branchNames.size()));
+            remoteBranch.setLastBuildResult(build % 7 == 0 ? Result.UNSTABLE : Result.SUCCESS);
+            remoteBranch.setLastBuildVersion("1." + build % branchNames.size() + "." + build + "-SNAPSHOT");
+            history.add(data);
+        }
+        return history;
+    }
+
+    private static ObjectId createCommitId(final int seed) {
+        return ObjectId.fromString(String.format(Locale.ENGLISH, "%040x", 0x5eed0000L + seed));
+    }
+
+    // Like the XStream instance of the builds (Run.XSTREAM), which keeps the build results as single values.
+    private static XStream2 createXStream() {
+        final XStream2 xStream = new XStream2();
+        xStream.registerConverter(Result.conv);
+        return xStream;
+    }
+
+    private static void assertWithinBudget(final String name, final long actual, final long budget) {
+        assertTrue(name + ": " + actual + " exceeds the budget of " + budget, actual <= budget);
+    }
+}
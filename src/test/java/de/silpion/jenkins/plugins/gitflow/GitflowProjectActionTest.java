@@ -10,10 +10,18 @@ import static de.silpion.jenkins.plugins.gitflow.GitflowProjectAction.KEY_PREFIX
 import static de.silpion.jenkins.plugins.gitflow.GitflowProjectAction.KEY_PREFIX_TEST_HOTFIX;
 import static de.silpion.jenkins.plugins.gitflow.GitflowProjectAction.KEY_VALUE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.endsWith;
 import static org.mockito.Matchers.matches;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
@@ -27,6 +35,7 @@ import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import de.silpion.jenkins.plugins.gitflow.cause.HotfixBranchCauseGroup;
 import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,9 +49,15 @@ import net.sf.json.JSONObject;
 
 import com.google.common.collect.Lists;
 
+import jenkins.model.Jenkins;
+
 import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.Cause;
 import hudson.model.AbstractProject;
+import hudson.model.Computer;
 import hudson.model.Descriptor;
+import hudson.model.Executor;
 import hudson.model.ItemGroup;
 
 @RunWith(PowerMockRunner.class)
@@ -70,6 +85,7 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
         when(this.gitflowBuildWrapperDescriptor.getBranchType("master")).thenReturn("master");
         when(this.gitflowBuildWrapperDescriptor.getBranchType(matches("hotfix/.*"))).thenReturn("hotfix");
         when(this.gitflowBuildWrapperDescriptor.getHotfixBranchPrefix()).thenReturn("hotfix/");
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
     }
 
     @Override
@@ -77,26 +93,34 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
         return this.gitflowBuildWrapperDescriptor;
     }
 
+    @Test
+    public void testConstructorDoesNotLoadBuildData() {
+
+        // The cause models are built on demand, so the project action must not touch the builds when it's created.
+        new GitflowProjectAction(this.job);
+        verify(this.job, never()).getLastBuild();
+    }
+
     @Test
     public void testConstructorForStartHotfixCause() {
 
         // When a master branch exists, a StartHotfixCause must be created.
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("master", "1.0", "1.0", "1.0")));
-        assertNotNull(new GitflowProjectAction(this.job).getStartHotfixCause());
+        assertNotNull(new GitflowProjectAction(this.job).getModel().getStartHotfixCause());
 
         // No master branch, no StartHotfixCause.
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("develop", null, null, null)));
-        assertNull(new GitflowProjectAction(this.job).getStartHotfixCause());
+        assertNull(new GitflowProjectAction(this.job).getModel().getStartHotfixCause());
 
         // When the master branch has a snapshot version, no StartHotfixCause should be created.
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("master", "1.0-SNAPSHOT", null, null)));
-        assertNull(new GitflowProjectAction(this.job).getStartHotfixCause());
+        assertNull(new GitflowProjectAction(this.job).getModel().getStartHotfixCause());
 
         // When a hotfix branch for the master release already exists, no StartHotfixCause should be created.
         final RemoteBranch masterBranch = createRemoteBranch("master", "1.0.2", "1.0", "1.0.2");
         final RemoteBranch hotfixBranch = createRemoteBranch("hotfix/1.0", "1.0.4-SNAPSHOT", "1.0", "1.0.3");
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Lists.newArrayList(masterBranch, hotfixBranch));
-        assertNull(new GitflowProjectAction(this.job).getStartHotfixCause());
+        assertNull(new GitflowProjectAction(this.job).getModel().getStartHotfixCause());
     }
 
     @Test
@@ -104,7 +128,7 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
 
         // When a hotfix branch exists, a TestHotfixCause must be created.
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("hotfix/1.0", "1.0.4-SNAPSHOT", null, null)));
-        final Collection<HotfixBranchCauseGroup> hotfixBranchCauseGroups1 = new GitflowProjectAction(this.job).getHotfixBranchCauseGroups();
+        final Collection<HotfixBranchCauseGroup> hotfixBranchCauseGroups1 = new GitflowProjectAction(this.job).getModel().getHotfixBranchCauseGroups();
         assertEquals(1, hotfixBranchCauseGroups1.size());
         final HotfixBranchCauseGroup hotfixBranchCauseGroup = hotfixBranchCauseGroups1.iterator().next();
         assertNotNull(hotfixBranchCauseGroup.getTestHotfixCause());
@@ -112,10 +136,34 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
 
         // No hotfix branch, no TestHotfixCause.
         when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("release/1.0", "1.0.4-SNAPSHOT", null, null)));
-        final Collection<HotfixBranchCauseGroup> hotfixBranchCauseGroups2 = new GitflowProjectAction(this.job).getHotfixBranchCauseGroups();
+        final Collection<HotfixBranchCauseGroup> hotfixBranchCauseGroups2 = new GitflowProjectAction(this.job).getModel().getHotfixBranchCauseGroups();
         assertEquals(0, hotfixBranchCauseGroups2.size());
     }
 
+    @Test
+    public void testGetHotfixBranchCauseGroup() {
+        when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("hotfix/1.0", "1.0.4-SNAPSHOT", null, null)));
+        final GitflowProjectModel model = new GitflowProjectAction(this.job).getModel();
+
+        // A single branch group can be fetched for the fragment of the Gitflow page.
+        final HotfixBranchCauseGroup hotfixBranchCauseGroup = model.getHotfixBranchCauseGroup("1.0");
+        assertNotNull(hotfixBranchCauseGroup);
+        assertEquals("hotfix/1.0", hotfixBranchCauseGroup.getBranchName());
+        assertEquals("1.0.4", hotfixBranchCauseGroup.getTestHotfixCause().getPatchReleaseVersion());
+        assertNull(model.getHotfixBranchCauseGroup("1.1"));
+    }
+
+    @Test
+    public void testGetBranchGroupCacheKey() {
+        final String cacheKey = GitflowProjectAction.getBranchGroupCacheKey("folder/job", 42L, "release", "1.0");
+        assertEquals(cacheKey, GitflowProjectAction.getBranchGroupCacheKey("folder/job", 42L, "release", "1.0"));
+
+        // Cached fragments are invalidated when the state of the job changes.
+        assertFalse(cacheKey.equals(GitflowProjectAction.getBranchGroupCacheKey("folder/job", 43L, "release", "1.0")));
+        assertFalse(cacheKey.equals(GitflowProjectAction.getBranchGroupCacheKey("folder/job", 42L, "hotfix", "1.0")));
+        assertFalse(cacheKey.equals(GitflowProjectAction.getBranchGroupCacheKey("folder/job", 42L, "release", "1.1")));
+    }
+
     @Test
     public void testDoSubmitStartHotfixCause() throws Exception {
 
@@ -141,7 +189,7 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
         gitflowProjectAction.doSubmit(staplerRequest, staplerResponse);
 
         final ArgumentCaptor<StartHotfixCause> startHotfixCauseArgumentCaptor = ArgumentCaptor.forClass(StartHotfixCause.class);
-        verify(this.job).scheduleBuild(anyInt(), startHotfixCauseArgumentCaptor.capture());
+        verify(this.job).scheduleBuild2(anyInt(), startHotfixCauseArgumentCaptor.capture(), (Action) anyVararg());
         assertEquals("1.1.1-SNAPSHOT", startHotfixCauseArgumentCaptor.getValue().getNextPatchDevelopmentVersion());
     }
 
@@ -172,7 +220,7 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
         gitflowProjectAction.doSubmit(staplerRequest, staplerResponse);
 
         final ArgumentCaptor<TestHotfixCause> testHotfixCauseArgumentCaptor = ArgumentCaptor.forClass(TestHotfixCause.class);
-        verify(this.job).scheduleBuild(anyInt(), testHotfixCauseArgumentCaptor.capture());
+        verify(this.job).scheduleBuild2(anyInt(), testHotfixCauseArgumentCaptor.capture(), (Action) anyVararg());
         assertEquals("1.1.1", testHotfixCauseArgumentCaptor.getValue().getPatchReleaseVersion());
         assertEquals("1.1.2-SNAPSHOT", testHotfixCauseArgumentCaptor.getValue().getNextPatchDevelopmentVersion());
     }
@@ -202,7 +250,78 @@ public class GitflowProjectActionTest extends AbstractGitflowPluginTest {
         gitflowProjectAction.doSubmit(staplerRequest, staplerResponse);
 
         final ArgumentCaptor<FinishHotfixCause> finishHotfixCauseArgumentCaptor = ArgumentCaptor.forClass(FinishHotfixCause.class);
-        verify(this.job).scheduleBuild(anyInt(), finishHotfixCauseArgumentCaptor.capture());
+        verify(this.job).scheduleBuild2(anyInt(), finishHotfixCauseArgumentCaptor.capture(), (Action) anyVararg());
+    }
+
+    @Test
+    public void testDoSubmitCreatesCausePerSubmission() throws Exception {
+
+        when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(createRemoteBranch("hotfix/1.1", "1.1.4-SNAPSHOT", null, null)));
+
+        final ItemGroup<?> itemGroup = mock(ItemGroup.class);
+        when(this.job.getParent()).thenReturn(itemGroup);
+        when(itemGroup.getUrl()).thenReturn("url");
+
+        // Submit the same action twice with different versions on the same project action.
+        final GitflowProjectAction gitflowProjectAction = new GitflowProjectAction(this.job);
+        gitflowProjectAction.doSubmit(createTestHotfixRequest("1.1.4", "1.1.5-SNAPSHOT", false), mock(StaplerResponse.class));
+        gitflowProjectAction.doSubmit(createTestHotfixRequest("1.1.7", "1.1.8-SNAPSHOT", true), mock(StaplerResponse.class));
+
+        final ArgumentCaptor<TestHotfixCause> testHotfixCauseArgumentCaptor = ArgumentCaptor.forClass(TestHotfixCause.class);
+        verify(this.job, times(2)).scheduleBuild2(anyInt(), testHotfixCauseArgumentCaptor.capture(), (Action) anyVararg());
+        final TestHotfixCause firstCause = testHotfixCauseArgumentCaptor.getAllValues().get(0);
+        final TestHotfixCause secondCause = testHotfixCauseArgumentCaptor.getAllValues().get(1);
+        assertNotSame(firstCause, secondCause);
+        assertEquals("1.1.4", firstCause.getPatchReleaseVersion());
+        assertEquals("1.1.5-SNAPSHOT", firstCause.getNextPatchDevelopmentVersion());
+        assertFalse(firstCause.isDryRun());
+        assertEquals("1.1.7", secondCause.getPatchReleaseVersion());
+        assertEquals("1.1.8-SNAPSHOT", secondCause.getNextPatchDevelopmentVersion());
+        assertTrue(secondCause.isDryRun());
+    }
+
+    @Test
+    public void testDoSubmitFoldsDuplicateOfRunningBuild() throws Exception {
+
+        final RemoteBranch hotfixBranch = createRemoteBranch("hotfix/1.1", "1.1.4-SNAPSHOT", null, null);
+        when(this.gitflowPluginData.getRemoteBranches()).thenReturn(Collections.singletonList(hotfixBranch));
+
+        // A build for the same Test Hotfix action is running.
+        final TestHotfixCause runningCause = new TestHotfixCause(hotfixBranch, "1.1.4", "1.1.5-SNAPSHOT", false,
+                                                                 this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier());
+        @SuppressWarnings("rawtypes")
+        final AbstractBuild runningBuild = mock(AbstractBuild.class);
+        when(runningBuild.getProject()).thenReturn(this.job);
+        when(runningBuild.getAction(GitflowQueueAction.class)).thenReturn(new GitflowQueueAction(runningCause, null));
+        when(runningBuild.getUrl()).thenReturn("job/test/5/");
+        final Executor executor = mock(Executor.class);
+        when(executor.getCurrentExecutable()).thenReturn(runningBuild);
+        final Computer computer = mock(Computer.class);
+        when(computer.getExecutors()).thenReturn(Collections.singletonList(executor));
+        when(Jenkins.getInstance().getComputers()).thenReturn(new Computer[] { computer });
+        when(this.job.isBuilding()).thenReturn(true);
+
+        // The duplicate submission must not schedule a build, but lead to the running build.
+        final StaplerResponse staplerResponse = mock(StaplerResponse.class);
+        new GitflowProjectAction(this.job).doSubmit(createTestHotfixRequest("1.1.4", "1.1.5-SNAPSHOT", false), staplerResponse);
+        verify(this.job, never()).scheduleBuild2(anyInt(), any(Cause.class), (Action) anyVararg());
+        verify(staplerResponse).sendRedirect(endsWith("/job/test/5/"));
+    }
+
+    private static StaplerRequest createTestHotfixRequest(final String patchReleaseVersion, final String nextPatchDevelopmentVersion, final boolean dryRun)
+        throws Exception {
+        final JSONObject actionObject = new JSONObject();
+        actionObject.element(KEY_VALUE, "testHotfix");
+        actionObject.element(KEY_PREFIX_TEST_HOTFIX + "_" + KEY_POSTFIX_HOTFIX_VERSION, "1.1");
+        actionObject.element(KEY_PREFIX_TEST_HOTFIX + "_" + "1_1" + "_" + KEY_POSTFIX_PATCH_RELEASE_VERSION, patchReleaseVersion);
+        actionObject.element(KEY_PREFIX_TEST_HOTFIX + "_" + "1_1" + "_" + KEY_POSTFIX_NEXT_PATCH_DEVELOPMENT_VERSION, nextPatchDevelopmentVersion);
+        final JSONObject formObject = new JSONObject();
+        formObject.element(KEY_ACTION, actionObject);
+        formObject.element(KEY_DRY_RUN, dryRun);
+
+        final StaplerRequest staplerRequest = mock(StaplerRequest.class);
+        when(staplerRequest.getSubmittedForm()).thenReturn(formObject);
+        return staplerRequest;
     }
 
     private static RemoteBranch createRemoteBranch(final String branchName, final String lastBuildVersion, final String baseReleaseVersion, final String lastReleaseVersion) {
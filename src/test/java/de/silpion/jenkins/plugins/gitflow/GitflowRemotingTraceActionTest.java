@@ -0,0 +1,45 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GitflowRemotingTraceAction} class.
+ */
+public class GitflowRemotingTraceActionTest {
+
+    @Test
+    public void testGetCallerSiteSkipsProxies() throws Exception {
+        final StackTraceElement[] stackTrace = {
+                new StackTraceElement(GitflowRemotingTraceAction.class.getName(), "record", "GitflowRemotingTraceAction.java", 90),
+                new StackTraceElement("de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy", "push", "GitClientProxy.java", 180),
+                new StackTraceElement("de.silpion.jenkins.plugins.gitflow.action.FinishReleaseAction", "beforeMainBuildInternal", "FinishReleaseAction.java", 77)
+        };
+        assertEquals("FinishReleaseAction.beforeMainBuildInternal:77", GitflowRemotingTraceAction.getCallerSite(stackTrace));
+    }
+
+    @Test
+    public void testToTraceEvents() throws Exception {
+        final GitflowRemotingTraceAction remotingTraceAction = new GitflowRemotingTraceAction();
+        remotingTraceAction.record("git getHeadRev develop", System.nanoTime(), 512L);
+        remotingTraceAction.record("getEnvironment", System.nanoTime(), -1L);
+        assertEquals(2, remotingTraceAction.getCallCount());
+
+        final JSONArray traceEvents = remotingTraceAction.toTraceEvents("job #1").getJSONArray("traceEvents");
+        assertEquals(3, traceEvents.size());
+        assertEquals("process_name", traceEvents.getJSONObject(0).getString("name"));
+        assertEquals("job #1", traceEvents.getJSONObject(0).getJSONObject("args").getString("name"));
+
+        final JSONObject getHeadRev = traceEvents.getJSONObject(1);
+        assertEquals("git getHeadRev develop", getHeadRev.getString("name"));
+        assertEquals("X", getHeadRev.getString("ph"));
+        assertEquals(512L, getHeadRev.getJSONObject("args").getLong("payloadBytes"));
+        assertTrue(getHeadRev.getJSONObject("args").getString("caller").startsWith("GitflowRemotingTraceActionTest.testToTraceEvents:"));
+        assertFalse(traceEvents.getJSONObject(2).getJSONObject("args").has("payloadBytes"));
+    }
+}
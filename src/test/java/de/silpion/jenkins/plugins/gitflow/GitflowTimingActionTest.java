@@ -0,0 +1,43 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GitflowTimingAction} class.
+ */
+public class GitflowTimingActionTest {
+
+    @Test
+    public void testPhasesAreOrderedByStart() throws Exception {
+        final GitflowTimingAction timingAction = new GitflowTimingAction();
+        final long startNanos = System.nanoTime();
+
+        // Enclosed phases are recorded before the phases that enclose them.
+        timingAction.record("git clean", startNanos, startNanos + 2000000L);
+        timingAction.record("git push", startNanos + 6000000L, startNanos + 10000000L);
+        timingAction.record("before main build", startNanos, startNanos + 5000000L);
+
+        final List<GitflowTimingAction.Phase> phases = timingAction.getPhases();
+        assertEquals("before main build", phases.get(0).getName());
+        assertEquals("git clean", phases.get(1).getName());
+        assertEquals("git push", phases.get(2).getName());
+        assertEquals(10000000L, timingAction.getTotalNanos());
+    }
+
+    @Test
+    public void testWaterfallPositions() throws Exception {
+        final GitflowTimingAction timingAction = new GitflowTimingAction();
+        final long startNanos = System.nanoTime();
+        timingAction.record("main build", startNanos, startNanos + 3000000L);
+        timingAction.record("git push", startNanos + 3000000L, startNanos + 4000000L);
+
+        final GitflowTimingAction.Phase push = timingAction.getPhases().get(1);
+        assertEquals("75.00", timingAction.getOffsetPercent(push));
+        assertEquals("25.00", timingAction.getWidthPercent(push));
+        assertEquals("1.0 ms", GitflowTimingAction.toMillis(push.getDurationNanos()));
+    }
+}
@@ -0,0 +1,170 @@
+package de.silpion.jenkins.plugins.gitflow;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Estimates the retained heap of object graphs for a 64 bit JVM with compressed references (12 byte object headers,
+ * 4 byte references, 8 byte alignment). Objects that are reachable more than once are only counted once.
+ * <p>
+ * The estimate is a model, not a measurement: the fields of the plugin's own classes are counted reflectively, while
+ * strings and the collections of the JDK are counted by their Java 8 layout, without reflecting into the JDK. That
+ * makes the numbers independent of the garbage collector and the JVM the tests run on, so they can be checked against
+ * fixed budgets.
+ */
+final class ObjectGraphSizer {
+
+    private static final int HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    private final Deque<Object> pending = new ArrayDeque<Object>();
+
+    /**
+     * Excludes the given objects (and everything that's only reachable through them) from the estimate, e.g. because
+     * they're shared with the rest of Jenkins.
+     *
+     * @param sharedObjects the objects to be excluded.
+     * @return this sizer.
+     */
+    ObjectGraphSizer exclude(final Object... sharedObjects) {
+        for (final Object sharedObject : sharedObjects) {
+            this.visited.add(sharedObject);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated retained heap of the given object graph, without the objects that have already been counted
+     * by this sizer.
+     *
+     * @param root the root of the object graph.
+     * @return the estimated retained heap in bytes.
+     */
+    long sizeOf(final Object root) {
+        long bytes = 0L;
+        this.push(root);
+        while (!this.pending.isEmpty()) {
+            bytes += this.shallowSizeOf(this.pending.pop());
+        }
+        return bytes;
+    }
+
+    private void push(final Object object) {
+        if (object != null && !isShared(object.getClass()) && this.visited.add(object)) {
+            this.pending.push(object);
+        }
+    }
+
+    // Enums, classes and the Jenkins build results are constants that exist only once per JVM.
+    private static boolean isShared(final Class<?> type) {
+        return type.isEnum() || type == Class.class || type.getName().equals("hudson.model.Result");
+    }
+
+    private long shallowSizeOf(final Object object) {
+        final Class<?> type = object.getClass();
+        if (object instanceof String) {
+            return align(HEADER_BYTES + REFERENCE_BYTES + 4) + align(ARRAY_HEADER_BYTES + 2L * ((String) object).length());
+        } else if (type.isArray()) {
+            return this.arraySizeOf(object, type.getComponentType());
+        } else if (object instanceof Collection && type.getName().startsWith("java.")) {
+            return this.collectionSizeOf((Collection<?>) object);
+        } else if (object instanceof Map && type.getName().startsWith("java.")) {
+            return this.mapSizeOf((Map<?, ?>) object);
+        } else if (type.getName().startsWith("java.")) {
+            // Boxed primitives and other small value objects of the JDK.
+            return align(HEADER_BYTES + 8);
+        }
+        return this.fieldsSizeOf(object, type);
+    }
+
+    private long arraySizeOf(final Object array, final Class<?> componentType) {
+        final int length = Array.getLength(array);
+        if (!componentType.isPrimitive()) {
+            for (int i = 0; i < length; i++) {
+                this.push(Array.get(array, i));
+            }
+        }
+        return align(ARRAY_HEADER_BYTES + (long) length * fieldSize(componentType));
+    }
+
+    private long collectionSizeOf(final Collection<?> collection) {
+        for (final Object element : collection) {
+            this.push(element);
+        }
+        if (collection instanceof LinkedList) {
+            // The list itself and a node (item, next, prev) per element.
+            return align(HEADER_BYTES + 3 * 4 + 2 * REFERENCE_BYTES) + collection.size() * align(HEADER_BYTES + 3 * REFERENCE_BYTES);
+        }
+        // Array based collections: the collection and its element array.
+        return align(HEADER_BYTES + 2 * 4 + REFERENCE_BYTES) + align(ARRAY_HEADER_BYTES + (long) collection.size() * REFERENCE_BYTES);
+    }
+
+    private long mapSizeOf(final Map<?, ?> map) {
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            this.push(entry.getKey());
+            this.push(entry.getValue());
+        }
+        if (map instanceof TreeMap) {
+            // The map and a node (key, value, left, right, parent, color) per mapping.
+            return align(HEADER_BYTES + 2 * 4 + 4 * REFERENCE_BYTES) + map.size() * align(HEADER_BYTES + 5 * REFERENCE_BYTES + 1);
+        }
+        // Hash map layout: the map, its table with a load factor of 0.75 and an entry (hash, key, value, next) per mapping.
+        final long tableLength = Integer.highestOneBit(Math.max(1, (int) (map.size() / 0.75f)) * 2 - 1);
+        return align(HEADER_BYTES + 4 * 4 + 4 * REFERENCE_BYTES) + align(ARRAY_HEADER_BYTES + tableLength * REFERENCE_BYTES)
+               + map.size() * align(HEADER_BYTES + 4 + 3 * REFERENCE_BYTES);
+    }
+
+    private long fieldsSizeOf(final Object object, final Class<?> type) {
+        long bytes = HEADER_BYTES;
+        for (Class<?> declaringType = type; declaringType != null && declaringType != Object.class; declaringType = declaringType.getSuperclass()) {
+            for (final Field field : declaringType.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                bytes += fieldSize(field.getType());
+                if (!field.getType().isPrimitive()) {
+                    this.push(getValue(field, object));
+                }
+            }
+        }
+        return align(bytes);
+    }
+
+    private static Object getValue(final Field field, final Object object) {
+        try {
+            field.setAccessible(true);
+            return field.get(object);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field, e);
+        }
+    }
+
+    private static int fieldSize(final Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_BYTES;
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + 7L) & ~7L;
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.util.Map;
 
 import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
 import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
@@ -56,6 +57,9 @@ public abstract class AbstractGitflowActionTest<A extends AbstractGitflowAction<
         // Initialise the project mock and attach it to the build mock.
         final AbstractProject<?, ?> project = mock(AbstractProject.class);
         when(this.build.getProject()).thenReturn(project);
+
+        // Use the default branch naming configuration.
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
     }
 
     /** {@inheritDoc} */
@@ -7,6 +7,8 @@ import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
 import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
 import org.junit.Before;
@@ -34,6 +36,9 @@ public class GitflowActionFactoryTest extends AbstractGitflowPluginTest {
     @Mock
     private BuildListener listener;
 
+    @Mock
+    private GitflowBuildWrapper.DescriptorImpl gitflowBuildWrapperDescriptor;
+
     @Before
     public void setUp() throws Exception {
         super.setUp();
@@ -42,13 +47,14 @@ public class GitflowActionFactoryTest extends AbstractGitflowPluginTest {
         when(project.getScm()).thenReturn(mock(GitSCM.class));
         when(build.getProject()).thenReturn(project);
 
+        // The actions need the branch naming configuration.
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
     }
 
     /** {@inheritDoc} */
     @Override
     protected Descriptor<?> getGitflowBuildWrapperDescriptor() {
-        // We currently don't need the descriptor in this test.
-        return null;
+        return this.gitflowBuildWrapperDescriptor;
     }
 
     @Test
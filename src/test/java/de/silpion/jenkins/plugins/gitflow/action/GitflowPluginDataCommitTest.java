@@ -0,0 +1,138 @@
+package de.silpion.jenkins.plugins.gitflow.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.cause.NoGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.proxy.gitclient.GitClientProxy;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.BuildListener;
+import hudson.model.StreamBuildListener;
+import hudson.util.NullStream;
+
+/**
+ * Tests that the {@link AbstractGitflowAction} commits the branch changes of a build to the {@link GitflowPluginDataStore}
+ * also when the Gitflow action fails.
+ */
+@RunWith(PowerMockRunner.class)
+public class GitflowPluginDataCommitTest extends AbstractGitflowPluginTest {
+
+    @Mock
+    @SuppressWarnings("rawtypes")
+    private AbstractBuild build;
+
+    @Mock
+    private Launcher launcher;
+
+    private final BuildListener listener = new StreamBuildListener(new NullStream());
+
+    @Mock
+    private GitClientProxy git;
+
+    @Mock
+    private GitflowBuildWrapper.DescriptorImpl gitflowBuildWrapperDescriptor;
+
+    private AbstractProject<?, ?> project;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        this.project = mock(AbstractProject.class);
+        when(this.build.getProject()).thenReturn(this.project);
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAfterMainBuildFailingAfterPushCommitsBranches() throws Exception {
+        final PushingTestAction testAction = new PushingTestAction(this.build, this.launcher, this.listener, this.git, false);
+        testAction.beforeMainBuild();
+        try {
+            testAction.afterMainBuild();
+            fail("The action should have failed after the push");
+        } catch (final IOException expected) {
+            // The push has happened before the failure.
+        }
+
+        this.assertReleaseBranchCommitted();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBeforeMainBuildFailingAfterPushCommitsBranches() throws Exception {
+        final PushingTestAction testAction = new PushingTestAction(this.build, this.launcher, this.listener, this.git, true);
+        try {
+            testAction.beforeMainBuild();
+            fail("The action should have failed after the push");
+        } catch (final IOException expected) {
+            // The push has happened before the failure.
+        }
+
+        this.assertReleaseBranchCommitted();
+    }
+
+    private void assertReleaseBranchCommitted() {
+        final List<RemoteBranch> remoteBranches = GitflowPluginDataStore.getInstance().getLatest(this.project).getRemoteBranches();
+        assertEquals(1, remoteBranches.size());
+        assertEquals("release/1.0", remoteBranches.get(0).getBranchName());
+        assertEquals("1.0", remoteBranches.get(0).getLastBuildVersion());
+    }
+
+    @Override
+    protected GitflowBuildWrapper.DescriptorImpl getGitflowBuildWrapperDescriptor() {
+        return this.gitflowBuildWrapperDescriptor;
+    }
+
+    /** An action that records a pushed release branch and fails afterwards. */
+    private static final class PushingTestAction extends AbstractGitflowAction<AbstractBuild<?, ?>, NoGitflowCause> {
+
+        private final boolean failBeforeMainBuild;
+
+        private PushingTestAction(final AbstractBuild<?, ?> build, final Launcher launcher, final BuildListener listener, final GitClientProxy git,
+                                  final boolean failBeforeMainBuild) throws IOException, InterruptedException {
+            super(build, launcher, listener, git, new NoGitflowCause());
+            this.failBeforeMainBuild = failBeforeMainBuild;
+        }
+
+        @Override
+        protected void beforeMainBuildInternal() throws IOException {
+            if (this.failBeforeMainBuild) {
+                this.pushAndFail();
+            }
+        }
+
+        @Override
+        protected void afterMainBuildInternal() throws IOException {
+            this.pushAndFail();
+        }
+
+        private void pushAndFail() throws IOException {
+            this.gitflowPluginData.getOrAddRemoteBranch("release/1.0").setLastBuildVersion("1.0");
+            throw new IOException("Failed after the push");
+        }
+
+        @Override
+        public String getActionName() {
+            return "Pushing Test";
+        }
+    }
+}
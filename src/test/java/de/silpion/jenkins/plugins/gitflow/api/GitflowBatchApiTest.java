@@ -0,0 +1,99 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.PublishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import net.sf.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GitflowBatchApi} class.
+ */
+public class GitflowBatchApiTest {
+
+    private static final BranchTypeClassifier BRANCH_TYPE_CLASSIFIER = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+    private GitflowProjectModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        final RemoteBranch developBranch = new RemoteBranch("develop");
+        developBranch.setLastBuildVersion("1.2.0-SNAPSHOT");
+        final RemoteBranch releaseBranch = new RemoteBranch("release/1.1");
+        releaseBranch.setLastBuildVersion("1.1.3-SNAPSHOT");
+
+        this.model = mock(GitflowProjectModel.class);
+        when(this.model.getBranchTypeClassifier()).thenReturn(BRANCH_TYPE_CLASSIFIER);
+        when(this.model.getDevelopBranch()).thenReturn(developBranch);
+        when(this.model.getStartReleaseCause()).thenReturn(new StartReleaseCause(developBranch, BRANCH_TYPE_CLASSIFIER));
+        when(this.model.getReleaseBranch("1.1")).thenReturn(releaseBranch);
+    }
+
+    @Test
+    public void testCreateCauseWithProposedVersions() throws Exception {
+        final AbstractGitflowCause cause = GitflowBatchApi.createCause(JSONObject.fromObject("{action: 'startRelease'}"), this.model);
+        assertTrue(cause instanceof StartReleaseCause);
+
+        final StartReleaseCause startReleaseCause = (StartReleaseCause) cause;
+        assertEquals("1.2.0", startReleaseCause.getReleaseVersion());
+        assertEquals("1.2.1-SNAPSHOT", startReleaseCause.getNextPatchDevelopmentVersion());
+        assertEquals("1.3.0-SNAPSHOT", startReleaseCause.getNextReleaseDevelopmentVersion());
+    }
+
+    @Test
+    public void testCreateCauseWithSubmittedVersions() throws Exception {
+        final AbstractGitflowCause cause = GitflowBatchApi.createCause(
+                JSONObject.fromObject("{action: 'testRelease', releaseVersion: '1.1', patchReleaseVersion: '1.1.5', dryRun: true}"), this.model);
+        assertTrue(cause instanceof TestReleaseCause);
+
+        final TestReleaseCause testReleaseCause = (TestReleaseCause) cause;
+        assertEquals("1.1.5", testReleaseCause.getPatchReleaseVersion());
+        assertEquals("1.1.4-SNAPSHOT", testReleaseCause.getNextPatchDevelopmentVersion());
+        assertTrue(testReleaseCause.isDryRun());
+
+        assertTrue(GitflowBatchApi.createCause(JSONObject.fromObject("{action: 'publishRelease', releaseVersion: '1.1'}"), this.model) instanceof PublishReleaseCause);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateCauseForMissingBranch() throws Exception {
+        GitflowBatchApi.createCause(JSONObject.fromObject("{action: 'finishRelease', releaseVersion: '1.0'}"), this.model);
+    }
+
+    @Test
+    public void testReplayAfterBranchStateHasChanged() throws Exception {
+        final JSONObject entry = JSONObject.fromObject("{idempotencyKey: 'replay-1', job: 'gitflow-job', action: 'finishRelease', releaseVersion: '1.1'}");
+        GitflowBatchApi.recordSubmission("alice:replay-1", entry,
+                                         JSONObject.fromObject("{idempotencyKey: 'replay-1', job: 'gitflow-job', status: 'scheduled', queueItemId: 17}"));
+
+        // The recorded submission has finished the release branch, so the entry isn't valid for the current branch state anymore.
+        // It's replayed nevertheless, without validating it again.
+        final JSONObject result = GitflowBatchApi.createSubmission("alice", entry, new HashSet<String>()).schedule();
+        assertEquals(GitflowBatchApi.STATUS_REPLAYED, result.getString("status"));
+        assertEquals(17, result.getInt("queueItemId"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayForAnotherAction() throws Exception {
+        GitflowBatchApi.recordSubmission("alice:replay-2", JSONObject.fromObject("{idempotencyKey: 'replay-2', job: 'gitflow-job', action: 'startRelease'}"),
+                                         JSONObject.fromObject("{idempotencyKey: 'replay-2', status: 'scheduled', queueItemId: 18}"));
+        GitflowBatchApi.createSubmission("alice", JSONObject.fromObject("{idempotencyKey: 'replay-2', job: 'gitflow-job', action: 'startHotfix'}"),
+                                         new HashSet<String>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateCauseForUnknownAction() throws Exception {
+        GitflowBatchApi.createCause(JSONObject.fromObject("{action: 'startFeature'}"), this.model);
+    }
+}
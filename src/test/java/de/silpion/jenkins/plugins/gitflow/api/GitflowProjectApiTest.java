@@ -0,0 +1,35 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GitflowProjectApi} class.
+ */
+public class GitflowProjectApiTest {
+
+    @Test
+    public void testGetETag() throws Exception {
+        final String eTag = GitflowProjectApi.getETag(42L, null, null);
+        assertTrue(eTag.startsWith("\"1-42-"));
+        assertEquals(eTag, GitflowProjectApi.getETag(42L, "", ""));
+
+        // Another state version or another filter results in another representation.
+        assertFalse(eTag.equals(GitflowProjectApi.getETag(43L, null, null)));
+        assertFalse(eTag.equals(GitflowProjectApi.getETag(42L, "branches[name]", null)));
+        assertFalse(eTag.equals(GitflowProjectApi.getETag(42L, null, "1")));
+    }
+
+    @Test
+    public void testIsMatchingETag() throws Exception {
+        final String eTag = GitflowProjectApi.getETag(42L, null, null);
+        assertTrue(GitflowProjectApi.isMatchingETag(eTag, eTag));
+        assertTrue(GitflowProjectApi.isMatchingETag("\"other\", W/" + eTag, eTag));
+        assertTrue(GitflowProjectApi.isMatchingETag("*", eTag));
+        assertFalse(GitflowProjectApi.isMatchingETag(null, eTag));
+        assertFalse(GitflowProjectApi.isMatchingETag(GitflowProjectApi.getETag(41L, null, null), eTag));
+    }
+}
@@ -0,0 +1,72 @@
+package de.silpion.jenkins.plugins.gitflow.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link JsonTreeFilter} class.
+ */
+public class JsonTreeFilterTest {
+
+    @Test
+    public void testFilterByTree() throws Exception {
+        final Map<String, Object> filtered = JsonTreeFilter.create("stateVersion,branches[name]", JsonTreeFilter.UNLIMITED_DEPTH).filter(createState());
+
+        assertEquals(Arrays.asList("stateVersion", "branches"), Arrays.asList(filtered.keySet().toArray()));
+        assertEquals(Arrays.asList(Collections.singletonMap("name", "develop"), Collections.singletonMap("name", "release/1.0")), filtered.get("branches"));
+    }
+
+    @Test
+    public void testFilterByDepth() throws Exception {
+        final JsonTreeFilter topLevelOnly = JsonTreeFilter.create(null, 0);
+        assertEquals(Collections.singletonMap("stateVersion", (Object) 42L), topLevelOnly.filter(createState()));
+
+        // With depth 1 the objects in the arrays are kept, but not the objects nested in them.
+        final List<?> branches = (List<?>) JsonTreeFilter.create("", 1).filter(createState()).get("branches");
+        assertEquals(2, branches.size());
+        assertFalse(((Map<?, ?>) branches.get(0)).containsKey("lastBuild"));
+        assertTrue(((Map<?, ?>) branches.get(0)).containsKey("name"));
+    }
+
+    @Test
+    public void testUnrestrictedFilter() throws Exception {
+        assertTrue(JsonTreeFilter.create(" ", JsonTreeFilter.UNLIMITED_DEPTH).isUnrestricted());
+        assertFalse(JsonTreeFilter.create("branches", JsonTreeFilter.UNLIMITED_DEPTH).isUnrestricted());
+        assertEquals(createState(), JsonTreeFilter.create(null, JsonTreeFilter.UNLIMITED_DEPTH).filter(createState()));
+    }
+
+    @Test
+    public void testMalformedTree() throws Exception {
+        for (final String tree : Arrays.asList("branches[name", "branches]", "a,,b", "[name]")) {
+            try {
+                JsonTreeFilter.create(tree, JsonTreeFilter.UNLIMITED_DEPTH);
+                throw new AssertionError("Malformed tree accepted: " + tree);
+            } catch (final IllegalArgumentException expected) {
+                // Expected
+            }
+        }
+    }
+
+    private static Map<String, Object> createState() {
+        final Map<String, Object> state = new LinkedHashMap<String, Object>();
+        state.put("stateVersion", 42L);
+        state.put("branches", Arrays.asList(createBranch("develop"), createBranch("release/1.0")));
+        return state;
+    }
+
+    private static Map<String, Object> createBranch(final String name) {
+        final Map<String, Object> branch = new LinkedHashMap<String, Object>();
+        branch.put("name", name);
+        branch.put("lastBuild", Collections.singletonMap("result", "SUCCESS"));
+        return branch;
+    }
+}
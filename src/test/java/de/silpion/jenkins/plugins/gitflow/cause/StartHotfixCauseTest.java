@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import org.junit.Before;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import hudson.model.Descriptor;
+import hudson.util.XStream2;
 
 @RunWith(PowerMockRunner.class)
 public class StartHotfixCauseTest extends AbstractGitflowPluginTest {
@@ -24,6 +26,7 @@ public class StartHotfixCauseTest extends AbstractGitflowPluginTest {
     public void setUp() throws Exception {
         super.setUp();
         when(this.gitflowBuildWrapperDescriptor.getBranchType("master")).thenReturn("master");
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
     }
 
     @Test
@@ -50,6 +53,17 @@ public class StartHotfixCauseTest extends AbstractGitflowPluginTest {
         assertEquals("2.9.100-SNAPSHOT", new StartHotfixCause(createRemoteBranch("2.9", "2.9.99")).getNextPatchDevelopmentVersion());
     }
 
+    @Test
+    public void testJobSpecificBranchNamingSurvivesSerialisation() throws Exception {
+        final BranchTypeClassifier jobClassifier = new BranchTypeClassifier("master", "develop", "release/", "bugfix-", "feature/");
+        final StartHotfixCause cause = new StartHotfixCause(createRemoteBranch("1.0", "1.0.1"), "1.0.2-SNAPSHOT", false, jobClassifier);
+
+        final XStream2 xStream = new XStream2();
+        final StartHotfixCause restoredCause = (StartHotfixCause) xStream.fromXML(xStream.toXML(cause));
+        assertEquals("bugfix-1.0", restoredCause.getHotfixBranch());
+        assertEquals(cause.getIdentity(), restoredCause.getIdentity());
+    }
+
     private static RemoteBranch createRemoteBranch(final String baseReleaseVersion, final String lastReleaseVersion) {
         final RemoteBranch remoteBranch = new RemoteBranch("master");
         remoteBranch.setBaseReleaseVersion(baseReleaseVersion);
@@ -5,6 +5,7 @@ import static org.mockito.Matchers.matches;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
 import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
 import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
 import org.junit.Before;
@@ -25,6 +26,7 @@ public class TestHotfixCauseTest extends AbstractGitflowPluginTest {
     public void setUp() throws Exception {
         super.setUp();
         when(this.gitflowBuildWrapperDescriptor.getBranchType(matches("hotfix/.*"))).thenReturn("hotfix");
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
     }
 
     @Test
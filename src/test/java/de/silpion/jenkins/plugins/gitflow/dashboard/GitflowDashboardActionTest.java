@@ -0,0 +1,60 @@
+package de.silpion.jenkins.plugins.gitflow.dashboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.silpion.jenkins.plugins.gitflow.data.BranchState;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+
+import hudson.model.Result;
+
+/**
+ * Unit tests for the {@link GitflowDashboardAction} class.
+ */
+public class GitflowDashboardActionTest {
+
+    private final BranchState release32 = createBranchState("backend", "release/3.2", "release", Result.UNSTABLE, "3.2.1-SNAPSHOT");
+    private final BranchState release310 = createBranchState("frontend", "release/3.10", "release", Result.SUCCESS, "3.10.0-SNAPSHOT");
+    private final BranchState develop = createBranchState("Backend-Tools", "develop", "develop", Result.SUCCESS, null);
+
+    @Test
+    public void testGetFilter() throws Exception {
+        final Predicate<BranchState> openRelease32 = GitflowDashboardAction.getFilter("", "release/3.2", "release", null);
+        assertTrue(openRelease32.apply(this.release32));
+        assertFalse(openRelease32.apply(this.release310));
+
+        // Job names and results are matched case-insensitively.
+        final Predicate<BranchState> backendJobs = GitflowDashboardAction.getFilter("backend", null, null, "success");
+        assertTrue(backendJobs.apply(this.develop));
+        assertFalse(backendJobs.apply(this.release32));
+    }
+
+    @Test
+    public void testGetComparator() throws Exception {
+        final List<BranchState> branchStates = new ArrayList<BranchState>(Arrays.asList(this.release310, this.develop, this.release32));
+
+        Collections.sort(branchStates, GitflowDashboardAction.getComparator(GitflowDashboardAction.SORT_JOB));
+        assertEquals(Arrays.asList(this.release32, this.develop, this.release310), branchStates);
+
+        // Versions are compared numerically and branches without version come first.
+        Collections.sort(branchStates, GitflowDashboardAction.getComparator(GitflowDashboardAction.SORT_VERSION));
+        assertEquals(Arrays.asList(this.develop, this.release32, this.release310), branchStates);
+    }
+
+    private static BranchState createBranchState(final String jobFullName, final String branchName, final String branchType, final Result result,
+                                                 final String lastBuildVersion) {
+        final RemoteBranch remoteBranch = new RemoteBranch(branchName);
+        remoteBranch.setLastBuildResult(result);
+        remoteBranch.setLastBuildVersion(lastBuildVersion);
+        return new BranchState(jobFullName, branchType, remoteBranch);
+    }
+}
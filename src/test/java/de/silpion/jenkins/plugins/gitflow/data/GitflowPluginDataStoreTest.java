@@ -0,0 +1,167 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.model.Job;
+import hudson.model.Result;
+
+/**
+ * Unit tests for the {@link GitflowPluginDataStore} class.
+ */
+public class GitflowPluginDataStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final GitflowPluginDataStore store = GitflowPluginDataStore.getInstance();
+
+    @Test
+    public void testInitialiseOnlyOnce() throws Exception {
+        final Object job = new Object();
+        assertNull(this.store.getLatest(job));
+
+        final GitflowPluginDataStore.Snapshot snapshot = this.store.initialise(job, Collections.singletonList(this.createRemoteBranch("develop", Result.SUCCESS)));
+        assertSame(snapshot, this.store.initialise(job, Collections.<RemoteBranch>emptyList()));
+        assertSame(snapshot, this.store.getLatest(job));
+        assertEquals(0L, snapshot.getVersion());
+        assertEquals(1, snapshot.getRemoteBranches().size());
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByModifiedBranches() throws Exception {
+        final Object job = new Object();
+        final RemoteBranch developBranch = this.createRemoteBranch("develop", Result.SUCCESS);
+        final GitflowPluginDataStore.Snapshot snapshot = this.store.initialise(job, Collections.singletonList(developBranch));
+
+        developBranch.setLastBuildResult(Result.FAILURE);
+        snapshot.getRemoteBranches().get(0).setLastBuildResult(Result.UNSTABLE);
+
+        assertEquals(Result.SUCCESS, snapshot.getRemoteBranches().get(0).getLastBuildResult());
+    }
+
+    @Test
+    public void testCommitMergesConcurrentChanges() throws Exception {
+        final Object job = new Object();
+        final GitflowPluginDataStore.Snapshot base = this.store.initialise(job, Arrays.asList(this.createRemoteBranch("develop", Result.SUCCESS),
+                                                                                              this.createRemoteBranch("release/1.0", Result.SUCCESS),
+                                                                                              this.createRemoteBranch("hotfix/0.9", Result.SUCCESS)));
+
+        // The first build changes the develop branch and adds a release branch.
+        final List<RemoteBranch> firstBuildBranches = base.getRemoteBranches();
+        this.getRemoteBranch(firstBuildBranches, "develop").setLastBuildResult(Result.UNSTABLE);
+        firstBuildBranches.add(this.createRemoteBranch("release/1.1", Result.SUCCESS));
+
+        // The second build started from the same state, removes the hotfix branch and changes the release branch.
+        final List<RemoteBranch> secondBuildBranches = base.getRemoteBranches();
+        secondBuildBranches.remove(this.getRemoteBranch(secondBuildBranches, "hotfix/0.9"));
+        this.getRemoteBranch(secondBuildBranches, "release/1.0").setLastBuildVersion("1.0.1-SNAPSHOT");
+
+        this.store.commit(job, base, firstBuildBranches);
+        final GitflowPluginDataStore.Snapshot merged = this.store.commit(job, base, secondBuildBranches);
+
+        // The changes of both builds must be contained in the merged state.
+        assertEquals(2L, merged.getVersion());
+        final List<RemoteBranch> mergedBranches = merged.getRemoteBranches();
+        assertEquals(3, mergedBranches.size());
+        assertEquals(Result.UNSTABLE, this.getRemoteBranch(mergedBranches, "develop").getLastBuildResult());
+        assertEquals("1.0.1-SNAPSHOT", this.getRemoteBranch(mergedBranches, "release/1.0").getLastBuildVersion());
+        assertEquals(Result.SUCCESS, this.getRemoteBranch(mergedBranches, "release/1.1").getLastBuildResult());
+        assertNull(this.getRemoteBranch(mergedBranches, "hotfix/0.9"));
+    }
+
+    @Test
+    public void testCommitFromConcurrentThreads() throws Exception {
+        final Object job = new Object();
+        final GitflowPluginDataStore.Snapshot base = this.store.initialise(job, Collections.<RemoteBranch>emptyList());
+
+        final int numberOfBuilds = 16;
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfBuilds);
+        try {
+            final Future<?>[] futures = new Future<?>[numberOfBuilds];
+            for (int i = 0; i < numberOfBuilds; i++) {
+                final String branchName = "feature/" + i;
+                futures[i] = executor.submit(new Callable<Void>() {
+
+                    /** {@inheritDoc} */
+                    public Void call() throws Exception {
+                        final List<RemoteBranch> remoteBranches = base.getRemoteBranches();
+                        remoteBranches.add(GitflowPluginDataStoreTest.this.createRemoteBranch(branchName, Result.SUCCESS));
+                        startSignal.await();
+                        GitflowPluginDataStoreTest.this.store.commit(job, base, remoteBranches);
+                        return null;
+                    }
+                });
+            }
+            startSignal.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final GitflowPluginDataStore.Snapshot latest = this.store.getLatest(job);
+        assertEquals(numberOfBuilds, latest.getVersion());
+        assertEquals(numberOfBuilds, latest.getRemoteBranches().size());
+    }
+
+    @Test
+    public void testLastCommittedStateIsPersisted() throws Exception {
+        final Job<?, ?> job = mock(Job.class);
+        when(job.getRootDir()).thenReturn(this.folder.newFolder("job"));
+
+        final GitflowPluginDataStore firstStore = new GitflowPluginDataStore();
+        assertNull(firstStore.getLatest(job));
+        final GitflowPluginDataStore.Snapshot base = firstStore.initialise(job, Collections.singletonList(this.createRemoteBranch("develop", Result.SUCCESS)));
+
+        // The build with the higher number commits first, the one with the lower number last.
+        final List<RemoteBranch> secondBuildBranches = base.getRemoteBranches();
+        secondBuildBranches.add(this.createRemoteBranch("release/1.0", Result.SUCCESS));
+        firstStore.commit(job, base, secondBuildBranches);
+
+        final List<RemoteBranch> firstBuildBranches = base.getRemoteBranches();
+        this.getRemoteBranch(firstBuildBranches, "develop").setLastBuildResult(Result.FAILURE);
+        firstStore.commit(job, base, firstBuildBranches);
+
+        // After a restart, the state of the build that committed last is continued.
+        final GitflowPluginDataStore.Snapshot latest = new GitflowPluginDataStore().getLatest(job);
+        assertEquals(2L, latest.getVersion());
+        final List<RemoteBranch> latestBranches = latest.getRemoteBranches();
+        assertEquals(2, latestBranches.size());
+        assertEquals(Result.FAILURE, this.getRemoteBranch(latestBranches, "develop").getLastBuildResult());
+        assertEquals(Result.SUCCESS, this.getRemoteBranch(latestBranches, "release/1.0").getLastBuildResult());
+    }
+
+    private RemoteBranch createRemoteBranch(final String branchName, final Result lastBuildResult) {
+        final RemoteBranch remoteBranch = new RemoteBranch(branchName);
+        remoteBranch.setLastBuildResult(lastBuildResult);
+        return remoteBranch;
+    }
+
+    private RemoteBranch getRemoteBranch(final List<RemoteBranch> remoteBranches, final String branchName) {
+        for (final RemoteBranch remoteBranch : remoteBranches) {
+            if (remoteBranch.getBranchName().equals(branchName)) {
+                return remoteBranch;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import hudson.model.Result;
+
+/**
+ * Unit tests for the {@link GitflowStateIndex} class.
+ */
+public class GitflowStateIndexTest {
+
+    private static final Comparator<BranchState> ORDER_BY_JOB_AND_BRANCH = new Comparator<BranchState>() {
+        public int compare(final BranchState branchState1, final BranchState branchState2) {
+            final int result = branchState1.getJobFullName().compareTo(branchState2.getJobFullName());
+            return result == 0 ? branchState1.getBranchName().compareTo(branchState2.getBranchName()) : result;
+        }
+    };
+
+    private final BranchTypeClassifier branchTypeClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+    private final GitflowStateIndex index = new GitflowStateIndex();
+
+    @Test
+    public void testUpdateReplacesStateOfJob() throws Exception {
+        final long initialVersion = this.index.getVersion();
+        this.index.update("job", Arrays.asList(createRemoteBranch("develop", Result.SUCCESS), createRemoteBranch("release/1.0", Result.SUCCESS)),
+                          this.branchTypeClassifier);
+        this.index.update("job", Collections.singletonList(createRemoteBranch("develop", Result.UNSTABLE)), this.branchTypeClassifier);
+
+        final List<BranchState> branchStates = this.index.getBranchStates("job");
+        assertEquals(1, branchStates.size());
+        assertEquals("develop", branchStates.get(0).getBranchType());
+        assertEquals("UNSTABLE", branchStates.get(0).getLastBuildResult());
+        assertEquals(initialVersion + 2, this.index.getVersion());
+    }
+
+    @Test
+    public void testGetBranchStatesFiltersSortsAndPages() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            this.index.update("job" + i, Arrays.asList(createRemoteBranch("develop", Result.SUCCESS), createRemoteBranch("release/3.2", Result.SUCCESS)),
+                              this.branchTypeClassifier);
+        }
+        final Predicate<BranchState> releaseBranches = new Predicate<BranchState>() {
+            public boolean apply(final BranchState branchState) {
+                return "release".equals(branchState.getBranchType());
+            }
+        };
+
+        final GitflowStateIndex.Page firstPage = this.index.getBranchStates(releaseBranches, ORDER_BY_JOB_AND_BRANCH, 0, 2);
+        assertEquals(5, firstPage.getTotal());
+        assertEquals(Arrays.asList("job0", "job1"), getJobFullNames(firstPage));
+
+        final GitflowStateIndex.Page lastPage = this.index.getBranchStates(releaseBranches, ORDER_BY_JOB_AND_BRANCH, 4, 2);
+        assertEquals(Collections.singletonList("job4"), getJobFullNames(lastPage));
+
+        // Pages beyond the matching branch states are empty.
+        assertTrue(this.index.getBranchStates(releaseBranches, ORDER_BY_JOB_AND_BRANCH, 10, 2).getBranchStates().isEmpty());
+    }
+
+    @Test
+    public void testRenameAndRemove() throws Exception {
+        this.index.update("old", Collections.singletonList(createRemoteBranch("develop", Result.SUCCESS)), this.branchTypeClassifier);
+
+        this.index.rename("old", "new");
+        assertTrue(this.index.getBranchStates("old").isEmpty());
+        assertEquals("new", this.index.getBranchStates("new").get(0).getJobFullName());
+
+        this.index.remove("new");
+        assertEquals(0, this.index.getBranchStates(Predicates.<BranchState>alwaysTrue(), ORDER_BY_JOB_AND_BRANCH, 0, 10).getTotal());
+    }
+
+    @Test
+    public void testReclassify() throws Exception {
+        this.index.update("job", Arrays.asList(createRemoteBranch("main", Result.SUCCESS), createRemoteBranch("release/1.0", Result.SUCCESS)),
+                          this.branchTypeClassifier);
+        final long updatedVersion = this.index.getVersion("job");
+        assertEquals("unknown", this.index.getBranchStates("job").get(0).getBranchType());
+
+        this.index.reclassify("job", this.branchTypeClassifier.withOverrides("main", null, null, null, null));
+        final List<BranchState> branchStates = this.index.getBranchStates("job");
+        assertEquals("master", branchStates.get(0).getBranchType());
+        assertEquals("SUCCESS", branchStates.get(0).getLastBuildResult());
+        assertEquals("release", branchStates.get(1).getBranchType());
+        assertTrue(this.index.getVersion("job") > updatedVersion);
+
+        // Only the reclassified branch is reported as changed.
+        final StateDelta delta = this.index.getDelta("job", updatedVersion);
+        assertEquals(1, delta.getChangedBranchStates().size());
+        assertEquals("main", delta.getChangedBranchStates().get(0).getBranchName());
+    }
+
+    @Test
+    public void testJobVersionsIncrease() throws Exception {
+        assertEquals(0L, this.index.getVersion("job"));
+
+        this.index.update("job", Collections.singletonList(createRemoteBranch("develop", Result.SUCCESS)), this.branchTypeClassifier);
+        final long updatedVersion = this.index.getVersion("job");
+        assertTrue(updatedVersion > 0L);
+
+        // Changes of other jobs don't affect the version, a configuration change does.
+        this.index.update("other", Collections.singletonList(createRemoteBranch("develop", Result.SUCCESS)), this.branchTypeClassifier);
+        assertEquals(updatedVersion, this.index.getVersion("job"));
+        this.index.touch("job");
+        assertTrue(this.index.getVersion("job") > updatedVersion);
+
+        this.index.remove("job");
+        assertEquals(0L, this.index.getVersion("job"));
+    }
+
+    @Test
+    public void testGetDelta() throws Exception {
+        this.index.update("job", Arrays.asList(createRemoteBranch("develop", Result.SUCCESS), createRemoteBranch("release/1.0", Result.SUCCESS)),
+                          this.branchTypeClassifier);
+        final long knownVersion = this.index.getVersion("job");
+        assertTrue(this.index.getDelta("job", knownVersion).isEmpty());
+
+        // Only the changed and the removed branches are reported.
+        this.index.update("job", Arrays.asList(createRemoteBranch("develop", Result.FAILURE), createRemoteBranch("hotfix/0.9", Result.SUCCESS)),
+                          this.branchTypeClassifier);
+        final StateDelta delta = this.index.getDelta("job", knownVersion);
+        assertEquals(this.index.getVersion("job"), delta.getStateVersion());
+        assertEquals(2, delta.getChangedBranchStates().size());
+        assertEquals("develop", delta.getChangedBranchStates().get(0).getBranchName());
+        assertEquals("hotfix/0.9", delta.getChangedBranchStates().get(1).getBranchName());
+        assertEquals(Collections.singletonList("release/1.0"), delta.getRemovedBranchNames());
+
+        // Unknown versions result in the complete state.
+        final StateDelta completeDelta = this.index.getDelta("job", 1L);
+        assertTrue(completeDelta.isComplete());
+        assertEquals(2, completeDelta.getChangedBranchStates().size());
+    }
+
+    @Test
+    public void testBackfillKeepsIndexedState() throws Exception {
+        this.index.backfill("job", Collections.singletonList(createRemoteBranch("develop", Result.SUCCESS)), this.branchTypeClassifier);
+        assertEquals("SUCCESS", this.index.getBranchStates("job").get(0).getLastBuildResult());
+        final long backfilledVersion = this.index.getVersion("job");
+        assertTrue(backfilledVersion > 0L);
+
+        // The recorded branches of the last build don't replace the state indexed by a newer build.
+        this.index.update("other", Collections.singletonList(createRemoteBranch("develop", Result.FAILURE)), this.branchTypeClassifier);
+        this.index.backfill("other", Collections.singletonList(createRemoteBranch("develop", Result.SUCCESS)), this.branchTypeClassifier);
+        this.index.backfill("job", Collections.singletonList(createRemoteBranch("develop", Result.UNSTABLE)), this.branchTypeClassifier);
+        assertEquals("FAILURE", this.index.getBranchStates("other").get(0).getLastBuildResult());
+        assertEquals("SUCCESS", this.index.getBranchStates("job").get(0).getLastBuildResult());
+        assertEquals(backfilledVersion, this.index.getVersion("job"));
+    }
+
+    @Test
+    public void testAwaitChange() throws Exception {
+        final long knownVersion = this.index.getVersion("job");
+        assertEquals(knownVersion, this.index.awaitChange("job", knownVersion, 10L));
+
+        final Thread updater = new Thread() {
+            @Override
+            public void run() {
+                GitflowStateIndexTest.this.index.touch("job");
+            }
+        };
+        updater.start();
+        assertTrue(this.index.awaitChange("job", knownVersion, 10000L) > knownVersion);
+        updater.join();
+    }
+
+    @Test
+    public void testAwaitChangeIgnoresOtherJobs() throws Exception {
+        final long knownVersion = this.index.getVersion("job");
+        this.index.touch("other");
+
+        // Changes of other jobs don't end the wait for the job.
+        assertEquals(knownVersion, this.index.awaitChange("job", knownVersion, 50L));
+        this.index.touch("job");
+        assertTrue(this.index.awaitChange("job", knownVersion, 10000L) > knownVersion);
+    }
+
+    private static RemoteBranch createRemoteBranch(final String branchName, final Result lastBuildResult) {
+        final RemoteBranch remoteBranch = new RemoteBranch(branchName);
+        remoteBranch.setLastBuildResult(lastBuildResult);
+        remoteBranch.setLastBuildVersion("3.2-SNAPSHOT");
+        return remoteBranch;
+    }
+
+    private static List<String> getJobFullNames(final GitflowStateIndex.Page page) {
+        final List<String> jobFullNames = new ArrayList<String>();
+        for (final BranchState branchState : page.getBranchStates()) {
+            jobFullNames.add(branchState.getJobFullName());
+        }
+        return jobFullNames;
+    }
+}
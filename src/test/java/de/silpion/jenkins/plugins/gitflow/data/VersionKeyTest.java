@@ -0,0 +1,62 @@
+package de.silpion.jenkins.plugins.gitflow.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link VersionKey} class.
+ */
+public class VersionKeyTest {
+
+    @Test
+    public void testParse() throws Exception {
+        this.assertParsed("1.2", new int[] { 1, 2 }, null);
+        this.assertParsed("1.10.3", new int[] { 1, 10, 3 }, null);
+        this.assertParsed("2.0-RC1", new int[] { 2, 0 }, "RC1");
+        this.assertParsed("2.0.beta", new int[] { 2, 0 }, "beta");
+        this.assertParsed("1.0-SNAPSHOT", new int[] { 1, 0 }, "SNAPSHOT");
+        this.assertParsed("next", new int[0], "next");
+    }
+
+    @Test
+    public void testCompareTo() throws Exception {
+        final List<VersionKey> versionKeys = new ArrayList<VersionKey>();
+        for (final String version : Arrays.asList("2.0", "1.10", "2.0-RC2", "1.2", "1.0.0", "2.0-rc1", "1.0", "10.0")) {
+            versionKeys.add(VersionKey.parse(version));
+        }
+        Collections.sort(versionKeys);
+        assertEquals("[1.0, 1.0.0, 1.2, 1.10, 2.0-rc1, 2.0-RC2, 2.0, 10.0]", versionKeys.toString());
+    }
+
+    @Test
+    public void testCompareToIsConsistentWithEquals() throws Exception {
+        final VersionKey versionKey1 = VersionKey.parse("1.01");
+        final VersionKey versionKey2 = VersionKey.parse("1.1");
+        assertNotEquals(versionKey1, versionKey2);
+        assertTrue(versionKey1.compareTo(versionKey2) != 0);
+        assertEquals(0, VersionKey.parse("1.1").compareTo(versionKey2));
+        assertEquals(VersionKey.parse("1.1"), versionKey2);
+        assertEquals(VersionKey.parse("1.1").hashCode(), versionKey2.hashCode());
+    }
+
+    private void assertParsed(final String version, final int[] expectedNumbers, final String expectedQualifier) {
+        final VersionKey versionKey = VersionKey.parse(version);
+        assertEquals(version, versionKey.getVersion());
+        assertArrayEquals(expectedNumbers, versionKey.getNumbers());
+        if (expectedQualifier == null) {
+            assertNull(versionKey.getQualifier());
+        } else {
+            assertEquals(expectedQualifier, versionKey.getQualifier());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.silpion.jenkins.plugins.gitflow.it;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.CollectingAlertHandler;
+import com.gargoylesoftware.htmlunit.html.HtmlAnchor;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import de.silpion.jenkins.plugins.gitflow.it.action.AbstractGitflowActionIT;
+import hudson.model.Result;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Integration tests for the Gitflow page of a job.
+ */
+public class GitflowPageIT extends AbstractGitflowActionIT {
+
+    @Test
+    public void testBranchNamesWithQuotesAreNotExecuted() throws Exception {
+
+        // Anybody who can push to the repository chooses the branch names - and thus the versions shown on the page.
+        final RemoteBranch releaseBranch = createRemoteBranch("release/1');alert('release", "1.0.1-SNAPSHOT");
+        final RemoteBranch hotfixBranch = createRemoteBranch("hotfix/1.0');alert('hotfix", "1.0.1-SNAPSHOT");
+        hotfixBranch.setBaseReleaseVersion("1.0");
+        hotfixBranch.setLastReleaseVersion("1.0");
+        GitflowPluginDataStore.getInstance().initialise(this.mavenProject, Arrays.asList(releaseBranch, hotfixBranch));
+
+        final JenkinsRule.WebClient webClient = this.jenkinsRule.createWebClient();
+        final List<String> alerts = new ArrayList<String>();
+        webClient.setAlertHandler(new CollectingAlertHandler(alerts));
+        final HtmlPage page = webClient.getPage(this.mavenProject, "gitflow");
+
+        final List<String> versions = new ArrayList<String>();
+        for (final HtmlAnchor anchor : page.getAnchors()) {
+            if (anchor.hasAttribute("data-version")) {
+                versions.add(anchor.getAttribute("data-version"));
+                anchor.click();
+            }
+        }
+        assertEquals(Arrays.asList("1');alert('release", "1.0');alert('hotfix"), versions);
+        assertTrue("Script from a branch name has been executed: " + alerts, alerts.isEmpty());
+    }
+
+    private static RemoteBranch createRemoteBranch(final String branchName, final String lastBuildVersion) {
+        final RemoteBranch remoteBranch = new RemoteBranch(branchName);
+        remoteBranch.setLastBuildResult(Result.SUCCESS);
+        remoteBranch.setLastBuildVersion(lastBuildVersion);
+        return remoteBranch;
+    }
+}
@@ -0,0 +1,141 @@
+package de.silpion.jenkins.plugins.gitflow.it;
+
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.ReleaseBranchCauseGroup;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginData;
+import de.silpion.jenkins.plugins.gitflow.it.action.AbstractGitflowActionIT;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
+import hudson.maven.MavenModuleSetBuild;
+import hudson.model.Result;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * End-to-end throughput benchmark for the <i>Jenkins Gitflow Plugin</i>: runs complete release cycles - <i>Start
+ * Release</i>, <i>Test Release</i>, <i>Publish Release</i> and <i>Finish Release</i> - one after the other on a local
+ * bare remote repository with a multi-module Maven project and reports the latency of each action and the number of
+ * release cycles per hour. Unlike the action ITs, it measures the combined effect of changes to all parts of the
+ * plugin (and of the Git and Maven setup of the machine).
+ * <p>
+ * The actions are scheduled with the causes and queue actions that the Gitflow page would create for the default
+ * versions, so the latency of an action covers the queue, the checkout, the Gitflow actions and the Maven builds, but
+ * not the rendering of the Gitflow page.
+ * <p>
+ * The benchmark only runs when the number of cycles is given, e.g.
+ * {@code mvn verify -DJENKINS_HOME=... -Dit.test=ReleaseCycleThroughputIT -Dgitflow.benchmark.cycles=20}.
+ */
+public class ReleaseCycleThroughputIT extends AbstractGitflowActionIT {
+
+    private static final String CYCLES_PROPERTY = "gitflow.benchmark.cycles";
+
+    private static final String START_RELEASE = "Start Release";
+    private static final String TEST_RELEASE = "Test Release";
+    private static final String PUBLISH_RELEASE = "Publish Release";
+    private static final String FINISH_RELEASE = "Finish Release";
+
+    private final Map<String, List<Long>> latenciesByAction = new LinkedHashMap<String, List<Long>>();
+
+    @Test
+    public void testReleaseCycleThroughput() throws Exception {
+        final String cyclesValue = System.getProperty(CYCLES_PROPERTY);
+        assumeTrue(cyclesValue != null);
+        final int cycles = Integer.parseInt(cyclesValue);
+
+        final File gitRepo = this.folder.newFolder("testrepo.git");
+        this.setUpGitRepo("testrepo.git_initial.zip", gitRepo);
+
+        // Make a build before, so that the develop branch is recorded - like the Gitflow page requires.
+        this.mavenProject.scheduleBuild2(0).get();
+        assertThat("TestBuild failed", this.mavenProject.getLastBuild().getResult(), is(Result.SUCCESS));
+        final GitflowPluginData data = this.mavenProject.getLastBuild().getAction(GitflowPluginData.class);
+        addRemoteBranch(data, "develop", Result.SUCCESS, "1.0-SNAPSHOT", null, null);
+        this.mavenProject.scheduleBuild2(0).get();
+        assertThat("TestBuild failed", this.mavenProject.getLastBuild().getResult(), is(Result.SUCCESS));
+
+        final long startNanos = System.nanoTime();
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            this.runReleaseCycle();
+        }
+        final long totalNanos = System.nanoTime() - startNanos;
+
+        System.out.println(this.createReport(cycles, totalNanos));
+    }
+
+    private void runReleaseCycle() throws Exception {
+        final StartReleaseCause startReleaseCause = new GitflowProjectModel(this.mavenProject).getStartReleaseCause();
+        assertThat("develop branch not recorded", startReleaseCause, is(notNullValue()));
+        final String releaseVersion = startReleaseCause.getReleaseVersion();
+        this.runAction(START_RELEASE, startReleaseCause);
+
+        this.runAction(TEST_RELEASE, this.getReleaseBranchCauseGroup(releaseVersion).getTestReleaseCause());
+        this.runAction(PUBLISH_RELEASE, this.getReleaseBranchCauseGroup(releaseVersion).getPublishReleaseCause());
+        this.runAction(FINISH_RELEASE, this.getReleaseBranchCauseGroup(releaseVersion).getFinishReleaseCause());
+    }
+
+    private ReleaseBranchCauseGroup getReleaseBranchCauseGroup(final String releaseVersion) {
+        final ReleaseBranchCauseGroup releaseBranchCauseGroup = new GitflowProjectModel(this.mavenProject).getReleaseBranchCauseGroup(releaseVersion);
+        assertThat("release branch for " + releaseVersion + " not recorded", releaseBranchCauseGroup, is(notNullValue()));
+        return releaseBranchCauseGroup;
+    }
+
+    private void runAction(final String actionName, final AbstractGitflowCause gitflowCause) throws Exception {
+        final GitflowQueueAction gitflowQueueAction = GitflowQueueAction.forSubmission(this.mavenProject, gitflowCause,
+                                                                                      GitflowBuildWrapper.getBranchTypeClassifier(this.mavenProject));
+
+        final long startNanos = System.nanoTime();
+        final MavenModuleSetBuild build = this.mavenProject.scheduleBuild2(0, gitflowCause, gitflowQueueAction).get();
+        final long latencyNanos = System.nanoTime() - startNanos;
+
+        if (build.getResult() != Result.SUCCESS) {
+            build.getLogText().writeLogTo(0, System.out);
+        }
+        assertThat(actionName + " failed", build.getResult(), is(Result.SUCCESS));
+
+        List<Long> latencies = this.latenciesByAction.get(actionName);
+        if (latencies == null) {
+            latencies = new ArrayList<Long>();
+            this.latenciesByAction.put(actionName, latencies);
+        }
+        latencies.add(latencyNanos);
+    }
+
+    private String createReport(final int cycles, final long totalNanos) {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ENGLISH, "%nRelease cycle throughput (%d cycles)%n", cycles));
+        report.append(String.format(Locale.ENGLISH, "%-16s %10s %10s %10s%n", "Action", "p50 [ms]", "p95 [ms]", "max [ms]"));
+        for (final Map.Entry<String, List<Long>> entry : this.latenciesByAction.entrySet()) {
+            final List<Long> latencies = new ArrayList<Long>(entry.getValue());
+            Collections.sort(latencies);
+            report.append(String.format(Locale.ENGLISH, "%-16s %10d %10d %10d%n", entry.getKey(), toMillis(getPercentile(latencies, 50)),
+                                        toMillis(getPercentile(latencies, 95)), toMillis(latencies.get(latencies.size() - 1))));
+        }
+        report.append(String.format(Locale.ENGLISH, "Cycles per hour: %.1f%n", cycles * (double) TimeUnit.HOURS.toNanos(1L) / totalNanos));
+        return report.toString();
+    }
+
+    // Nearest-rank percentile of the sorted values.
+    private static long getPercentile(final List<Long> sortedValues, final int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.size());
+        return sortedValues.get(Math.max(0, rank - 1));
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,187 @@
+package de.silpion.jenkins.plugins.gitflow.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.model.Job;
+
+/**
+ * Unit tests for the {@link GitflowEventJournal} and the {@link GitflowEventReader}.
+ */
+public class GitflowEventJournalTest {
+
+    private static final String RELEASE_REFSPEC = "refs/heads/release/1.2:refs/heads/release/1.2";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = this.folder.newFolder("job");
+    }
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        final GitflowEventJournal journal = new GitflowEventJournal(this.directory, 1024L * 1024L, 2);
+        assertEquals(0L, journal.getLastSequence());
+
+        final GitflowEvent journaledEvent = journal.append(new GitflowEvent(17, "Start Release", GitflowEvent.PHASE_PUSH, Collections.singletonList(RELEASE_REFSPEC),
+                                                                           "1.2", 830L, "SUCCESS"));
+        journal.append(new GitflowEvent(17, "Start Release", GitflowEvent.PHASE_AFTER_MAIN_BUILD, Collections.<String>emptyList(), null, 1200L, "UNSTABLE"));
+        assertEquals(1L, journaledEvent.getSequence());
+        assertEquals(2L, journal.getLastSequence());
+
+        final List<GitflowEvent> events = readAll(journal, 0L);
+        assertEquals(2, events.size());
+
+        final GitflowEvent push = events.get(0);
+        assertEquals(1L, push.getSequence());
+        assertEquals(journaledEvent.getTimeMillis(), push.getTimeMillis());
+        assertEquals(17, push.getBuild());
+        assertEquals("Start Release", push.getAction());
+        assertEquals(GitflowEvent.PHASE_PUSH, push.getPhase());
+        assertEquals(Collections.singletonList(RELEASE_REFSPEC), push.getRefs());
+        assertEquals("1.2", push.getVersion());
+        assertEquals(830L, push.getDurationMillis());
+        assertEquals("SUCCESS", push.getResult());
+
+        final GitflowEvent afterMainBuild = events.get(1);
+        assertEquals(2L, afterMainBuild.getSequence());
+        assertTrue(afterMainBuild.getRefs().isEmpty());
+        assertNull(afterMainBuild.getVersion());
+        assertEquals("UNSTABLE", afterMainBuild.getResult());
+    }
+
+    @Test
+    public void testForJobFollowsRenamedJob() throws Exception {
+        final Job<?, ?> job = mock(Job.class);
+        when(job.getRootDir()).thenReturn(this.directory);
+        final GitflowEventJournal journal = GitflowEventJournal.forJob(job);
+        assertSame(journal, GitflowEventJournal.forJob(job));
+        journal.append(new GitflowEvent(1, "Start Release", GitflowEvent.PHASE_PUSH, Collections.<String>emptyList(), "1.0", 10L, "SUCCESS"));
+
+        // After the job has been renamed, its events are appended in its new directory.
+        final File renamedDirectory = new File(this.folder.getRoot(), "renamed");
+        assertTrue(this.directory.renameTo(renamedDirectory));
+        when(job.getRootDir()).thenReturn(renamedDirectory);
+        final GitflowEventJournal renamedJournal = GitflowEventJournal.forJob(job);
+        assertNotSame(journal, renamedJournal);
+        assertEquals(1L, renamedJournal.getLastSequence());
+    }
+
+    @Test
+    public void testReadAfterSequence() throws Exception {
+        final GitflowEventJournal journal = new GitflowEventJournal(this.directory, 1024L * 1024L, 2);
+        appendEvents(journal, 5);
+
+        assertEquals(Arrays.asList(4L, 5L), getSequences(readAll(journal, 3L)));
+        assertTrue(readAll(journal, 5L).isEmpty());
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        final GitflowEventJournal journal = new GitflowEventJournal(this.directory, 600L, 2);
+        appendEvents(journal, 20);
+
+        // Only the current and the two rotated files are kept, and none of them exceeds the maximum size.
+        final File currentFile = new File(this.directory, GitflowEventJournal.FILE_NAME);
+        assertTrue(currentFile.length() <= 600L);
+        assertTrue(new File(this.directory, "gitflow-events.1.jsonl").length() <= 600L);
+        assertTrue(new File(this.directory, "gitflow-events.2.jsonl").isFile());
+        assertTrue(!new File(this.directory, "gitflow-events.3.jsonl").exists());
+
+        // The sequence numbers continue across the rotations, the oldest events are gone.
+        final List<Long> sequences = getSequences(readAll(journal, 0L));
+        assertEquals(Long.valueOf(20L), sequences.get(sequences.size() - 1));
+        assertTrue(sequences.get(0) > 1L);
+        for (int i = 1; i < sequences.size(); i++) {
+            assertEquals(sequences.get(i - 1) + 1L, sequences.get(i).longValue());
+        }
+
+        // Incremental reads start in the rotated file that contains the next event.
+        assertEquals(Arrays.asList(19L, 20L), getSequences(readAll(journal, 18L)));
+        assertEquals(sequences.subList(1, sequences.size()), getSequences(readAll(journal, sequences.get(0))));
+    }
+
+    @Test
+    public void testSequenceContinuesAfterReopening() throws Exception {
+        appendEvents(new GitflowEventJournal(this.directory, 600L, 2), 12);
+
+        final GitflowEventJournal reopenedJournal = new GitflowEventJournal(this.directory, 600L, 2);
+        assertEquals(12L, reopenedJournal.getLastSequence());
+        assertEquals(13L, reopenedJournal.append(new GitflowEvent(2, "Test Release", GitflowEvent.PHASE_MAIN_BUILD, Collections.<String>emptyList(), "1.2", 1L,
+                                                                  "SUCCESS")).getSequence());
+    }
+
+    @Test
+    public void testReaderSkipsIncompleteLines() throws Exception {
+        final GitflowEventJournal journal = new GitflowEventJournal(this.directory, 1024L * 1024L, 2);
+        appendEvents(journal, 1);
+
+        // A line that is still being written by another process.
+        final OutputStream outputStream = new FileOutputStream(new File(this.directory, GitflowEventJournal.FILE_NAME), true);
+        try {
+            outputStream.write("{\"seq\":2,\"time\":15000".getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+
+        assertEquals(Collections.singletonList(1L), getSequences(readAll(journal, 0L)));
+    }
+
+    @Test
+    public void testParseSequence() throws Exception {
+        assertEquals(4711L, GitflowEvent.parseSequence("{\"seq\":4711,\"time\":1500000000000}"));
+        assertEquals(-1L, GitflowEvent.parseSequence("{\"time\":1500000000000,\"seq\":4711}"));
+        assertEquals(-1L, GitflowEvent.parseSequence("{\"seq\":"));
+    }
+
+    private static void appendEvents(final GitflowEventJournal journal, final int count) {
+        for (int i = 0; i < count; i++) {
+            journal.append(new GitflowEvent(i + 1, "Start Release", GitflowEvent.PHASE_PUSH, Collections.singletonList(RELEASE_REFSPEC), "1.2", 100L + i,
+                                            "SUCCESS"));
+        }
+    }
+
+    private static List<GitflowEvent> readAll(final GitflowEventJournal journal, final long afterSequence) throws IOException {
+        final List<GitflowEvent> events = new ArrayList<GitflowEvent>();
+        final GitflowEventReader reader = journal.read(afterSequence);
+        try {
+            for (GitflowEvent event = reader.next(); event != null; event = reader.next()) {
+                events.add(event);
+            }
+        } finally {
+            reader.close();
+        }
+        return events;
+    }
+
+    private static List<Long> getSequences(final List<GitflowEvent> events) {
+        final List<Long> sequences = new ArrayList<Long>(events.size());
+        for (final GitflowEvent event : events) {
+            sequences.add(event.getSequence());
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,82 @@
+package de.silpion.jenkins.plugins.gitflow.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowStateIndex;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import hudson.model.Result;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * Unit tests for the {@link GitflowMetrics} class.
+ */
+public class GitflowMetricsTest {
+
+    private static final String JOB_FULL_NAME = GitflowMetricsTest.class.getName();
+
+    private final GitflowMetrics metrics = new GitflowMetrics(GitflowStateIndex.getInstance());
+
+    @After
+    public void tearDown() throws Exception {
+        GitflowStateIndex.getInstance().remove(JOB_FULL_NAME);
+    }
+
+    @Test
+    public void testWriteHistogram() throws Exception {
+        this.metrics.recordGitOperation("fetch", GitflowMetrics.IMPLEMENTATION_JGIT, 20000000L);
+        this.metrics.recordGitOperation("fetch", GitflowMetrics.IMPLEMENTATION_JGIT, 2000000000L);
+        this.metrics.recordGitOperation("fetch", GitflowMetrics.IMPLEMENTATION_JGIT, 5000000000000L);
+
+        final String text = this.write();
+        assertTrue(text.contains("# TYPE gitflow_git_operation_duration_seconds histogram\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_bucket{operation=\"fetch\",implementation=\"jgit\",le=\"0.01\"} 0\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_bucket{operation=\"fetch\",implementation=\"jgit\",le=\"0.025\"} 1\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_bucket{operation=\"fetch\",implementation=\"jgit\",le=\"2.5\"} 2\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_bucket{operation=\"fetch\",implementation=\"jgit\",le=\"3600\"} 2\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_bucket{operation=\"fetch\",implementation=\"jgit\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_count{operation=\"fetch\",implementation=\"jgit\"} 3\n"));
+        assertTrue(text.contains("gitflow_git_operation_duration_seconds_sum{operation=\"fetch\",implementation=\"jgit\"} 5002.02\n"));
+    }
+
+    @Test
+    public void testWriteCountersAndGauge() throws Exception {
+        this.metrics.recordBuild("Start Release", Result.SUCCESS, 1500L);
+        this.metrics.recordBuild("Start Release", Result.SUCCESS, 2500L);
+        this.metrics.recordCacheRequest("projectState", true);
+        this.metrics.recordCacheRequest("projectState", false);
+        this.metrics.recordCacheRequest("projectState", true);
+
+        final RemoteBranch developBranch = new RemoteBranch("develop");
+        developBranch.setLastBuildResult(Result.UNSTABLE);
+        final RemoteBranch releaseBranch = new RemoteBranch("release/1.0");
+        releaseBranch.setLastBuildResult(Result.SUCCESS);
+        GitflowStateIndex.getInstance().update(JOB_FULL_NAME, Arrays.asList(developBranch, releaseBranch),
+                                               new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
+
+        final String text = this.write();
+        assertTrue(text.contains("gitflow_builds_total{action=\"Start Release\",result=\"SUCCESS\"} 2\n"));
+        assertTrue(text.contains("gitflow_build_duration_seconds_sum{action=\"Start Release\"} 4\n"));
+        assertTrue(text.contains("gitflow_cache_requests_total{cache=\"projectState\",result=\"hit\"} 2\n"));
+        assertTrue(text.contains("gitflow_cache_requests_total{cache=\"projectState\",result=\"miss\"} 1\n"));
+        assertTrue(text.contains("# TYPE gitflow_unstable_branches gauge\n"));
+        assertTrue(text.contains("gitflow_unstable_branches{result=\"UNSTABLE\"} 1\n"));
+        assertTrue(text.contains("gitflow_unstable_branches{result=\"FAILURE\"} 0\n"));
+    }
+
+    @Test
+    public void testEscapeLabelValue() throws Exception {
+        assertEquals("a\\\\b\\\"c\\nd", GitflowMetrics.escapeLabelValue("a\\b\"c\nd"));
+    }
+
+    private String write() throws Exception {
+        final StringWriter writer = new StringWriter();
+        this.metrics.write(writer);
+        return writer.toString();
+    }
+}
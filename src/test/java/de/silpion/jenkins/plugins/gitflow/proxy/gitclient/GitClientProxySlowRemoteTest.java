@@ -0,0 +1,305 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.whenNew;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.GitflowProjectModel;
+import de.silpion.jenkins.plugins.gitflow.data.GitflowPluginDataStore;
+import de.silpion.jenkins.plugins.gitflow.data.RemoteBranch;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.jenkinsci.plugins.gitclient.Git;
+import org.jenkinsci.plugins.gitclient.GitClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import hudson.EnvVars;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.plugins.git.GitException;
+import hudson.util.NullStream;
+import hudson.util.StreamTaskListener;
+
+/**
+ * Tests how the {@link GitClientProxy} operations that the Gitflow actions and the Gitflow page depend on behave when the
+ * remote repository is slow or down, using a {@link SlowGitRemote}. The Gitflow page is tested with its
+ * {@link GitflowProjectModel}, which gets the Git client of the test instead of the one of the last build.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(GitflowProjectModel.class)
+public class GitClientProxySlowRemoteTest extends AbstractGitflowPluginTest {
+
+    private static final String ORIGIN = "origin";
+    private static final String DEVELOP_REFSPEC = "refs/heads/develop:refs/heads/develop";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SlowGitRemote remote;
+    private File workspace;
+    private GitClientProxy git;
+
+    @Mock
+    private GitflowBuildWrapper.DescriptorImpl gitflowBuildWrapperDescriptor;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        when(this.gitflowBuildWrapperDescriptor.getBranchTypeClassifier()).thenReturn(new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/"));
+
+        this.remote = new SlowGitRemote(this.folder.newFolder("remote.git"));
+        this.workspace = this.folder.newFolder("workspace");
+
+        // Set up the workspace like the Git plugin does for a build.
+        final GitClient gitClient = Git.with(new StreamTaskListener(new NullStream()), new EnvVars()).in(this.workspace).using("jgit").getClient();
+        gitClient.init();
+        gitClient.setRemoteUrl(ORIGIN, this.remote.getUrl());
+        gitClient.fetch_().from(new URIish(this.remote.getUrl()), Collections.singletonList(new RefSpec("+refs/heads/*:refs/remotes/origin/*"))).execute();
+        gitClient.checkoutBranch("develop", "origin/develop");
+
+        this.git = new GitClientProxy(gitClient, new PrintStream(new NullStream()), false);
+        this.git.setGitflowActionName("Test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.remote.close();
+    }
+
+    @Test
+    public void testGetHeadRevWithLatency() throws Exception {
+        this.remote.setLatency(300L, TimeUnit.MILLISECONDS);
+
+        final long startNanos = System.nanoTime();
+        final ObjectId headRev = this.git.getHeadRev("develop");
+        final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertEquals(this.remote.getHead("develop"), headRev);
+        assertTrue("Latency not applied: " + durationMillis + " ms", durationMillis >= 300L);
+    }
+
+    @Test
+    public void testGetHeadRevWithLargeRefAdvertisementAndBandwidthCap() throws Exception {
+        this.remote.setRefAdvertisementSize(2000);
+        this.remote.setBandwidth(256L * 1024L);
+        final long bytesSentBefore = this.remote.getBytesSent();
+
+        assertEquals(this.remote.getHead("develop"), this.git.getHeadRev("develop"));
+        assertTrue(this.remote.getBytesSent() - bytesSentBefore > 2000L * 41L);
+    }
+
+    @Test(expected = GitException.class)
+    public void testGetHeadRevWhenRemoteIsDown() throws Exception {
+
+        // The Gitflow page (see GitflowProjectModel) treats this as an unknown head and keeps offering the branch.
+        this.remote.setDown(true);
+        this.git.getHeadRev("develop");
+    }
+
+    @Test
+    public void testPushWhenRemoteIsDownReleasesRemoteRefLock() throws Exception {
+        final ObjectId localHead = this.commitChange("first change");
+        this.remote.setDown(true);
+
+        try {
+            this.git.push(ORIGIN, DEVELOP_REFSPEC);
+            fail("Push to a remote that is down must fail");
+        } catch (final GitException expected) {
+            // Expected.
+        }
+
+        // Other builds must be able to push to the same ref as soon as the remote is up again.
+        assertTrue("Remote ref lock not released", this.isRemoteRefLockFree());
+        this.remote.setDown(false);
+        this.git.push(ORIGIN, DEVELOP_REFSPEC);
+        assertEquals(localHead, this.remote.getHead("develop"));
+    }
+
+    @Test
+    public void testPushVersionBumpRetriesRejectedPush() throws Exception {
+        this.commitChange("version bump");
+        final ObjectId concurrentHead = this.remote.commitConcurrently("develop");
+
+        final AtomicInteger recommits = new AtomicInteger();
+        this.git.pushVersionBump(ORIGIN, "develop", 2, new GitClientProxy.VersionBumpCommit() {
+
+            /** {@inheritDoc} */
+            public void recommit() throws IOException, InterruptedException {
+                recommits.incrementAndGet();
+                GitClientProxySlowRemoteTest.this.commitChange("version bump");
+            }
+        });
+
+        assertEquals(1, recommits.get());
+        assertEquals(this.git.revParse("HEAD"), this.remote.getHead("develop"));
+        assertEquals(concurrentHead, this.git.revParse("HEAD~1"));
+        assertTrue("Remote ref lock not released", this.isRemoteRefLockFree());
+    }
+
+    @Test
+    public void testPushVersionBumpDoesNotRetryFailedConnection() throws Exception {
+        final ObjectId remoteHead = this.remote.getHead("develop");
+        this.commitChange("version bump");
+        this.remote.failNextRequests(1);
+
+        try {
+            this.git.pushVersionBump(ORIGIN, "develop", 2, new GitClientProxy.VersionBumpCommit() {
+
+                /** {@inheritDoc} */
+                public void recommit() {
+                    fail("Only pushes that were rejected as non-fast-forward may be retried");
+                }
+            });
+            fail("Push through a failing connection must fail");
+        } catch (final GitException expected) {
+            // Expected.
+        }
+
+        assertEquals(remoteHead, this.remote.getHead("develop"));
+        assertTrue("Remote ref lock not released", this.isRemoteRefLockFree());
+    }
+
+    @Test
+    public void testIsNonFastForwardRejection() throws Exception {
+        assertTrue(GitClientProxy.isNonFastForwardRejection(new GitException("Command \"git push\" returned status code 1:\nstderr: To git://localhost/remote.git\n"
+                                                                             + " ! [rejected]        develop -> develop (fetch first)\n")));
+        assertTrue(GitClientProxy.isNonFastForwardRejection(new GitException(" ! [rejected]        develop -> develop (non-fast-forward)")));
+        assertTrue(GitClientProxy.isNonFastForwardRejection(new GitException("push failed", new GitException("null REJECTED_NONFASTFORWARD"))));
+        assertFalse(GitClientProxy.isNonFastForwardRejection(new GitException("Connection refused")));
+        assertFalse(GitClientProxy.isNonFastForwardRejection(new GitException(" ! [remote rejected] develop -> develop (pre-receive hook declined)")));
+    }
+
+    @Test
+    public void testPushVersionBumpWhenRemoteIsDown() throws Exception {
+        this.commitChange("version bump");
+        this.remote.setDown(true);
+
+        try {
+            this.git.pushVersionBump(ORIGIN, "develop", 2, new GitClientProxy.VersionBumpCommit() {
+
+                /** {@inheritDoc} */
+                public void recommit() {
+                    fail("The version bump can't be recreated without fetching the remote branch");
+                }
+            });
+            fail("Push to a remote that is down must fail");
+        } catch (final GitException expected) {
+            // Expected.
+        }
+
+        assertTrue("Remote ref lock not released", this.isRemoteRefLockFree());
+    }
+
+    @Test
+    public void testPrunePrefetchedBranches() throws Exception {
+        this.git.prefetchBranches(ORIGIN, Arrays.asList("develop", "master"));
+        assertEquals(this.remote.getHead("develop"), this.resolveInWorkspace("refs/gitflow-prefetch/origin/develop"));
+        assertEquals(this.remote.getHead("master"), this.resolveInWorkspace("refs/gitflow-prefetch/origin/master"));
+
+        this.git.prunePrefetchedBranches();
+        assertNull(this.resolveInWorkspace("refs/gitflow-prefetch/origin/develop"));
+        assertNull(this.resolveInWorkspace("refs/gitflow-prefetch/origin/master"));
+        assertEquals(this.remote.getHead("develop"), this.resolveInWorkspace("refs/remotes/origin/develop"));
+    }
+
+    @Test
+    public void testGitflowProjectModelWhenRemoteIsDown() throws Exception {
+        final AbstractProject<?, ?> job = mock(AbstractProject.class);
+        doReturn(mock(AbstractBuild.class)).when(job).getLastBuild();
+        whenNew(GitClientProxy.class).withAnyArguments().thenReturn(this.git);
+
+        final RemoteBranch developBranch = new RemoteBranch("develop");
+        developBranch.setLastBuildResult(Result.SUCCESS);
+        developBranch.setLastBuildVersion("1.2-SNAPSHOT");
+        final RemoteBranch releaseBranch = new RemoteBranch("release/1.1");
+        releaseBranch.setLastBuildResult(Result.SUCCESS);
+        releaseBranch.setLastBuildVersion("1.1.3-SNAPSHOT");
+        GitflowPluginDataStore.getInstance().initialise(job, Arrays.asList(developBranch, releaseBranch));
+        this.remote.setDown(true);
+
+        // The Gitflow page keeps offering the recorded branches - only their heads are unknown.
+        final GitflowProjectModel model = new GitflowProjectModel(job, true);
+        assertNotNull(model.getDevelopBranch());
+        assertNotNull(model.getStartReleaseCause());
+        assertNotNull(model.getReleaseBranch("1.1"));
+        assertNull(model.getHeadRev("develop"));
+        assertNull(model.getHeadRev("release/1.1"));
+    }
+
+    @Override
+    protected GitflowBuildWrapper.DescriptorImpl getGitflowBuildWrapperDescriptor() {
+        return this.gitflowBuildWrapperDescriptor;
+    }
+
+    private ObjectId resolveInWorkspace(final String revision) throws IOException {
+        final Repository repository = new FileRepositoryBuilder().setWorkTree(this.workspace).build();
+        try {
+            return repository.resolve(revision);
+        } finally {
+            repository.close();
+        }
+    }
+
+    private ObjectId commitChange(final String content) throws Exception {
+        FileUtils.writeStringToFile(new File(this.workspace, "version.txt"), content + " " + System.nanoTime() + "\n", "UTF-8");
+        this.git.add("version.txt");
+        this.git.commit(content);
+        return this.git.revParse("HEAD");
+    }
+
+    // The remote ref locks are reentrant, so they must be checked from another thread.
+    private boolean isRemoteRefLockFree() throws Exception {
+        final Lock remoteRefLock = RemoteRefLocks.getInstance().getLock(this.remote.getUrl(), DEVELOP_REFSPEC);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(new Callable<Boolean>() {
+
+                /** {@inheritDoc} */
+                public Boolean call() {
+                    if (remoteRefLock.tryLock()) {
+                        remoteRefLock.unlock();
+                        return true;
+                    }
+                    return false;
+                }
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
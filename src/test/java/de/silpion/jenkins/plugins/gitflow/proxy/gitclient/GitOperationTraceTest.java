@@ -0,0 +1,94 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the anonymisation and the file format of the {@link GitOperationTrace}.
+ */
+public class GitOperationTraceTest {
+
+    private static final String COMMIT_ID = "0123456789abcdef0123456789abcdef01234567";
+
+    @Test
+    public void testAnonymiseKeepsGitflowBranchTypesAndVersions() throws Exception {
+        final GitOperationTrace trace = new GitOperationTrace("jgit");
+
+        assertEquals("release/1.2", trace.anonymise("release/1.2"));
+        assertEquals("origin/develop", trace.anonymise("origin/develop"));
+        assertEquals("refs/heads/hotfix/1.2.1:refs/heads/hotfix/1.2.1", trace.anonymise("refs/heads/hotfix/1.2.1:refs/heads/hotfix/1.2.1"));
+        assertEquals("+refs/tags/1.2.0-SNAPSHOT", trace.anonymise("+refs/tags/1.2.0-SNAPSHOT"));
+        assertEquals("NO_FF", trace.anonymise("NO_FF"));
+        assertEquals("true", trace.anonymise("true"));
+    }
+
+    @Test
+    public void testAnonymiseReplacesNamesAndCommitIdsConsistently() throws Exception {
+        final GitOperationTrace trace = new GitOperationTrace("jgit");
+
+        assertEquals("feature/x1", trace.anonymise("feature/GF-4711-secret-customer"));
+        assertEquals("x2/x3", trace.anonymise("acme/pom.xml"));
+        assertEquals("c1", trace.anonymise(COMMIT_ID));
+        assertEquals("c1~1", trace.anonymise(COMMIT_ID + "~1"));
+        assertEquals("origin/feature/x1", trace.anonymise("origin/feature/GF-4711-secret-customer"));
+    }
+
+    @Test
+    public void testRecordAttachesRefSetToOperationInProgress() throws Exception {
+        final GitOperationTrace trace = new GitOperationTrace("cli");
+
+        trace.recordRefSet(Arrays.asList("refs/heads/master", "refs/heads/develop", "refs/heads/feature/GF-1"));
+        trace.record("getHeadRev develop", 1000L, 2000L);
+        trace.record("checkoutBranch feature/GF-1 origin/feature/GF-1", 3000L, 5000L);
+
+        final List<GitOperationTrace.Operation> operations = trace.getOperations();
+        assertEquals(2, operations.size());
+        assertEquals(3, operations.get(0).getRefCount());
+        assertEquals(-1, operations.get(1).getRefCount());
+        assertEquals(3, trace.getRefCount());
+        assertEquals(Arrays.asList("feature/x1", "origin/feature/x1"), operations.get(1).getArguments());
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final GitOperationTrace trace = new GitOperationTrace("jgit");
+        trace.setCommitCount(4711);
+        trace.recordRefSet(Arrays.asList("refs/heads/master", "refs/heads/develop"));
+        trace.record("getHeadRev release/1.2", 0L, 1520000L);
+        trace.record("merge " + COMMIT_ID + " NO_FF RECURSIVE THEIRS true", 2000000L, 27113000L);
+        trace.record("commit", 28000000L, 29000000L);
+
+        final StringWriter writer = new StringWriter();
+        trace.write(writer);
+        assertTrue(writer.toString(), writer.toString().startsWith("# gitflow-git-trace 1\n# implementation jgit\n# commits 4711\n# refs 2\n"));
+
+        final GitOperationTrace readTrace = GitOperationTrace.read(new StringReader(writer.toString()));
+        assertEquals("jgit", readTrace.getImplementation());
+        assertEquals(4711, readTrace.getCommitCount());
+        assertEquals(2, readTrace.getRefCount());
+
+        final List<GitOperationTrace.Operation> operations = readTrace.getOperations();
+        assertEquals(3, operations.size());
+        assertEquals("getHeadRev", operations.get(0).getName());
+        assertEquals(1520L, operations.get(0).getDurationMicros());
+        assertEquals(2, operations.get(0).getRefCount());
+        assertEquals(Arrays.asList("c1", "NO_FF", "RECURSIVE", "THEIRS", "true"), operations.get(1).getArguments());
+        assertEquals(25113L, operations.get(1).getDurationMicros());
+        assertEquals("commit", operations.get(2).getName());
+        assertTrue(operations.get(2).getArguments().isEmpty());
+        assertEquals(28000.0, operations.get(2).getOffsetMicros() - operations.get(0).getOffsetMicros(), 1.0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUnknownFormat() throws Exception {
+        GitOperationTrace.read(new StringReader("# gitflow-git-trace 2\n"));
+    }
+}
@@ -0,0 +1,29 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link RemoteRefLocks} class.
+ */
+public class RemoteRefLocksTest {
+
+    private static final String REMOTE_URL = "git@example.com:product/module.git";
+
+    @Test
+    public void testGetTargetRef() throws Exception {
+        assertEquals("refs/heads/develop", RemoteRefLocks.getTargetRef("refs/heads/develop:refs/heads/develop"));
+        assertEquals("refs/heads/master", RemoteRefLocks.getTargetRef("+refs/heads/release/1.0:refs/heads/master"));
+        assertEquals("refs/heads/hotfix/1.0", RemoteRefLocks.getTargetRef(":refs/heads/hotfix/1.0"));
+        assertEquals("refs/tags/1.0.0", RemoteRefLocks.getTargetRef("+refs/tags/1.0.0"));
+    }
+
+    @Test
+    public void testSameLockForSameRemoteRef() throws Exception {
+        final RemoteRefLocks remoteRefLocks = new RemoteRefLocks(16);
+        assertSame(remoteRefLocks.getLock(REMOTE_URL, "refs/heads/develop:refs/heads/develop"),
+                   remoteRefLocks.getLock(REMOTE_URL, "refs/heads/local-develop:refs/heads/develop"));
+    }
+}
@@ -0,0 +1,367 @@
+package de.silpion.jenkins.plugins.gitflow.proxy.gitclient;
+
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.Daemon;
+import org.eclipse.jgit.transport.DaemonClient;
+import org.eclipse.jgit.transport.resolver.RepositoryResolver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local Git remote that behaves like a slow or unreliable Git server, for testing how the Gitflow actions cope with
+ * production remotes. The remote serves a bare repository with a {@code master} and a {@code develop} branch over the
+ * Git protocol ({@code git://}), so both the command line Git and JGit can fetch from and push to it.
+ * <p>
+ * The repository is served by a JGit {@link Daemon}, and the clients connect through a TCP proxy in front of it. Each
+ * Git request (ls-remote, fetch, push) is a connection to the proxy, which
+ * <ul>
+ * <li>delays the request by the configured latency,</li>
+ * <li>caps the bandwidth in both directions,</li>
+ * <li>fails the configured number of next requests by closing the connection, or all requests while it's down, and</li>
+ * <li>counts the requests and the bytes sent to the clients.</li>
+ * </ul>
+ * The size of the ref advertisement can be increased with additional branches.
+ */
+final class SlowGitRemote implements Closeable {
+
+    private static final String REPOSITORY_NAME = "remote.git";
+
+    private static final PersonIdent AUTHOR = new PersonIdent("Gitflow Test", "test@example.com", new Date(1500000000000L),
+                                                              TimeZone.getTimeZone("UTC"));
+
+    private final Repository repository;
+    private final Daemon daemon;
+    private final ServerSocket proxySocket;
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool();
+
+    private volatile long latencyMillis;
+    private volatile long bytesPerSecond;
+    private volatile boolean down;
+    private final AtomicInteger requestsToFail = new AtomicInteger();
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Creates the bare repository in the given directory and starts serving it.
+     *
+     * @param gitDir the directory for the bare repository.
+     * @throws IOException if the repository cannot be created or the servers cannot be started.
+     */
+    SlowGitRemote(final File gitDir) throws IOException {
+        this.repository = new FileRepositoryBuilder().setGitDir(gitDir).setBare().build();
+        this.repository.create(true);
+        this.createInitialCommit();
+
+        final InetAddress loopbackAddress = InetAddress.getByName("localhost");
+        this.daemon = new Daemon(new InetSocketAddress(loopbackAddress, 0));
+        this.daemon.getService("git-receive-pack").setEnabled(true);
+        this.daemon.setRepositoryResolver(new RepositoryResolver<DaemonClient>() {
+
+            /** {@inheritDoc} */
+            public Repository open(final DaemonClient client, final String name) throws RepositoryNotFoundException {
+                if (!name.endsWith(REPOSITORY_NAME)) {
+                    throw new RepositoryNotFoundException(name);
+                }
+
+                // The daemon closes the repository after each request.
+                SlowGitRemote.this.repository.incrementOpen();
+                return SlowGitRemote.this.repository;
+            }
+        });
+        this.daemon.start();
+
+        this.proxySocket = new ServerSocket(0, 50, loopbackAddress);
+        this.connectionExecutor.execute(new Runnable() {
+
+            /** {@inheritDoc} */
+            public void run() {
+                SlowGitRemote.this.acceptConnections();
+            }
+        });
+    }
+
+    private void createInitialCommit() throws IOException {
+        final ObjectInserter inserter = this.repository.newObjectInserter();
+        try {
+            final TreeFormatter tree = new TreeFormatter();
+            tree.append("README.txt", FileMode.REGULAR_FILE, inserter.insert(Constants.OBJ_BLOB, Constants.encode("Gitflow test repository\n")));
+
+            final CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(inserter.insert(tree));
+            commit.setAuthor(AUTHOR);
+            commit.setCommitter(AUTHOR);
+            commit.setMessage("Initial commit\n");
+            final ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+
+            this.updateRef(Constants.R_HEADS + "master", commitId);
+            this.updateRef(Constants.R_HEADS + "develop", commitId);
+        } finally {
+            inserter.release();
+        }
+    }
+
+    /**
+     * Adds a commit to the given branch on the remote, like a concurrent push of another client.
+     *
+     * @param branch the simple name of the branch.
+     * @return the new head of the branch.
+     * @throws IOException if the commit cannot be created.
+     */
+    ObjectId commitConcurrently(final String branch) throws IOException {
+        final ObjectId head = this.getHead(branch);
+        final ObjectInserter inserter = this.repository.newObjectInserter();
+        try {
+            final TreeFormatter tree = new TreeFormatter();
+            tree.append("CONCURRENT.txt", FileMode.REGULAR_FILE, inserter.insert(Constants.OBJ_BLOB, Constants.encode("Concurrent change " + head.name() + "\n")));
+
+            final CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(inserter.insert(tree));
+            commit.setParentId(head);
+            commit.setAuthor(AUTHOR);
+            commit.setCommitter(AUTHOR);
+            commit.setMessage("Concurrent change\n");
+            final ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+
+            this.updateRef(Constants.R_HEADS + branch, commitId);
+            return commitId;
+        } finally {
+            inserter.release();
+        }
+    }
+
+    private void updateRef(final String refName, final ObjectId objectId) throws IOException {
+        final RefUpdate refUpdate = this.repository.updateRef(refName);
+        refUpdate.setNewObjectId(objectId);
+        final RefUpdate.Result result = refUpdate.forceUpdate();
+        if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED && result != RefUpdate.Result.NO_CHANGE) {
+            throw new IOException("Cannot update " + refName + ": " + result);
+        }
+    }
+
+    /**
+     * Returns the URL that the clients use to access the remote.
+     *
+     * @return the URL that the clients use to access the remote.
+     */
+    String getUrl() {
+        return "git://localhost:" + this.proxySocket.getLocalPort() + "/" + REPOSITORY_NAME;
+    }
+
+    /**
+     * Returns the head of the given branch on the remote.
+     *
+     * @param branch the simple name of the branch.
+     * @return the head of the given branch or {@code null} if there's no such branch.
+     * @throws IOException if the ref cannot be read.
+     */
+    ObjectId getHead(final String branch) throws IOException {
+        return this.repository.resolve(Constants.R_HEADS + branch);
+    }
+
+    /**
+     * Sets the latency that is added to each request.
+     *
+     * @param latency the latency.
+     * @param unit the unit of the latency.
+     */
+    void setLatency(final long latency, final TimeUnit unit) {
+        this.latencyMillis = unit.toMillis(latency);
+    }
+
+    /**
+     * Caps the bandwidth of each request, in both directions.
+     *
+     * @param bytesPerSecond the maximum bytes per second - {@code 0} for no cap.
+     */
+    void setBandwidth(final long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Takes the remote down or up again. While it's down, all requests fail.
+     *
+     * @param down denotes if the remote is down.
+     */
+    void setDown(final boolean down) {
+        this.down = down;
+    }
+
+    /**
+     * Fails the given number of next requests.
+     *
+     * @param count the number of next requests to fail.
+     */
+    void failNextRequests(final int count) {
+        this.requestsToFail.set(count);
+    }
+
+    /**
+     * Adds branches to the remote, so that the ref advertisement contains at least the given number of refs.
+     *
+     * @param refCount the number of refs to be advertised.
+     * @throws IOException if the branches cannot be created.
+     */
+    void setRefAdvertisementSize(final int refCount) throws IOException {
+        final ObjectId head = this.getHead("master");
+        for (int i = this.repository.getAllRefs().size(); i < refCount; i++) {
+            this.updateRef(Constants.R_HEADS + "feature/advertised-" + i, head);
+        }
+    }
+
+    int getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    /** {@inheritDoc} */
+    public void close() throws IOException {
+        this.proxySocket.close();
+        this.connectionExecutor.shutdownNow();
+        this.daemon.stop();
+        this.repository.close();
+    }
+
+    private void acceptConnections() {
+        while (!this.proxySocket.isClosed()) {
+            final Socket clientSocket;
+            try {
+                clientSocket = this.proxySocket.accept();
+            } catch (final IOException ignored) {
+                // The proxy has been closed.
+                return;
+            }
+            this.connectionExecutor.execute(new Runnable() {
+
+                /** {@inheritDoc} */
+                public void run() {
+                    SlowGitRemote.this.handleConnection(clientSocket);
+                }
+            });
+        }
+    }
+
+    private void handleConnection(final Socket clientSocket) {
+        this.requestCount.incrementAndGet();
+        try {
+            if (this.down || this.failRequest()) {
+                return;
+            }
+            Thread.sleep(this.latencyMillis);
+
+            final Socket daemonSocket = new Socket(this.daemon.getAddress().getAddress(), this.daemon.getAddress().getPort());
+            try {
+                this.connectionExecutor.execute(new Pump(clientSocket.getInputStream(), daemonSocket.getOutputStream(), null, daemonSocket));
+                new Pump(daemonSocket.getInputStream(), clientSocket.getOutputStream(), this.bytesSent, clientSocket).run();
+            } finally {
+                daemonSocket.close();
+            }
+        } catch (final IOException ignored) {
+            // The client or the daemon closed the connection.
+        } catch (final InterruptedException ignored) {
+            // The remote is being closed.
+        } finally {
+            try {
+                clientSocket.close();
+            } catch (final IOException ignored) {
+                // Nothing left to do.
+            }
+        }
+    }
+
+    private boolean failRequest() {
+        for (int count = this.requestsToFail.get(); count > 0; count = this.requestsToFail.get()) {
+            if (this.requestsToFail.compareAndSet(count, count - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the data of one direction of a connection with the configured bandwidth and shuts down the output when the
+     * input is exhausted.
+     */
+    private final class Pump implements Runnable {
+
+        private final InputStream input;
+        private final OutputStream output;
+        private final AtomicLong byteCounter;
+        private final Socket outputSocket;
+
+        private Pump(final InputStream input, final OutputStream output, final AtomicLong byteCounter, final Socket outputSocket) {
+            this.input = input;
+            this.output = output;
+            this.byteCounter = byteCounter;
+            this.outputSocket = outputSocket;
+        }
+
+        /** {@inheritDoc} */
+        public void run() {
+            final byte[] buffer = new byte[8192];
+            try {
+                for (int count; (count = this.input.read(buffer, 0, this.getChunkSize(buffer.length))) != -1; ) {
+                    final long startNanos = System.nanoTime();
+                    this.output.write(buffer, 0, count);
+                    this.output.flush();
+                    if (this.byteCounter != null) {
+                        this.byteCounter.addAndGet(count);
+                    }
+                    this.throttle(count, startNanos);
+                }
+                this.outputSocket.shutdownOutput();
+            } catch (final IOException ignored) {
+                // One of the sides closed the connection.
+            } catch (final InterruptedException ignored) {
+                // The remote is being closed.
+            }
+        }
+
+        private int getChunkSize(final int bufferSize) {
+            final long bandwidth = SlowGitRemote.this.bytesPerSecond;
+
+            // Send at least ten chunks per second, so that the cap is applied smoothly.
+            return bandwidth <= 0L ? bufferSize : (int) Math.max(1L, Math.min(bufferSize, bandwidth / 10L));
+        }
+
+        private void throttle(final int count, final long startNanos) throws InterruptedException {
+            final long bandwidth = SlowGitRemote.this.bytesPerSecond;
+            if (bandwidth > 0L) {
+                final long remainingNanos = TimeUnit.SECONDS.toNanos(count) / bandwidth - (System.nanoTime() - startNanos);
+                if (remainingNanos > 0L) {
+                    TimeUnit.NANOSECONDS.sleep(remainingNanos);
+                }
+            }
+        }
+    }
+}
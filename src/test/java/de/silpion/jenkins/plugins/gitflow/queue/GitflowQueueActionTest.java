@@ -0,0 +1,91 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.cause.AbstractGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestReleaseCause;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Test;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Action;
+import hudson.model.CauseAction;
+import hudson.model.Result;
+import hudson.plugins.git.Revision;
+import hudson.plugins.git.util.Build;
+import hudson.plugins.git.util.BuildData;
+
+/**
+ * Unit tests for the {@link GitflowQueueAction} class.
+ */
+public class GitflowQueueActionTest {
+
+    private static final ObjectId HEAD_REV = ObjectId.fromString("0123456789012345678901234567890123456789");
+
+    @Test
+    public void testShouldScheduleDifferentSubmissions() throws Exception {
+        final GitflowQueueAction queuedAction = new GitflowQueueAction(createCause("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT"), HEAD_REV);
+
+        // Other versions, another remote head and builds without Gitflow actions must be scheduled separately.
+        assertTrue(queuedAction.shouldSchedule(Arrays.<Action>asList(new GitflowQueueAction(createCause("TestReleaseCause: release/1.0 1.0.2 1.0.3-SNAPSHOT"), HEAD_REV))));
+        assertTrue(queuedAction.shouldSchedule(Arrays.<Action>asList(new GitflowQueueAction(createCause("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT"), null))));
+        assertTrue(queuedAction.shouldSchedule(Collections.<Action>singletonList(mock(CauseAction.class))));
+    }
+
+    @Test
+    public void testShouldNotScheduleIdenticalSubmission() throws Exception {
+        final GitflowQueueAction queuedAction = new GitflowQueueAction(createCause("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT"), HEAD_REV);
+        assertFalse(queuedAction.shouldSchedule(Arrays.<Action>asList(mock(CauseAction.class),
+                                                                      new GitflowQueueAction(createCause("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT"), HEAD_REV))));
+    }
+
+    @Test
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void testForSubmissionUsesRecordedHeadOfBaseBranch() throws Exception {
+        final ObjectId developHeadRev = ObjectId.fromString("1111111111111111111111111111111111111111");
+        final Map<String, Build> buildsByBranchName = new HashMap<String, Build>();
+        buildsByBranchName.put("origin/develop", new Build(new Revision(developHeadRev), 3, Result.SUCCESS));
+        buildsByBranchName.put("origin/release/1.0", new Build(new Revision(HEAD_REV), 4, Result.SUCCESS));
+        final BuildData buildData = mock(BuildData.class);
+        when(buildData.getBuildsByBranchName()).thenReturn(buildsByBranchName);
+        final AbstractBuild lastBuild = mock(AbstractBuild.class);
+        when(lastBuild.getActions(BuildData.class)).thenReturn(Collections.singletonList(buildData));
+        final AbstractProject job = mock(AbstractProject.class);
+        when(job.getLastBuild()).thenReturn(lastBuild);
+        final BranchTypeClassifier classifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+        final StartReleaseCause startReleaseCause = mock(StartReleaseCause.class);
+        when(startReleaseCause.getIdentity()).thenReturn("StartReleaseCause: 1.1 1.1.1-SNAPSHOT 1.2-SNAPSHOT");
+        assertEquals("StartReleaseCause: 1.1 1.1.1-SNAPSHOT 1.2-SNAPSHOT @ " + developHeadRev.name(),
+                     GitflowQueueAction.forSubmission(job, startReleaseCause, classifier).getIdentity());
+
+        final TestReleaseCause testReleaseCause = (TestReleaseCause) createCause("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT");
+        when(testReleaseCause.getReleaseBranch()).thenReturn("release/1.0");
+        assertEquals("TestReleaseCause: release/1.0 1.0.1 1.0.2-SNAPSHOT @ " + HEAD_REV.name(),
+                     GitflowQueueAction.forSubmission(job, testReleaseCause, classifier).getIdentity());
+
+        // The master branch hasn't been recorded, so its head is unknown.
+        final StartHotfixCause startHotfixCause = mock(StartHotfixCause.class);
+        when(startHotfixCause.getIdentity()).thenReturn("StartHotfixCause: 1.0.1-SNAPSHOT");
+        assertEquals("StartHotfixCause: 1.0.1-SNAPSHOT @ unknown", GitflowQueueAction.forSubmission(job, startHotfixCause, classifier).getIdentity());
+    }
+
+    private static AbstractGitflowCause createCause(final String identity) {
+        final TestReleaseCause cause = mock(TestReleaseCause.class);
+        when(cause.getIdentity()).thenReturn(identity);
+        return cause;
+    }
+}
@@ -0,0 +1,50 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import de.silpion.jenkins.plugins.gitflow.BranchTypeClassifier;
+import de.silpion.jenkins.plugins.gitflow.cause.FinishReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.NoGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartHotfixCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GitflowQueueListener} class.
+ */
+public class GitflowQueueListenerTest {
+
+    private final BranchTypeClassifier branchTypeClassifier = new BranchTypeClassifier("master", "develop", "release/", "hotfix/", "feature/");
+
+    @Test
+    public void testGetPrefetchBranchesForStartActions() throws Exception {
+        assertEquals(Collections.singleton("develop"), GitflowQueueListener.getPrefetchBranches(mock(StartReleaseCause.class), this.branchTypeClassifier));
+        assertEquals(Collections.singleton("master"), GitflowQueueListener.getPrefetchBranches(mock(StartHotfixCause.class), this.branchTypeClassifier));
+    }
+
+    @Test
+    public void testGetPrefetchBranchesForBranchActions() throws Exception {
+        final FinishReleaseCause finishReleaseCause = mock(FinishReleaseCause.class);
+        when(finishReleaseCause.getReleaseBranch()).thenReturn("release/1.0");
+        assertEquals(new TreeSet<String>(Arrays.asList("develop", "master", "release/1.0")),
+                     GitflowQueueListener.getPrefetchBranches(finishReleaseCause, this.branchTypeClassifier));
+
+        final TestHotfixCause testHotfixCause = mock(TestHotfixCause.class);
+        when(testHotfixCause.getHotfixBranch()).thenReturn("hotfix/1.0");
+        assertEquals(new TreeSet<String>(Arrays.asList("develop", "hotfix/1.0", "master")),
+                     GitflowQueueListener.getPrefetchBranches(testHotfixCause, this.branchTypeClassifier));
+    }
+
+    @Test
+    public void testGetPrefetchBranchesWithoutGitflowAction() throws Exception {
+        assertTrue(GitflowQueueListener.getPrefetchBranches(mock(NoGitflowCause.class), this.branchTypeClassifier).isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package de.silpion.jenkins.plugins.gitflow.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.silpion.jenkins.plugins.gitflow.AbstractGitflowPluginTest;
+import de.silpion.jenkins.plugins.gitflow.GitflowBuildWrapper;
+import de.silpion.jenkins.plugins.gitflow.cause.NoGitflowCause;
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.cause.TestHotfixCause;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import hudson.model.Cause;
+import hudson.model.Queue;
+
+/**
+ * Unit tests for the {@link GitflowQueueSorter} class.
+ */
+@PrepareForTest(Queue.BuildableItem.class)
+@RunWith(PowerMockRunner.class)
+public class GitflowQueueSorterTest extends AbstractGitflowPluginTest {
+
+    @Mock
+    private GitflowBuildWrapper.DescriptorImpl gitflowBuildWrapperDescriptor;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        when(this.gitflowBuildWrapperDescriptor.getHotfixQueueWeight()).thenReturn(2);
+        when(this.gitflowBuildWrapperDescriptor.getReleaseQueueWeight()).thenReturn(1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GitflowBuildWrapper.DescriptorImpl getGitflowBuildWrapperDescriptor() {
+        return this.gitflowBuildWrapperDescriptor;
+    }
+
+    @Test
+    public void testSortBuildableItems() throws Exception {
+        final Queue.BuildableItem ciBuild1 = createBuildableItem(mock(Cause.UserIdCause.class));
+        final Queue.BuildableItem startRelease = createBuildableItem(mock(StartReleaseCause.class));
+        final Queue.BuildableItem ciBuild2 = createBuildableItem(mock(Cause.UserIdCause.class));
+        final Queue.BuildableItem testHotfix = createBuildableItem(mock(TestHotfixCause.class));
+        final Queue.BuildableItem noGitflow = createBuildableItem(mock(NoGitflowCause.class));
+
+        final List<Queue.BuildableItem> buildables = new ArrayList<Queue.BuildableItem>(Arrays.asList(ciBuild1, startRelease, ciBuild2, testHotfix, noGitflow));
+        new GitflowQueueSorter().sortBuildableItems(buildables);
+
+        // Hotfixes before releases before all other items, which keep their order.
+        assertEquals(Arrays.asList(testHotfix, startRelease, ciBuild1, ciBuild2, noGitflow), buildables);
+    }
+
+    @Test
+    public void testSortBuildableItemsWithConfiguredWeights() throws Exception {
+        when(this.gitflowBuildWrapperDescriptor.getHotfixQueueWeight()).thenReturn(0);
+        when(this.gitflowBuildWrapperDescriptor.getReleaseQueueWeight()).thenReturn(5);
+
+        final Queue.BuildableItem testHotfix = createBuildableItem(mock(TestHotfixCause.class));
+        final Queue.BuildableItem ciBuild = createBuildableItem(mock(Cause.UserIdCause.class));
+        final Queue.BuildableItem startRelease = createBuildableItem(mock(StartReleaseCause.class));
+
+        final List<Queue.BuildableItem> buildables = new ArrayList<Queue.BuildableItem>(Arrays.asList(testHotfix, ciBuild, startRelease));
+        new GitflowQueueSorter().sortBuildableItems(buildables);
+
+        assertEquals(Arrays.asList(startRelease, testHotfix, ciBuild), buildables);
+    }
+
+    @Test
+    public void testGetQueueCategory() throws Exception {
+        assertEquals(GitflowQueueSorter.CATEGORY_HOTFIX, GitflowQueueSorter.getQueueCategory(createBuildableItem(mock(TestHotfixCause.class))));
+        assertEquals(GitflowQueueSorter.CATEGORY_RELEASE, GitflowQueueSorter.getQueueCategory(createBuildableItem(mock(StartReleaseCause.class))));
+        assertEquals(GitflowQueueSorter.CATEGORY_DEFAULT, GitflowQueueSorter.getQueueCategory(createBuildableItem(mock(NoGitflowCause.class))));
+        assertNull(GitflowQueueSorter.getQueueCategory(createBuildableItem(mock(Cause.UserIdCause.class))));
+    }
+
+    private static Queue.BuildableItem createBuildableItem(final Cause cause) {
+        final Queue.BuildableItem buildableItem = mock(Queue.BuildableItem.class);
+        when(buildableItem.getCauses()).thenReturn(Collections.singletonList(cause));
+        return buildableItem;
+    }
+}
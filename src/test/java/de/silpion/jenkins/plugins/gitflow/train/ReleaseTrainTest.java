@@ -0,0 +1,108 @@
+package de.silpion.jenkins.plugins.gitflow.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
+import de.silpion.jenkins.plugins.gitflow.cause.StartReleaseCause;
+import de.silpion.jenkins.plugins.gitflow.queue.GitflowQueueAction;
+import org.junit.Test;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.model.queue.QueueTaskFuture;
+
+/**
+ * Unit tests for the {@link ReleaseTrain} class.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ReleaseTrainTest {
+
+    private final StartReleaseCause startReleaseCause = mock(StartReleaseCause.class);
+    private final GitflowQueueAction gitflowQueueAction = mock(GitflowQueueAction.class);
+
+    @Test
+    public void testUpdateSchedulesBoundedNumberOfBuilds() throws Exception {
+        final AbstractProject job1 = mock(AbstractProject.class);
+        final AbstractProject job2 = mock(AbstractProject.class);
+        final AbstractProject job3 = mock(AbstractProject.class);
+        final QueueTaskFuture future1 = this.createFuture(job1);
+        this.createFuture(job2);
+        this.createFuture(job3);
+
+        final ReleaseTrain releaseTrain = new ReleaseTrain(1, "Start Release for 3 jobs", 2,
+                                                           Arrays.asList(this.createEntry(job1), this.createEntry(job2), this.createEntry(job3)));
+
+        // Only the first two builds may be scheduled.
+        assertFalse(releaseTrain.update());
+        verify(job1).scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction);
+        verify(job2).scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction);
+        verify(job3, never()).scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction);
+        assertEquals(2, releaseTrain.getCount(ReleaseTrain.State.QUEUED));
+        assertEquals(1, releaseTrain.getCount(ReleaseTrain.State.PENDING));
+
+        // When the first build has finished, the third build is scheduled.
+        final AbstractBuild build1 = mock(AbstractBuild.class);
+        when(build1.getResult()).thenReturn(Result.SUCCESS);
+        when(future1.isDone()).thenReturn(true);
+        when(future1.get()).thenReturn(build1);
+        assertFalse(releaseTrain.update());
+        verify(job3).scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction);
+        assertEquals(1, releaseTrain.getCount(Result.SUCCESS));
+        assertEquals(2, releaseTrain.getCount(ReleaseTrain.State.QUEUED));
+        assertEquals(0, releaseTrain.getCount(ReleaseTrain.State.PENDING));
+
+        // Builds are scheduled only once.
+        releaseTrain.update();
+        verify(job1, times(1)).scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction);
+    }
+
+    @Test
+    public void testUpdateSkipsBuildsThatCannotBeScheduled() throws Exception {
+        final AbstractProject job1 = mock(AbstractProject.class);
+        final AbstractProject job2 = mock(AbstractProject.class);
+        final QueueTaskFuture future2 = this.createFuture(job2);
+
+        final ReleaseTrain releaseTrain = new ReleaseTrain(1, "Start Release for 2 jobs", 1, Arrays.asList(this.createEntry(job1), this.createEntry(job2)));
+
+        // The first job refuses the build, so the second build is scheduled right away.
+        assertFalse(releaseTrain.update());
+        assertEquals(1, releaseTrain.getCount(ReleaseTrain.State.NOT_SCHEDULED));
+        assertEquals(1, releaseTrain.getCount(ReleaseTrain.State.QUEUED));
+
+        // The train is finished when the second build has been started and has finished.
+        final AbstractBuild build2 = mock(AbstractBuild.class);
+        final Future startCondition = mock(Future.class);
+        when(future2.getStartCondition()).thenReturn(startCondition);
+        when(startCondition.isDone()).thenReturn(true);
+        when(startCondition.get()).thenReturn(build2);
+        assertFalse(releaseTrain.update());
+        assertEquals(1, releaseTrain.getCount(ReleaseTrain.State.RUNNING));
+
+        when(build2.getResult()).thenReturn(Result.FAILURE);
+        when(future2.isDone()).thenReturn(true);
+        when(future2.get()).thenReturn(build2);
+        assertTrue(releaseTrain.update());
+        assertEquals(1, releaseTrain.getCount(Result.FAILURE));
+    }
+
+    private ReleaseTrain.Entry createEntry(final AbstractProject job) {
+        return new ReleaseTrain.Entry(job, this.startReleaseCause, this.gitflowQueueAction);
+    }
+
+    private QueueTaskFuture createFuture(final AbstractProject job) {
+        final QueueTaskFuture future = mock(QueueTaskFuture.class);
+        when(future.getStartCondition()).thenReturn(mock(Future.class));
+        when(job.scheduleBuild2(0, this.startReleaseCause, this.gitflowQueueAction)).thenReturn(future);
+        return future;
+    }
+}